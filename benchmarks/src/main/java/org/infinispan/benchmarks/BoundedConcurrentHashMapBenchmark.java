@@ -0,0 +1,83 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.benchmarks;
+
+import org.infinispan.util.AnyEquivalence;
+import org.infinispan.util.concurrent.BoundedConcurrentHashMap;
+import org.infinispan.util.concurrent.BoundedConcurrentHashMap.Eviction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of the {@link BoundedConcurrentHashMap} eviction policies on reads, which record accesses, and on
+ * writes, which evict since twice as many keys as the map can hold are accessed.
+ *
+ * @since 5.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BoundedConcurrentHashMapBenchmark {
+
+   @Param({"LRU", "LIRS", "TINY_LFU"})
+   public String eviction;
+
+   @Param({"10000"})
+   public int capacity;
+
+   @Param({"32"})
+   public int concurrencyLevel;
+
+   private BoundedConcurrentHashMap<Integer, Integer> map;
+   private Integer[] keys;
+
+   @Setup
+   public void setUp() {
+      map = new BoundedConcurrentHashMap<Integer, Integer>(capacity, concurrencyLevel, Eviction.valueOf(eviction),
+            AnyEquivalence.INT, AnyEquivalence.INT);
+      keys = new Integer[2 * capacity];
+      for (int i = 0; i < keys.length; i++) {
+         keys[i] = i;
+         map.put(keys[i], i);
+      }
+   }
+
+   @Benchmark
+   public Integer get(KeySequence sequence) {
+      return map.get(sequence.next(keys));
+   }
+
+   @Benchmark
+   public Integer put(KeySequence sequence) {
+      Integer key = sequence.next(keys);
+      return map.put(key, key);
+   }
+}
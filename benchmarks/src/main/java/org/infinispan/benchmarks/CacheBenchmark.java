@@ -0,0 +1,131 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.benchmarks;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.remoting.transport.jgroups.JGroupsTransport;
+import org.infinispan.statetransfer.StateTransferManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Cache#get(Object)} and {@link Cache#put(Object, Object)} through the whole interceptor chain.
+ * <p/>
+ * Clustered caches run {@link #NUM_NODES} nodes in the benchmark JVM, connected through the in-JVM JGroups stack of
+ * <tt>jgroups-benchmarks.xml</tt>, and are invoked on the first node.
+ *
+ * @since 5.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CacheBenchmark {
+
+   static final int NUM_NODES = 3;
+   static final String JGROUPS_CONFIGURATION = "jgroups-benchmarks.xml";
+
+   @Param({"LOCAL", "REPL_SYNC", "DIST_SYNC"})
+   public String cacheMode;
+
+   @Param({"1000"})
+   public int numKeys;
+
+   private EmbeddedCacheManager[] cacheManagers;
+   private Cache<String, String> cache;
+   private String[] keys;
+
+   @Setup
+   public void setUp() throws Exception {
+      CacheMode mode = CacheMode.valueOf(cacheMode);
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.clustering().cacheMode(mode);
+      if (mode.isDistributed())
+         builder.clustering().hash().numOwners(2);
+
+      cacheManagers = new EmbeddedCacheManager[mode.isClustered() ? NUM_NODES : 1];
+      for (int i = 0; i < cacheManagers.length; i++) {
+         GlobalConfigurationBuilder global = mode.isClustered() ?
+               GlobalConfigurationBuilder.defaultClusteredBuilder() : new GlobalConfigurationBuilder();
+         if (mode.isClustered())
+            global.transport().clusterName("benchmarks")
+                  .addProperty(JGroupsTransport.CONFIGURATION_FILE, JGROUPS_CONFIGURATION);
+         global.globalJmxStatistics().allowDuplicateDomains(true);
+         cacheManagers[i] = new DefaultCacheManager(global.build(), builder.build());
+      }
+      for (EmbeddedCacheManager cacheManager : cacheManagers)
+         cacheManager.getCache();
+      if (mode.isClustered())
+         waitForJoinComplete();
+
+      cache = cacheManagers[0].getCache();
+      keys = new String[numKeys];
+      for (int i = 0; i < numKeys; i++) {
+         keys[i] = "key" + i;
+         cache.put(keys[i], "value" + i);
+      }
+   }
+
+   private void waitForJoinComplete() throws InterruptedException {
+      long deadline = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1);
+      for (EmbeddedCacheManager cacheManager : cacheManagers) {
+         StateTransferManager stateTransferManager = cacheManager.getCache().getAdvancedCache()
+               .getComponentRegistry().getStateTransferManager();
+         while (cacheManager.getMembers().size() != cacheManagers.length || !stateTransferManager.isJoinComplete()
+               || stateTransferManager.isStateTransferInProgress()) {
+            if (System.currentTimeMillis() > deadline)
+               throw new IllegalStateException("Timed out waiting for " + cacheManager.getAddress() + " to join");
+            Thread.sleep(100);
+         }
+      }
+   }
+
+   @TearDown
+   public void tearDown() {
+      for (int i = cacheManagers.length - 1; i >= 0; i--)
+         cacheManagers[i].stop();
+   }
+
+   @Benchmark
+   public String get(KeySequence sequence) {
+      return cache.get(sequence.next(keys));
+   }
+
+   @Benchmark
+   public String put(KeySequence sequence) {
+      return cache.put(sequence.next(keys), "value");
+   }
+}
@@ -0,0 +1,97 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.benchmarks;
+
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.DefaultDataContainer;
+import org.infinispan.container.InternalEntryFactoryImpl;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.eviction.EvictionStrategy;
+import org.infinispan.eviction.EvictionThreadPolicy;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.util.AnyEquivalence;
+import org.infinispan.util.DefaultTimeService;
+import org.infinispan.util.TimeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link DefaultDataContainer} reads and writes, unbounded or bounded with each eviction strategy. Twice as
+ * many keys as the bounded containers can hold are accessed, so that writes evict entries.
+ *
+ * @since 5.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DataContainerBenchmark {
+
+   @Param({"NONE", "LRU", "LIRS", "TINY_LFU"})
+   public String evictionStrategy;
+
+   @Param({"10000"})
+   public int maxEntries;
+
+   private DataContainer dataContainer;
+   private Metadata metadata;
+   private String[] keys;
+
+   @Setup
+   public void setUp() {
+      EvictionStrategy strategy = EvictionStrategy.valueOf(evictionStrategy);
+      dataContainer = strategy == EvictionStrategy.NONE ?
+            DefaultDataContainer.unBoundedDataContainer(32) :
+            DefaultDataContainer.boundedDataContainer(32, maxEntries, strategy, EvictionThreadPolicy.DEFAULT,
+                  AnyEquivalence.getInstance(), AnyEquivalence.<InternalCacheEntry>getInstance());
+      TimeService timeService = new DefaultTimeService();
+      InternalEntryFactoryImpl entryFactory = new InternalEntryFactoryImpl();
+      entryFactory.injectTimeService(timeService);
+      ((DefaultDataContainer) dataContainer).initialize(null, null, entryFactory, null, null, timeService);
+
+      metadata = new EmbeddedMetadata.Builder().build();
+      keys = new String[2 * maxEntries];
+      for (int i = 0; i < keys.length; i++) {
+         keys[i] = "key" + i;
+         dataContainer.put(keys[i], "value" + i, metadata);
+      }
+   }
+
+   @Benchmark
+   public InternalCacheEntry get(KeySequence sequence) {
+      return dataContainer.get(sequence.next(keys));
+   }
+
+   @Benchmark
+   public void put(KeySequence sequence) {
+      dataContainer.put(sequence.next(keys), "value", metadata);
+   }
+}
@@ -0,0 +1,114 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.benchmarks;
+
+import org.infinispan.util.concurrent.locks.containers.LockContainer;
+import org.infinispan.util.concurrent.locks.containers.LockWordStripedLockContainer;
+import org.infinispan.util.concurrent.locks.containers.OwnableReentrantPerEntryLockContainer;
+import org.infinispan.util.concurrent.locks.containers.OwnableReentrantStripedLockContainer;
+import org.infinispan.util.concurrent.locks.containers.ReentrantPerEntryLockContainer;
+import org.infinispan.util.concurrent.locks.containers.ReentrantStripedLockContainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures lock acquisition and release with every {@link LockContainer}, on keys private to each thread
+ * (uncontended) and on a handful of keys shared by all threads (contended).
+ *
+ * @since 5.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(Threads.MAX)
+public class LockContainerBenchmark {
+
+   static final int CONTENDED_KEYS = 4;
+   static final int KEYS_PER_THREAD = 1000;
+
+   @Param({"ReentrantStriped", "OwnableReentrantStriped", "ReentrantPerEntry", "OwnableReentrantPerEntry",
+         "LockWordStriped"})
+   public String lockContainer;
+
+   @Param({"32"})
+   public int concurrencyLevel;
+
+   private LockContainer<?> container;
+   private String[] sharedKeys;
+
+   @Setup
+   public void setUp() {
+      if ("ReentrantStriped".equals(lockContainer))
+         container = new ReentrantStripedLockContainer(concurrencyLevel);
+      else if ("OwnableReentrantStriped".equals(lockContainer))
+         container = new OwnableReentrantStripedLockContainer(concurrencyLevel);
+      else if ("ReentrantPerEntry".equals(lockContainer))
+         container = new ReentrantPerEntryLockContainer(concurrencyLevel);
+      else if ("OwnableReentrantPerEntry".equals(lockContainer))
+         container = new OwnableReentrantPerEntryLockContainer(concurrencyLevel);
+      else if ("LockWordStriped".equals(lockContainer))
+         container = new LockWordStripedLockContainer(concurrencyLevel);
+      else
+         throw new IllegalArgumentException("Unknown lock container " + lockContainer);
+
+      sharedKeys = new String[CONTENDED_KEYS];
+      for (int i = 0; i < sharedKeys.length; i++)
+         sharedKeys[i] = "key" + i;
+   }
+
+   @State(Scope.Thread)
+   public static class ThreadKeys {
+      final Object owner = new Object();
+      final String[] keys = new String[KEYS_PER_THREAD];
+
+      public ThreadKeys() {
+         for (int i = 0; i < keys.length; i++)
+            keys[i] = System.identityHashCode(owner) + "-key" + i;
+      }
+   }
+
+   @Benchmark
+   public void uncontended(ThreadKeys threadKeys, KeySequence sequence) throws InterruptedException {
+      lockAndUnlock(threadKeys.owner, sequence.next(threadKeys.keys));
+   }
+
+   @Benchmark
+   public void contended(ThreadKeys threadKeys, KeySequence sequence) throws InterruptedException {
+      lockAndUnlock(threadKeys.owner, sequence.next(sharedKeys));
+   }
+
+   private void lockAndUnlock(Object owner, String key) throws InterruptedException {
+      if (container.acquireLock(owner, key, 10, TimeUnit.SECONDS) == null)
+         throw new IllegalStateException("Timed out locking " + key);
+      container.releaseLock(owner, key);
+   }
+}
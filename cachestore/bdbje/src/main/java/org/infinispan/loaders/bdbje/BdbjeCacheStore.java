@@ -42,6 +42,8 @@
 import org.infinispan.loaders.CacheLoaderConfig;
 import org.infinispan.loaders.CacheLoaderException;
 import org.infinispan.loaders.CacheLoaderMetadata;
+import org.infinispan.loaders.EntryHandler;
+import org.infinispan.loaders.KeyFilter;
 import org.infinispan.loaders.bdbje.logging.Log;
 import org.infinispan.loaders.modifications.Modification;
 import org.infinispan.marshall.StreamingMarshaller;
@@ -496,6 +498,23 @@ public Set<Object> loadAllKeys(Set<Object> keysToExclude) throws CacheLoaderExce
       }
    }
 
+   /**
+    * {@inheritDoc} This implementation walks {@link StoredMap#entrySet()} with a single cursor, skipping expired
+    * entries.
+    */
+   @Override
+   public void loadEntries(KeyFilter filter, EntryHandler handler) throws CacheLoaderException {
+      try {
+         long now = timeService.wallClockTime();
+         for (Map.Entry<Object, InternalCacheEntry> entry : cacheMap.entrySet()) {
+            InternalCacheEntry ice = entry.getValue();
+            if (!ice.isExpired(now) && filter.accept(entry.getKey())) handler.handle(ice);
+         }
+      } catch (RuntimeException caught) {
+         throw convertToCacheLoaderException("error loading all entries", caught);
+      }
+   }
+
    /**
     * {@inheritDoc} This implementation reads the number of entries to load from the stream, then begins a transaction.
     * During that transaction, the cachestore is cleared and replaced with entries from the stream.  If there are any
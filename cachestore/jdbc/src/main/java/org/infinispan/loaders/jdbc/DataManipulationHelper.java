@@ -35,6 +35,8 @@
 
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.loaders.CacheLoaderException;
+import org.infinispan.loaders.EntryHandler;
+import org.infinispan.loaders.KeyFilter;
 import org.infinispan.loaders.jdbc.connectionfactory.ConnectionFactory;
 import org.infinispan.marshall.StreamingMarshaller;
 import org.infinispan.loaders.jdbc.logging.Log;
@@ -201,6 +203,39 @@ public final Set<InternalCacheEntry> loadAllSupport(boolean filterExpired) throw
       }
    }
 
+   /**
+    * Streams the rows to {@link #loadEntriesProcess(java.sql.ResultSet, KeyFilter, EntryHandler)} one at a time, so
+    * that only the matching entries are handed over and nothing is accumulated in memory.
+    */
+   public final void loadEntriesSupport(boolean filterExpired, KeyFilter filter, EntryHandler handler) throws CacheLoaderException {
+      Connection conn = null;
+      PreparedStatement ps = null;
+      ResultSet rs = null;
+      try {
+         String sql = filterExpired ? tableManipulation.getLoadNonExpiredAllRowsSql() : tableManipulation.getLoadAllRowsSql();
+         if (log.isTraceEnabled()) {
+            log.tracef("Running sql %s", sql);
+         }
+         conn = connectionFactory.getConnection();
+         ps = conn.prepareStatement(sql);
+         if (filterExpired) {
+            ps.setLong(1, timeService.wallClockTime());
+         }
+         rs = ps.executeQuery();
+         rs.setFetchSize(tableManipulation.getFetchSize());
+         while (rs.next()) {
+            loadEntriesProcess(rs, filter, handler);
+         }
+      } catch (SQLException e) {
+         log.sqlFailureFetchingAllStoredEntries(e);
+         throw new CacheLoaderException("SQL error while fetching all StoredEntries", e);
+      } finally {
+         JdbcUtil.safeClose(rs);
+         JdbcUtil.safeClose(ps);
+         connectionFactory.releaseConnection(conn);
+      }
+   }
+
    public Set<Object> loadAllKeysSupport(Set<Object> keysToExclude) throws CacheLoaderException {
       Connection conn = null;
       PreparedStatement ps = null;
@@ -273,6 +308,21 @@ protected boolean includeKey(Object key, Set<Object> keysToExclude) {
 
    protected abstract void loadAllProcess(ResultSet rs, Set<InternalCacheEntry> result, int maxEntries) throws SQLException, CacheLoaderException;
 
+   /**
+    * Handles a single row for {@link #loadEntriesSupport(boolean, KeyFilter, EntryHandler)}. The default implementation
+    * relies on {@link #loadAllProcess(java.sql.ResultSet, java.util.Set)}; override it if the key can be checked
+    * before the value is unmarshalled.
+    */
+   protected void loadEntriesProcess(ResultSet rs, KeyFilter filter, EntryHandler handler) throws SQLException, CacheLoaderException {
+      Set<InternalCacheEntry> rowEntries = new HashSet<InternalCacheEntry>();
+      loadAllProcess(rs, rowEntries);
+      for (InternalCacheEntry ice : rowEntries) {
+         if (filter.accept(ice.getKey())) {
+            handler.handle(ice);
+         }
+      }
+   }
+
    protected abstract void loadAllKeysProcess(ResultSet rs, Set<Object> keys, Set<Object> keysToExclude) throws SQLException, CacheLoaderException;
 
    protected abstract void toStreamProcess(ResultSet rs, InputStream is, ObjectOutput objectOutput) throws CacheLoaderException, SQLException, IOException;
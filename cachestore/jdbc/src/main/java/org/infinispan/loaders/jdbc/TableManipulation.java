@@ -81,6 +81,8 @@ public class TableManipulation implements Cloneable {
    private String selectExpiredRowsSql;
    private String deleteExpiredRowsSql;
    private String loadSomeRowsSql;
+   private String upsertRowSql;
+   private boolean upsertRowSqlResolved;
    public DatabaseType databaseType;
    private String loadAllKeysBinarySql;
    private String loadAllKeysStringSql;
@@ -286,6 +288,63 @@ public String getUpdateRowSql() {
       return updateRowSql;
    }
 
+   /**
+    * Returns a statement that inserts a row, or updates it if a row with the same id already exists, taking the same
+    * parameters as {@link #getInsertRowSql()}. This allows stores to be batched without first checking which rows
+    * exist.
+    *
+    * @return the upsert statement, or null if the database type has no single statement upsert
+    */
+   public String getUpsertRowSql() {
+      if (!upsertRowSqlResolved) {
+         switch (getDatabaseType()) {
+            case MYSQL:
+               upsertRowSql = getInsertRowSql() + " ON DUPLICATE KEY UPDATE " + dataColumnName + " = VALUES(" + dataColumnName + "), " +
+                     timestampColumnName + " = VALUES(" + timestampColumnName + ")";
+               break;
+            case H2:
+               upsertRowSql = "MERGE INTO " + getTableName() + " (" + dataColumnName + ", " + timestampColumnName + ", " + idColumnName + ") KEY(" + idColumnName + ") VALUES(?,?,?)";
+               break;
+            case SQLITE:
+               upsertRowSql = "INSERT OR REPLACE INTO " + getTableName() + " (" + dataColumnName + ", " + timestampColumnName + ", " + idColumnName + ") VALUES(?,?,?)";
+               break;
+            default:
+               upsertRowSql = null;
+               break;
+         }
+         upsertRowSqlResolved = true;
+      }
+      return upsertRowSql;
+   }
+
+   /**
+    * @return a query selecting the id column of the rows whose id is one of <tt>idCount</tt> parameters
+    */
+   public String getSelectMultipleIdRowSql(int idCount) {
+      return "SELECT " + idColumnName + " FROM " + getTableName() + " WHERE " + idColumnName + " IN (" + getIdParameters(idCount) + ")";
+   }
+
+   private String getIdParameters(int idCount) {
+      String parameter;
+      switch (getDatabaseType()) {
+         case SYBASE:
+            parameter = "convert(" + idColumnType + ",?)";
+            break;
+         case POSTGRES:
+            parameter = "cast(? as " + idColumnType + ")";
+            break;
+         default:
+            parameter = "?";
+            break;
+      }
+      StringBuilder parameters = new StringBuilder(idCount * (parameter.length() + 2));
+      for (int i = 0; i < idCount; i++) {
+         if (i > 0) parameters.append(", ");
+         parameters.append(parameter);
+      }
+      return parameters.toString();
+   }
+
    public String getSelectRowSql() {
       if (selectRowSql == null) {
          switch(getDatabaseType()) {
@@ -439,7 +498,8 @@ public void setFetchSize(int fetchSize) {
 
    /**
     * When doing repetitive DB inserts (e.g. on {@link org.infinispan.loaders.CacheStore#fromStream(java.io.ObjectInput)}
-    * this will be batched according to this parameter. This is an optional parameter, and if it is not specified it
+    * or when applying the modifications of a transaction or of an asynchronous store flush) this will be batched
+    * according to this parameter. It also bounds the number of keys looked up by a single multi-key query. This is an optional parameter, and if it is not specified it
     * will be defaulted to {@link #DEFAULT_BATCH_SIZE}.
     */
    public int getBatchSize() {
@@ -28,6 +28,8 @@
 import org.infinispan.loaders.CacheLoaderConfig;
 import org.infinispan.loaders.CacheLoaderException;
 import org.infinispan.loaders.CacheLoaderMetadata;
+import org.infinispan.loaders.EntryHandler;
+import org.infinispan.loaders.KeyFilter;
 import org.infinispan.loaders.bucket.Bucket;
 import org.infinispan.loaders.bucket.BucketBasedCacheStore;
 import org.infinispan.loaders.jdbc.DataManipulationHelper;
@@ -312,6 +314,12 @@ protected Set<InternalCacheEntry> loadLockSafe(int maxEntries) throws CacheLoade
       return dmHelper.loadSome(maxEntries);
    }
 
+   @Override
+   protected void loadEntriesLockSafe(KeyFilter filter, EntryHandler handler) throws CacheLoaderException {
+      // buckets are rows, so the bucket timestamp cannot be used to filter expired entries in SQL
+      dmHelper.loadEntriesSupport(false, filter, handler);
+   }
+
    @Override
    protected void loopOverBuckets(BucketHandler handler) throws CacheLoaderException {
       // this is a no-op.
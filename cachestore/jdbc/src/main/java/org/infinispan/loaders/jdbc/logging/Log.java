@@ -158,4 +158,8 @@ public interface Log extends org.infinispan.util.logging.Log {
    @Message(value = "SQL error while fetching stored entry with key: %s, lockingKey: %s", id = 8027)
    void sqlFailureReadingKey(Object key, String lockingKey, @Cause SQLException e);
 
+   @LogMessage(level = ERROR)
+   @Message(value = "Error while applying a batch of %d modifications to the database", id = 8028)
+   void sqlFailureApplyingModifications(int modificationCount, @Cause SQLException e);
+
 }
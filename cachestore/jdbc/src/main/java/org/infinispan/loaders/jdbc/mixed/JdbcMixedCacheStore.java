@@ -29,6 +29,8 @@
 import org.infinispan.loaders.CacheLoaderException;
 import org.infinispan.loaders.CacheLoaderMetadata;
 import org.infinispan.loaders.CacheStore;
+import org.infinispan.loaders.EntryHandler;
+import org.infinispan.loaders.KeyFilter;
 import org.infinispan.loaders.jdbc.binary.JdbcBinaryCacheStore;
 import org.infinispan.loaders.jdbc.connectionfactory.ConnectionFactory;
 import org.infinispan.loaders.jdbc.connectionfactory.ConnectionFactoryConfig;
@@ -168,6 +170,12 @@ public Set<Object> loadAllKeys(Set<Object> keysToExclude) throws CacheLoaderExce
       return fromBuckets;
    }
 
+   @Override
+   public void loadEntries(KeyFilter filter, EntryHandler handler) throws CacheLoaderException {
+      binaryCacheStore.loadEntries(filter, handler);
+      stringBasedCacheStore.loadEntries(filter, handler);
+   }
+
    @Override
    public void store(InternalCacheEntry ed) throws CacheLoaderException {
       getCacheStore(ed.getKey()).store(ed);
@@ -29,6 +29,8 @@
 import org.infinispan.loaders.CacheLoaderConfig;
 import org.infinispan.loaders.CacheLoaderException;
 import org.infinispan.loaders.CacheLoaderMetadata;
+import org.infinispan.loaders.EntryHandler;
+import org.infinispan.loaders.KeyFilter;
 import org.infinispan.loaders.LockSupportCacheStore;
 import org.infinispan.loaders.jdbc.DataManipulationHelper;
 import org.infinispan.loaders.jdbc.JdbcUtil;
@@ -38,6 +40,9 @@
 import org.infinispan.loaders.keymappers.Key2StringMapper;
 import org.infinispan.loaders.keymappers.TwoWayKey2StringMapper;
 import org.infinispan.loaders.keymappers.UnsupportedKeyTypeException;
+import org.infinispan.loaders.modifications.Modification;
+import org.infinispan.loaders.modifications.Remove;
+import org.infinispan.loaders.modifications.Store;
 import org.infinispan.marshall.StreamingMarshaller;
 import org.infinispan.util.logging.LogFactory;
 
@@ -49,6 +54,12 @@
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -151,6 +162,18 @@ public void loadAllProcess(ResultSet rs, Set<InternalCacheEntry> result, int max
             loadAllProcess(rs, result);
          }
 
+         @Override
+         protected void loadEntriesProcess(ResultSet rs, KeyFilter filter, EntryHandler handler) throws SQLException, CacheLoaderException {
+            // the key is only a string column: check it before unmarshalling the value
+            String keyStr = rs.getString(2);
+            Object key = ((TwoWayKey2StringMapper) key2StringMapper).getKeyMapping(keyStr);
+            if (filter.accept(key)) {
+               InputStream inputStream = rs.getBinaryStream(1);
+               InternalCacheValue icv = (InternalCacheValue) JdbcUtil.unmarshall(getMarshaller(), inputStream);
+               handler.handle(icv.toInternalCacheEntry(key));
+            }
+         }
+
          @Override
          public void loadAllKeysProcess(ResultSet rs, Set<Object> keys, Set<Object> keysToExclude) throws SQLException, CacheLoaderException {
             String keyStr = rs.getString(1);
@@ -286,6 +309,197 @@ public boolean removeLockSafe(Object key, String keyStr) throws CacheLoaderExcep
       }
    }
 
+   /**
+    * Applies the modifications of a one phase prepare or a commit, as issued for instance by an {@link
+    * org.infinispan.loaders.decorators.AsyncStore} flush, using batched statements rather than a round-trip per
+    * modification. Only the last modification of each key is applied. Stores are batched as upserts when the database
+    * supports them, otherwise the existing rows are looked up with a multi-key query and batched updates and inserts are
+    * issued.
+    */
+   @Override
+   protected void applyModifications(List<? extends Modification> mods) throws CacheLoaderException {
+      // anything before the last clear is wiped out by it
+      for (int i = mods.size() - 1; i >= 0; i--) {
+         if (mods.get(i).getType() == Modification.Type.CLEAR) {
+            clear();
+            mods = mods.subList(i + 1, mods.size());
+            break;
+         }
+      }
+      Map<String, Modification> latest = new LinkedHashMap<String, Modification>();
+      for (Modification mod : mods) {
+         switch (mod.getType()) {
+            case STORE:
+               latest.put(getLockFromKey(((Store) mod).getStoredEntry().getKey()), mod);
+               break;
+            case REMOVE:
+               latest.put(getLockFromKey(((Remove) mod).getKey()), mod);
+               break;
+            default:
+               throw new IllegalArgumentException("Unknown modification type " + mod.getType());
+         }
+      }
+      if (latest.isEmpty()) {
+         return;
+      }
+
+      Set<String> lockingKeys = latest.keySet();
+      lockAll(lockingKeys, true);
+      try {
+         applyModificationsLockSafe(latest);
+      } finally {
+         unlockAll(lockingKeys, true);
+      }
+   }
+
+   private void applyModificationsLockSafe(Map<String, Modification> modifications) throws CacheLoaderException {
+      Map<String, InternalCacheEntry> stores = new LinkedHashMap<String, InternalCacheEntry>();
+      List<String> removes = new ArrayList<String>();
+      long now = timeService.wallClockTime();
+      for (Map.Entry<String, Modification> e : modifications.entrySet()) {
+         Modification mod = e.getValue();
+         if (mod.getType() == Modification.Type.STORE) {
+            InternalCacheEntry entry = ((Store) mod).getStoredEntry();
+            if (entry.canExpire() && entry.isExpired(now)) {
+               removes.add(e.getKey());
+            } else {
+               stores.put(e.getKey(), entry);
+            }
+         } else {
+            removes.add(e.getKey());
+         }
+      }
+
+      Connection connection = null;
+      try {
+         connection = connectionFactory.getConnection();
+         if (!removes.isEmpty()) {
+            executeDeleteBatch(connection, removes);
+         }
+         if (!stores.isEmpty()) {
+            String upsertSql = tableManipulation.getUpsertRowSql();
+            if (upsertSql != null) {
+               executeStoreBatch(connection, upsertSql, stores);
+            } else {
+               Set<String> existing = selectExistingIds(connection, stores.keySet());
+               Map<String, InternalCacheEntry> updates = new LinkedHashMap<String, InternalCacheEntry>();
+               for (String lockingKey : existing) {
+                  updates.put(lockingKey, stores.remove(lockingKey));
+               }
+               executeStoreBatch(connection, tableManipulation.getUpdateRowSql(), updates);
+               executeStoreBatch(connection, tableManipulation.getInsertRowSql(), stores);
+            }
+         }
+      } catch (SQLException ex) {
+         log.sqlFailureApplyingModifications(modifications.size(), ex);
+         throw new CacheLoaderException(String.format(
+               "Error while applying a batch of %d modifications to the database", modifications.size()), ex);
+      } catch (InterruptedException e) {
+         // part of the batch may have been applied already, so the caller has to know it did not complete
+         Thread.currentThread().interrupt();
+         throw new CacheLoaderException(String.format(
+               "Interrupted while applying a batch of %d modifications to the database", modifications.size()), e);
+      } finally {
+         connectionFactory.releaseConnection(connection);
+      }
+   }
+
+   private void executeStoreBatch(Connection connection, String sql, Map<String, InternalCacheEntry> entries)
+         throws SQLException, CacheLoaderException, InterruptedException {
+      if (entries.isEmpty()) {
+         return;
+      }
+      if (log.isTraceEnabled()) {
+         log.tracef("Running sql '%s' on %d entries", sql, entries.size());
+      }
+      PreparedStatement ps = null;
+      try {
+         ps = connection.prepareStatement(sql);
+         int batchSize = tableManipulation.getBatchSize();
+         int count = 0;
+         for (Map.Entry<String, InternalCacheEntry> e : entries.entrySet()) {
+            ByteBuffer byteBuffer = JdbcUtil.marshall(getMarshaller(), e.getValue().toInternalCacheValue());
+            ps.setBinaryStream(1, byteBuffer.getStream(), byteBuffer.getLength());
+            ps.setLong(2, e.getValue().getExpiryTime());
+            ps.setString(3, e.getKey());
+            ps.addBatch();
+            if (++count % batchSize == 0) {
+               ps.executeBatch();
+            }
+         }
+         if (count % batchSize != 0) {
+            ps.executeBatch();
+         }
+      } finally {
+         JdbcUtil.safeClose(ps);
+      }
+   }
+
+   private void executeDeleteBatch(Connection connection, List<String> lockingKeys) throws SQLException {
+      String sql = tableManipulation.getDeleteRowSql();
+      if (log.isTraceEnabled()) {
+         log.tracef("Running sql '%s' on %d keys", sql, lockingKeys.size());
+      }
+      PreparedStatement ps = null;
+      try {
+         ps = connection.prepareStatement(sql);
+         int batchSize = tableManipulation.getBatchSize();
+         int count = 0;
+         for (String lockingKey : lockingKeys) {
+            ps.setString(1, lockingKey);
+            ps.addBatch();
+            if (++count % batchSize == 0) {
+               ps.executeBatch();
+            }
+         }
+         if (count % batchSize != 0) {
+            ps.executeBatch();
+         }
+      } finally {
+         JdbcUtil.safeClose(ps);
+      }
+   }
+
+   private Set<String> selectExistingIds(Connection connection, Collection<String> lockingKeys) throws SQLException {
+      Set<String> existing = new HashSet<String>();
+      for (List<String> chunk : chunks(lockingKeys)) {
+         PreparedStatement ps = null;
+         ResultSet rs = null;
+         try {
+            ps = connection.prepareStatement(tableManipulation.getSelectMultipleIdRowSql(chunk.size()));
+            for (int i = 0; i < chunk.size(); i++) {
+               ps.setString(i + 1, chunk.get(i));
+            }
+            rs = ps.executeQuery();
+            while (rs.next()) {
+               existing.add(rs.getString(1));
+            }
+         } finally {
+            JdbcUtil.safeClose(rs);
+            JdbcUtil.safeClose(ps);
+         }
+      }
+      return existing;
+   }
+
+   /**
+    * Splits the keys into lists no larger than the batch size, to keep multi-key queries within the parameter limits
+    * of the database.
+    */
+   private List<List<String>> chunks(Collection<String> lockingKeys) {
+      int batchSize = tableManipulation.getBatchSize();
+      List<List<String>> chunks = new ArrayList<List<String>>(lockingKeys.size() / batchSize + 1);
+      List<String> chunk = null;
+      for (String lockingKey : lockingKeys) {
+         if (chunk == null || chunk.size() == batchSize) {
+            chunk = new ArrayList<String>(Math.min(batchSize, lockingKeys.size()));
+            chunks.add(chunk);
+         }
+         chunk.add(lockingKey);
+      }
+      return chunks;
+   }
+
    @Override
    public void fromStreamLockSafe(ObjectInput objectInput) throws CacheLoaderException {
       dmHelper.fromStreamSupport(objectInput);
@@ -316,6 +530,11 @@ protected Set<Object> loadAllKeysLockSafe(Set<Object> keysToExclude) throws Cach
       return dmHelper.loadAllKeysSupport(keysToExclude);
    }
 
+   @Override
+   protected void loadEntriesLockSafe(KeyFilter filter, EntryHandler handler) throws CacheLoaderException {
+      dmHelper.loadEntriesSupport(true, filter, handler);
+   }
+
    @Override
    public void purgeInternal() throws CacheLoaderException {
       Connection conn = null;
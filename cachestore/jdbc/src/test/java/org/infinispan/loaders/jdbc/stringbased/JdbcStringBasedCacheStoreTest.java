@@ -25,14 +25,25 @@
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
 
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
 import org.infinispan.CacheImpl;
 import org.infinispan.loaders.BaseCacheStoreTest;
 import org.infinispan.loaders.CacheLoaderException;
 import org.infinispan.loaders.CacheStore;
+import org.infinispan.loaders.jdbc.DatabaseType;
 import org.infinispan.loaders.jdbc.TableManipulation;
 import org.infinispan.loaders.jdbc.connectionfactory.ConnectionFactory;
 import org.infinispan.loaders.jdbc.connectionfactory.ConnectionFactoryConfig;
 import org.infinispan.loaders.keymappers.UnsupportedKeyTypeException;
+import org.infinispan.loaders.modifications.Modification;
+import org.infinispan.loaders.modifications.Remove;
+import org.infinispan.loaders.modifications.Store;
+import org.infinispan.test.fwk.TestInternalCacheEntryFactory;
 import org.infinispan.test.fwk.UnitTestDatabaseManager;
 import org.testng.annotations.Test;
 
@@ -81,6 +92,31 @@ public void testNotCreateConnectionFactory() throws Exception {
       stringBasedCacheStore.stop();
    }
 
+   public void testBatchedModificationsWithoutUpsert() throws CacheLoaderException {
+      TableManipulation tm = ((JdbcStringBasedCacheStore) cs).getTableManipulation();
+      DatabaseType databaseType = tm.databaseType;
+      // the derby dialect has no single statement upsert, so existing rows are looked up first
+      tm.databaseType = DatabaseType.DERBY;
+      try {
+         assert tm.getUpsertRowSql() == null;
+         cs.store(TestInternalCacheEntryFactory.create("k1", "v1"));
+         cs.store(TestInternalCacheEntryFactory.create("k2", "v2"));
+
+         List<Modification> mods = new ArrayList<Modification>();
+         mods.add(new Store(TestInternalCacheEntryFactory.create("k1", "v1-updated")));
+         mods.add(new Store(TestInternalCacheEntryFactory.create("k3", "v3")));
+         mods.add(new Remove("k2"));
+         mods.add(new Store(TestInternalCacheEntryFactory.create("k3", "v3-updated")));
+         cs.prepare(mods, gtf.newGlobalTransaction(null, false), true);
+
+         assertEquals("v1-updated", cs.load("k1").getValue());
+         assertNull(cs.load("k2"));
+         assertEquals("v3-updated", cs.load("k3").getValue());
+      } finally {
+         tm.databaseType = databaseType;
+      }
+   }
+
    @Override
    @Test(expectedExceptions = UnsupportedKeyTypeException.class)
    public void testLoadAndStoreMarshalledValues() throws CacheLoaderException {
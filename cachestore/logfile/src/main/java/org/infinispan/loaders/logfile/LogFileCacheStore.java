@@ -0,0 +1,715 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.loaders.logfile;
+
+import org.infinispan.Cache;
+import org.infinispan.config.ConfigurationException;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.entries.InternalCacheValue;
+import org.infinispan.loaders.AbstractCacheStore;
+import org.infinispan.loaders.CacheLoaderConfig;
+import org.infinispan.loaders.CacheLoaderException;
+import org.infinispan.loaders.CacheLoaderMetadata;
+import org.infinispan.loaders.EntryHandler;
+import org.infinispan.loaders.KeyFilter;
+import org.infinispan.marshall.StreamingMarshaller;
+import org.infinispan.util.CollectionFactory;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link org.infinispan.loaders.CacheStore} which never rewrites data in place: every store and remove is appended
+ * to the current log file, and an in-memory index maps each key to the position of its latest record. Reads are
+ * positional {@link FileChannel} reads of exactly one record, so neither writes nor reads depend on how many other
+ * keys happen to share a hash, as is the case with the bucket files of the
+ * {@link org.infinispan.loaders.file.FileCacheStore}.
+ * <p/>
+ * The store writes into <tt>/{location}/{cache name}/{file id}.log</tt>. Once the current log file reaches
+ * {@link LogFileCacheStoreConfig#getMaxLogFileSize()} a new one is started. Every record superseded by a later store
+ * or remove is accounted as obsolete in its file; when the obsolete ratio of a file exceeds
+ * {@link LogFileCacheStoreConfig#getCompactionThreshold()} a background thread copies the live records of that file to
+ * the current log file and deletes it.
+ * <p/>
+ * Each record is made of a 16 bytes header (key length, value length or -1 for removals, expiry time), the marshalled
+ * key and the marshalled {@link InternalCacheValue}. On startup the index is rebuilt by replaying the log files in
+ * order; a partially written record at the end of a file is discarded.
+ * <p/>
+ * All the keys are held in memory, together with a small location object each: this store is not suitable for data
+ * sets whose key set does not fit in memory.
+ *
+ * @since 5.3
+ */
+@CacheLoaderMetadata(configurationClass = LogFileCacheStoreConfig.class)
+public class LogFileCacheStore extends AbstractCacheStore {
+
+   private static final Log log = LogFactory.getLog(LogFileCacheStore.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   static final int HEADER_SIZE = 16;
+   private static final int REMOVED = -1;
+   private static final String LOG_FILE_SUFFIX = ".log";
+
+   private LogFileCacheStoreConfig config;
+   private File root;
+
+   private final ConcurrentMap<Object, EntryLocation> index = CollectionFactory.makeConcurrentMap();
+   private final ConcurrentMap<Integer, LogFile> files = CollectionFactory.makeConcurrentMap();
+   private final Set<Integer> scheduledCompactions = Collections.newSetFromMap(CollectionFactory.<Integer, Boolean>makeConcurrentMap());
+
+   /**
+    * Serializes appends: held while writing a record and updating the index accordingly.
+    */
+   private final Lock writeLock = new ReentrantLock();
+   private volatile LogFile current;
+   private int nextFileId;
+
+   private ExecutorService compactor;
+   private volatile boolean stopping;
+
+   @Override
+   public Class<? extends CacheLoaderConfig> getConfigurationClass() {
+      return LogFileCacheStoreConfig.class;
+   }
+
+   @Override
+   public void init(CacheLoaderConfig config, Cache<?, ?> cache, StreamingMarshaller m) throws CacheLoaderException {
+      super.init(config, cache, m);
+      this.config = (LogFileCacheStoreConfig) config;
+   }
+
+   @Override
+   public void start() throws CacheLoaderException {
+      super.start();
+      String location = config.getLocation();
+      if (location == null || location.trim().length() == 0) {
+         location = "Infinispan-LogFileCacheStore"; // use relative path!
+      }
+      root = new File(location, cache.getName());
+      if (!root.exists() && !root.mkdirs()) {
+         throw new ConfigurationException("Directory " + root.getAbsolutePath() + " does not exist and cannot be created!");
+      }
+      if (!root.isDirectory()) {
+         throw new ConfigurationException("Cache store location [" + root + "] is not a directory!");
+      }
+
+      stopping = false;
+      final String threadName = cache.getName() + "-LogFileCacheStore-Compactor";
+      compactor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+         @Override
+         public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, threadName);
+            t.setDaemon(true);
+            return t;
+         }
+      });
+
+      writeLock.lock();
+      try {
+         recover();
+      } catch (IOException e) {
+         throw new CacheLoaderException("Unable to read the log files in " + root, e);
+      } finally {
+         writeLock.unlock();
+      }
+      for (LogFile f : files.values()) {
+         scheduleCompactionIfNeeded(f);
+      }
+   }
+
+   @Override
+   public void stop() throws CacheLoaderException {
+      stopping = true;
+      compactor.shutdown();
+      try {
+         compactor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      }
+      writeLock.lock();
+      try {
+         for (LogFile f : files.values()) {
+            f.close();
+         }
+         files.clear();
+         index.clear();
+         scheduledCompactions.clear();
+         current = null;
+      } finally {
+         writeLock.unlock();
+      }
+      super.stop();
+   }
+
+   @Override
+   public void store(InternalCacheEntry entry) throws CacheLoaderException {
+      Object key = entry.getKey();
+      long expiryTime = entry.canExpire() ? entry.getExpiryTime() : -1;
+      ByteBuffer record = encode(key, entry.toInternalCacheValue(), expiryTime);
+      writeLock.lock();
+      try {
+         EntryLocation location = append(record, expiryTime);
+         EntryLocation previous = index.put(key, location);
+         if (previous != null) markObsolete(previous);
+      } catch (IOException e) {
+         throw new CacheLoaderException("Unable to store entry with key " + key, e);
+      } finally {
+         writeLock.unlock();
+      }
+      if (trace) log.tracef("Stored entry with key %s", key);
+   }
+
+   @Override
+   public boolean remove(Object key) throws CacheLoaderException {
+      if (!index.containsKey(key)) return false;
+      ByteBuffer record = encode(key, null, -1);
+      writeLock.lock();
+      try {
+         EntryLocation previous = index.remove(key);
+         if (previous == null) return false;
+         // the removal must be logged so that replaying older log files does not bring the entry back
+         markObsolete(append(record, -1));
+         markObsolete(previous);
+         return true;
+      } catch (IOException e) {
+         throw new CacheLoaderException("Unable to remove entry with key " + key, e);
+      } finally {
+         writeLock.unlock();
+      }
+   }
+
+   @Override
+   public void clear() throws CacheLoaderException {
+      writeLock.lock();
+      try {
+         index.clear();
+         for (LogFile f : files.values()) {
+            f.delete();
+         }
+         files.clear();
+         current = newLogFile();
+      } catch (IOException e) {
+         throw new CacheLoaderException("Unable to clear the log files in " + root, e);
+      } finally {
+         writeLock.unlock();
+      }
+   }
+
+   @Override
+   public InternalCacheEntry load(Object key) throws CacheLoaderException {
+      long now = timeService.wallClockTime();
+      for (;;) {
+         EntryLocation location = index.get(key);
+         if (location == null || location.isExpired(now)) return null;
+         InternalCacheValue icv = read(location);
+         if (icv != null) return icv.isExpired(now) ? null : icv.toInternalCacheEntry(key);
+         // the file was compacted or cleared in the meantime
+         if (index.get(key) == location) return null;
+      }
+   }
+
+   @Override
+   public boolean containsKey(Object key) throws CacheLoaderException {
+      EntryLocation location = index.get(key);
+      return location != null && !location.isExpired(timeService.wallClockTime());
+   }
+
+   @Override
+   public Set<InternalCacheEntry> loadAll() throws CacheLoaderException {
+      final Set<InternalCacheEntry> result = new HashSet<InternalCacheEntry>();
+      loadEntries(KeyFilter.ACCEPT_ALL, new EntryHandler() {
+         @Override
+         public void handle(InternalCacheEntry entry) {
+            result.add(entry);
+         }
+      });
+      return result;
+   }
+
+   @Override
+   public Set<InternalCacheEntry> load(int numEntries) throws CacheLoaderException {
+      if (numEntries < 0) return loadAll();
+      Set<InternalCacheEntry> result = new HashSet<InternalCacheEntry>(numEntries);
+      for (Object key : index.keySet()) {
+         if (result.size() >= numEntries) break;
+         InternalCacheEntry entry = load(key);
+         if (entry != null) result.add(entry);
+      }
+      return result;
+   }
+
+   @Override
+   public Set<Object> loadAllKeys(Set<Object> keysToExclude) throws CacheLoaderException {
+      long now = timeService.wallClockTime();
+      Set<Object> result = new HashSet<Object>();
+      for (Map.Entry<Object, EntryLocation> e : index.entrySet()) {
+         Object key = e.getKey();
+         if (!e.getValue().isExpired(now) && (keysToExclude == null || !keysToExclude.contains(key))) {
+            result.add(key);
+         }
+      }
+      return result;
+   }
+
+   /**
+    * {@inheritDoc} This implementation filters on the in-memory index and only reads the records of the accepted keys.
+    */
+   @Override
+   public void loadEntries(KeyFilter filter, EntryHandler handler) throws CacheLoaderException {
+      long now = timeService.wallClockTime();
+      for (Map.Entry<Object, EntryLocation> e : index.entrySet()) {
+         Object key = e.getKey();
+         EntryLocation location = e.getValue();
+         if (location.isExpired(now) || !filter.accept(key)) continue;
+         InternalCacheValue icv = read(location);
+         InternalCacheEntry entry = icv != null ? (icv.isExpired(now) ? null : icv.toInternalCacheEntry(key)) : load(key);
+         if (entry != null) handler.handle(entry);
+      }
+   }
+
+   /**
+    * Writes the entries, followed by a <tt>null</tt> marker.
+    */
+   @Override
+   public void toStream(ObjectOutput outputStream) throws CacheLoaderException {
+      try {
+         for (InternalCacheEntry entry : loadAll()) {
+            getMarshaller().objectToObjectStream(entry, outputStream);
+         }
+         getMarshaller().objectToObjectStream(null, outputStream);
+      } catch (IOException e) {
+         throw new CacheLoaderException(e);
+      }
+   }
+
+   @Override
+   public void fromStream(ObjectInput inputStream) throws CacheLoaderException {
+      try {
+         while (true) {
+            InternalCacheEntry entry = (InternalCacheEntry) getMarshaller().objectFromObjectStream(inputStream);
+            if (entry == null) break;
+            store(entry);
+         }
+      } catch (IOException e) {
+         throw new CacheLoaderException(e);
+      } catch (ClassNotFoundException e) {
+         throw new CacheLoaderException(e);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      }
+   }
+
+   /**
+    * Expired entries are dropped from the index only: replaying the logs skips expired records, so nothing needs to be
+    * written.
+    */
+   @Override
+   protected void purgeInternal() throws CacheLoaderException {
+      long now = timeService.wallClockTime();
+      for (Map.Entry<Object, EntryLocation> e : index.entrySet()) {
+         EntryLocation location = e.getValue();
+         if (location.isExpired(now) && index.remove(e.getKey(), location)) {
+            markObsolete(location);
+         }
+      }
+   }
+
+   /**
+    * Rebuilds the index from the log files found under {@link #root}, oldest first.
+    */
+   private void recover() throws IOException {
+      String[] names = root.list(new FilenameFilter() {
+         @Override
+         public boolean accept(File dir, String name) {
+            return name.endsWith(LOG_FILE_SUFFIX);
+         }
+      });
+      int[] ids = new int[names.length];
+      int count = 0;
+      for (String name : names) {
+         try {
+            ids[count] = Integer.parseInt(name.substring(0, name.length() - LOG_FILE_SUFFIX.length()));
+            count++;
+         } catch (NumberFormatException e) {
+            log.debugf("Ignoring unexpected file %s in %s", name, root);
+         }
+      }
+      ids = Arrays.copyOf(ids, count);
+      Arrays.sort(ids);
+
+      long now = timeService.wallClockTime();
+      LogFile last = null;
+      for (int id : ids) {
+         last = new LogFile(id, new File(root, id + LOG_FILE_SUFFIX));
+         files.put(id, last);
+         replay(last, now);
+      }
+      nextFileId = count == 0 ? 0 : ids[count - 1] + 1;
+      current = last != null && last.writePosition < config.getMaxLogFileSize() ? last : newLogFile();
+      log.debugf("Recovered %d entries from %d log files in %s", index.size(), count, root);
+   }
+
+   private void replay(LogFile f, long now) throws IOException {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      long size = f.channel().size();
+      long position = 0;
+      while (position + HEADER_SIZE <= size) {
+         header.clear();
+         f.readFully(header, position);
+         int keyLength = header.getInt(0);
+         int valueLength = header.getInt(4);
+         long expiryTime = header.getLong(8);
+         if (keyLength <= 0 || valueLength < REMOVED) break;
+         int length = HEADER_SIZE + keyLength + Math.max(valueLength, 0);
+         if (position + length > size) break;
+
+         byte[] keyBytes = new byte[keyLength];
+         f.readFully(ByteBuffer.wrap(keyBytes), position + HEADER_SIZE);
+         Object key = unmarshall(keyBytes, 0, keyLength);
+         f.totalBytes.addAndGet(length);
+         EntryLocation previous;
+         if (valueLength == REMOVED || EntryLocation.isExpired(expiryTime, now)) {
+            previous = index.remove(key);
+            f.obsoleteBytes.addAndGet(length);
+         } else {
+            previous = index.put(key, new EntryLocation(f.id, position, length, expiryTime));
+         }
+         if (previous != null) markObsolete(previous);
+         position += length;
+      }
+      if (position < size) {
+         log.debugf("Discarding %d trailing bytes of incomplete record in %s", size - position, f.file);
+         f.channel().truncate(position);
+      }
+      f.writePosition = position;
+   }
+
+   /**
+    * Appends a record to the current log file, starting a new one if it is full. Must be called with the
+    * {@link #writeLock} held.
+    */
+   private EntryLocation append(ByteBuffer record, long expiryTime) throws IOException {
+      int length = record.remaining();
+      LogFile f = current;
+      if (f.writePosition > 0 && f.writePosition + length > config.getMaxLogFileSize()) {
+         LogFile full = f;
+         f = current = newLogFile();
+         scheduleCompactionIfNeeded(full);
+      }
+      long position = f.writePosition;
+      try {
+         f.writeFully(record, position);
+         if (config.isSyncWrites()) f.channel().force(false);
+      } catch (IOException e) {
+         // don't leave a partial record behind, it would be misread on recovery
+         try {
+            f.channel().truncate(position);
+         } catch (IOException ignored) {
+         }
+         throw e;
+      }
+      f.writePosition = position + length;
+      f.totalBytes.addAndGet(length);
+      return new EntryLocation(f.id, position, length, expiryTime);
+   }
+
+   private LogFile newLogFile() throws IOException {
+      int id = nextFileId++;
+      LogFile f = new LogFile(id, new File(root, id + LOG_FILE_SUFFIX));
+      files.put(id, f);
+      return f;
+   }
+
+   private void markObsolete(EntryLocation location) {
+      LogFile f = files.get(location.fileId);
+      if (f != null) {
+         f.obsoleteBytes.addAndGet(location.length);
+         scheduleCompactionIfNeeded(f);
+      }
+   }
+
+   private void scheduleCompactionIfNeeded(LogFile f) {
+      long total = f.totalBytes.get();
+      LogFile writing = current;
+      if (writing == null || f == writing || stopping || total == 0 || f.obsoleteBytes.get() < total * config.getCompactionThreshold()) {
+         return;
+      }
+      if (scheduledCompactions.add(f.id)) {
+         try {
+            compactor.execute(new Compaction(f));
+         } catch (RejectedExecutionException e) {
+            scheduledCompactions.remove(f.id);
+         }
+      }
+   }
+
+   /**
+    * Reads the value of a record, or returns null if its file does not exist anymore.
+    */
+   private InternalCacheValue read(EntryLocation location) throws CacheLoaderException {
+      LogFile f = files.get(location.fileId);
+      if (f == null) return null;
+      ByteBuffer record = ByteBuffer.allocate(location.length);
+      try {
+         f.readFully(record, location.offset);
+      } catch (ClosedByInterruptException e) {
+         throw new CacheLoaderException("Interrupted while reading from " + f.file, e);
+      } catch (ClosedChannelException e) {
+         return null;
+      } catch (IOException e) {
+         throw new CacheLoaderException("Unable to read from " + f.file, e);
+      }
+      int keyLength = record.getInt(0);
+      int valueLength = record.getInt(4);
+      try {
+         return (InternalCacheValue) unmarshall(record.array(), HEADER_SIZE + keyLength, valueLength);
+      } catch (IOException e) {
+         throw new CacheLoaderException("Unable to unmarshall record read from " + f.file, e);
+      }
+   }
+
+   private ByteBuffer encode(Object key, InternalCacheValue value, long expiryTime) throws CacheLoaderException {
+      try {
+         org.infinispan.io.ByteBuffer keyBytes = getMarshaller().objectToBuffer(key);
+         org.infinispan.io.ByteBuffer valueBytes = value == null ? null : getMarshaller().objectToBuffer(value);
+         int valueLength = valueBytes == null ? 0 : valueBytes.getLength();
+         ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + keyBytes.getLength() + valueLength);
+         record.putInt(keyBytes.getLength());
+         record.putInt(valueBytes == null ? REMOVED : valueLength);
+         record.putLong(expiryTime);
+         record.put(keyBytes.getBuf(), keyBytes.getOffset(), keyBytes.getLength());
+         if (valueBytes != null) record.put(valueBytes.getBuf(), valueBytes.getOffset(), valueLength);
+         record.flip();
+         return record;
+      } catch (IOException e) {
+         throw new CacheLoaderException("Unable to marshall entry with key " + key, e);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new CacheLoaderException("Interrupted while marshalling entry with key " + key, e);
+      }
+   }
+
+   private Object unmarshall(byte[] bytes, int offset, int length) throws IOException {
+      try {
+         return getMarshaller().objectFromByteBuffer(bytes, offset, length);
+      } catch (ClassNotFoundException e) {
+         throw new IOException(e);
+      }
+   }
+
+   private boolean hasOlderFile(int fileId) {
+      for (Integer id : files.keySet()) {
+         if (id < fileId) return true;
+      }
+      return false;
+   }
+
+   /**
+    * Copies the live records of a log file to the current log file, then deletes it.
+    */
+   private class Compaction implements Runnable {
+      private final LogFile f;
+
+      Compaction(LogFile f) {
+         this.f = f;
+      }
+
+      @Override
+      public void run() {
+         try {
+            compact();
+         } catch (ClosedChannelException e) {
+            // the file was deleted by a clear()
+         } catch (Exception e) {
+            log.errorf(e, "Failed to compact %s", f.file);
+         } finally {
+            scheduledCompactions.remove(f.id);
+         }
+      }
+
+      private void compact() throws IOException {
+         long size = f.channel().size();
+         long position = 0;
+         int moved = 0;
+         ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+         while (position + HEADER_SIZE <= size) {
+            if (stopping) return;
+            header.clear();
+            f.readFully(header, position);
+            int keyLength = header.getInt(0);
+            int length = HEADER_SIZE + keyLength + Math.max(header.getInt(4), 0);
+            byte[] record = new byte[length];
+            f.readFully(ByteBuffer.wrap(record), position);
+            Object key = unmarshall(record, HEADER_SIZE, keyLength);
+
+            writeLock.lock();
+            try {
+               if (files.get(f.id) != f) return;
+               EntryLocation live = index.get(key);
+               if (live != null && live.fileId == f.id && live.offset == position) {
+                  if (live.isExpired(timeService.wallClockTime())) {
+                     index.remove(key, live);
+                     live = null;
+                  } else {
+                     EntryLocation location = append(ByteBuffer.wrap(record), live.expiryTime);
+                     // purgeInternal() doesn't take the write lock
+                     if (index.replace(key, live, location)) {
+                        moved++;
+                     } else {
+                        markObsolete(location);
+                     }
+                  }
+               }
+               if (live == null && hasOlderFile(f.id)) {
+                  // keep the removal as long as an older file may still hold a value for this key
+                  ByteBuffer removal = ByteBuffer.allocate(HEADER_SIZE + keyLength);
+                  removal.putInt(keyLength).putInt(REMOVED).putLong(-1).put(record, HEADER_SIZE, keyLength).flip();
+                  markObsolete(append(removal, -1));
+               }
+            } finally {
+               writeLock.unlock();
+            }
+            position += length;
+         }
+
+         writeLock.lock();
+         try {
+            if (files.remove(f.id, f)) f.delete();
+         } finally {
+            writeLock.unlock();
+         }
+         log.debugf("Compacted %s, %d live entries moved", f.file, moved);
+      }
+   }
+
+   static final class EntryLocation {
+      final int fileId;
+      final long offset;
+      final int length;
+      final long expiryTime;
+
+      EntryLocation(int fileId, long offset, int length, long expiryTime) {
+         this.fileId = fileId;
+         this.offset = offset;
+         this.length = length;
+         this.expiryTime = expiryTime;
+      }
+
+      boolean isExpired(long now) {
+         return isExpired(expiryTime, now);
+      }
+
+      static boolean isExpired(long expiryTime, long now) {
+         return expiryTime > -1 && now > expiryTime;
+      }
+   }
+
+   /**
+    * A log file with its usage statistics. The channel is reopened if it gets closed because a thread using it was
+    * interrupted, unless the file was deleted.
+    */
+   private static final class LogFile {
+      final int id;
+      final File file;
+      final AtomicLong totalBytes = new AtomicLong();
+      final AtomicLong obsoleteBytes = new AtomicLong();
+      // only accessed with the writeLock held
+      long writePosition;
+      private FileChannel channel;
+      private boolean deleted;
+
+      LogFile(int id, File file) throws IOException {
+         this.id = id;
+         this.file = file;
+         this.channel = new RandomAccessFile(file, "rw").getChannel();
+      }
+
+      synchronized FileChannel channel() throws IOException {
+         if (deleted) throw new ClosedChannelException();
+         if (!channel.isOpen()) channel = new RandomAccessFile(file, "rw").getChannel();
+         return channel;
+      }
+
+      void readFully(ByteBuffer buffer, long position) throws IOException {
+         for (;;) {
+            FileChannel ch = channel();
+            try {
+               while (buffer.hasRemaining()) {
+                  int read = ch.read(buffer, position + buffer.position());
+                  if (read < 0) throw new IOException("Unexpected end of " + file);
+               }
+               return;
+            } catch (ClosedByInterruptException e) {
+               throw e;
+            } catch (ClosedChannelException e) {
+               // closed under our feet by another, interrupted, thread: channel() throws if it was deleted instead
+            }
+         }
+      }
+
+      void writeFully(ByteBuffer buffer, long position) throws IOException {
+         FileChannel ch = channel();
+         while (buffer.hasRemaining()) {
+            ch.write(buffer, position + buffer.position());
+         }
+      }
+
+      synchronized void close() {
+         try {
+            channel.close();
+         } catch (IOException e) {
+            log.debugf(e, "Error closing %s", file);
+         }
+      }
+
+      synchronized void delete() {
+         deleted = true;
+         close();
+         if (!file.delete()) log.debugf("Unable to delete %s", file);
+      }
+   }
+}
@@ -0,0 +1,108 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.loaders.logfile;
+
+import org.infinispan.loaders.AbstractCacheStoreConfig;
+
+/**
+ * Configures {@link LogFileCacheStore}.
+ * <p/>
+ * <ul>
+ * <li><tt>location</tt> - a location on disk where the store writes its log files. A sub-directory named after the
+ * cache is created under it. Defaults to <tt>Infinispan-LogFileCacheStore</tt> in the current working directory.</li>
+ * <li><tt>maxLogFileSize</tt> - the size, in bytes, after which the store stops appending to a log file and starts a
+ * new one. Defaults to 16MB.</li>
+ * <li><tt>compactionThreshold</tt> - the ratio of obsolete bytes to total bytes in a log file above which the file is
+ * compacted in the background. Defaults to <tt>0.5</tt>.</li>
+ * <li><tt>syncWrites</tt> - whether every write is forced to the storage device before returning. Defaults to
+ * <tt>false</tt>.</li>
+ * </ul>
+ * <p/>
+ * Please see {@link AbstractCacheStoreConfig} for more configuration parameters.
+ *
+ * @since 5.3
+ */
+public class LogFileCacheStoreConfig extends AbstractCacheStoreConfig {
+
+   private static final long serialVersionUID = 5219271437645513817L;
+
+   /**
+    * @configRef desc="A location on disk where the store writes its log files"
+    */
+   String location = "Infinispan-LogFileCacheStore";
+
+   /**
+    * @configRef desc="The size, in bytes, after which a new log file is started"
+    */
+   long maxLogFileSize = 16 * 1024 * 1024;
+
+   /**
+    * @configRef desc="The ratio of obsolete to total bytes in a log file above which the file is compacted"
+    */
+   double compactionThreshold = 0.5;
+
+   /**
+    * @configRef desc="Whether every write is forced to the storage device before returning"
+    */
+   boolean syncWrites = false;
+
+   public LogFileCacheStoreConfig() {
+      setCacheLoaderClassName(LogFileCacheStore.class.getName());
+   }
+
+   public String getLocation() {
+      return location;
+   }
+
+   public void setLocation(String location) {
+      testImmutability("location");
+      this.location = location;
+   }
+
+   public long getMaxLogFileSize() {
+      return maxLogFileSize;
+   }
+
+   public void setMaxLogFileSize(long maxLogFileSize) {
+      testImmutability("maxLogFileSize");
+      this.maxLogFileSize = maxLogFileSize;
+   }
+
+   public double getCompactionThreshold() {
+      return compactionThreshold;
+   }
+
+   public void setCompactionThreshold(double compactionThreshold) {
+      testImmutability("compactionThreshold");
+      this.compactionThreshold = compactionThreshold;
+   }
+
+   public boolean isSyncWrites() {
+      return syncWrites;
+   }
+
+   public void setSyncWrites(boolean syncWrites) {
+      testImmutability("syncWrites");
+      this.syncWrites = syncWrites;
+   }
+}
@@ -0,0 +1,84 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.loaders.logfile.configuration;
+
+import org.infinispan.configuration.BuiltBy;
+import org.infinispan.configuration.cache.AbstractStoreConfiguration;
+import org.infinispan.configuration.cache.AsyncStoreConfiguration;
+import org.infinispan.configuration.cache.LegacyConfigurationAdaptor;
+import org.infinispan.configuration.cache.LegacyLoaderAdapter;
+import org.infinispan.configuration.cache.SingletonStoreConfiguration;
+import org.infinispan.loaders.logfile.LogFileCacheStoreConfig;
+import org.infinispan.util.TypedProperties;
+
+@BuiltBy(LogFileCacheStoreConfigurationBuilder.class)
+public class LogFileCacheStoreConfiguration extends AbstractStoreConfiguration implements
+      LegacyLoaderAdapter<LogFileCacheStoreConfig> {
+   private final String location;
+   private final long maxLogFileSize;
+   private final double compactionThreshold;
+   private final boolean syncWrites;
+
+   public LogFileCacheStoreConfiguration(String location, long maxLogFileSize, double compactionThreshold, boolean syncWrites,
+         boolean purgeOnStartup, boolean purgeSynchronously, int purgerThreads, boolean fetchPersistentState,
+         boolean ignoreModifications, TypedProperties properties, AsyncStoreConfiguration asyncStoreConfiguration,
+         SingletonStoreConfiguration singletonStoreConfiguration) {
+      super(purgeOnStartup, purgeSynchronously, purgerThreads, fetchPersistentState, ignoreModifications, properties,
+            asyncStoreConfiguration, singletonStoreConfiguration);
+      this.location = location;
+      this.maxLogFileSize = maxLogFileSize;
+      this.compactionThreshold = compactionThreshold;
+      this.syncWrites = syncWrites;
+   }
+
+   public String location() {
+      return location;
+   }
+
+   public long maxLogFileSize() {
+      return maxLogFileSize;
+   }
+
+   public double compactionThreshold() {
+      return compactionThreshold;
+   }
+
+   public boolean syncWrites() {
+      return syncWrites;
+   }
+
+   @Override
+   public LogFileCacheStoreConfig adapt() {
+      LogFileCacheStoreConfig config = new LogFileCacheStoreConfig();
+
+      LegacyConfigurationAdaptor.adapt(this, config);
+
+      config.setLocation(location);
+      config.setMaxLogFileSize(maxLogFileSize);
+      config.setCompactionThreshold(compactionThreshold);
+      config.setSyncWrites(syncWrites);
+
+      return config;
+   }
+
+}
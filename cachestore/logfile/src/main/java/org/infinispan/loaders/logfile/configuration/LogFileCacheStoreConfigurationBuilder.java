@@ -0,0 +1,121 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.loaders.logfile.configuration;
+
+import org.infinispan.config.ConfigurationException;
+import org.infinispan.configuration.cache.AbstractStoreConfigurationBuilder;
+import org.infinispan.configuration.cache.LoadersConfigurationBuilder;
+import org.infinispan.loaders.logfile.LogFileCacheStore;
+import org.infinispan.util.TypedProperties;
+
+/**
+ * LogFileCacheStoreConfigurationBuilder. Configures a {@link LogFileCacheStore}
+ *
+ * @since 5.3
+ */
+public class LogFileCacheStoreConfigurationBuilder extends
+      AbstractStoreConfigurationBuilder<LogFileCacheStoreConfiguration, LogFileCacheStoreConfigurationBuilder> {
+
+   private String location = "Infinispan-LogFileCacheStore";
+   private long maxLogFileSize = 16 * 1024 * 1024;
+   private double compactionThreshold = 0.5;
+   private boolean syncWrites = false;
+
+   public LogFileCacheStoreConfigurationBuilder(LoadersConfigurationBuilder builder) {
+      super(builder);
+   }
+
+   @Override
+   public LogFileCacheStoreConfigurationBuilder self() {
+      return this;
+   }
+
+   /**
+    * A location on disk where the store writes its log files. Defaults to "Infinispan-LogFileCacheStore"
+    */
+   public LogFileCacheStoreConfigurationBuilder location(String location) {
+      this.location = location;
+      return this;
+   }
+
+   /**
+    * The size, in bytes, after which the store stops appending to the current log file and starts a new one. Defaults
+    * to 16MB
+    */
+   public LogFileCacheStoreConfigurationBuilder maxLogFileSize(long maxLogFileSize) {
+      this.maxLogFileSize = maxLogFileSize;
+      return this;
+   }
+
+   /**
+    * The ratio of obsolete bytes (overwritten or removed entries) to total bytes in a log file above which the file is
+    * compacted in the background. Must be between 0 (excluded) and 1. Defaults to 0.5
+    */
+   public LogFileCacheStoreConfigurationBuilder compactionThreshold(double compactionThreshold) {
+      this.compactionThreshold = compactionThreshold;
+      return this;
+   }
+
+   /**
+    * Whether every write is forced to the storage device before returning. Defaults to false
+    */
+   public LogFileCacheStoreConfigurationBuilder syncWrites(boolean syncWrites) {
+      this.syncWrites = syncWrites;
+      return this;
+   }
+
+   @Override
+   public void validate() {
+      super.validate();
+      if (maxLogFileSize <= 0)
+         throw new ConfigurationException("maxLogFileSize must be greater than 0, was " + maxLogFileSize);
+      if (compactionThreshold <= 0 || compactionThreshold > 1)
+         throw new ConfigurationException("compactionThreshold must be greater than 0 and not greater than 1, was " + compactionThreshold);
+   }
+
+   @Override
+   public LogFileCacheStoreConfiguration create() {
+      return new LogFileCacheStoreConfiguration(location, maxLogFileSize, compactionThreshold, syncWrites,
+            purgeOnStartup, purgeSynchronously, purgerThreads, fetchPersistentState, ignoreModifications,
+            TypedProperties.toTypedProperties(properties), async.create(), singletonStore.create());
+   }
+
+   @Override
+   public LogFileCacheStoreConfigurationBuilder read(LogFileCacheStoreConfiguration template) {
+      this.location = template.location();
+      this.maxLogFileSize = template.maxLogFileSize();
+      this.compactionThreshold = template.compactionThreshold();
+      this.syncWrites = template.syncWrites();
+
+      // AbstractStore-specific configuration
+      fetchPersistentState = template.fetchPersistentState();
+      ignoreModifications = template.ignoreModifications();
+      properties = template.properties();
+      purgeOnStartup = template.purgeOnStartup();
+      purgeSynchronously = template.purgeSynchronously();
+      async.read(template.async());
+      singletonStore.read(template.singletonStore());
+
+      return this;
+   }
+}
@@ -0,0 +1,113 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.loaders.logfile;
+
+import java.io.File;
+
+import org.infinispan.loaders.BaseCacheStoreTest;
+import org.infinispan.loaders.CacheLoaderException;
+import org.infinispan.loaders.CacheStore;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestInternalCacheEntryFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "loaders.logfile.LogFileCacheStoreTest")
+public class LogFileCacheStoreTest extends BaseCacheStoreTest {
+
+   private String tmpDirectory;
+
+   @BeforeClass
+   protected void setUpTempDir() {
+      tmpDirectory = TestingUtil.tmpDirectory(this);
+   }
+
+   @AfterClass
+   protected void clearTempDir() {
+      TestingUtil.recursiveFileRemove(tmpDirectory);
+      new File(tmpDirectory).mkdirs();
+   }
+
+   @Override
+   protected CacheStore createCacheStore() throws CacheLoaderException {
+      clearTempDir();
+      LogFileCacheStore store = new LogFileCacheStore();
+      LogFileCacheStoreConfig cfg = new LogFileCacheStoreConfig();
+      cfg.setLocation(tmpDirectory);
+      // small files so that the tests go through log rotation and compaction
+      cfg.setMaxLogFileSize(1024);
+      cfg.setPurgeSynchronously(true); // for more accurate unit testing
+      store.init(cfg, getCache(), getMarshaller());
+      store.start();
+      return store;
+   }
+
+   public void testRecoveryAfterRestart() throws CacheLoaderException {
+      for (int i = 0; i < 100; i++) {
+         cs.store(TestInternalCacheEntryFactory.create("k" + i, "v" + i));
+      }
+      for (int i = 0; i < 100; i += 2) {
+         cs.remove("k" + i);
+      }
+      cs.store(TestInternalCacheEntryFactory.create("k1", "updated"));
+
+      cs.stop();
+      cs.start();
+
+      assert cs.loadAllKeys(null).size() == 50;
+      for (int i = 0; i < 100; i += 2) {
+         assert !cs.containsKey("k" + i) : "k" + i + " should have been removed";
+      }
+      for (int i = 3; i < 100; i += 2) {
+         assert cs.load("k" + i).getValue().equals("v" + i);
+      }
+      assert cs.load("k1").getValue().equals("updated");
+   }
+
+   public void testCompactionReclaimsObsoleteFiles() throws Exception {
+      for (int round = 0; round < 20; round++) {
+         for (int i = 0; i < 10; i++) {
+            cs.store(TestInternalCacheEntryFactory.create("k" + i, "v" + round));
+         }
+      }
+      final File dir = new File(tmpDirectory, getCache().getName());
+      // 200 records would take about 40 files, only the live ones should be left in a handful of files
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return dir.list().length < 10;
+         }
+      });
+
+      for (int i = 0; i < 10; i++) {
+         assert cs.load("k" + i).getValue().equals("v19");
+      }
+      cs.stop();
+      cs.start();
+      assert cs.loadAll().size() == 10;
+      for (int i = 0; i < 10; i++) {
+         assert cs.load("k" + i).getValue().equals("v19");
+      }
+   }
+}
@@ -324,6 +324,15 @@
 
    ServerStatistics stats();
 
+   /**
+    * Returns the statistics of the near cache of this remote cache, which are gathered locally by
+    * the client rather than fetched from the server.
+    *
+    * @return the near cache statistics, or null if the near cache is not enabled
+    * @see org.infinispan.client.hotrod.configuration.NearCacheConfigurationBuilder
+    */
+   NearCacheStatistics nearCacheStats();
+
    /**
     * Applies one or more {@link Flag}s to the scope of a single invocation.  See the {@link Flag} enumeration to for
     * information on available flags.
@@ -356,4 +365,11 @@
     * guarantee that "size" elements are returned( e.g. if the number of elements in the back-end server is smaller that "size")
     */
    Map<K, V> getBulk(int size);
+
+   /**
+    * Retrieves the values associated with the given keys. Keys are grouped by the server that owns them, so that a
+    * single request is sent to each server. Keys with no associated value are not present in the returned Map, which
+    * is unmodifiable.
+    */
+   Map<K, V> getAll(Set<? extends K> keys);
 }
@@ -103,6 +103,11 @@ public ConfigurationBuilder marshaller(String marshaller) {
       return builder.marshaller(marshaller);
    }
 
+   @Override
+   public NearCacheConfigurationBuilder nearCache() {
+      return builder.nearCache();
+   }
+
    @Override
    public ConfigurationBuilder marshaller(Class<? extends Marshaller> marshaller) {
       return builder.marshaller(marshaller);
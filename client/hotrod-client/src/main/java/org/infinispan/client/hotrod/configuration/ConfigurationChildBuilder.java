@@ -120,14 +120,19 @@ public interface ConfigurationChildBuilder {
     */
    ConfigurationBuilder marshaller(Marshaller marshaller);
 
+   /**
+    * Near cache configuration
+    */
+   NearCacheConfigurationBuilder nearCache();
+
    /**
     * If true, a ping request is sent to a back end server in order to fetch cluster's topology.
     */
    ConfigurationBuilder pingOnStartup(boolean pingOnStartup);
 
    /**
-    * This property defines the protocol version that this client should use. Defaults to 1.1. Other
-    * valid values include 1.0.
+    * This property defines the protocol version that this client should use. Defaults to 1.4. Other
+    * valid values include 1.0, 1.1, 1.2 and 1.3.
     */
    ConfigurationBuilder protocolVersion(String protocolVersion);
 
@@ -148,12 +153,14 @@ public interface ConfigurationChildBuilder {
    ConfigurationBuilder tcpNoDelay(boolean tcpNoDelay);
 
    /**
-    * Controls which transport to use. Currently only the TcpTransport is supported.
+    * Controls which transport to use. Besides the default TcpTransportFactory, the PipelinedTransportFactory
+    * multiplexes concurrent requests over a few connections per server.
     */
    ConfigurationBuilder transportFactory(String transportFactory);
 
    /**
-    * Controls which transport to use. Currently only the TcpTransport is supported.
+    * Controls which transport to use. Besides the default TcpTransportFactory, the PipelinedTransportFactory
+    * multiplexes concurrent requests over a few connections per server.
     */
    ConfigurationBuilder transportFactory(Class<? extends TransportFactory> transportFactory);
 
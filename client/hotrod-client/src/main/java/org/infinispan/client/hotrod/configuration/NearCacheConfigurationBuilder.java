@@ -0,0 +1,120 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+package org.infinispan.client.hotrod.configuration;
+
+import java.util.Properties;
+
+import org.infinispan.client.hotrod.impl.ConfigurationProperties;
+import org.infinispan.client.hotrod.impl.TypedProperties;
+import org.infinispan.client.hotrod.logging.Log;
+import org.infinispan.client.hotrod.logging.LogFactory;
+import org.infinispan.configuration.Builder;
+
+/**
+ * NearCacheConfigurationBuilder. The near cache keeps the entries read by the client in a bounded
+ * local cache, so that reading them again does not need a round trip to the server. Servers push an
+ * invalidation to the client whenever a cached key is modified, so the near cache requires version
+ * 1.4 of the Hot Rod protocol.
+ *
+ * @since 5.3
+ */
+public class NearCacheConfigurationBuilder extends AbstractConfigurationChildBuilder implements Builder<NearCacheConfiguration> {
+   private static final Log log = LogFactory.getLog(NearCacheConfigurationBuilder.class);
+   private boolean enabled = false;
+   private NearCacheEviction eviction = NearCacheEviction.LRU;
+   private int maxEntries = ConfigurationProperties.DEFAULT_NEAR_CACHE_MAX_ENTRIES;
+
+   protected NearCacheConfigurationBuilder(ConfigurationBuilder builder) {
+      super(builder);
+   }
+
+   /**
+    * Disables the near cache
+    */
+   public NearCacheConfigurationBuilder disable() {
+      this.enabled = false;
+      return this;
+   }
+
+   /**
+    * Enables the near cache
+    */
+   public NearCacheConfigurationBuilder enable() {
+      this.enabled = true;
+      return this;
+   }
+
+   /**
+    * Enables or disables the near cache
+    */
+   public NearCacheConfigurationBuilder enabled(boolean enabled) {
+      this.enabled = enabled;
+      return this;
+   }
+
+   /**
+    * Specifies the strategy used to evict entries when the near cache is full. Defaults to
+    * {@link NearCacheEviction#LRU}
+    */
+   public NearCacheConfigurationBuilder eviction(NearCacheEviction eviction) {
+      this.eviction = eviction;
+      return this;
+   }
+
+   /**
+    * Specifies the maximum number of entries held by the near cache of each remote cache. Defaults
+    * to 1024
+    */
+   public NearCacheConfigurationBuilder maxEntries(int maxEntries) {
+      this.maxEntries = maxEntries;
+      return this;
+   }
+
+   /**
+    * Configures the near cache from the <tt>infinispan.client.hotrod.near_cache.*</tt> properties
+    */
+   public NearCacheConfigurationBuilder withNearCacheProperties(Properties properties) {
+      TypedProperties typed = TypedProperties.toTypedProperties(properties);
+      enabled(typed.getBooleanProperty(ConfigurationProperties.NEAR_CACHE_ENABLED, enabled));
+      eviction(NearCacheEviction.valueOf(typed.getProperty(ConfigurationProperties.NEAR_CACHE_EVICTION, eviction.name()).toUpperCase()));
+      maxEntries(typed.getIntProperty(ConfigurationProperties.NEAR_CACHE_MAX_ENTRIES, maxEntries));
+      return this;
+   }
+
+   @Override
+   public void validate() {
+      if (enabled && maxEntries <= 0) {
+         throw log.invalidNearCacheMaxEntries(maxEntries);
+      }
+   }
+
+   @Override
+   public NearCacheConfiguration create() {
+      return new NearCacheConfiguration(enabled, eviction, maxEntries);
+   }
+
+   @Override
+   public NearCacheConfigurationBuilder read(NearCacheConfiguration template) {
+      this.enabled = template.enabled();
+      this.eviction = template.eviction();
+      this.maxEntries = template.maxEntries();
+      return this;
+   }
+
+}
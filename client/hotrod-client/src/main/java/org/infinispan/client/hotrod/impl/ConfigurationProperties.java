@@ -62,6 +62,9 @@ public class ConfigurationProperties {
    public static final String KEY_STORE_PASSWORD = "infinispan.client.hotrod.key_store_password";
    public static final String TRUST_STORE_FILE_NAME = "infinispan.client.hotrod.trust_store_file_name";
    public static final String TRUST_STORE_PASSWORD = "infinispan.client.hotrod.trust_store_password";
+   public static final String NEAR_CACHE_ENABLED = "infinispan.client.hotrod.near_cache.enabled";
+   public static final String NEAR_CACHE_EVICTION = "infinispan.client.hotrod.near_cache.eviction";
+   public static final String NEAR_CACHE_MAX_ENTRIES = "infinispan.client.hotrod.near_cache.max_entries";
 
    // defaults
 
@@ -70,10 +73,13 @@ public class ConfigurationProperties {
    public static final int DEFAULT_HOTROD_PORT = 11222;
    public static final int DEFAULT_SO_TIMEOUT = 60000;
    public static final int DEFAULT_CONNECT_TIMEOUT = 60000;
+   public static final int DEFAULT_NEAR_CACHE_MAX_ENTRIES = 1024;
+   public static final String PROTOCOL_VERSION_14 = "1.4";
+   public static final String PROTOCOL_VERSION_13 = "1.3";
    public static final String PROTOCOL_VERSION_12 = "1.2";
    public static final String PROTOCOL_VERSION_11 = "1.1";
    public static final String PROTOCOL_VERSION_10 = "1.0";
-   public static final String DEFAULT_PROTOCOL_VERSION = PROTOCOL_VERSION_12;
+   public static final String DEFAULT_PROTOCOL_VERSION = PROTOCOL_VERSION_14;
 
    private final TypedProperties props;
 
@@ -187,4 +193,16 @@ public String getTrustStorePassword() {
       return props.getProperty(TRUST_STORE_PASSWORD, null);
    }
 
+   public boolean getNearCacheEnabled() {
+      return props.getBooleanProperty(NEAR_CACHE_ENABLED, false);
+   }
+
+   public String getNearCacheEviction() {
+      return props.getProperty(NEAR_CACHE_EVICTION, "LRU");
+   }
+
+   public int getNearCacheMaxEntries() {
+      return props.getIntProperty(NEAR_CACHE_MAX_ENTRIES, DEFAULT_NEAR_CACHE_MAX_ENTRIES);
+   }
+
 }
@@ -25,9 +25,11 @@
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
@@ -37,6 +39,7 @@
 
 import org.infinispan.client.hotrod.Flag;
 import org.infinispan.client.hotrod.MetadataValue;
+import org.infinispan.client.hotrod.NearCacheStatistics;
 import org.infinispan.client.hotrod.RemoteCache;
 import org.infinispan.client.hotrod.RemoteCacheManager;
 import org.infinispan.client.hotrod.ServerStatistics;
@@ -45,15 +48,18 @@
 import org.infinispan.client.hotrod.exceptions.HotRodClientException;
 import org.infinispan.client.hotrod.exceptions.RemoteCacheManagerNotStartedException;
 import org.infinispan.client.hotrod.impl.async.NotifyingFutureImpl;
+import org.infinispan.client.hotrod.impl.near.NearCache;
 import org.infinispan.client.hotrod.impl.operations.BulkGetKeysOperation;
 import org.infinispan.client.hotrod.impl.operations.BulkGetOperation;
 import org.infinispan.client.hotrod.impl.operations.ClearOperation;
 import org.infinispan.client.hotrod.impl.operations.ContainsKeyOperation;
+import org.infinispan.client.hotrod.impl.operations.GetAllOperation;
 import org.infinispan.client.hotrod.impl.operations.GetOperation;
 import org.infinispan.client.hotrod.impl.operations.GetWithMetadataOperation;
 import org.infinispan.client.hotrod.impl.operations.GetWithVersionOperation;
 import org.infinispan.client.hotrod.impl.operations.OperationsFactory;
 import org.infinispan.client.hotrod.impl.operations.PingOperation;
+import org.infinispan.client.hotrod.impl.operations.PutAllOperation;
 import org.infinispan.client.hotrod.impl.operations.PutIfAbsentOperation;
 import org.infinispan.client.hotrod.impl.operations.PutOperation;
 import org.infinispan.client.hotrod.impl.operations.RemoveIfUnmodifiedOperation;
@@ -81,7 +87,7 @@
    private OperationsFactory operationsFactory;
    private int estimateKeySize;
    private int estimateValueSize;
-
+   private volatile NearCache nearCache;
 
    public RemoteCacheImpl(RemoteCacheManager rcm, String name) {
       if (log.isTraceEnabled()) {
@@ -92,11 +98,21 @@ public RemoteCacheImpl(RemoteCacheManager rcm, String name) {
    }
 
    public void init(Marshaller marshaller, ExecutorService executorService, OperationsFactory operationsFactory, int estimateKeySize, int estimateValueSize) {
+      init(marshaller, executorService, operationsFactory, estimateKeySize, estimateValueSize, null);
+   }
+
+   public void init(Marshaller marshaller, ExecutorService executorService, OperationsFactory operationsFactory, int estimateKeySize, int estimateValueSize, NearCache nearCache) {
       this.marshaller = marshaller;
       this.executorService = executorService;
       this.operationsFactory = operationsFactory;
       this.estimateKeySize = estimateKeySize;
       this.estimateValueSize = estimateValueSize;
+      NearCache previous = this.nearCache;
+      if (previous != null)
+         previous.stop();
+      this.nearCache = nearCache;
+      if (nearCache != null)
+         nearCache.start();
    }
 
    @Override
@@ -107,8 +123,10 @@ public RemoteCacheManager getRemoteCacheManager() {
    @Override
    public boolean removeWithVersion(K key, long version) {
       assertRemoteCacheManagerIsStarted();
-      RemoveIfUnmodifiedOperation op = operationsFactory.newRemoveIfUnmodifiedOperation(obj2bytes(key, true), version);
+      byte[] keyBytes = obj2bytes(key, true);
+      RemoveIfUnmodifiedOperation op = operationsFactory.newRemoveIfUnmodifiedOperation(keyBytes, version);
       VersionedOperationResponse response = op.execute();
+      invalidateNearCache(keyBytes);
       return response.getCode().isUpdated();
    }
 
@@ -131,8 +149,10 @@ public Boolean call() throws Exception {
    @Override
    public boolean replaceWithVersion(K key, V newValue, long version, int lifespanSeconds, int maxIdleTimeSeconds) {
       assertRemoteCacheManagerIsStarted();
-      ReplaceIfUnmodifiedOperation op = operationsFactory.newReplaceIfUnmodifiedOperation(obj2bytes(key, true), obj2bytes(newValue, false), lifespanSeconds, maxIdleTimeSeconds, version);
+      byte[] keyBytes = obj2bytes(key, true);
+      ReplaceIfUnmodifiedOperation op = operationsFactory.newReplaceIfUnmodifiedOperation(keyBytes, obj2bytes(newValue, false), lifespanSeconds, maxIdleTimeSeconds, version);
       VersionedOperationResponse response = op.execute();
+      invalidateNearCache(keyBytes);
       return response.getCode().isUpdated();
    }
 
@@ -171,8 +191,28 @@ public MetadataValue<V> getWithMetadata(K key) {
    @Override
    public void putAll(Map<? extends K, ? extends V> map, long lifespan, TimeUnit lifespanUnit, long maxIdleTime, TimeUnit maxIdleTimeUnit) {
       assertRemoteCacheManagerIsStarted();
+      if (!operationsFactory.isMultiKeySupported()) {
+         for (Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            put(entry.getKey(), entry.getValue(), lifespan, lifespanUnit, maxIdleTime, maxIdleTimeUnit);
+         }
+         return;
+      }
+      if (map.isEmpty())
+         return;
+
+      int lifespanSecs = toSeconds(lifespan, lifespanUnit);
+      int maxIdleSecs = toSeconds(maxIdleTime, maxIdleTimeUnit);
+      applyDefaultExpirationFlags(lifespan, maxIdleTime);
+      Map<byte[], byte[]> entries = new HashMap<byte[], byte[]>(map.size());
       for (Entry<? extends K, ? extends V> entry : map.entrySet()) {
-         put(entry.getKey(), entry.getValue(), lifespan, lifespanUnit, maxIdleTime, maxIdleTimeUnit);
+         entries.put(obj2bytes(entry.getKey(), true), obj2bytes(entry.getValue(), false));
+      }
+      // One request per server owning some of the keys
+      for (PutAllOperation op : operationsFactory.newPutAllOperations(entries, lifespanSecs, maxIdleSecs)) {
+         op.execute();
+      }
+      for (byte[] keyBytes : entries.keySet()) {
+         invalidateNearCache(keyBytes);
       }
    }
 
@@ -217,6 +257,11 @@ public ServerStatistics stats() {
       return stats;
    }
 
+   @Override
+   public NearCacheStatistics nearCacheStats() {
+      return nearCache;
+   }
+
    @Override
    @SuppressWarnings("unchecked")
    public V put(K key, V value, long lifespan, TimeUnit lifespanUnit, long maxIdleTime, TimeUnit maxIdleTimeUnit) {
@@ -227,8 +272,10 @@ public V put(K key, V value, long lifespan, TimeUnit lifespanUnit, long maxIdleT
       if (log.isTraceEnabled()) {
          log.tracef("About to add (K,V): (%s, %s) lifespanSecs:%d, maxIdleSecs:%d", key, value, lifespanSecs, maxIdleSecs);
       }
-      PutOperation op = operationsFactory.newPutKeyValueOperation(obj2bytes(key, true), obj2bytes(value, false), lifespanSecs, maxIdleSecs);
+      byte[] keyBytes = obj2bytes(key, true);
+      PutOperation op = operationsFactory.newPutKeyValueOperation(keyBytes, obj2bytes(value, false), lifespanSecs, maxIdleSecs);
       byte[] result = op.execute();
+      invalidateNearCache(keyBytes);
       return (V) bytes2obj(result);
    }
 
@@ -240,8 +287,10 @@ public V putIfAbsent(K key, V value, long lifespan, TimeUnit lifespanUnit, long
       int lifespanSecs = toSeconds(lifespan, lifespanUnit);
       int maxIdleSecs = toSeconds(maxIdleTime, maxIdleTimeUnit);
       applyDefaultExpirationFlags(lifespan, maxIdleTime);
-      PutIfAbsentOperation op = operationsFactory.newPutIfAbsentOperation(obj2bytes(key, true), obj2bytes(value, false), lifespanSecs, maxIdleSecs);
+      byte[] keyBytes = obj2bytes(key, true);
+      PutIfAbsentOperation op = operationsFactory.newPutIfAbsentOperation(keyBytes, obj2bytes(value, false), lifespanSecs, maxIdleSecs);
       byte[] bytes = op.execute();
+      invalidateNearCache(keyBytes);
       return (V) bytes2obj(bytes);
    }
 
@@ -252,8 +301,10 @@ public V replace(K key, V value, long lifespan, TimeUnit lifespanUnit, long maxI
       int lifespanSecs = toSeconds(lifespan, lifespanUnit);
       int maxIdleSecs = toSeconds(maxIdleTime, maxIdleTimeUnit);
       applyDefaultExpirationFlags(lifespan, maxIdleTime);
-      ReplaceOperation op = operationsFactory.newReplaceOperation(obj2bytes(key, true), obj2bytes(value, false), lifespanSecs, maxIdleSecs);
+      byte[] keyBytes = obj2bytes(key, true);
+      ReplaceOperation op = operationsFactory.newReplaceOperation(keyBytes, obj2bytes(value, false), lifespanSecs, maxIdleSecs);
       byte[] bytes = op.execute();
+      invalidateNearCache(keyBytes);
       return (V) bytes2obj(bytes);
    }
 
@@ -349,8 +400,17 @@ public boolean containsKey(Object key) {
    public V get(Object key) {
       assertRemoteCacheManagerIsStarted();
       byte[] keyBytes = obj2bytes(key, true);
-      GetOperation gco = operationsFactory.newGetKeyOperation(keyBytes);
-      byte[] bytes = gco.execute();
+      NearCache nearCache = this.nearCache;
+      byte[] bytes;
+      // Flags only apply to the next remote operation, so bypass the near cache
+      if (nearCache != null && !operationsFactory.hasFlags()) {
+         bytes = nearCache.get(keyBytes);
+         if (bytes == null)
+            bytes = getAndCache(nearCache, keyBytes);
+      } else {
+         GetOperation gco = operationsFactory.newGetKeyOperation(keyBytes);
+         bytes = gco.execute();
+      }
       V result = (V) bytes2obj(bytes);
       if (log.isTraceEnabled()) {
          log.tracef("For key(%s) returning %s", key, result);
@@ -358,6 +418,35 @@ public V get(Object key) {
       return result;
    }
 
+   @Override
+   @SuppressWarnings("unchecked")
+   public Map<K, V> getAll(Set<? extends K> keys) {
+      assertRemoteCacheManagerIsStarted();
+      Map<K, V> toReturn = new HashMap<K, V>();
+      if (!operationsFactory.isMultiKeySupported()) {
+         for (K key : keys) {
+            V value = get(key);
+            if (value != null)
+               toReturn.put(key, value);
+         }
+         return Collections.unmodifiableMap(toReturn);
+      }
+      if (keys.isEmpty())
+         return Collections.unmodifiableMap(toReturn);
+
+      List<byte[]> keysBytes = new ArrayList<byte[]>(keys.size());
+      for (K key : keys) {
+         keysBytes.add(obj2bytes(key, true));
+      }
+      // One request per server owning some of the keys
+      for (GetAllOperation op : operationsFactory.newGetAllOperations(keysBytes)) {
+         for (Map.Entry<byte[], byte[]> entry : op.execute().entrySet()) {
+            toReturn.put((K) bytes2obj(entry.getKey()), (V) bytes2obj(entry.getValue()));
+         }
+      }
+      return Collections.unmodifiableMap(toReturn);
+   }
+
    @Override
    public Map<K, V> getBulk() {
       return getBulk(0);
@@ -382,8 +471,10 @@ public Map<K, V> getBulk(int size) {
    @SuppressWarnings("unchecked")
    public V remove(Object key) {
       assertRemoteCacheManagerIsStarted();
-      RemoveOperation removeOperation = operationsFactory.newRemoveOperation(obj2bytes(key, true));
+      byte[] keyBytes = obj2bytes(key, true);
+      RemoveOperation removeOperation = operationsFactory.newRemoveOperation(keyBytes);
       byte[] existingValue = removeOperation.execute();
+      invalidateNearCache(keyBytes);
       // TODO: It sucks that you need the prev value to see if it works...
       // We need to find a better API for RemoteCache...
       return (V) bytes2obj(existingValue);
@@ -394,6 +485,9 @@ public void clear() {
       assertRemoteCacheManagerIsStarted();
       ClearOperation op = operationsFactory.newClearOperation() ;
       op.execute();
+      NearCache nearCache = this.nearCache;
+      if (nearCache != null)
+         nearCache.clear();
    }
 
    @Override
@@ -405,7 +499,10 @@ public void start() {
 
    @Override
    public void stop() {
-      if (log.isDebugEnabled()) {
+      NearCache nearCache = this.nearCache;
+      if (nearCache != null) {
+         nearCache.stop();
+      } else if (log.isDebugEnabled()) {
          log.debugf("Stop called, nothing to do here(%s)", getName());
       }
    }
@@ -446,6 +543,27 @@ public PingOperation.PingResult ping() {
       return operationsFactory.newFaultTolerantPingOperation().execute();
    }
 
+   /**
+    * Reads the value of a key from the server and stores it in the near
+    * cache. Entries that can expire are not cached, as reading them locally
+    * would neither expire them nor extend their max idle time on the server.
+    */
+   private byte[] getAndCache(NearCache nearCache, byte[] keyBytes) {
+      long sequence = nearCache.sequence(keyBytes);
+      MetadataValue<byte[]> value = operationsFactory.newGetWithMetadataOperation(keyBytes).execute();
+      if (value == null)
+         return null;
+      if (value.getLifespan() < 0 && value.getMaxIdle() < 0)
+         nearCache.put(keyBytes, value.getValue(), sequence);
+      return value.getValue();
+   }
+
+   private void invalidateNearCache(byte[] keyBytes) {
+      NearCache nearCache = this.nearCache;
+      if (nearCache != null)
+         nearCache.invalidate(keyBytes);
+   }
+
    private byte[] obj2bytes(Object o, boolean isKey) {
       try {
          return marshaller.objectToByteBuffer(o, isKey ? estimateKeySize : estimateValueSize);
@@ -0,0 +1,133 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.client.hotrod.impl.near;
+
+import java.net.SocketAddress;
+
+import org.infinispan.client.hotrod.exceptions.HotRodClientException;
+import org.infinispan.client.hotrod.exceptions.TransportException;
+import org.infinispan.client.hotrod.impl.operations.AddNearCacheListenerOperation;
+import org.infinispan.client.hotrod.impl.operations.OperationsFactory;
+import org.infinispan.client.hotrod.impl.transport.TransportFactory;
+import org.infinispan.client.hotrod.impl.transport.tcp.TcpTransport;
+import org.infinispan.client.hotrod.logging.Log;
+import org.infinispan.client.hotrod.logging.LogFactory;
+
+/**
+ * Thread owning the connection on which a server pushes the invalidations of
+ * a {@link NearCache}. The connection is not pooled, as it is blocked reading
+ * events for as long as it is open. When the connection is lost, the listener
+ * connects again after a delay. If the server refuses the registration, e.g.
+ * because the cache runs in compatibility mode, the listener gives up.
+ *
+ * @since 5.3
+ */
+class InvalidationListener extends Thread {
+
+   private static final Log log = LogFactory.getLog(InvalidationListener.class, Log.class);
+
+   private static final long RECONNECT_DELAY_MILLIS = 1000;
+
+   private final NearCache nearCache;
+   private final SocketAddress server;
+   private final OperationsFactory operationsFactory;
+   private final TransportFactory transportFactory;
+   private final String cacheName;
+   private volatile TcpTransport transport;
+   private volatile boolean registered;
+   private volatile boolean closed;
+
+   InvalidationListener(NearCache nearCache, SocketAddress server, OperationsFactory operationsFactory,
+         TransportFactory transportFactory, String cacheName) {
+      super("NearCacheInvalidationListener-" + cacheName + "-" + server);
+      setDaemon(true);
+      this.nearCache = nearCache;
+      this.server = server;
+      this.operationsFactory = operationsFactory;
+      this.transportFactory = transportFactory;
+      this.cacheName = cacheName;
+   }
+
+   boolean isRegistered() {
+      return registered;
+   }
+
+   void close() {
+      closed = true;
+      interrupt();
+      destroyTransport();
+   }
+
+   @Override
+   public void run() {
+      while (!closed) {
+         try {
+            transport = new TcpTransport(server, transportFactory);
+            if (closed)
+               break;
+            transport.setSoTimeout(0);
+            AddNearCacheListenerOperation op = operationsFactory.newAddNearCacheListenerOperation(transport);
+            try {
+               op.execute();
+            } catch (TransportException e) {
+               throw e;
+            } catch (HotRodClientException e) {
+               log.nearCacheListenerRejected(server, cacheName, e);
+               break;
+            }
+            setRegistered(true);
+            for (;;) {
+               nearCache.invalidate(op.readInvalidatedKey());
+            }
+         } catch (Exception e) {
+            if (closed)
+               break;
+            setRegistered(false);
+            log.nearCacheInvalidationConnectionLost(server, cacheName, e);
+            destroyTransport();
+            try {
+               Thread.sleep(RECONNECT_DELAY_MILLIS);
+            } catch (InterruptedException ie) {
+               break;
+            }
+         }
+      }
+      destroyTransport();
+   }
+
+   private void setRegistered(boolean registered) {
+      if (this.registered != registered) {
+         this.registered = registered;
+         nearCache.updateActive();
+      }
+   }
+
+   private void destroyTransport() {
+      TcpTransport transport = this.transport;
+      if (transport != null) {
+         this.transport = null;
+         transport.destroy();
+      }
+   }
+
+}
@@ -0,0 +1,253 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.client.hotrod.impl.near;
+
+import java.net.SocketAddress;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import net.jcip.annotations.ThreadSafe;
+
+import org.infinispan.client.hotrod.NearCacheStatistics;
+import org.infinispan.client.hotrod.configuration.NearCacheConfiguration;
+import org.infinispan.client.hotrod.configuration.NearCacheEviction;
+import org.infinispan.client.hotrod.impl.operations.OperationsFactory;
+import org.infinispan.client.hotrod.impl.transport.TransportFactory;
+import org.infinispan.util.AnyEquivalence;
+import org.infinispan.util.ByteArrayEquivalence;
+import org.infinispan.util.concurrent.BoundedConcurrentHashMap;
+
+/**
+ * Bounded client side cache of the entries read from a remote cache, keyed by
+ * their marshalled keys.
+ * <p/>
+ * The near cache is kept coherent by servers pushing the keys that are
+ * modified, removed or invalidated on a dedicated connection to each server
+ * (see {@link InvalidationListener}). Entries are only cached while all these
+ * connections are registered, and the near cache is cleared whenever one of
+ * them is lost or the servers change.
+ * <p/>
+ * Every invalidation increments the sequence number of the stripe of its key.
+ * Readers take the sequence number before fetching an entry from a server and
+ * only cache the entry if it did not change meanwhile, so that an entry read
+ * before an invalidation is never cached after it.
+ *
+ * @since 5.3
+ */
+@ThreadSafe
+public class NearCache implements NearCacheStatistics {
+
+   private static final int SEQUENCE_STRIPES = 64;
+
+   private final BoundedConcurrentHashMap<byte[], byte[]> entries;
+   private final AtomicLongArray sequences = new AtomicLongArray(SEQUENCE_STRIPES);
+   private final AtomicLong hits = new AtomicLong();
+   private final AtomicLong misses = new AtomicLong();
+   private final AtomicLong invalidations = new AtomicLong();
+
+   private final OperationsFactory operationsFactory;
+   private final TransportFactory transportFactory;
+   private final AtomicInteger topologyId;
+   private final String cacheName;
+   // guarded by this
+   private final Map<SocketAddress, InvalidationListener> listeners = new HashMap<SocketAddress, InvalidationListener>();
+   private volatile int listenedTopologyId = Integer.MIN_VALUE;
+   private volatile Collection<SocketAddress> listenedServers;
+   private volatile boolean active;
+   private volatile boolean stopped;
+
+   public NearCache(NearCacheConfiguration configuration, OperationsFactory operationsFactory,
+         TransportFactory transportFactory, AtomicInteger topologyId, String cacheName) {
+      BoundedConcurrentHashMap.Eviction eviction = configuration.eviction() == NearCacheEviction.LFU ?
+            BoundedConcurrentHashMap.Eviction.TINY_LFU : BoundedConcurrentHashMap.Eviction.LRU;
+      this.entries = new BoundedConcurrentHashMap<byte[], byte[]>(configuration.maxEntries(),
+            Math.min(16, configuration.maxEntries()), eviction,
+            ByteArrayEquivalence.INSTANCE, AnyEquivalence.<byte[]>getInstance());
+      this.operationsFactory = operationsFactory;
+      this.transportFactory = transportFactory;
+      this.topologyId = topologyId;
+      this.cacheName = cacheName;
+   }
+
+   /**
+    * Opens the invalidation connections to the servers currently known.
+    */
+   public void start() {
+      checkServers();
+   }
+
+   /**
+    * Closes the invalidation connections and clears the near cache.
+    */
+   public synchronized void stop() {
+      stopped = true;
+      for (InvalidationListener listener : listeners.values())
+         listener.close();
+      listeners.clear();
+      listenedServers = null;
+      updateActive();
+   }
+
+   /**
+    * Returns the cached value of the given key, or null if it is not cached.
+    */
+   public byte[] get(byte[] key) {
+      checkServers();
+      byte[] value = active ? entries.get(key) : null;
+      if (value != null)
+         hits.incrementAndGet();
+      else
+         misses.incrementAndGet();
+      return value;
+   }
+
+   /**
+    * Returns the sequence number to pass to {@link #put(byte[], byte[], long)}
+    * once the value of the given key has been read from a server.
+    */
+   public long sequence(byte[] key) {
+      return sequences.get(stripe(key));
+   }
+
+   /**
+    * Caches the value read for the given key, unless the key was invalidated
+    * since the given sequence number was taken.
+    */
+   public void put(byte[] key, byte[] value, long sequence) {
+      int stripe = stripe(key);
+      if (!active || sequences.get(stripe) != sequence)
+         return;
+      entries.put(key, value);
+      // The key may have been invalidated between the check and the put
+      if (sequences.get(stripe) != sequence)
+         entries.remove(key, value);
+   }
+
+   public void invalidate(byte[] key) {
+      // The sequence number must change before removing the entry
+      sequences.incrementAndGet(stripe(key));
+      entries.remove(key);
+      invalidations.incrementAndGet();
+   }
+
+   public void clear() {
+      for (int i = 0; i < SEQUENCE_STRIPES; i++)
+         sequences.incrementAndGet(i);
+      entries.clear();
+   }
+
+   @Override
+   public long getHits() {
+      return hits.get();
+   }
+
+   @Override
+   public long getMisses() {
+      return misses.get();
+   }
+
+   @Override
+   public long getInvalidations() {
+      return invalidations.get();
+   }
+
+   @Override
+   public int getNumberOfEntries() {
+      return entries.size();
+   }
+
+   @Override
+   public double getHitRatio() {
+      long hits = this.hits.get();
+      long total = hits + misses.get();
+      return total == 0 ? 0 : (double) hits / total;
+   }
+
+   /**
+    * Opens an invalidation connection to each server that joined and closes
+    * the connections to the servers that left, whenever the topology changes.
+    */
+   private void checkServers() {
+      int currentTopologyId = topologyId.get();
+      if (currentTopologyId != listenedTopologyId && !stopped)
+         updateServers(currentTopologyId);
+   }
+
+   private synchronized void updateServers(int currentTopologyId) {
+      if (stopped)
+         return;
+      Collection<SocketAddress> servers = transportFactory.getServers();
+      // The topology id is updated before the servers, so check again later
+      // if the servers have not been updated yet
+      if (servers == listenedServers)
+         return;
+      listenedTopologyId = currentTopologyId;
+      listenedServers = servers;
+
+      for (Iterator<Map.Entry<SocketAddress, InvalidationListener>> it = listeners.entrySet().iterator(); it.hasNext(); ) {
+         Map.Entry<SocketAddress, InvalidationListener> entry = it.next();
+         if (!servers.contains(entry.getKey())) {
+            entry.getValue().close();
+            it.remove();
+         }
+      }
+      for (SocketAddress server : servers) {
+         if (!listeners.containsKey(server)) {
+            InvalidationListener listener = new InvalidationListener(this, server, operationsFactory, transportFactory, cacheName);
+            listeners.put(server, listener);
+            listener.start();
+         }
+      }
+      updateActive();
+   }
+
+   /**
+    * Called by the invalidation listeners whenever they register or lose their
+    * connection.
+    */
+   synchronized void updateActive() {
+      boolean allRegistered = !stopped && !listeners.isEmpty();
+      for (InvalidationListener listener : listeners.values())
+         allRegistered &= listener.isRegistered();
+      if (active != allRegistered) {
+         if (allRegistered) {
+            // Invalidations may have been missed while a connection was down
+            clear();
+            active = true;
+         } else {
+            active = false;
+            clear();
+         }
+      }
+   }
+
+   private static int stripe(byte[] key) {
+      return ByteArrayEquivalence.INSTANCE.hashCode(key) & (SEQUENCE_STRIPES - 1);
+   }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.client.hotrod.impl.operations;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.jcip.annotations.Immutable;
+
+import org.infinispan.client.hotrod.exceptions.InvalidResponseException;
+import org.infinispan.client.hotrod.impl.protocol.Codec;
+import org.infinispan.client.hotrod.impl.protocol.Codec14;
+import org.infinispan.client.hotrod.impl.protocol.HeaderParams;
+import org.infinispan.client.hotrod.impl.transport.Transport;
+
+/**
+ * Registers a connection as a near cache listener, so that the server pushes
+ * on it the keys of the entries that are modified, removed or invalidated
+ * from then on. The connection is dedicated to the listener and must not be
+ * used for other operations.
+ *
+ * @since 5.3
+ */
+@Immutable
+public class AddNearCacheListenerOperation extends HotRodOperation {
+
+   private static final byte NO_TX = 0;
+
+   private final Transport transport;
+
+   public AddNearCacheListenerOperation(Codec codec, AtomicInteger topologyId, Transport transport, byte[] cacheName) {
+      super(codec, null, cacheName, topologyId);
+      this.transport = transport;
+   }
+
+   @Override
+   public Void execute() {
+      // Basic intelligence, so that the server never sends topology updates
+      // along with the events it pushes
+      HeaderParams params = new HeaderParams()
+            .opCode(ADD_NEAR_CACHE_LISTENER_REQUEST).cacheName(cacheName).flags(flags)
+            .clientIntel(CLIENT_INTELLIGENCE_BASIC).topologyId(topologyId).txMarker(NO_TX);
+      codec.writeHeader(transport, params);
+      transport.flush();
+
+      // The listener is active before the server responds, so some events
+      // may come first. They can be skipped: the near cache is not used
+      // until the registration completes.
+      for (;;) {
+         short opCode = readListenerHeader(params);
+         if (opCode == ADD_NEAR_CACHE_LISTENER_RESPONSE)
+            return null;
+         transport.readArray();
+      }
+   }
+
+   /**
+    * Blocks until the server pushes the next invalidation event and returns
+    * the invalidated key.
+    */
+   public byte[] readInvalidatedKey() {
+      readListenerHeader(new HeaderParams().topologyId(topologyId));
+      return transport.readArray();
+   }
+
+   private short readListenerHeader(HeaderParams params) {
+      short opCode = ((Codec14) codec).readListenerHeader(transport, params);
+      if (opCode != KEY_INVALIDATED_EVENT && opCode != ADD_NEAR_CACHE_LISTENER_RESPONSE)
+         throw new InvalidResponseException(String.format(
+               "Invalid near cache listener message. Received operation %#x", opCode));
+      return opCode;
+   }
+
+}
@@ -27,12 +27,17 @@
 import org.infinispan.api.BasicCacheContainer;
 import org.infinispan.client.hotrod.Flag;
 import org.infinispan.client.hotrod.impl.protocol.Codec;
+import org.infinispan.client.hotrod.impl.protocol.Codec13;
+import org.infinispan.client.hotrod.impl.protocol.Codec14;
 import org.infinispan.client.hotrod.impl.protocol.HotRodConstants;
 import org.infinispan.client.hotrod.impl.transport.Transport;
 import org.infinispan.client.hotrod.impl.transport.TransportFactory;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -141,6 +146,63 @@ public BulkGetOperation newBulkGetOperation(int size) {
             codec, transportFactory, cacheNameBytes, topologyId, flags(), size);
    }
    
+   /**
+    * Construct the get all requests for the given keys, one per server owning
+    * some of them, so that they all share the same flags.
+    */
+   public List<GetAllOperation> newGetAllOperations(Collection<byte[]> keys) {
+      Flag[] flags = flags();
+      List<GetAllOperation> ops = new ArrayList<GetAllOperation>();
+      for (List<byte[]> serverKeys : transportFactory.groupKeysByServer(keys).values()) {
+         ops.add(new GetAllOperation(
+               codec, transportFactory, serverKeys, cacheNameBytes, topologyId, flags));
+      }
+      return ops;
+   }
+
+   /**
+    * Construct the put all requests for the given entries, one per server
+    * owning some of the keys, so that they all share the same flags.
+    */
+   public List<PutAllOperation> newPutAllOperations(Map<byte[], byte[]> entries,
+            int lifespanSecs, int maxIdleSecs) {
+      Flag[] flags = flags();
+      List<PutAllOperation> ops = new ArrayList<PutAllOperation>();
+      for (List<byte[]> serverKeys : transportFactory.groupKeysByServer(entries.keySet()).values()) {
+         Map<byte[], byte[]> serverEntries = new HashMap<byte[], byte[]>(serverKeys.size());
+         for (byte[] key : serverKeys)
+            serverEntries.put(key, entries.get(key));
+         ops.add(new PutAllOperation(
+               codec, transportFactory, serverEntries, cacheNameBytes, topologyId, flags,
+               lifespanSecs, maxIdleSecs));
+      }
+      return ops;
+   }
+
+   /**
+    * Indicates whether the protocol version in use supports the multi-key
+    * put all and get all operations, which were added in version 1.3.
+    */
+   public boolean isMultiKeySupported() {
+      return codec instanceof Codec13;
+   }
+
+   /**
+    * Indicates whether the protocol version in use lets connections register
+    * as near cache listeners, which was added in version 1.4.
+    */
+   public boolean isNearCacheSupported() {
+      return codec instanceof Codec14;
+   }
+
+   /**
+    * Construct a request registering the given transport, which must be
+    * dedicated to it, as a near cache listener.
+    */
+   public AddNearCacheListenerOperation newAddNearCacheListenerOperation(Transport transport) {
+      return new AddNearCacheListenerOperation(codec, topologyId, transport, cacheNameBytes);
+   }
+
    public BulkGetKeysOperation newBulkGetKeysOperation(int scope) {
       return new BulkGetKeysOperation(
     		codec, transportFactory, cacheNameBytes, topologyId, flags(), scope);
@@ -181,6 +243,15 @@ private Flag[] flags() {
       return flags != null ? flags.toArray(new Flag[0]) : null;
    }
 
+   /**
+    * Indicates whether flags were set for the next operation of the calling
+    * thread.
+    */
+   public boolean hasFlags() {
+      List<Flag> flags = this.flagsMap.get();
+      return flags != null && !flags.isEmpty();
+   }
+
    public void setFlags(Flag[] flags) {
       List<Flag> list = new ArrayList<Flag>();
       for(Flag flag : flags)
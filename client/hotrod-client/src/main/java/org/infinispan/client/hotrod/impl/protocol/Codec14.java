@@ -0,0 +1,76 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.client.hotrod.impl.protocol;
+
+import org.infinispan.client.hotrod.exceptions.InvalidResponseException;
+import org.infinispan.client.hotrod.impl.transport.Transport;
+import org.infinispan.client.hotrod.logging.Log;
+import org.infinispan.client.hotrod.logging.LogFactory;
+
+/**
+ * A Hot Rod encoder/decoder for version 1.4 of the protocol, which lets a
+ * connection register as a near cache listener. Servers then push key
+ * invalidation events on that connection whenever an entry is modified,
+ * removed or invalidated.
+ *
+ * @since 5.3
+ */
+public class Codec14 extends Codec13 {
+
+   private static final Log log = LogFactory.getLog(Codec14.class, Log.class);
+
+   @Override
+   public HeaderParams writeHeader(Transport transport, HeaderParams params) {
+      return writeHeader(transport, params, HotRodConstants.VERSION_14);
+   }
+
+   /**
+    * Reads the header of a message received on a near cache listener
+    * connection and returns its operation code. Unlike regular responses,
+    * these messages are either the response to the listener registration or
+    * key invalidation events pushed by the server, which carry no message id.
+    */
+   public short readListenerHeader(Transport transport, HeaderParams params) {
+      short magic = transport.readByte();
+      if (magic != HotRodConstants.RESPONSE_MAGIC) {
+         log.invalidMagicNumber(HotRodConstants.RESPONSE_MAGIC, magic);
+         throw new InvalidResponseException(String.format(
+               "Invalid magic number. Expected %#x and received %#x", HotRodConstants.RESPONSE_MAGIC, magic));
+      }
+      transport.readVLong();
+      short receivedOpCode = transport.readByte();
+      short status = transport.readByte();
+      readNewTopologyIfPresent(transport, params);
+      if (receivedOpCode == HotRodConstants.ERROR_RESPONSE)
+         checkForErrorsInResponseStatus(transport, params, status);
+      if (log.isTraceEnabled())
+         log.tracef("Received listener message with operation code: %#04x", receivedOpCode);
+      return receivedOpCode;
+   }
+
+   @Override
+   public Log getLog() {
+      return log;
+   }
+
+}
@@ -38,6 +38,8 @@ public interface HotRodConstants {
    static final byte VERSION_10 = 10;
    static final byte VERSION_11 = 11;
    static final byte VERSION_12 = 12;
+   static final byte VERSION_13 = 13;
+   static final byte VERSION_14 = 14;
 
    //requests
    static final byte PUT_REQUEST = 0x01;
@@ -55,6 +57,9 @@ public interface HotRodConstants {
    static final byte BULK_GET_REQUEST = 0x19;
    static final byte GET_WITH_METADATA = 0x1B;
    static final byte BULK_GET_KEYS_REQUEST = 0x1D;
+   static final byte PUT_ALL_REQUEST = 0x2D;
+   static final byte GET_ALL_REQUEST = 0x2F;
+   static final byte ADD_NEAR_CACHE_LISTENER_REQUEST = 0x31;
 
 
    //responses
@@ -73,8 +78,14 @@ public interface HotRodConstants {
    static final byte BULK_GET_RESPONSE = 0x1A;
    static final byte GET_WITH_METADATA_RESPONSE = 0x1C;
    static final byte BULK_GET_KEYS_RESPONSE = 0x1E;
+   static final byte PUT_ALL_RESPONSE = 0x2E;
+   static final byte GET_ALL_RESPONSE = 0x30;
+   static final byte ADD_NEAR_CACHE_LISTENER_RESPONSE = 0x32;
    static final byte ERROR_RESPONSE = 0x50;
 
+   //events pushed by the server
+   static final byte KEY_INVALIDATED_EVENT = 0x33;
+
    //response status
    static final byte NO_ERROR_STATUS = 0x00;
    static final int INVALID_MAGIC_OR_MESSAGE_ID_STATUS = 0x81;
@@ -24,6 +24,7 @@
 
 import java.net.SocketAddress;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -50,6 +51,13 @@ public interface TransportFactory {
 
    void updateServers(Collection<SocketAddress> newServers);
 
+   /**
+    * Returns the servers currently known by the client. The returned
+    * collection is replaced, rather than modified, whenever the servers
+    * change.
+    */
+   Collection<SocketAddress> getServers();
+
    void destroy();
 
    void updateHashFunction(Map<SocketAddress, Set<Integer>> servers2Hash, int numKeyOwners, short hashFunctionVersion, int hashSpace);
@@ -58,6 +66,14 @@ public interface TransportFactory {
 
    Transport getTransport(byte[] key);
 
+   /**
+    * Groups the given keys by the server that owns them according to the
+    * current consistent hash, so that multi-key operations can send a single
+    * request to each server. If no consistent hash is available, all the keys
+    * are placed in a single group.
+    */
+   Map<SocketAddress, List<byte[]>> groupKeysByServer(Collection<byte[]> keys);
+
    boolean isTcpNoDelay();
 
    int getTransportCount();
@@ -0,0 +1,209 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.client.hotrod.impl.transport.tcp;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketAddress;
+import java.net.SocketException;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import net.jcip.annotations.ThreadSafe;
+
+import org.infinispan.client.hotrod.exceptions.TransportException;
+import org.infinispan.client.hotrod.logging.Log;
+import org.infinispan.client.hotrod.logging.LogFactory;
+
+/**
+ * A connection to a Hot Rod server that is shared by concurrent operations. Requests are written as soon as they are
+ * flushed, without waiting for the responses of previous requests. A dedicated reader thread reads the magic byte and
+ * message id of every response, finds the request with that message id, and hands the rest of the response over to
+ * the thread that sent the request. The reader resumes once that thread has finished parsing the response.
+ * <p/>
+ * Any I/O or protocol error, or a request timing out, closes the connection and fails every request still waiting for
+ * a response.
+ *
+ * @since 5.3
+ */
+@ThreadSafe
+class PipelinedConnection implements Runnable {
+
+   private static final Log log = LogFactory.getLog(PipelinedConnection.class, Log.class);
+
+   // Magic byte plus a variable length message id of up to 10 bytes
+   private static final int MAX_RESPONSE_PREFIX = 11;
+
+   private final SocketAddress serverAddress;
+   private final TcpTransport transport;
+   private final PipelinedTransportFactory transportFactory;
+   private final InputStream input;
+   private final OutputStream output;
+   private final Object writeLock = new Object();
+   private final ConcurrentMap<Long, PipelinedTransport> pending = new ConcurrentHashMap<Long, PipelinedTransport>();
+
+   private volatile PipelinedTransport reading;
+   private volatile TransportException failure;
+
+   PipelinedConnection(SocketAddress serverAddress, TcpTransport transport, PipelinedTransportFactory transportFactory) {
+      this.serverAddress = serverAddress;
+      this.transport = transport;
+      this.transportFactory = transportFactory;
+      this.input = transport.getInputStream();
+      this.output = transport.getOutputStream();
+      try {
+         // The reader blocks until the next response arrives, timeouts are applied per request instead
+         transport.getSocket().setSoTimeout(0);
+      } catch (SocketException e) {
+         transportFactory.invalidatePooledTransport(serverAddress, transport);
+         throw new TransportException(e, serverAddress);
+      }
+      Thread reader = new Thread(this, "HotRod-client-pipeline-" + transport.getId());
+      reader.setDaemon(true);
+      reader.start();
+   }
+
+   /**
+    * Registers the request under the given message id and writes it to the connection.
+    */
+   void send(long messageId, PipelinedTransport request, byte[] buffer, int length) {
+      checkValid();
+      pending.put(messageId, request);
+      try {
+         synchronized (writeLock) {
+            output.write(buffer, 0, length);
+            output.flush();
+         }
+      } catch (IOException e) {
+         pending.remove(messageId);
+         throw close(new TransportException("Problems writing data to stream", e, serverAddress));
+      }
+      // If the connection was closed while registering, the request might have missed being failed
+      if (failure != null && pending.remove(messageId) != null)
+         throw new TransportException("Connection closed while sending request", failure, serverAddress);
+   }
+
+   @Override
+   public void run() {
+      try {
+         while (failure == null) {
+            byte[] prefix = new byte[MAX_RESPONSE_PREFIX];
+            int length = 0;
+            prefix[length++] = (byte) read();
+            long messageId = 0;
+            int shift = 0;
+            int b;
+            do {
+               if (length == MAX_RESPONSE_PREFIX)
+                  throw new TransportException("Invalid message id in response", serverAddress);
+               b = read();
+               prefix[length++] = (byte) b;
+               messageId |= (long) (b & 0x7F) << shift;
+               shift += 7;
+            } while ((b & 0x80) != 0);
+
+            PipelinedTransport request = pending.remove(messageId);
+            if (request == null)
+               throw new TransportException(String.format(
+                     "Received response for unknown message id %d", messageId), serverAddress);
+            reading = request;
+            request.responseArrived(prefix, length);
+            request.awaitResponseRead();
+            reading = null;
+         }
+      } catch (TransportException e) {
+         close(e);
+      } catch (Exception e) {
+         close(new TransportException(e, serverAddress));
+      }
+   }
+
+   private int read() throws IOException {
+      int b = input.read();
+      if (b == -1)
+         throw new TransportException("End of stream reached!", serverAddress);
+      return b;
+   }
+
+   /**
+    * Closes the connection, failing all the requests waiting for a response, and returns the exception that caused
+    * the connection to be closed.
+    */
+   TransportException close(TransportException cause) {
+      synchronized (this) {
+         if (failure != null)
+            return failure;
+         failure = cause;
+      }
+      if (log.isDebugEnabled())
+         log.debugf(cause, "Closing pipelined connection to %s", serverAddress);
+
+      for (Iterator<PipelinedTransport> it = pending.values().iterator(); it.hasNext(); ) {
+         it.next().connectionClosed();
+         it.remove();
+      }
+      PipelinedTransport current = reading;
+      if (current != null)
+         current.connectionClosed();
+      // Destroying the pooled transport closes the socket, which unblocks the reader thread
+      transportFactory.invalidatePooledTransport(serverAddress, transport);
+      return cause;
+   }
+
+   void checkValid() {
+      TransportException cause = failure;
+      if (cause != null)
+         throw new TransportException("Connection has been closed", cause, serverAddress);
+   }
+
+   boolean isValid() {
+      return failure == null && transport.isValid();
+   }
+
+   InputStream getInputStream() {
+      return input;
+   }
+
+   SocketAddress getServerAddress() {
+      return serverAddress;
+   }
+
+   SocketAddress getRemoteSocketAddress() {
+      return transport.getRemoteSocketAddress();
+   }
+
+   int getPendingCount() {
+      return pending.size();
+   }
+
+   @Override
+   public String toString() {
+      return "PipelinedConnection{" +
+            "transport=" + transport +
+            ", pending=" + pending.size() +
+            "}";
+   }
+
+}
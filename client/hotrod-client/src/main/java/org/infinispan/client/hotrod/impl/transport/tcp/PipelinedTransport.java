@@ -0,0 +1,277 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.client.hotrod.impl.transport.tcp;
+
+import static org.infinispan.io.UnsignedNumeric.readUnsignedInt;
+import static org.infinispan.io.UnsignedNumeric.readUnsignedLong;
+import static org.infinispan.io.UnsignedNumeric.writeUnsignedInt;
+import static org.infinispan.io.UnsignedNumeric.writeUnsignedLong;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import net.jcip.annotations.NotThreadSafe;
+
+import org.infinispan.client.hotrod.exceptions.TransportException;
+import org.infinispan.client.hotrod.impl.transport.AbstractTransport;
+import org.infinispan.io.ExposedByteArrayOutputStream;
+
+/**
+ * Transport used for a single operation over a {@link PipelinedConnection}. The request is buffered locally and
+ * written to the shared connection in one go on {@link #flush()}. Reads block until the connection's reader thread
+ * has matched the response to this request, and are then served straight from the connection's stream.
+ * <p/>
+ * If no response arrives within the socket timeout, the connection is closed and every request in flight on it fails.
+ * Responses do not carry their length, so a late response could only be skipped by parsing it, and the reader thread
+ * does not know how to parse the response of each operation.
+ *
+ * @since 5.3
+ */
+@NotThreadSafe
+public class PipelinedTransport extends AbstractTransport {
+
+   private final PipelinedConnection connection;
+   private final ExposedByteArrayOutputStream request = new ExposedByteArrayOutputStream(64);
+   private final CountDownLatch responseArrived = new CountDownLatch(1);
+   private final CountDownLatch responseRead = new CountDownLatch(1);
+   private final long soTimeout;
+   private final InputStream responseStream = new ResponseInputStream();
+
+   private volatile byte[] responsePrefix;
+   private volatile int responsePrefixLength;
+   private volatile boolean closed;
+   private int responsePrefixPos;
+   private boolean sent;
+
+   PipelinedTransport(PipelinedConnection connection, PipelinedTransportFactory transportFactory) {
+      super(transportFactory);
+      this.connection = connection;
+      this.soTimeout = transportFactory.getSoTimeout();
+   }
+
+   @Override
+   public void writeVInt(int vInt) {
+      try {
+         writeUnsignedInt(request, vInt);
+      } catch (IOException e) {
+         throw new TransportException(e, connection.getServerAddress());
+      }
+   }
+
+   @Override
+   public void writeVLong(long l) {
+      try {
+         writeUnsignedLong(request, l);
+      } catch (IOException e) {
+         throw new TransportException(e, connection.getServerAddress());
+      }
+   }
+
+   @Override
+   public void writeByte(short toWrite) {
+      request.write(toWrite);
+   }
+
+   @Override
+   protected void writeBytes(byte[] toAppend) {
+      request.write(toAppend, 0, toAppend.length);
+   }
+
+   @Override
+   public void flush() {
+      if (sent)
+         throw new IllegalStateException("Request has already been sent");
+      byte[] buffer = request.getRawBuffer();
+      // The header starts with the magic byte, followed by the message id
+      long messageId = readUnsignedLong(buffer, 1);
+      connection.send(messageId, this, buffer, request.size());
+      sent = true;
+   }
+
+   @Override
+   public long readVLong() {
+      awaitResponse();
+      try {
+         return readUnsignedLong(responseStream);
+      } catch (IOException e) {
+         throw connection.close(new TransportException(e, connection.getServerAddress()));
+      }
+   }
+
+   @Override
+   public int readVInt() {
+      awaitResponse();
+      try {
+         return readUnsignedInt(responseStream);
+      } catch (IOException e) {
+         throw connection.close(new TransportException(e, connection.getServerAddress()));
+      }
+   }
+
+   @Override
+   public short readByte() {
+      awaitResponse();
+      int b;
+      try {
+         b = responseStream.read();
+      } catch (IOException e) {
+         throw connection.close(new TransportException(e, connection.getServerAddress()));
+      }
+      if (b == -1)
+         throw connection.close(new TransportException("End of stream reached!", connection.getServerAddress()));
+      return (short) b;
+   }
+
+   @Override
+   public byte[] readByteArray(int size) {
+      awaitResponse();
+      byte[] result = new byte[size];
+      int offset = 0;
+      try {
+         while (offset < size) {
+            int read = responseStream.read(result, offset, size - offset);
+            if (read == -1)
+               throw connection.close(new TransportException("End of stream reached!", connection.getServerAddress()));
+            offset += read;
+         }
+      } catch (IOException e) {
+         throw connection.close(new TransportException(e, connection.getServerAddress()));
+      }
+      return result;
+   }
+
+   /**
+    * Called by the connection's reader thread once the response for this request starts arriving.
+    *
+    * @param prefix the bytes already consumed from the stream, i.e. the magic byte and the message id
+    */
+   void responseArrived(byte[] prefix, int length) {
+      responsePrefix = prefix;
+      responsePrefixLength = length;
+      responseArrived.countDown();
+   }
+
+   /**
+    * Called by the connection's reader thread; blocks until the response has been fully read by the operation.
+    */
+   void awaitResponseRead() throws InterruptedException {
+      responseRead.await();
+   }
+
+   /**
+    * Called by the connection when it is closed before or while the response is read.
+    */
+   void connectionClosed() {
+      closed = true;
+      responseArrived.countDown();
+   }
+
+   /**
+    * Marks the operation as finished, handing the connection's stream back to the reader thread.
+    */
+   void complete() {
+      if (sent && responseArrived.getCount() > 0) {
+         // Nobody is going to read the response, so the stream can no longer be trusted
+         connection.close(new TransportException("Response was not read", connection.getServerAddress()));
+      }
+      responseRead.countDown();
+   }
+
+   private void awaitResponse() {
+      if (responseArrived.getCount() == 0) {
+         if (closed)
+            connection.checkValid();
+         return;
+      }
+      if (!sent)
+         throw new IllegalStateException("Request has not been sent");
+      try {
+         if (!responseArrived.await(soTimeout, TimeUnit.MILLISECONDS)) {
+            throw connection.close(new TransportException(String.format(
+                  "No response received within %d milliseconds", soTimeout), connection.getServerAddress()));
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new TransportException(e, connection.getServerAddress());
+      }
+      if (closed)
+         connection.checkValid();
+   }
+
+   @Override
+   public void release() {
+      complete();
+   }
+
+   @Override
+   public byte[] dumpStream() {
+      return new byte[0];
+   }
+
+   @Override
+   public SocketAddress getRemoteSocketAddress() {
+      return connection.getRemoteSocketAddress();
+   }
+
+   @Override
+   public void invalidate() {
+      connection.close(new TransportException("Transport invalidated", connection.getServerAddress()));
+   }
+
+   @Override
+   public String toString() {
+      return "PipelinedTransport{" +
+            "connection=" + connection +
+            "}";
+   }
+
+   /**
+    * Serves the bytes consumed by the reader thread first, then continues with the connection's stream.
+    */
+   private class ResponseInputStream extends InputStream {
+      @Override
+      public int read() throws IOException {
+         if (responsePrefixPos < responsePrefixLength)
+            return responsePrefix[responsePrefixPos++] & 0xFF;
+         return connection.getInputStream().read();
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+         if (len == 0)
+            return 0;
+         int remaining = responsePrefixLength - responsePrefixPos;
+         if (remaining > 0) {
+            int n = Math.min(remaining, len);
+            System.arraycopy(responsePrefix, responsePrefixPos, b, off, n);
+            responsePrefixPos += n;
+            return n;
+         }
+         return connection.getInputStream().read(b, off, len);
+      }
+   }
+
+}
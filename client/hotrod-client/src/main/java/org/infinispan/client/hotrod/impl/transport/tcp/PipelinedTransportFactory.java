@@ -0,0 +1,185 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.client.hotrod.impl.transport.tcp;
+
+import java.net.SocketAddress;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.jcip.annotations.ThreadSafe;
+
+import org.infinispan.client.hotrod.configuration.Configuration;
+import org.infinispan.client.hotrod.exceptions.TransportException;
+import org.infinispan.client.hotrod.impl.protocol.Codec;
+import org.infinispan.client.hotrod.impl.transport.Transport;
+import org.infinispan.client.hotrod.logging.Log;
+import org.infinispan.client.hotrod.logging.LogFactory;
+
+/**
+ * Transport factory that multiplexes concurrent operations over a small, fixed number of connections per server,
+ * instead of borrowing an exclusive connection from the pool for every operation. Requests are written without
+ * waiting for earlier responses, and responses are matched to their requests by message id, so the number of sockets
+ * no longer grows with the number of concurrent callers.
+ * <p/>
+ * The number of connections per server is taken from the connection pool's <tt>maxActive</tt> setting if it is
+ * positive, or defaults to {@link #DEFAULT_CONNECTIONS_PER_SERVER}. Enable it with
+ * {@link org.infinispan.client.hotrod.configuration.ConfigurationBuilder#transportFactory(Class)}.
+ *
+ * @since 5.3
+ */
+@ThreadSafe
+public class PipelinedTransportFactory extends TcpTransportFactory {
+
+   private static final Log log = LogFactory.getLog(PipelinedTransportFactory.class, Log.class);
+
+   public static final int DEFAULT_CONNECTIONS_PER_SERVER = 2;
+
+   private final ConcurrentMap<SocketAddress, PipelinedConnection[]> connections =
+         new ConcurrentHashMap<SocketAddress, PipelinedConnection[]>();
+   private final AtomicInteger nextConnection = new AtomicInteger();
+   private volatile int connectionsPerServer = DEFAULT_CONNECTIONS_PER_SERVER;
+
+   @Override
+   public void start(Codec codec, Configuration configuration, AtomicInteger topologyId) {
+      int maxActive = configuration.connectionPool().maxActive();
+      connectionsPerServer = maxActive > 0 ? maxActive : DEFAULT_CONNECTIONS_PER_SERVER;
+      if (log.isDebugEnabled())
+         log.debugf("Pipelining requests over %d connection(s) per server", connectionsPerServer);
+      super.start(codec, configuration, topologyId);
+   }
+
+   @Override
+   public Transport getTransport() {
+      return new PipelinedTransport(connectionFor(nextServer()), this);
+   }
+
+   @Override
+   public Transport getTransport(byte[] key) {
+      return new PipelinedTransport(connectionFor(getServer(key)), this);
+   }
+
+   private PipelinedConnection connectionFor(SocketAddress server) {
+      PipelinedConnection[] serverConnections = connections.get(server);
+      if (serverConnections == null) {
+         PipelinedConnection[] created = new PipelinedConnection[connectionsPerServer];
+         serverConnections = connections.putIfAbsent(server, created);
+         if (serverConnections == null)
+            serverConnections = created;
+      }
+      int index = (nextConnection.getAndIncrement() & Integer.MAX_VALUE) % serverConnections.length;
+      synchronized (serverConnections) {
+         PipelinedConnection connection = serverConnections[index];
+         if (connection == null || !connection.isValid()) {
+            connection = new PipelinedConnection(server, (TcpTransport) borrowTransportFromPool(server), this);
+            serverConnections[index] = connection;
+         }
+         return connection;
+      }
+   }
+
+   @Override
+   public void releaseTransport(Transport transport) {
+      if (transport instanceof PipelinedTransport) {
+         ((PipelinedTransport) transport).complete();
+      } else {
+         super.releaseTransport(transport);
+      }
+   }
+
+   @Override
+   public void invalidateTransport(SocketAddress serverAddress, Transport transport) {
+      if (transport instanceof PipelinedTransport) {
+         transport.invalidate();
+      } else {
+         if (transport == null)
+            closeConnections(serverAddress);
+         super.invalidateTransport(serverAddress, transport);
+      }
+   }
+
+   /**
+    * Destroys the pooled transport backing a closed {@link PipelinedConnection}.
+    */
+   void invalidatePooledTransport(SocketAddress serverAddress, TcpTransport transport) {
+      super.invalidateTransport(serverAddress, transport);
+   }
+
+   @Override
+   public void updateServers(Collection<SocketAddress> newServers) {
+      Set<SocketAddress> removedServers = new HashSet<SocketAddress>(getServers());
+      removedServers.removeAll(newServers);
+      super.updateServers(newServers);
+      for (SocketAddress server : removedServers)
+         closeConnections(server);
+   }
+
+   @Override
+   public void destroy() {
+      for (SocketAddress server : connections.keySet())
+         closeConnections(server);
+      super.destroy();
+   }
+
+   private void closeConnections(SocketAddress server) {
+      PipelinedConnection[] serverConnections = connections.remove(server);
+      if (serverConnections == null)
+         return;
+      synchronized (serverConnections) {
+         for (PipelinedConnection connection : serverConnections) {
+            if (connection != null)
+               connection.close(new TransportException("Connection to server closed", server));
+         }
+      }
+   }
+
+   int getConnectionCount(SocketAddress server) {
+      PipelinedConnection[] serverConnections = connections.get(server);
+      int count = 0;
+      if (serverConnections != null) {
+         synchronized (serverConnections) {
+            for (PipelinedConnection connection : serverConnections) {
+               if (connection != null && connection.isValid())
+                  count++;
+            }
+         }
+      }
+      return count;
+   }
+
+   /**
+    * Returns the number of live connections per server, mainly useful for monitoring and tests.
+    */
+   public Map<SocketAddress, Integer> getConnectionCounts() {
+      Map<SocketAddress, Integer> counts = new HashMap<SocketAddress, Integer>();
+      for (SocketAddress server : connections.keySet())
+         counts.put(server, getConnectionCount(server));
+      return counts;
+   }
+
+}
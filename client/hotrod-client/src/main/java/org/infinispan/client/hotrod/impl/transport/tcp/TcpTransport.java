@@ -32,8 +32,10 @@
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.Socket;
 import java.net.SocketAddress;
+import java.net.SocketException;
 import java.nio.channels.SocketChannel;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -301,6 +303,18 @@ public void destroy() {
       }
    }
 
+   Socket getSocket() {
+      return socket;
+   }
+
+   InputStream getInputStream() {
+      return socketInputStream;
+   }
+
+   OutputStream getOutputStream() {
+      return socketOutputStream;
+   }
+
    public boolean isValid() {
       return !socket.isClosed() && !invalid;
    }
@@ -339,6 +353,19 @@ public SocketAddress getRemoteSocketAddress() {
       return socket.getRemoteSocketAddress();
    }
 
+   /**
+    * Changes the read timeout of this transport, e.g. so that a connection
+    * waiting for messages pushed by the server does not time out while idle.
+    */
+   public void setSoTimeout(int soTimeout) {
+      try {
+         socket.setSoTimeout(soTimeout);
+      } catch (SocketException e) {
+         invalid = true;
+         throw new TransportException(e, serverAddress);
+      }
+   }
+
    @Override
    public void invalidate() {
       invalid = true;
@@ -27,7 +27,9 @@
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -180,15 +182,21 @@ public void updateHashFunction(Map<SocketAddress, Set<Integer>> servers2Hash, in
 
    @Override
    public Transport getTransport() {
-      SocketAddress server;
-      synchronized (lock) {
-         server = balancer.nextServer();
-      }
-      return borrowTransportFromPool(server);
+      return borrowTransportFromPool(nextServer());
    }
 
    @Override
    public Transport getTransport(byte[] key) {
+      return borrowTransportFromPool(getServer(key));
+   }
+
+   protected SocketAddress nextServer() {
+      synchronized (lock) {
+         return balancer.nextServer();
+      }
+   }
+
+   protected SocketAddress getServer(byte[] key) {
       SocketAddress server;
       synchronized (lock) {
          if (consistentHash != null) {
@@ -203,7 +211,28 @@ public Transport getTransport(byte[] key) {
             }
          }
       }
-      return borrowTransportFromPool(server);
+      return server;
+   }
+
+   @Override
+   public Map<SocketAddress, List<byte[]>> groupKeysByServer(Collection<byte[]> keys) {
+      Map<SocketAddress, List<byte[]>> groups = new HashMap<SocketAddress, List<byte[]>>();
+      synchronized (lock) {
+         if (consistentHash == null) {
+            groups.put(balancer.nextServer(), new ArrayList<byte[]>(keys));
+         } else {
+            for (byte[] key : keys) {
+               SocketAddress server = consistentHash.getServer(key);
+               List<byte[]> serverKeys = groups.get(server);
+               if (serverKeys == null) {
+                  serverKeys = new ArrayList<byte[]>();
+                  groups.put(server, serverKeys);
+               }
+               serverKeys.add(key);
+            }
+         }
+      }
+      return groups;
    }
 
    @Override
@@ -288,6 +317,7 @@ public void updateServers(Collection<SocketAddress> newServers) {
       }
    }
 
+   @Override
    public Collection<SocketAddress> getServers() {
       synchronized (lock) {
          return servers;
@@ -302,7 +332,7 @@ private void logConnectionInfo(SocketAddress server) {
       }
    }
 
-   private Transport borrowTransportFromPool(SocketAddress server) {
+   protected Transport borrowTransportFromPool(SocketAddress server) {
       // The borrowObject() call could take a long time, so we hold the lock only until we get the connection pool reference
       KeyedObjectPool<SocketAddress, TcpTransport> pool = getConnectionPool();
       try {
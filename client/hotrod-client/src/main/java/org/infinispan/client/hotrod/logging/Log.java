@@ -147,4 +147,18 @@ public interface Log extends BasicLogger {
 
    @Message(value = "Cannot configure custom KeyStore and/or TrustStore when specifying a SSLContext", id = 4027)
    ConfigurationException xorSSLContext();
+
+   @Message(value = "The near cache must hold at least one entry, but max entries is %d", id = 4028)
+   ConfigurationException invalidNearCacheMaxEntries(int maxEntries);
+
+   @Message(value = "The near cache requires Hot Rod protocol version %s or later, but version %s is configured", id = 4029)
+   ConfigurationException nearCacheRequiresProtocolVersion(String requiredVersion, String protocolVersion);
+
+   @LogMessage(level = WARN)
+   @Message(value = "Lost the near cache invalidation connection to server %s, clearing the near cache of cache '%s'", id = 4030)
+   void nearCacheInvalidationConnectionLost(SocketAddress server, String cacheName, @Cause Exception e);
+
+   @LogMessage(level = WARN)
+   @Message(value = "Server %s refused to register a near cache listener for cache '%s', the near cache stays disabled", id = 4031)
+   void nearCacheListenerRejected(SocketAddress server, String cacheName, @Cause Exception e);
 }
@@ -0,0 +1,119 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.client.hotrod;
+
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.server.hotrod.HotRodServer;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.infinispan.client.hotrod.test.HotRodClientTestingUtil.*;
+import static org.infinispan.server.hotrod.test.HotRodTestingUtil.hotRodCacheConfiguration;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests the multi-key put all and get all operations.
+ *
+ * @since 5.3
+ */
+@Test(testName = "client.hotrod.MultiKeyOperationsTest", groups = "functional")
+public class MultiKeyOperationsTest extends SingleCacheManagerTest {
+   private HotRodServer hotRodServer;
+   private RemoteCacheManager remoteCacheManager;
+   private RemoteCache<Object, Object> remoteCache;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      cacheManager = TestCacheManagerFactory.createCacheManager(
+            hotRodCacheConfiguration());
+      cache = cacheManager.getCache();
+
+      hotRodServer = TestHelper.startHotRodServer(cacheManager);
+
+      Properties hotrodClientConf = new Properties();
+      hotrodClientConf.put("infinispan.client.hotrod.server_list", "localhost:" + hotRodServer.getPort());
+      setHotRodProtocolVersion(hotrodClientConf);
+      remoteCacheManager = new RemoteCacheManager(hotrodClientConf);
+      remoteCache = remoteCacheManager.getCache();
+      return cacheManager;
+   }
+
+   protected void setHotRodProtocolVersion(Properties props) {
+      // Use the default protocol version
+   }
+
+   @AfterClass
+   public void release() {
+      killRemoteCacheManager(remoteCacheManager);
+      killServers(hotRodServer);
+   }
+
+   public void testPutAllGetAll() {
+      Map<Object, Object> data = new HashMap<Object, Object>();
+      for (int i = 0; i < 500; i++) {
+         data.put("k" + i, "v" + i);
+      }
+      remoteCache.putAll(data);
+      assertEquals(500, remoteCache.size());
+
+      Set<Object> keys = new HashSet<Object>(data.keySet());
+      keys.add("missing");
+      Map<Object, Object> result = remoteCache.getAll(keys);
+      assertEquals(data, result);
+   }
+
+   public void testGetAllNoKeys() {
+      assertTrue(remoteCache.getAll(Collections.emptySet()).isEmpty());
+   }
+
+   public void testPutAllVersionsEntries() {
+      Map<Object, Object> data = new HashMap<Object, Object>();
+      data.put("a", "1");
+      data.put("b", "2");
+      remoteCache.putAll(data);
+      VersionedValue<Object> versioned = remoteCache.getVersioned("a");
+      assertTrue(remoteCache.replaceWithVersion("a", "3", versioned.getVersion()));
+      assertEquals("3", remoteCache.get("a"));
+   }
+
+   public void testPutAllWithLifespan() throws Exception {
+      Map<Object, Object> data = new HashMap<Object, Object>();
+      data.put("expiring", "value");
+      remoteCache.putAll(data, 1, TimeUnit.SECONDS);
+      assertEquals("value", remoteCache.get("expiring"));
+      Thread.sleep(1500);
+      assertTrue(remoteCache.getAll(data.keySet()).isEmpty());
+   }
+
+}
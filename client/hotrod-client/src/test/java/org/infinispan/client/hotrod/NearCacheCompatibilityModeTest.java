@@ -0,0 +1,89 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.client.hotrod;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.server.hotrod.HotRodServer;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.util.Properties;
+
+import static org.infinispan.client.hotrod.test.HotRodClientTestingUtil.*;
+import static org.infinispan.server.hotrod.test.HotRodTestingUtil.hotRodCacheConfiguration;
+import static org.testng.AssertJUnit.assertEquals;
+
+/**
+ * Tests that servers running in compatibility mode refuse near cache
+ * listeners, so that the near cache stays disabled while remote operations
+ * keep working.
+ *
+ * @since 5.3
+ */
+@Test(testName = "client.hotrod.NearCacheCompatibilityModeTest", groups = "functional")
+public class NearCacheCompatibilityModeTest extends SingleCacheManagerTest {
+   private HotRodServer hotRodServer;
+   private RemoteCacheManager nearCacheManager;
+   private RemoteCache<Object, Object> nearCache;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.compatibility().enable();
+      cacheManager = TestCacheManagerFactory.createCacheManager(
+            hotRodCacheConfiguration(builder));
+      cache = cacheManager.getCache();
+
+      hotRodServer = TestHelper.startHotRodServer(cacheManager);
+
+      Properties nearCacheConf = new Properties();
+      nearCacheConf.put("infinispan.client.hotrod.server_list", "localhost:" + hotRodServer.getPort());
+      nearCacheConf.put("infinispan.client.hotrod.near_cache.enabled", "true");
+      nearCacheConf.put("infinispan.client.hotrod.near_cache.max_entries", "100");
+      nearCacheManager = new RemoteCacheManager(nearCacheConf);
+      nearCache = nearCacheManager.getCache();
+      return cacheManager;
+   }
+
+   @AfterClass
+   public void release() {
+      killRemoteCacheManager(nearCacheManager);
+      killServers(hotRodServer);
+   }
+
+   public void testNearCacheStaysDisabled() {
+      nearCache.put("k1", "v1");
+      for (int i = 0; i < 10; i++)
+         assertEquals("v1", nearCache.get("k1"));
+      assertEquals(0, nearCache.nearCacheStats().getHits());
+      assertEquals(0, nearCache.nearCacheStats().getNumberOfEntries());
+
+      // unmarshalled keys and values are visible to embedded readers
+      nearCache.put("k1", "v2");
+      assertEquals("v2", nearCache.get("k1"));
+      assertEquals("v2", cache.get("k1"));
+   }
+}
@@ -0,0 +1,155 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.client.hotrod;
+
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.server.hotrod.HotRodServer;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import static org.infinispan.client.hotrod.test.HotRodClientTestingUtil.*;
+import static org.infinispan.server.hotrod.test.HotRodTestingUtil.hotRodCacheConfiguration;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+
+/**
+ * Tests that reads are served by the near cache and that writes of other
+ * clients invalidate it.
+ *
+ * @since 5.3
+ */
+@Test(testName = "client.hotrod.NearCacheTest", groups = "functional")
+public class NearCacheTest extends SingleCacheManagerTest {
+   private HotRodServer hotRodServer;
+   private RemoteCacheManager nearCacheManager;
+   private RemoteCacheManager otherCacheManager;
+   private RemoteCache<Object, Object> nearCache;
+   private RemoteCache<Object, Object> otherCache;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      cacheManager = TestCacheManagerFactory.createCacheManager(
+            hotRodCacheConfiguration());
+      cache = cacheManager.getCache();
+
+      hotRodServer = TestHelper.startHotRodServer(cacheManager);
+
+      Properties nearCacheConf = new Properties();
+      nearCacheConf.put("infinispan.client.hotrod.server_list", "localhost:" + hotRodServer.getPort());
+      nearCacheConf.put("infinispan.client.hotrod.near_cache.enabled", "true");
+      nearCacheConf.put("infinispan.client.hotrod.near_cache.max_entries", "100");
+      nearCacheManager = new RemoteCacheManager(nearCacheConf);
+      nearCache = nearCacheManager.getCache();
+
+      Properties otherConf = new Properties();
+      otherConf.put("infinispan.client.hotrod.server_list", "localhost:" + hotRodServer.getPort());
+      otherCacheManager = new RemoteCacheManager(otherConf);
+      otherCache = otherCacheManager.getCache();
+      return cacheManager;
+   }
+
+   @AfterClass
+   public void release() {
+      killRemoteCacheManager(nearCacheManager);
+      killRemoteCacheManager(otherCacheManager);
+      killServers(hotRodServer);
+   }
+
+   public void testReadsServedByNearCache() {
+      nearCache.put("k1", "v1");
+      cacheEventually("k1", "v1");
+      long hits = nearCache.nearCacheStats().getHits();
+      assertEquals("v1", nearCache.get("k1"));
+      assertEquals(hits + 1, nearCache.nearCacheStats().getHits());
+   }
+
+   public void testRemoteWritesInvalidate() {
+      otherCache.put("k2", "v2");
+      cacheEventually("k2", "v2");
+
+      otherCache.put("k2", "v3");
+      cacheEventually("k2", "v3");
+
+      otherCache.remove("k2");
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return nearCache.get("k2") == null;
+         }
+      });
+   }
+
+   public void testLocalWritesInvalidate() {
+      nearCache.put("k3", "v3");
+      cacheEventually("k3", "v3");
+      nearCache.put("k3", "v4");
+      assertEquals("v4", nearCache.get("k3"));
+      nearCache.remove("k3");
+      assertNull(nearCache.get("k3"));
+   }
+
+   public void testMortalEntriesNotCached() {
+      cacheEventually("k4", "v4");
+      nearCache.put("k5", "v5", 10, TimeUnit.MINUTES);
+      int entries = nearCache.nearCacheStats().getNumberOfEntries();
+      long hits = nearCache.nearCacheStats().getHits();
+      assertEquals("v5", nearCache.get("k5"));
+      assertEquals("v5", nearCache.get("k5"));
+      assertEquals(hits, nearCache.nearCacheStats().getHits());
+      assertEquals(entries, nearCache.nearCacheStats().getNumberOfEntries());
+   }
+
+   public void testClearInvalidates() {
+      otherCache.put("k6", "v6");
+      cacheEventually("k6", "v6");
+      otherCache.clear();
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return nearCache.get("k6") == null;
+         }
+      });
+   }
+
+   /**
+    * Waits for the invalidation connection to be registered and the value of
+    * the given key to be served by the near cache.
+    */
+   private void cacheEventually(final Object key, final Object value) {
+      if (!otherCache.containsKey(key))
+         otherCache.put(key, value);
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            long hits = nearCache.nearCacheStats().getHits();
+            return value.equals(nearCache.get(key)) && nearCache.nearCacheStats().getHits() > hits;
+         }
+      });
+   }
+
+}
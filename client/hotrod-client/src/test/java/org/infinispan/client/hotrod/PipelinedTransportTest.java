@@ -0,0 +1,139 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.client.hotrod;
+
+import org.infinispan.client.hotrod.impl.transport.tcp.PipelinedTransportFactory;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.server.hotrod.HotRodServer;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.infinispan.client.hotrod.test.HotRodClientTestingUtil.*;
+import static org.infinispan.server.hotrod.test.HotRodTestingUtil.hotRodCacheConfiguration;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests that concurrent operations multiplexed over the connections of the {@link PipelinedTransportFactory} all get
+ * their own response.
+ *
+ * @since 5.3
+ */
+@Test(testName = "client.hotrod.PipelinedTransportTest", groups = "functional")
+public class PipelinedTransportTest extends SingleCacheManagerTest {
+   private static final int THREADS = 10;
+   private static final int OPERATIONS = 200;
+
+   private HotRodServer hotRodServer;
+   private RemoteCacheManager remoteCacheManager;
+   private RemoteCache<String, String> remoteCache;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      cacheManager = TestCacheManagerFactory.createCacheManager(
+            hotRodCacheConfiguration());
+      cache = cacheManager.getCache();
+
+      hotRodServer = TestHelper.startHotRodServer(cacheManager);
+
+      Properties hotrodClientConf = new Properties();
+      hotrodClientConf.put("infinispan.client.hotrod.server_list", "localhost:" + hotRodServer.getPort());
+      hotrodClientConf.put("infinispan.client.hotrod.transport_factory", PipelinedTransportFactory.class.getName());
+      remoteCacheManager = new RemoteCacheManager(hotrodClientConf);
+      remoteCache = remoteCacheManager.getCache();
+      return cacheManager;
+   }
+
+   @AfterClass
+   public void release() {
+      killRemoteCacheManager(remoteCacheManager);
+      killServers(hotRodServer);
+   }
+
+   public void testSequentialOperations() {
+      assertNull(remoteCache.put("k", "v1"));
+      assertEquals("v1", remoteCache.get("k"));
+      assertEquals("v1", remoteCache.withFlags(Flag.FORCE_RETURN_VALUE).put("k", "v2"));
+      assertEquals("v2", remoteCache.get("k"));
+      assertEquals("v2", remoteCache.withFlags(Flag.FORCE_RETURN_VALUE).remove("k"));
+      assertNull(remoteCache.get("k"));
+   }
+
+   public void testConcurrentOperations() throws Exception {
+      ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+      try {
+         List<Future<Void>> futures = new ArrayList<Future<Void>>();
+         for (int i = 0; i < THREADS; i++) {
+            final int thread = i;
+            futures.add(executor.submit(new Callable<Void>() {
+               @Override
+               public Void call() throws Exception {
+                  for (int j = 0; j < OPERATIONS; j++) {
+                     String key = "k-" + thread + "-" + j;
+                     String value = "v-" + thread + "-" + j;
+                     remoteCache.put(key, value);
+                     assertEquals(value, remoteCache.get(key));
+                  }
+                  return null;
+               }
+            }));
+         }
+         for (Future<Void> future : futures)
+            future.get();
+      } finally {
+         executor.shutdownNow();
+      }
+      assertEquals(THREADS * OPERATIONS, cache.size());
+
+      // All the callers shared the configured number of connections
+      PipelinedTransportFactory transportFactory = (PipelinedTransportFactory)
+            TestingUtil.extractField(remoteCacheManager, "transportFactory");
+      Map<SocketAddress, Integer> connectionCounts = transportFactory.getConnectionCounts();
+      assertEquals(1, connectionCounts.size());
+      int connections = connectionCounts.values().iterator().next();
+      assertTrue(connections > 0 && connections <= PipelinedTransportFactory.DEFAULT_CONNECTIONS_PER_SERVER);
+   }
+
+   public void testBulkGet() {
+      for (int i = 0; i < 100; i++)
+         remoteCache.put("bulk-" + i, "value-" + i);
+      Map<String, String> bulk = remoteCache.getBulk();
+      for (int i = 0; i < 100; i++)
+         assertEquals("value-" + i, bulk.get("bulk-" + i));
+   }
+
+}
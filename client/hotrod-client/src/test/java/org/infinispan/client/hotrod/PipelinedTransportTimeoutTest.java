@@ -0,0 +1,126 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.client.hotrod;
+
+import static org.infinispan.client.hotrod.test.HotRodClientTestingUtil.killRemoteCacheManager;
+import static org.infinispan.client.hotrod.test.HotRodClientTestingUtil.killServers;
+import static org.infinispan.server.hotrod.test.HotRodTestingUtil.hotRodCacheConfiguration;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNotSame;
+
+import java.net.SocketAddress;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.infinispan.client.hotrod.impl.ConfigurationProperties;
+import org.infinispan.client.hotrod.impl.transport.tcp.PipelinedTransportFactory;
+import org.infinispan.commands.write.PutKeyValueCommand;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.interceptors.EntryWrappingInterceptor;
+import org.infinispan.interceptors.base.CommandInterceptor;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.server.hotrod.HotRodServer;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that a request timing out on a pipelined connection closes the connection, and that the request is retried
+ * over a new one.
+ *
+ * @since 5.3
+ */
+@Test(groups = "functional", testName = "client.hotrod.PipelinedTransportTimeoutTest")
+public class PipelinedTransportTimeoutTest extends SingleCacheManagerTest {
+
+   private final DelayingInterceptor delayingInterceptor = new DelayingInterceptor();
+   private HotRodServer hotRodServer;
+   private RemoteCacheManager remoteCacheManager;
+   private RemoteCache<String, String> remoteCache;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.customInterceptors().addInterceptor().interceptor(delayingInterceptor)
+            .after(EntryWrappingInterceptor.class);
+      return TestCacheManagerFactory.createCacheManager(hotRodCacheConfiguration(builder));
+   }
+
+   @Override
+   protected void setup() throws Exception {
+      super.setup();
+      hotRodServer = TestHelper.startHotRodServer(cacheManager);
+      Properties props = new Properties();
+      props.put("infinispan.client.hotrod.server_list", "127.0.0.1:" + hotRodServer.getPort());
+      props.put("infinispan.client.hotrod.transport_factory", PipelinedTransportFactory.class.getName());
+      props.setProperty(ConfigurationProperties.SO_TIMEOUT, "1000");
+      props.setProperty("maxActive", "1");
+      remoteCacheManager = new RemoteCacheManager(props);
+      remoteCache = remoteCacheManager.getCache();
+   }
+
+   @Override
+   protected void teardown() {
+      killRemoteCacheManager(remoteCacheManager);
+      killServers(hotRodServer);
+      super.teardown();
+   }
+
+   public void testTimeoutClosesConnection() {
+      remoteCache.put("k1", "v1");
+      Object connection = currentConnection();
+      assertNotNull(connection);
+
+      // The first attempt times out and closes the connection, the retry goes over a new one
+      delayingInterceptor.delayNextPut.set(true);
+      remoteCache.withFlags(Flag.FORCE_RETURN_VALUE).put("k2", "v2");
+      assertEquals("v2", remoteCache.get("k2"));
+      assertEquals("v2", remoteCache.withFlags(Flag.FORCE_RETURN_VALUE).put("k2", "v3"));
+      assertEquals("v1", remoteCache.get("k1"));
+      assertNotSame(connection, currentConnection());
+   }
+
+   private Object currentConnection() {
+      PipelinedTransportFactory transportFactory = (PipelinedTransportFactory)
+            TestingUtil.extractField(remoteCacheManager, "transportFactory");
+      Map<SocketAddress, Object[]> connections = (Map<SocketAddress, Object[]>)
+            TestingUtil.extractField(transportFactory, "connections");
+      return connections.values().iterator().next()[0];
+   }
+
+   public static class DelayingInterceptor extends CommandInterceptor {
+      final AtomicBoolean delayNextPut = new AtomicBoolean();
+
+      @Override
+      public Object visitPutKeyValueCommand(InvocationContext ctx, PutKeyValueCommand command) throws Throwable {
+         if (delayNextPut.compareAndSet(true, false))
+            Thread.sleep(1500);
+         return super.visitPutKeyValueCommand(ctx, command);
+      }
+   }
+
+}
@@ -43,6 +43,7 @@
 import java.util.Collection;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 
 /**
  * An advanced interface that exposes additional methods not available on {@link Cache}.
@@ -318,6 +319,19 @@
     */
    V put(K key, V value, Metadata metadata);
 
+   /**
+    * An overloaded form of {@link #putAll(java.util.Map)}, which takes in an
+    * instance of {@link org.infinispan.metadata.Metadata} which will be
+    * stored alongside each of the entries in the map. All entries are written
+    * by a single {@link org.infinispan.commands.write.PutMapCommand}.
+    *
+    * @param map the entries to store
+    * @param metadata information to store alongside each value
+    *
+    * @since 5.3
+    */
+   void putAll(Map<? extends K, ? extends V> map, Metadata metadata);
+
    /**
     * An overloaded form of {@link #replace(K, V)}, which takes in an
     * instance of {@link Metadata} which can be used to provide metadata
@@ -39,6 +39,7 @@
 import org.infinispan.commands.write.PutMapCommand;
 import org.infinispan.commands.write.RemoveCommand;
 import org.infinispan.commands.write.ReplaceCommand;
+import org.infinispan.configuration.cache.CacheMode;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.cache.LegacyConfigurationAdaptor;
 import org.infinispan.config.ConfigurationException;
@@ -80,6 +81,7 @@
 import org.infinispan.transaction.xa.recovery.RecoveryManager;
 import org.infinispan.util.Util;
 import org.infinispan.util.concurrent.AbstractInProcessNotifyingFuture;
+import org.infinispan.util.concurrent.CompletableNotifyingFuture;
 import org.infinispan.util.concurrent.NotifyingFuture;
 import org.infinispan.util.concurrent.NotifyingFutureAdaptor;
 import org.infinispan.util.concurrent.locks.LockManager;
@@ -144,6 +146,11 @@
    private TransactionCoordinator txCoordinator;
    private GlobalConfiguration globalCfg;
    private boolean isClassLoaderInContext;
+   /**
+    * Whether async operations are invoked by the calling thread when they only wait for remote owners, see
+    * {@link #invokeWithFutureReturnType(InvocationContext, VisitableCommand)}.
+    */
+   private boolean nonBlockingAsyncOps;
 
    public CacheImpl(String name) {
       this.name = name;
@@ -367,10 +374,14 @@ public final boolean containsKey(Object key) {
 
    final boolean containsKey(Object key, EnumSet<Flag> explicitFlags, ClassLoader explicitClassLoader) {
       assertKeyNotNull(key);
-      InvocationContext ctx = getInvocationContextForRead(null, explicitClassLoader, 1);
+      InvocationContext ctx = getInvocationContextForSingleKeyRead(explicitClassLoader);
       GetKeyValueCommand command = commandsFactory.buildGetKeyValueCommand(key, explicitFlags, false);
-      Object response = invoker.invoke(ctx, command);
-      return response != null;
+      try {
+         Object response = invoker.invoke(ctx, command);
+         return response != null;
+      } finally {
+         releaseInvocationContextForSingleKeyRead(ctx);
+      }
    }
 
    @Override
@@ -386,18 +397,26 @@ public final V get(Object key) {
    @SuppressWarnings("unchecked")
    final V get(Object key, EnumSet<Flag> explicitFlags, ClassLoader explicitClassLoader) {
       assertKeyNotNull(key);
-      InvocationContext ctx = getInvocationContextForRead(null, explicitClassLoader, 1);
+      InvocationContext ctx = getInvocationContextForSingleKeyRead(explicitClassLoader);
       GetKeyValueCommand command = commandsFactory.buildGetKeyValueCommand(key, explicitFlags, false);
-      return (V) invoker.invoke(ctx, command);
+      try {
+         return (V) invoker.invoke(ctx, command);
+      } finally {
+         releaseInvocationContextForSingleKeyRead(ctx);
+      }
    }
 
    @Override
    public final CacheEntry getCacheEntry(Object key, EnumSet<Flag> explicitFlags, ClassLoader explicitClassLoader) {
       assertKeyNotNull(key);
-      InvocationContext ctx = getInvocationContextForRead(null, explicitClassLoader, 1);
+      InvocationContext ctx = getInvocationContextForSingleKeyRead(explicitClassLoader);
       GetKeyValueCommand command = commandsFactory.buildGetKeyValueCommand(key, explicitFlags, true);
-      Object ret = invoker.invoke(ctx, command);
-      return (CacheEntry) ret;
+      try {
+         Object ret = invoker.invoke(ctx, command);
+         return (CacheEntry) ret;
+      } finally {
+         releaseInvocationContextForSingleKeyRead(ctx);
+      }
    }
 
    @Override
@@ -590,6 +609,23 @@ private InvocationContext getInvocationContextForRead(Transaction tx, ClassLoade
       return result;
    }
 
+   /**
+    * Outside of transactions, single key reads use a context that is reused by the next read of the thread, and must
+    * be released with {@link #releaseInvocationContextForSingleKeyRead(InvocationContext)}.
+    */
+   private InvocationContext getInvocationContextForSingleKeyRead(ClassLoader explicitClassLoader) {
+      if (config.transaction().transactionMode().isTransactional())
+         return getInvocationContextForRead(null, explicitClassLoader, 1);
+      InvocationContext result = icc.createSingleKeyReadInvocationContext();
+      setInvocationContextClassLoader(result, explicitClassLoader);
+      return result;
+   }
+
+   private void releaseInvocationContextForSingleKeyRead(InvocationContext ctx) {
+      if (!config.transaction().transactionMode().isTransactional())
+         icc.releaseReadInvocationContext(ctx);
+   }
+
    private InvocationContext getInvocationContextWithImplicitTransactionForAsyncOps(boolean isPutForExternalRead, ClassLoader explicitClassLoader, int keyCount) {
       InvocationContext ctx = getInvocationContextWithImplicitTransaction(isPutForExternalRead, explicitClassLoader, keyCount);
       //If the transaction was injected then we should not have it associated to caller's thread, but with the async thread
@@ -695,6 +731,13 @@ public void start() {
       isClassLoaderInContext = config.clustering().cacheMode().isClustered()
             || config.loaders().usingCacheLoaders()
             || config.storeAsBinary().enabled();
+      // L1, stored values kept as binary and cache loaders are handled by interceptors which need the actual return
+      // values of the invocations, and local locks are held by the invocations of transactional caches
+      nonBlockingAsyncOps = config.clustering().cacheMode() == CacheMode.DIST_SYNC
+            && !config.transaction().transactionMode().isTransactional()
+            && !config.clustering().l1().enabled()
+            && !config.storeAsBinary().enabled()
+            && !config.loaders().usingCacheLoaders();
 
       if (log.isDebugEnabled()) log.debugf("Started cache %s on %s", getName(), getCacheManager().getAddress());
    }
@@ -1021,6 +1064,11 @@ public final NotifyingFuture<V> putAsync(K key, V value, long lifespan, TimeUnit
    }
 
    final NotifyingFuture<V> putAsync(final K key, final V value, final Metadata metadata, final EnumSet<Flag> explicitFlags, final ClassLoader explicitClassLoader) {
+      if (isNonBlockingWrite(key, explicitFlags)) {
+         assertKeyValueNotNull(key, value);
+         PutKeyValueCommand command = commandsFactory.buildPutKeyValueCommand(key, value, metadata, explicitFlags);
+         return invokeWithFutureReturnType(getInvocationContextWithImplicitTransaction(false, explicitClassLoader, 1), command);
+      }
       final NotifyingFutureAdaptor<V> result = new NotifyingFutureAdaptor<V>();
       final InvocationContext ctx = getInvocationContextWithImplicitTransactionForAsyncOps(false, explicitClassLoader, 1);
       Future<V> returnValue = asyncExecutor.submit(new Callable<V>() {
@@ -1104,6 +1152,12 @@ public final NotifyingFuture<V> putIfAbsentAsync(K key, V value, long lifespan,
 
    final NotifyingFuture<V> putIfAbsentAsync(final K key, final V value, final Metadata metadata,
          final EnumSet<Flag> explicitFlags,final ClassLoader explicitClassLoader) {
+      if (isNonBlockingWrite(key, explicitFlags)) {
+         assertKeyValueNotNull(key, value);
+         PutKeyValueCommand command = commandsFactory.buildPutKeyValueCommand(key, value, metadata, explicitFlags);
+         command.setPutIfAbsent(true);
+         return invokeWithFutureReturnType(getInvocationContextWithImplicitTransaction(false, explicitClassLoader, 1), command);
+      }
       final NotifyingFutureAdaptor<V> result = new NotifyingFutureAdaptor<V>();
       final InvocationContext ctx = getInvocationContextWithImplicitTransactionForAsyncOps(false, explicitClassLoader, 1);
       Future<V> returnValue = asyncExecutor.submit(new Callable<V>() {
@@ -1127,6 +1181,11 @@ public final NotifyingFuture<V> removeAsync(Object key) {
    }
 
    final NotifyingFuture<V> removeAsync(final Object key, final EnumSet<Flag> explicitFlags, final ClassLoader explicitClassLoader) {
+      if (isNonBlockingWrite(key, explicitFlags)) {
+         assertKeyNotNull(key);
+         RemoveCommand command = commandsFactory.buildRemoveCommand(key, null, explicitFlags);
+         return invokeWithFutureReturnType(getInvocationContextWithImplicitTransaction(false, explicitClassLoader, 1), command);
+      }
       final NotifyingFutureAdaptor<V> result = new NotifyingFutureAdaptor<V>();
       final InvocationContext ctx = getInvocationContextWithImplicitTransactionForAsyncOps(false, explicitClassLoader, 1);
       Future<V> returnValue = asyncExecutor.submit(new Callable<V>() {
@@ -1150,6 +1209,11 @@ public final NotifyingFuture<Boolean> removeAsync(Object key, Object value) {
    }
 
    final NotifyingFuture<Boolean> removeAsync(final Object key, final Object value, final EnumSet<Flag> explicitFlags, final ClassLoader explicitClassLoader) {
+      if (isNonBlockingWrite(key, explicitFlags)) {
+         assertKeyValueNotNull(key, value);
+         RemoveCommand command = commandsFactory.buildRemoveCommand(key, value, explicitFlags);
+         return invokeWithFutureReturnType(getInvocationContextWithImplicitTransaction(false, explicitClassLoader, 1), command);
+      }
       final NotifyingFutureAdaptor<Boolean> result = new NotifyingFutureAdaptor<Boolean>();
       final InvocationContext ctx = getInvocationContextWithImplicitTransactionForAsyncOps(false, explicitClassLoader, 1);
       Future<Boolean> returnValue = asyncExecutor.submit(new Callable<Boolean>() {
@@ -1177,6 +1241,11 @@ public final NotifyingFuture<V> replaceAsync(K key, V value, long lifespan, Time
 
    final NotifyingFuture<V> replaceAsync(final K key, final V value, final Metadata metadata,
          final EnumSet<Flag> explicitFlags, final ClassLoader explicitClassLoader) {
+      if (isNonBlockingWrite(key, explicitFlags)) {
+         assertKeyValueNotNull(key, value);
+         ReplaceCommand command = commandsFactory.buildReplaceCommand(key, null, value, metadata, explicitFlags);
+         return invokeWithFutureReturnType(getInvocationContextWithImplicitTransaction(false, explicitClassLoader, 1), command);
+      }
       final NotifyingFutureAdaptor<V> result = new NotifyingFutureAdaptor<V>();
       final InvocationContext ctx = getInvocationContextWithImplicitTransactionForAsyncOps(false, explicitClassLoader, 1);
       Future<V> returnValue = asyncExecutor.submit(new Callable<V>() {
@@ -1204,6 +1273,12 @@ public final NotifyingFuture<Boolean> replaceAsync(K key, V oldValue, V newValue
 
    final NotifyingFuture<Boolean> replaceAsync(final K key, final V oldValue, final V newValue,
          final Metadata metadata, final EnumSet<Flag> explicitFlags, final ClassLoader explicitClassLoader) {
+      if (isNonBlockingWrite(key, explicitFlags)) {
+         assertKeyValueNotNull(key, newValue);
+         assertValueNotNull(oldValue);
+         ReplaceCommand command = commandsFactory.buildReplaceCommand(key, oldValue, newValue, metadata, explicitFlags);
+         return invokeWithFutureReturnType(getInvocationContextWithImplicitTransaction(false, explicitClassLoader, 1), command);
+      }
       final NotifyingFutureAdaptor<Boolean> result = new NotifyingFutureAdaptor<Boolean>();
       final InvocationContext ctx = getInvocationContextWithImplicitTransactionForAsyncOps(false, explicitClassLoader, 1);
       Future<Boolean> returnValue = asyncExecutor.submit(new Callable<Boolean>() {
@@ -1240,6 +1315,11 @@ NotifyingFuture<V> getAsync(final K key, final EnumSet<Flag> explicitFlags, fina
             appliedFlags = explicitFlags.clone();
             explicitFlags.clear();
          }
+         if (nonBlockingAsyncOps) {
+            // the key is not local, so the get only waits for its owners
+            GetKeyValueCommand command = commandsFactory.buildGetKeyValueCommand(key, appliedFlags, false);
+            return invokeWithFutureReturnType(getInvocationContextForRead(null, explicitClassLoader, 1), command);
+         }
          final NotifyingFutureAdaptor<V> f = new NotifyingFutureAdaptor<V>();
 
          Callable<V> c = new Callable<V>() {
@@ -1279,6 +1359,33 @@ private boolean asyncSkipsThread(EnumSet<Flag> flags, K key) {
       return distributionManager.getLocality(key).isLocal();
    }
 
+   /**
+    * Whether an async write of the given key can be invoked by the calling thread with a future return type, because
+    * the only thing the invocation would wait for is the response of the primary owner of the key. The primary owner
+    * itself holds the lock of the key while waiting for the backup owners, so it still needs a thread.
+    */
+   private boolean isNonBlockingWrite(Object key, EnumSet<Flag> flags) {
+      return nonBlockingAsyncOps && (flags == null || !flags.contains(Flag.CACHE_MODE_LOCAL))
+            && !distributionManager.getPrimaryLocation(key).equals(rpcManager.getAddress())
+            && !distributionManager.isAffectedByRehash(key);
+   }
+
+   /**
+    * Invokes the command with a future return type, see {@link InvocationContext#isUseFutureReturnType()}, so that the
+    * returned future is completed on the async executor once the responses of the remote owners arrive, instead of by
+    * a thread waiting for them.
+    */
+   private <X> NotifyingFuture<X> invokeWithFutureReturnType(InvocationContext ctx, VisitableCommand command) {
+      ctx.setUseFutureReturnType(true);
+      try {
+         return wrapInFuture(invoker.invoke(ctx, command));
+      } catch (RuntimeException e) {
+         CompletableNotifyingFuture<X> failed = new CompletableNotifyingFuture<X>();
+         failed.completeExceptionally(e);
+         return failed;
+      }
+   }
+
    private boolean isSkipLoader(EnumSet<Flag> flags) {
       boolean hasCacheLoaderConfig = !config.loaders().cacheLoaders().isEmpty();
       return !hasCacheLoaderConfig
@@ -1390,6 +1497,11 @@ public V put(K key, V value, Metadata metadata) {
       return put(key, value, metadata, null, null);
    }
 
+   @Override
+   public void putAll(Map<? extends K, ? extends V> map, Metadata metadata) {
+      putAll(map, metadata, null, null);
+   }
+
    @Override
    public V replace(K key, V value, Metadata metadata) {
       return replace(key, value, metadata, null, null);
@@ -57,6 +57,7 @@
 import org.infinispan.factories.scopes.Scopes;
 import org.infinispan.loaders.CacheLoaderManager;
 import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.remoting.transport.jgroups.CommandBundle;
 import org.infinispan.statetransfer.StateRequestCommand;
 import org.infinispan.statetransfer.StateResponseCommand;
 import org.infinispan.topology.CacheTopologyControlCommand;
@@ -138,6 +139,9 @@ public ReplicableCommand fromStream(byte id, Object[] parameters, byte type) {
             case CacheTopologyControlCommand.COMMAND_ID:
                command = new CacheTopologyControlCommand();
                break;
+            case CommandBundle.COMMAND_ID:
+               command = new CommandBundle();
+               break;
             default:
                throw new CacheException("Unknown command id " + id + "!");
          }
@@ -28,14 +28,16 @@
 public class AsyncStoreConfiguration {
 
    private final boolean enabled;
+   private final long flushInterval;
    private long flushLockTimeout;
    private final int modificationQueueSize;
    private long shutdownTimeout;
    private final int threadPoolSize;
 
-   AsyncStoreConfiguration(boolean enabled, long flushLockTimeout, int modificationQueueSize, long shutdownTimeout,
+   AsyncStoreConfiguration(boolean enabled, long flushInterval, long flushLockTimeout, int modificationQueueSize, long shutdownTimeout,
          int threadPoolSize) {
       this.enabled = enabled;
+      this.flushInterval = flushInterval;
       this.flushLockTimeout = flushLockTimeout;
       this.modificationQueueSize = modificationQueueSize;
       this.shutdownTimeout = shutdownTimeout;
@@ -49,6 +51,14 @@ public boolean enabled() {
       return enabled;
    }
 
+   /**
+    * Minimum time, in milliseconds, that modifications are buffered and coalesced before being
+    * flushed to the cache store. 0 means modifications are flushed as soon as they are available.
+    */
+   public long flushInterval() {
+      return flushInterval;
+   }
+
    /**
     * Timeout to acquire the lock which guards the state to be flushed to the cache store
     * periodically. The timeout can be adjusted for a running cache.
@@ -103,6 +113,7 @@ public int threadPoolSize() {
    public String toString() {
       return "AsyncLoaderConfiguration{" +
             "enabled=" + enabled +
+            ", flushInterval=" + flushInterval +
             ", flushLockTimeout=" + flushLockTimeout +
             ", modificationQueueSize=" + modificationQueueSize +
             ", shutdownTimeout=" + shutdownTimeout +
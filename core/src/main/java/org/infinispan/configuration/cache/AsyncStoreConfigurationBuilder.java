@@ -20,6 +20,7 @@
 
 import java.util.concurrent.TimeUnit;
 
+import org.infinispan.config.ConfigurationException;
 import org.infinispan.configuration.Builder;
 
 /**
@@ -32,6 +33,7 @@
 public class AsyncStoreConfigurationBuilder<S> extends AbstractStoreConfigurationChildBuilder<S> implements Builder<AsyncStoreConfiguration> {
 
    private boolean enabled = false;
+   private long flushInterval = 0;
    private long flushLockTimeout = 1;
    private int modificationQueueSize = 1024;
    private long shutdownTimeout = TimeUnit.SECONDS.toMillis(25);
@@ -59,6 +61,27 @@ public AsyncStoreConfigurationBuilder<S> enabled(boolean enabled) {
       return this;
    }
 
+   /**
+    * Minimum time, in milliseconds, that modifications are buffered before being flushed to the
+    * cache store. Repeated writes to the same key within an interval are coalesced so that only the
+    * final state is written, and all modifications of a flush are applied to the cache store as a
+    * single batch. A flush happens earlier if the modification queue fills up. Defaults to 0, which
+    * flushes as soon as modifications are available.
+    */
+   public AsyncStoreConfigurationBuilder<S> flushInterval(long l) {
+      this.flushInterval = l;
+      return this;
+   }
+
+   /**
+    * Minimum time that modifications are buffered before being flushed to the cache store.
+    *
+    * @see #flushInterval(long)
+    */
+   public AsyncStoreConfigurationBuilder<S> flushInterval(long l, TimeUnit unit) {
+      return flushInterval(unit.toMillis(l));
+   }
+
    /**
     * Timeout to acquire the lock which guards the state to be flushed to the cache store
     * periodically. The timeout can be adjusted for a running cache.
@@ -117,17 +140,20 @@ public AsyncStoreConfigurationBuilder<S> threadPoolSize(int i) {
    @Override
    public
    void validate() {
+      if (enabled && flushInterval < 0)
+         throw new ConfigurationException("The flush interval of an async store cannot be negative");
    }
 
    @Override
    public
    AsyncStoreConfiguration create() {
-      return new AsyncStoreConfiguration(enabled, flushLockTimeout, modificationQueueSize, shutdownTimeout, threadPoolSize);
+      return new AsyncStoreConfiguration(enabled, flushInterval, flushLockTimeout, modificationQueueSize, shutdownTimeout, threadPoolSize);
    }
 
    @Override
    public AsyncStoreConfigurationBuilder<S> read(AsyncStoreConfiguration template) {
       this.enabled = template.enabled();
+      this.flushInterval = template.flushInterval();
       this.flushLockTimeout = template.flushLockTimeout();
       this.modificationQueueSize = template.modificationQueueSize();
       this.shutdownTimeout = template.shutdownTimeout();
@@ -140,6 +166,7 @@ public AsyncStoreConfigurationBuilder<S> read(AsyncStoreConfiguration template)
    public String toString() {
       return "AsyncLoaderConfigurationBuilder{" +
             "enabled=" + enabled +
+            ", flushInterval=" + flushInterval +
             ", flushLockTimeout=" + flushLockTimeout +
             ", modificationQueueSize=" + modificationQueueSize +
             ", shutdownTimeout=" + shutdownTimeout +
@@ -20,6 +20,7 @@
 
 import java.util.Properties;
 
+import org.infinispan.config.ConfigurationException;
 import org.infinispan.configuration.Builder;
 import org.infinispan.container.DataContainer;
 import org.infinispan.util.AnyEquivalence;
@@ -38,6 +39,8 @@ public class DataContainerConfigurationBuilder extends AbstractConfigurationChil
    private DataContainer dataContainer;
    private Equivalence keyEquivalence = AnyEquivalence.getInstance();
    private Equivalence valueEquivalence = AnyEquivalence.getInstance();
+   private boolean offHeap = false;
+   private boolean segmented = false;
    // TODO: What are properties used for? Is it just legacy?
    private Properties properties = new Properties();
 
@@ -108,15 +111,65 @@ public <V> DataContainerConfigurationBuilder valueEquivalence(Equivalence<V> val
       return this;
    }
 
+   /**
+    * Store entries outside of the Java heap, in marshalled form, using an
+    * {@link org.infinispan.container.offheap.OffHeapDataContainer}. Keys, values and metadata must be marshallable
+    * by the cache marshaller. Ignored if a custom data container is specified with
+    * {@link #dataContainer(DataContainer)}.
+    *
+    * @param offHeap whether entries should be stored off-heap
+    * @return this configuration builder
+    */
+   public DataContainerConfigurationBuilder offHeap(boolean offHeap) {
+      this.offHeap = offHeap;
+      return this;
+   }
+
+   /**
+    * Partition the entries of a distributed cache by consistent hash segment, using a
+    * {@link org.infinispan.container.SegmentedDataContainer}, so that state transfer and the invalidation of segments
+    * that are no longer owned only go through the entries of the segments involved. Not compatible with eviction.
+    * Ignored if a custom data container is specified with {@link #dataContainer(DataContainer)}.
+    *
+    * @param segmented whether entries should be partitioned by segment
+    * @return this configuration builder
+    */
+   public DataContainerConfigurationBuilder segmented(boolean segmented) {
+      this.segmented = segmented;
+      return this;
+   }
+
+   /**
+    * @return whether the data container built for this configuration stores its entries off-heap
+    */
+   boolean offHeap() {
+      return dataContainer == null && offHeap;
+   }
+
+   /**
+    * @return whether the data container built for this configuration partitions its entries by segment
+    */
+   boolean segmented() {
+      return dataContainer == null && segmented;
+   }
+
    @Override
    public void validate() {
+      if (segmented && dataContainer == null) {
+         if (!clustering().cacheMode().isDistributed())
+            throw new ConfigurationException("A segmented data container is only supported when using DISTRIBUTED as a cache mode.  Your cache mode is set to " + clustering().cacheMode().friendlyCacheModeString());
+         if (offHeap)
+            throw new ConfigurationException("A segmented data container cannot store entries off-heap");
+         if (eviction().maxEntries() > 0)
+            throw new ConfigurationException("A segmented data container cannot be used together with eviction");
+      }
    }
 
    @Override
    public DataContainerConfiguration create() {
       return new DataContainerConfiguration(dataContainer,
             TypedProperties.toTypedProperties(properties), keyEquivalence,
-            valueEquivalence);
+            valueEquivalence, offHeap, segmented);
    }
 
    @Override
@@ -125,6 +178,8 @@ public DataContainerConfigurationBuilder read(DataContainerConfiguration templat
       this.properties = template.properties();
       this.keyEquivalence = template.keyEquivalence();
       this.valueEquivalence = template.valueEquivalence();
+      this.offHeap = template.offHeap();
+      this.segmented = template.segmented();
 
       return this;
    }
@@ -136,6 +191,8 @@ public String toString() {
             ", properties=" + properties +
             ", keyEquivalence=" + keyEquivalence +
             ", valueEquivalence=" + valueEquivalence +
+            ", offHeap=" + offHeap +
+            ", segmented=" + segmented +
             '}';
    }
 
@@ -38,9 +38,10 @@ public class FileCacheStoreConfiguration extends AbstractLockSupportStoreConfigu
    private final long fsyncInterval;
    private final FsyncMode fsyncMode;
    private final int streamBufferSize;
+   private final long mappedRegionBudget;
 
    FileCacheStoreConfiguration(String location, long fsyncInterval,
-         FsyncMode fsyncMode, int streamBufferSize, long lockAcquistionTimeout,
+         FsyncMode fsyncMode, int streamBufferSize, long mappedRegionBudget, long lockAcquistionTimeout,
          int lockConcurrencyLevel, boolean purgeOnStartup, boolean purgeSynchronously,
          int purgerThreads, boolean fetchPersistentState, boolean ignoreModifications,
          TypedProperties properties, AsyncStoreConfiguration async,
@@ -52,6 +53,7 @@ public class FileCacheStoreConfiguration extends AbstractLockSupportStoreConfigu
       this.fsyncInterval = fsyncInterval;
       this.fsyncMode = fsyncMode;
       this.streamBufferSize = streamBufferSize;
+      this.mappedRegionBudget = mappedRegionBudget;
    }
 
    public long fsyncInterval() {
@@ -70,6 +72,10 @@ public int streamBufferSize() {
       return streamBufferSize;
    }
 
+   public long mappedRegionBudget() {
+      return mappedRegionBudget;
+   }
+
    @Override
    public String toString() {
       return "FileCacheStoreConfiguration{" +
@@ -77,6 +83,7 @@ public String toString() {
             ", location='" + location + '\'' +
             ", fsyncMode=" + fsyncMode +
             ", streamBufferSize=" + streamBufferSize +
+            ", mappedRegionBudget=" + mappedRegionBudget +
             ", lockAcquistionTimeout=" + lockAcquistionTimeout() +
             ", lockConcurrencyLevel=" + lockConcurrencyLevel() +
             ", purgeOnStartup=" + purgeOnStartup() +
@@ -100,6 +107,7 @@ public boolean equals(Object o) {
 
       if (fsyncInterval != that.fsyncInterval) return false;
       if (streamBufferSize != that.streamBufferSize) return false;
+      if (mappedRegionBudget != that.mappedRegionBudget) return false;
       if (fsyncMode != that.fsyncMode) return false;
       if (location != null ? !location.equals(that.location) : that.location != null)
          return false;
@@ -114,6 +122,7 @@ public int hashCode() {
       result = 31 * result + (int) (fsyncInterval ^ (fsyncInterval >>> 32));
       result = 31 * result + (fsyncMode != null ? fsyncMode.hashCode() : 0);
       result = 31 * result + streamBufferSize;
+      result = 31 * result + (int) (mappedRegionBudget ^ (mappedRegionBudget >>> 32));
       return result;
    }
 
@@ -126,6 +135,7 @@ public FileCacheStoreConfig adapt() {
       config.fsyncInterval(fsyncInterval);
       config.fsyncMode(FileCacheStoreConfig.FsyncMode.valueOf(fsyncMode.name()));
       config.streamBufferSize(streamBufferSize);
+      config.mappedRegionBudget(mappedRegionBudget);
       config.location(location);
 
       XmlConfigHelper.setValues(config, properties(), false, true);
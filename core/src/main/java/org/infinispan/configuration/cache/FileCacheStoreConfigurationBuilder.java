@@ -23,6 +23,7 @@
 import java.util.Properties;
 import java.util.concurrent.TimeUnit;
 
+import org.infinispan.config.ConfigurationException;
 import org.infinispan.config.parsing.XmlConfigHelper;
 import org.infinispan.util.TypedProperties;
 
@@ -38,6 +39,7 @@ public class FileCacheStoreConfigurationBuilder extends AbstractLockSupportStore
    private long fsyncInterval = TimeUnit.SECONDS.toMillis(1);
    private FsyncMode fsyncMode = FsyncMode.DEFAULT;
    private int streamBufferSize = 8192;
+   private long mappedRegionBudget = 0;
 
    public FileCacheStoreConfigurationBuilder(LoadersConfigurationBuilder builder) {
       super(builder);
@@ -72,6 +74,16 @@ public FileCacheStoreConfigurationBuilder streamBufferSize(int streamBufferSize)
       return this;
    }
 
+   /**
+    * When greater than zero, bucket files are read through read-only memory mappings rather than being copied onto
+    * the heap, and mappings totalling up to this many bytes are retained between reads. Defaults to 0, which disables
+    * memory-mapped reads.
+    */
+   public FileCacheStoreConfigurationBuilder mappedRegionBudget(long mappedRegionBudget) {
+      this.mappedRegionBudget = mappedRegionBudget;
+      return this;
+   }
+
    @Override
    public FileCacheStoreConfigurationBuilder withProperties(Properties p) {
       this.properties = p;
@@ -82,6 +94,8 @@ public FileCacheStoreConfigurationBuilder withProperties(Properties p) {
 
    @Override
    public void validate() {
+      if (mappedRegionBudget < 0)
+         throw new ConfigurationException("The mapped region budget of a file cache store cannot be negative");
    }
 
    public static enum FsyncMode {
@@ -91,7 +105,7 @@ public static enum FsyncMode {
    @Override
    public FileCacheStoreConfiguration create() {
       return new FileCacheStoreConfiguration(location, fsyncInterval, fsyncMode,
-            streamBufferSize, lockAcquistionTimeout, lockConcurrencyLevel,
+            streamBufferSize, mappedRegionBudget, lockAcquistionTimeout, lockConcurrencyLevel,
             purgeOnStartup, purgeSynchronously, purgerThreads, fetchPersistentState,
             ignoreModifications, TypedProperties.toTypedProperties(properties),
             async.create(), singletonStore.create());
@@ -104,6 +118,7 @@ public FileCacheStoreConfigurationBuilder read(FileCacheStoreConfiguration templ
       fsyncMode = template.fsyncMode();
       location = template.location();
       streamBufferSize = template.streamBufferSize();
+      mappedRegionBudget = template.mappedRegionBudget();
 
       // AbstractLockSupportCacheStore-specific configuration
       lockAcquistionTimeout = template.lockAcquistionTimeout();
@@ -129,6 +144,7 @@ public String toString() {
             ", fsyncInterval=" + fsyncInterval +
             ", fsyncMode=" + fsyncMode +
             ", streamBufferSize=" + streamBufferSize +
+            ", mappedRegionBudget=" + mappedRegionBudget +
             ", ignoreModifications=" + ignoreModifications +
             ", purgeOnStartup=" + purgeOnStartup +
             ", purgerThreads=" + purgerThreads +
@@ -35,15 +35,18 @@ public class HashConfiguration {
    private final int numSegments;
    private final GroupsConfiguration groupsConfiguration;
    private final StateTransferConfiguration stateTransferConfiguration;
+   private final boolean readFromNearestOwner;
 
    HashConfiguration(ConsistentHashFactory consistentHashFactory, Hash hash, int numOwners, int numSegments,
-                     GroupsConfiguration groupsConfiguration, StateTransferConfiguration stateTransferConfiguration) {
+                     GroupsConfiguration groupsConfiguration, StateTransferConfiguration stateTransferConfiguration,
+                     boolean readFromNearestOwner) {
       this.consistentHashFactory = consistentHashFactory;
       this.hash = hash;
       this.numOwners = numOwners;
       this.numSegments = numSegments;
       this.groupsConfiguration = groupsConfiguration;
       this.stateTransferConfiguration = stateTransferConfiguration;
+      this.readFromNearestOwner = readFromNearestOwner;
    }
 
    /**
@@ -99,6 +102,15 @@ public int numSegments() {
       return numSegments;
    }
 
+   /**
+    * If true, remote gets are only sent to the owner of the key which is the nearest to this node in the cluster
+    * topology, instead of all the owners. The value returned may then miss a write that the other owners have already
+    * applied, until the write completes.
+    */
+   public boolean readFromNearestOwner() {
+      return readFromNearestOwner;
+   }
+
    /**
     * If false, no rebalancing or rehashing will take place when a new node joins the cluster or a
     * node leaves
@@ -142,6 +154,7 @@ public String toString() {
             ", numSegments=" + numSegments +
             ", groupsConfiguration=" + groupsConfiguration +
             ", stateTransferConfiguration=" + stateTransferConfiguration +
+            ", readFromNearestOwner=" + readFromNearestOwner +
             '}';
    }
 
@@ -154,6 +167,7 @@ public boolean equals(Object o) {
 
       if (numOwners != that.numOwners) return false;
       if (numSegments != that.numSegments) return false;
+      if (readFromNearestOwner != that.readFromNearestOwner) return false;
       if (consistentHashFactory != null ? !consistentHashFactory.equals(that.consistentHashFactory) : that.consistentHashFactory != null)
          return false;
       if (groupsConfiguration != null ? !groupsConfiguration.equals(that.groupsConfiguration) : that.groupsConfiguration != null)
@@ -174,6 +188,7 @@ public int hashCode() {
       result = 31 * result + numSegments;
       result = 31 * result + (groupsConfiguration != null ? groupsConfiguration.hashCode() : 0);
       result = 31 * result + (stateTransferConfiguration != null ? stateTransferConfiguration.hashCode() : 0);
+      result = 31 * result + (readFromNearestOwner ? 1 : 0);
       return result;
    }
 
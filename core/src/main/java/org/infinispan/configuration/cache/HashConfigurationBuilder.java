@@ -41,6 +41,7 @@ public class HashConfigurationBuilder extends AbstractClusteringConfigurationChi
    // With the default consistent hash factory, this default gives us an even spread for clusters
    // up to 6 members and the difference between nodes stays under 20% up to 12 members.
    private int numSegments = 60;
+   private boolean readFromNearestOwner = false;
 
    private final GroupsConfigurationBuilder groupsConfigurationBuilder;
 
@@ -102,6 +103,18 @@ public HashConfigurationBuilder numSegments(int numSegments) {
       return this;
    }
 
+   /**
+    * If true, remote gets are only sent to the owner of the key which is the nearest to this node in
+    * the cluster topology, i.e. on the same machine, rack or site, instead of all the owners. This
+    * saves messages and cross-site round trips, at the cost of possibly missing a write that the
+    * other owners have already applied, until the write completes. Owners still read their own
+    * copy locally.
+    */
+   public HashConfigurationBuilder readFromNearestOwner(boolean readFromNearestOwner) {
+      this.readFromNearestOwner = readFromNearestOwner;
+      return this;
+   }
+
    /**
     * Enable rebalancing and rehashing, which will take place when a new node joins the cluster or a
     * node leaves
@@ -180,7 +193,7 @@ public void validate() {
    public HashConfiguration create() {
       // TODO stateTransfer().create() will create a duplicate StateTransferConfiguration instance. That's ok as long as none of the stateTransfer settings are modifiable at runtime.
       return new HashConfiguration(consistentHashFactory, hash, numOwners, numSegments,
-            groupsConfigurationBuilder.create(), stateTransfer().create());
+            groupsConfigurationBuilder.create(), stateTransfer().create(), readFromNearestOwner);
    }
 
    @Override
@@ -189,6 +202,7 @@ public HashConfigurationBuilder read(HashConfiguration template) {
       this.hash = template.hash();
       this.numOwners = template.numOwners();
       this.numSegments = template.numSegments();
+      this.readFromNearestOwner = template.readFromNearestOwner();
       this.groupsConfigurationBuilder.read(template.groups());
       return this;
    }
@@ -200,6 +214,7 @@ public String toString() {
             ", hash=" + hash +
             ", numOwners=" + numOwners +
             ", numSegments=" + numSegments +
+            ", readFromNearestOwner=" + readFromNearestOwner +
             ", groups=" + groupsConfigurationBuilder +
             '}';
    }
@@ -507,6 +507,7 @@ public static void adapt(ClassLoader cl, ConfigurationBuilder builder, CacheLoad
          fcsBuilder.fsyncInterval(csc.getFsyncInterval());
          fcsBuilder.fsyncMode(FileCacheStoreConfigurationBuilder.FsyncMode.valueOf(csc.getFsyncMode().name()));
          fcsBuilder.streamBufferSize(csc.getStreamBufferSize());
+         fcsBuilder.mappedRegionBudget(csc.getMappedRegionBudget());
          loaderBuilder = fcsBuilder;
       } else if (clc instanceof CacheStoreConfig) {
          LegacyStoreConfigurationBuilder tmpStoreBuilder = builder.loaders().addStore();
@@ -530,6 +531,7 @@ public static void adapt(ClassLoader cl, ConfigurationBuilder builder, CacheLoad
          CacheStoreConfig csc = (CacheStoreConfig) clc;
          CacheStoreConfigurationBuilder<?, ?> storeBuilder = (CacheStoreConfigurationBuilder<?, ?>) loaderBuilder;
          storeBuilder.async().enabled(csc.getAsyncStoreConfig().isEnabled());
+         storeBuilder.async().flushInterval(csc.getAsyncStoreConfig().getFlushInterval());
          storeBuilder.async().flushLockTimeout(csc.getAsyncStoreConfig().getFlushLockTimeout());
          storeBuilder.async().modificationQueueSize(csc.getAsyncStoreConfig().getModificationQueueSize());
          storeBuilder.async().shutdownTimeout(csc.getAsyncStoreConfig().getShutdownTimeout());
@@ -548,6 +550,7 @@ public static void adapt(CacheStoreConfiguration config, CacheStoreConfig legacy
       legacy.purgerThreads(config.purgerThreads());
 
       legacy.getAsyncStoreConfig().setEnabled(config.async().enabled());
+      legacy.getAsyncStoreConfig().flushInterval(config.async().flushInterval());
       legacy.getAsyncStoreConfig().flushLockTimeout(config.async().flushLockTimeout());
       legacy.getAsyncStoreConfig().modificationQueueSize(config.async().modificationQueueSize());
       legacy.getAsyncStoreConfig().shutdownTimeout(config.async().shutdownTimeout());
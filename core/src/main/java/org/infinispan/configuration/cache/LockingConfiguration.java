@@ -32,14 +32,16 @@ public class LockingConfiguration {
    private final IsolationLevel isolationLevel;
    private long lockAcquisitionTimeout;
    private final boolean useLockStriping;
+   private final boolean useLockWords;
    private final boolean writeSkewCheck;
 
    LockingConfiguration(int concurrencyLevel, IsolationLevel isolationLevel, long lockAcquisitionTimeout,
-         boolean useLockStriping, boolean writeSkewCheck) {
+         boolean useLockStriping, boolean useLockWords, boolean writeSkewCheck) {
       this.concurrencyLevel = concurrencyLevel;
       this.isolationLevel = isolationLevel;
       this.lockAcquisitionTimeout = lockAcquisitionTimeout;
       this.useLockStriping = useLockStriping;
+      this.useLockWords = useLockWords;
       this.writeSkewCheck = writeSkewCheck;
    }
 
@@ -94,6 +96,15 @@ public boolean useLockStriping() {
       return useLockStriping;
    }
 
+   /**
+    * If true, entries are locked through a pool of lightweight lock words that are acquired with a
+    * compare-and-swap, so locking an entry does not allocate anything unless the lock is contended.
+    * Takes precedence over {@link #useLockStriping()}.
+    */
+   public boolean useLockWords() {
+      return useLockWords;
+   }
+
    /**
     * This setting is only applicable in the case of REPEATABLE_READ. When write skew check is set
     * to false, if the writer at commit time discovers that the working entry and the underlying
@@ -111,6 +122,7 @@ public String toString() {
             ", isolationLevel=" + isolationLevel +
             ", lockAcquisitionTimeout=" + lockAcquisitionTimeout +
             ", useLockStriping=" + useLockStriping +
+            ", useLockWords=" + useLockWords +
             ", writeSkewCheck=" + writeSkewCheck +
             '}';
    }
@@ -125,6 +137,7 @@ public boolean equals(Object o) {
       if (concurrencyLevel != that.concurrencyLevel) return false;
       if (lockAcquisitionTimeout != that.lockAcquisitionTimeout) return false;
       if (useLockStriping != that.useLockStriping) return false;
+      if (useLockWords != that.useLockWords) return false;
       if (writeSkewCheck != that.writeSkewCheck) return false;
       if (isolationLevel != that.isolationLevel) return false;
 
@@ -137,6 +150,7 @@ public int hashCode() {
       result = 31 * result + (isolationLevel != null ? isolationLevel.hashCode() : 0);
       result = 31 * result + (int) (lockAcquisitionTimeout ^ (lockAcquisitionTimeout >>> 32));
       result = 31 * result + (useLockStriping ? 1 : 0);
+      result = 31 * result + (useLockWords ? 1 : 0);
       result = 31 * result + (writeSkewCheck ? 1 : 0);
       return result;
    }
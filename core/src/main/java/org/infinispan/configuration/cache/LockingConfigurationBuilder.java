@@ -41,6 +41,7 @@ public class LockingConfigurationBuilder extends AbstractConfigurationChildBuild
    private IsolationLevel isolationLevel = IsolationLevel.READ_COMMITTED;
    private long lockAcquisitionTimeout = TimeUnit.SECONDS.toMillis(10);
    private boolean useLockStriping = false;
+   private boolean useLockWords = false;
    private boolean writeSkewCheck = false;
 
    protected LockingConfigurationBuilder(ConfigurationBuilder builder) {
@@ -104,6 +105,17 @@ public LockingConfigurationBuilder useLockStriping(boolean b) {
       return this;
    }
 
+   /**
+    * If true, entries are locked through a pool of lightweight lock words that are acquired with a
+    * compare-and-swap, so locking an entry does not allocate anything unless the lock is contended.
+    * The pool is larger than the one used for lock striping, which keeps unrelated keys from
+    * sharing a lock. Takes precedence over {@link #useLockStriping(boolean)}.
+    */
+   public LockingConfigurationBuilder useLockWords(boolean b) {
+      this.useLockWords = b;
+      return this;
+   }
+
    /**
     * This setting is only applicable in the case of REPEATABLE_READ. When write skew check is set
     * to false, if the writer at commit time discovers that the working entry and the underlying
@@ -143,7 +155,7 @@ && clustering().cacheMode() != CacheMode.LOCAL)
 
    @Override
    public LockingConfiguration create() {
-      return new LockingConfiguration(concurrencyLevel, isolationLevel, lockAcquisitionTimeout, useLockStriping, writeSkewCheck);
+      return new LockingConfiguration(concurrencyLevel, isolationLevel, lockAcquisitionTimeout, useLockStriping, useLockWords, writeSkewCheck);
    }
 
    @Override
@@ -152,6 +164,7 @@ public LockingConfigurationBuilder read(LockingConfiguration template) {
       isolationLevel = template.isolationLevel();
       lockAcquisitionTimeout = template.lockAcquisitionTimeout();
       useLockStriping = template.useLockStriping();
+      useLockWords = template.useLockWords();
       writeSkewCheck = template.writeSkewCheck();
 
       return this;
@@ -164,6 +177,7 @@ public String toString() {
             ", isolationLevel=" + isolationLevel +
             ", lockAcquisitionTimeout=" + lockAcquisitionTimeout +
             ", useLockStriping=" + useLockStriping +
+            ", useLockWords=" + useLockWords +
             ", writeSkewCheck=" + writeSkewCheck +
             '}';
    }
@@ -54,6 +54,7 @@ public enum Attribute {
     FETCH_IN_MEMORY_STATE("fetchInMemoryState"),
     FETCH_PERSISTENT_STATE("fetchPersistentState"),
     AWAIT_INITIAL_TRANSFER("awaitInitialTransfer"),
+    FLUSH_INTERVAL("flushInterval"),
     FLUSH_LOCK_TIMEOUT("flushLockTimeout"),
     FSYNC_INTERVAL("fsyncInterval"),
     FSYNC_MODE("fsyncMode"),
@@ -75,9 +76,11 @@ public enum Attribute {
     LOCKING_MODE("lockingMode"),
     LOG_FLUSH_TIMEOUT("logFlushTimeout"),
     MACHINE_ID("machineId"),
+    MAPPED_REGION_BUDGET("mappedRegionBudget"),
     MARSHALLER_CLASS("marshallerClass"),
     MAX_ENTRIES("maxEntries"),
     MAX_IDLE("maxIdle"),
+    MAX_MEMORY("maxMemory"),
     MAX_NON_PROGRESSING_LOG_WRITES("maxProgressingLogWrites"),
     MBEAN_SERVER_LOOKUP("mBeanServerLookup"),
     MODE("mode"),
@@ -88,6 +91,7 @@ public enum Attribute {
     NUM_SEGMENTS("numSegments"),
     NUM_RETRIES("numRetries"),
     NUM_VIRTUAL_NODES("numVirtualNodes"),
+    OFF_HEAP("offHeap"),
     ON_REHASH("onRehash"),
     PASSIVATION("passivation"),
     POSITION("position"),
@@ -98,6 +102,7 @@ public enum Attribute {
     PUSH_STATE_TIMEOUT("pushStateTimeout"),
     PUSH_STATE_WHEN_COORDINATOR("pushStateWhenCoordinator"),
     RACK_ID("rackId"),
+    READ_FROM_NEAREST_OWNER("readFromNearestOwner"),
     REAPER_ENABLED("reaperEnabled"),
     RECOVERY_INFO_CACHE_NAME("recoveryInfoCacheName"),
     REHASH_ENABLED("rehashEnabled"),
@@ -109,6 +114,7 @@ public enum Attribute {
     REPL_QUEUE_MAX_ELEMENTS("replQueueMaxElements"),
     REPL_TIMEOUT("replTimeout"),
     RETRY_WAIT_TIME_INCREASE_FACTOR("retryWaitTimeIncreaseFactor"),
+    SEGMENTED("segmented"),
     SHARED("shared"),
     SHUTDOWN_TIMEOUT("shutdownTimeout"),
     SITE_ID("siteId"),
@@ -130,6 +136,7 @@ public enum Attribute {
     UNRELIABLE_RETURN_VALUES("unreliableReturnValues"),
     USE_EAGER_LOCKING("useEagerLocking"),
     USE_LOCK_STRIPING("useLockStriping"),
+    USE_LOCK_WORDS("useLockWords"),
     SUPPORTS_CONCURRENT_UPDATES("supportsConcurrentUpdates"),
     USE_REPL_QUEUE("useReplQueue"),
     USE_SYNCHRONIZAION("useSynchronization"),
@@ -538,6 +538,9 @@ private void parseLocking(final XMLExtendedStreamReader reader, final Configurat
             case USE_LOCK_STRIPING:
                builder.locking().useLockStriping(Boolean.parseBoolean(value));
                break;
+            case USE_LOCK_WORDS:
+               builder.locking().useLockWords(Boolean.parseBoolean(value));
+               break;
             case WRITE_SKEW_CHECK:
                builder.locking().writeSkewCheck(Boolean.parseBoolean(value));
                break;
@@ -634,6 +637,9 @@ private void parseFileStore(XMLExtendedStreamReader reader, ConfigurationBuilder
          case STREAM_BUFFER_SIZE:
             fcscb.streamBufferSize(Integer.parseInt(value));
             break;
+         case MAPPED_REGION_BUDGET:
+            fcscb.mappedRegionBudget(Long.parseLong(value));
+            break;
          default:
             parseLockSupportStoreAttributes(reader, i, fcscb);
             break;
@@ -928,6 +934,9 @@ public static void parseAsyncStore(final XMLExtendedStreamReader reader, final C
                   storeBuilder.async().disable();
                }
                break;
+            case FLUSH_INTERVAL:
+               storeBuilder.async().flushInterval(Long.parseLong(value));
+               break;
             case FLUSH_LOCK_TIMEOUT:
                storeBuilder.async().flushLockTimeout(Long.parseLong(value));
                break;
@@ -1076,6 +1085,9 @@ private void parseEviction(final XMLExtendedStreamReader reader, final Configura
             case MAX_ENTRIES:
                builder.eviction().maxEntries(Integer.parseInt(value));
                break;
+            case MAX_MEMORY:
+               builder.eviction().maxMemory(Long.parseLong(value));
+               break;
             case STRATEGY:
                builder.eviction().strategy(EvictionStrategy.valueOf(value));
                break;
@@ -1133,6 +1145,12 @@ private void parseDataContainer(final XMLExtendedStreamReader reader, final Conf
             case VALUE_EQUIVALENCE:
                builder.dataContainer().valueEquivalence(Util.<Equivalence>getInstance(value, holder.getClassLoader()));
                break;
+            case OFF_HEAP:
+               builder.dataContainer().offHeap(Boolean.parseBoolean(value));
+               break;
+            case SEGMENTED:
+               builder.dataContainer().segmented(Boolean.parseBoolean(value));
+               break;
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
@@ -1408,6 +1426,9 @@ private void parseHash(final XMLExtendedStreamReader reader, final Configuration
             case NUM_SEGMENTS:
                builder.clustering().hash().numSegments(Integer.parseInt(value));
                break;
+            case READ_FROM_NEAREST_OWNER:
+               builder.clustering().hash().readFromNearestOwner(Boolean.parseBoolean(value));
+               break;
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
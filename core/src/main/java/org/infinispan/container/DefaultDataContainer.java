@@ -74,6 +74,20 @@ public class DefaultDataContainer implements DataContainer {
    private ActivationManager activator;
    private CacheLoaderManager clm;
    private TimeService timeService;
+   private final ExpirationIndex expirationIndex = new ExpirationIndex();
+   private final ExpirationIndex.Container expirationContainer = new ExpirationIndex.Container() {
+      @Override
+      public InternalCacheEntry peek(Object key) {
+         // a get would count as an access, and promote every indexed entry in the eviction order
+         return entries instanceof BoundedConcurrentHashMap
+               ? ((BoundedConcurrentHashMap<Object, InternalCacheEntry>) entries).peek(key) : entries.get(key);
+      }
+
+      @Override
+      public boolean remove(Object key, InternalCacheEntry entry) {
+         return entries.remove(key, entry);
+      }
+   };
 
    public DefaultDataContainer(int concurrencyLevel) {
       // If no comparing implementations passed, could fallback on JDK CHM
@@ -91,6 +105,12 @@ public DefaultDataContainer(int concurrencyLevel,
    protected DefaultDataContainer(int concurrencyLevel, int maxEntries,
          EvictionStrategy strategy, EvictionThreadPolicy policy,
          Equivalence keyEquivalence, Equivalence valueEquivalence) {
+      this(concurrencyLevel, maxEntries, -1, strategy, policy, keyEquivalence, valueEquivalence);
+   }
+
+   protected DefaultDataContainer(int concurrencyLevel, int maxEntries, long maxMemory,
+         EvictionStrategy strategy, EvictionThreadPolicy policy,
+         Equivalence keyEquivalence, Equivalence valueEquivalence) {
       // translate eviction policy and strategy
       switch (policy) {
          case PIGGYBACK:
@@ -111,13 +131,16 @@ protected DefaultDataContainer(int concurrencyLevel, int maxEntries,
          case LIRS:
             eviction = Eviction.LIRS;
             break;
+         case TINY_LFU:
+            eviction = Eviction.TINY_LFU;
+            break;
          default:
             throw new IllegalArgumentException("No such eviction strategy " + strategy);
       }
 
       entries = new BoundedConcurrentHashMap<Object, InternalCacheEntry>(
-            maxEntries, concurrencyLevel, eviction, evictionListener,
-            keyEquivalence, valueEquivalence);
+            maxEntries, maxMemory, concurrencyLevel, eviction, evictionListener,
+            InternalCacheEntrySizeCalculator.INSTANCE, keyEquivalence, valueEquivalence);
    }
 
    @Inject
@@ -138,6 +161,17 @@ public static DataContainer boundedDataContainer(int concurrencyLevel, int maxEn
             policy, keyEquivalence, valueEquivalence);
    }
 
+   /**
+    * Creates a container bounded by the estimated memory footprint of its entries, and by their
+    * number too unless maxEntries is negative.
+    */
+   public static DataContainer boundedDataContainer(int concurrencyLevel, int maxEntries, long maxMemory,
+            EvictionStrategy strategy, EvictionThreadPolicy policy,
+            Equivalence keyEquivalence, Equivalence valueEquivalence) {
+      return new DefaultDataContainer(concurrencyLevel, maxEntries, maxMemory, strategy,
+            policy, keyEquivalence, valueEquivalence);
+   }
+
    public static DataContainer unBoundedDataContainer(int concurrencyLevel,
          Equivalence keyEquivalence, Equivalence valueEquivalence) {
       return new DefaultDataContainer(concurrencyLevel, keyEquivalence, valueEquivalence);
@@ -170,9 +204,12 @@ public InternalCacheEntry get(Object k) {
    @Override
    public void put(Object k, Object v, Metadata metadata) {
       InternalCacheEntry e = entries.get(k);
+      InternalCacheEntry original = e;
+      long originalExpiryTime = -1;
       if (e != null) {
+         if (e.canExpire())
+            originalExpiryTime = e.getExpiryTime();
          e.setValue(v);
-         InternalCacheEntry original = e;
          e = entryFactory.update(e, metadata);
          // we have the same instance. So we need to reincarnate.
          if (original == e) {
@@ -182,7 +219,8 @@ public void put(Object k, Object v, Metadata metadata) {
          // this is a brand-new entry
          e = entryFactory.create(k, v, metadata);
       }
-      entries.put(k, e);
+      InternalCacheEntry replaced = entries.put(k, e);
+      expirationIndex.onEntryStored(k, e, original, originalExpiryTime, replaced);
    }
 
    @Override
@@ -206,6 +244,16 @@ public int size() {
       return entries.size();
    }
 
+   /**
+    * Returns the estimated memory footprint, in bytes, of the entries in this container, or -1 if
+    * the container is not bounded by memory.
+    */
+   public long memoryUsed() {
+      if (entries instanceof BoundedConcurrentHashMap)
+         return ((BoundedConcurrentHashMap) entries).memoryUsed();
+      return -1;
+   }
+
    @Override
    public void clear() {
       entries.clear();
@@ -228,13 +276,14 @@ public Set<InternalCacheEntry> entrySet() {
 
    @Override
    public void purgeExpired() {
-      long currentTimeMillis = timeService.wallClockTime();
-      for (Iterator<InternalCacheEntry> purgeCandidates = entries.values().iterator(); purgeCandidates.hasNext();) {
-         InternalCacheEntry e = purgeCandidates.next();
-         if (e.isExpired(currentTimeMillis)) {
-            purgeCandidates.remove();
-         }
-      }
+      expirationIndex.purgeExpired(timeService.wallClockTime(), expirationContainer);
+   }
+
+   /**
+    * Returns the index used to purge expired entries, which also keeps expiration statistics.
+    */
+   public ExpirationIndex getExpirationIndex() {
+      return expirationIndex;
    }
 
    @Override
@@ -0,0 +1,387 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.container;
+
+import net.jcip.annotations.ThreadSafe;
+import org.infinispan.commons.hash.Hash;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.distribution.group.GroupManager;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.util.CollectionFactory;
+import org.infinispan.util.Equivalence;
+import org.infinispan.util.Immutables;
+import org.infinispan.util.TimeService;
+
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Unbounded {@link SegmentedDataContainer} keeping one concurrent map per consistent hash segment.
+ * <p/>
+ * Segments are computed from the configured {@link Hash} function and number of segments, taking key grouping into
+ * account, exactly like {@link org.infinispan.distribution.ch.DefaultConsistentHash} and
+ * {@link org.infinispan.distribution.group.GroupingConsistentHash} do, so it can only be used with consistent hash
+ * factories that create {@link org.infinispan.distribution.ch.DefaultConsistentHash} instances.
+ *
+ * @since 5.3
+ */
+@ThreadSafe
+public class DefaultSegmentedDataContainer implements SegmentedDataContainer {
+
+   private final ConcurrentMap<Object, InternalCacheEntry>[] segments;
+   private final Hash hashFunction;
+   private final int segmentSize;
+   private InternalEntryFactory entryFactory;
+   private TimeService timeService;
+   private GroupManager groupManager;   // optional
+   private final ExpirationIndex expirationIndex = new ExpirationIndex();
+   private final ExpirationIndex.Container expirationContainer = new ExpirationIndex.Container() {
+      @Override
+      public InternalCacheEntry peek(Object key) {
+         return segmentFor(key).get(key);
+      }
+
+      @Override
+      public boolean remove(Object key, InternalCacheEntry entry) {
+         return segmentFor(key).remove(key, entry);
+      }
+   };
+
+   @SuppressWarnings("unchecked")
+   public DefaultSegmentedDataContainer(int concurrencyLevel, int numSegments, Hash hashFunction,
+         Equivalence keyEquivalence, Equivalence valueEquivalence) {
+      if (numSegments < 1)
+         throw new IllegalArgumentException("The number of segments must be strictly positive");
+
+      this.hashFunction = hashFunction;
+      this.segmentSize = (int) Math.ceil((double) Integer.MAX_VALUE / numSegments);
+      this.segments = new ConcurrentMap[numSegments];
+      for (int i = 0; i < numSegments; i++) {
+         segments[i] = CollectionFactory.makeConcurrentMap(16, concurrencyLevel, keyEquivalence, valueEquivalence);
+      }
+   }
+
+   @Inject
+   public void initialize(InternalEntryFactory entryFactory, TimeService timeService, GroupManager groupManager) {
+      this.entryFactory = entryFactory;
+      this.timeService = timeService;
+      this.groupManager = groupManager;
+   }
+
+   @Override
+   public int getNumSegments() {
+      return segments.length;
+   }
+
+   @Override
+   public int getSegment(Object key) {
+      Object hashKey = key;
+      if (groupManager != null) {
+         String groupKey = groupManager.getGroup(key);
+         if (groupKey != null) {
+            hashKey = groupKey;
+         }
+      }
+      // Must match DefaultConsistentHash.getSegment()
+      return (hashFunction.hash(hashKey) & Integer.MAX_VALUE) / segmentSize;
+   }
+
+   private ConcurrentMap<Object, InternalCacheEntry> segmentFor(Object key) {
+      return segments[getSegment(key)];
+   }
+
+   @Override
+   public InternalCacheEntry peek(Object key) {
+      return segmentFor(key).get(key);
+   }
+
+   @Override
+   public InternalCacheEntry get(Object k) {
+      ConcurrentMap<Object, InternalCacheEntry> entries = segmentFor(k);
+      InternalCacheEntry e = entries.get(k);
+      if (e != null && e.canExpire()) {
+         long currentTimeMillis = timeService.wallClockTime();
+         if (e.isExpired(currentTimeMillis)) {
+            entries.remove(k);
+            e = null;
+         } else {
+            e.touch(currentTimeMillis);
+         }
+      }
+      return e;
+   }
+
+   @Override
+   public void put(Object k, Object v, Metadata metadata) {
+      ConcurrentMap<Object, InternalCacheEntry> entries = segmentFor(k);
+      InternalCacheEntry e = entries.get(k);
+      InternalCacheEntry original = e;
+      long originalExpiryTime = -1;
+      if (e != null) {
+         if (e.canExpire())
+            originalExpiryTime = e.getExpiryTime();
+         e.setValue(v);
+         e = entryFactory.update(e, metadata);
+         // we have the same instance. So we need to reincarnate.
+         if (original == e) {
+            e.reincarnate(timeService.wallClockTime());
+         }
+      } else {
+         // this is a brand-new entry
+         e = entryFactory.create(k, v, metadata);
+      }
+      InternalCacheEntry replaced = entries.put(k, e);
+      expirationIndex.onEntryStored(k, e, original, originalExpiryTime, replaced);
+   }
+
+   @Override
+   public boolean containsKey(Object k) {
+      ConcurrentMap<Object, InternalCacheEntry> entries = segmentFor(k);
+      InternalCacheEntry ice = entries.get(k);
+      if (ice != null && ice.canExpire() && ice.isExpired(timeService.wallClockTime())) {
+         entries.remove(k);
+         ice = null;
+      }
+      return ice != null;
+   }
+
+   @Override
+   public InternalCacheEntry remove(Object k) {
+      InternalCacheEntry e = segmentFor(k).remove(k);
+      return e == null || (e.canExpire() && e.isExpired(timeService.wallClockTime())) ? null : e;
+   }
+
+   @Override
+   public int size() {
+      int size = 0;
+      for (ConcurrentMap<Object, InternalCacheEntry> entries : segments) {
+         size += entries.size();
+      }
+      return size;
+   }
+
+   @Override
+   public int size(int segment) {
+      return segments[segment].size();
+   }
+
+   @Override
+   public void clear() {
+      for (ConcurrentMap<Object, InternalCacheEntry> entries : segments) {
+         entries.clear();
+      }
+   }
+
+   @Override
+   public Set<Object> keySet() {
+      return new KeySet();
+   }
+
+   @Override
+   public Collection<Object> values() {
+      return new Values();
+   }
+
+   @Override
+   public Set<InternalCacheEntry> entrySet() {
+      return new EntrySet();
+   }
+
+   @Override
+   public void purgeExpired() {
+      expirationIndex.purgeExpired(timeService.wallClockTime(), expirationContainer);
+   }
+
+   /**
+    * Returns the index used to purge expired entries, which also keeps expiration statistics.
+    */
+   public ExpirationIndex getExpirationIndex() {
+      return expirationIndex;
+   }
+
+   @Override
+   public Iterator<InternalCacheEntry> iterator() {
+      return new DefaultDataContainer.EntryIterator(new SegmentsIterator());
+   }
+
+   @Override
+   public Iterator<InternalCacheEntry> iterator(int segment) {
+      return new DefaultDataContainer.EntryIterator(segments[segment].values().iterator());
+   }
+
+   /**
+    * Chains the value iterators of all segments.
+    */
+   private class SegmentsIterator implements Iterator<InternalCacheEntry> {
+      private int segment;
+      private Iterator<InternalCacheEntry> current = segments[0].values().iterator();
+
+      @Override
+      public boolean hasNext() {
+         while (!current.hasNext()) {
+            if (++segment >= segments.length) {
+               return false;
+            }
+            current = segments[segment].values().iterator();
+         }
+         return true;
+      }
+
+      @Override
+      public InternalCacheEntry next() {
+         if (!hasNext()) {
+            throw new NoSuchElementException();
+         }
+         return current.next();
+      }
+
+      @Override
+      public void remove() {
+         throw new UnsupportedOperationException();
+      }
+   }
+
+   /**
+    * Minimal implementation needed for unmodifiable Set
+    *
+    */
+   private class KeySet extends AbstractSet<Object> {
+      @Override
+      public boolean contains(Object o) {
+         return segmentFor(o).containsKey(o);
+      }
+
+      @Override
+      public Iterator<Object> iterator() {
+         final Iterator<InternalCacheEntry> it = new SegmentsIterator();
+         return new Iterator<Object>() {
+            @Override
+            public boolean hasNext() {
+               return it.hasNext();
+            }
+
+            @Override
+            public Object next() {
+               return it.next().getKey();
+            }
+
+            @Override
+            public void remove() {
+               throw new UnsupportedOperationException();
+            }
+         };
+      }
+
+      @Override
+      public int size() {
+         return DefaultSegmentedDataContainer.this.size();
+      }
+   }
+
+   /**
+    * Minimal implementation needed for unmodifiable Set
+    *
+    */
+   private class EntrySet extends AbstractSet<InternalCacheEntry> {
+
+      @Override
+      public boolean contains(Object o) {
+         if (!(o instanceof Map.Entry)) {
+            return false;
+         }
+
+         @SuppressWarnings("rawtypes")
+         Map.Entry e = (Map.Entry) o;
+         InternalCacheEntry ice = peek(e.getKey());
+         if (ice == null) {
+            return false;
+         }
+         return ice.getValue().equals(e.getValue());
+      }
+
+      @Override
+      public Iterator<InternalCacheEntry> iterator() {
+         final Iterator<InternalCacheEntry> it = new SegmentsIterator();
+         return new Iterator<InternalCacheEntry>() {
+            @Override
+            public boolean hasNext() {
+               return it.hasNext();
+            }
+
+            @Override
+            public InternalCacheEntry next() {
+               return Immutables.immutableInternalCacheEntry(it.next());
+            }
+
+            @Override
+            public void remove() {
+               throw new UnsupportedOperationException();
+            }
+         };
+      }
+
+      @Override
+      public int size() {
+         return DefaultSegmentedDataContainer.this.size();
+      }
+   }
+
+   /**
+    * Minimal implementation needed for unmodifiable Collection
+    *
+    */
+   private class Values extends AbstractCollection<Object> {
+      @Override
+      public Iterator<Object> iterator() {
+         final Iterator<InternalCacheEntry> it = new SegmentsIterator();
+         return new Iterator<Object>() {
+            @Override
+            public boolean hasNext() {
+               return it.hasNext();
+            }
+
+            @Override
+            public Object next() {
+               return it.next().getValue();
+            }
+
+            @Override
+            public void remove() {
+               throw new UnsupportedOperationException();
+            }
+         };
+      }
+
+      @Override
+      public int size() {
+         return DefaultSegmentedDataContainer.this.size();
+      }
+   }
+}
@@ -0,0 +1,253 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.container;
+
+import net.jcip.annotations.ThreadSafe;
+import org.infinispan.container.entries.InternalCacheEntry;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Index of the keys of expirable entries, grouped into buckets by expiry time, so that expired
+ * entries can be purged without walking the whole data container.
+ * <p/>
+ * Data containers notify the index whenever they store an expirable entry, and
+ * {@link #purgeExpired(long, Container)} only visits the buckets whose time has come. The index is
+ * lazy: records are never removed when entries are removed, replaced or touched. Instead, when a
+ * bucket is drained every record is checked against the entry currently stored under its key.
+ * Expired entries are removed. Entries that were touched, or replaced by entries expiring later,
+ * are scheduled again for their new expiry time. Records whose entry is gone are dropped. A data
+ * container therefore only needs to schedule a key again when an entry expires earlier than the
+ * one it replaces.
+ * <p/>
+ * Records left behind by removed, evicted or replaced entries would otherwise pile up until their
+ * expiry time, so whenever the number of records has doubled since the index was last cleaned up,
+ * the next purge compacts the whole index, dropping every record that no longer matches a stored
+ * entry. Compaction thus runs on the expiration reaper thread, never on a writer, and between two
+ * reaper runs the index holds about twice as many records as there are expirable entries in the
+ * container.
+ * <p/>
+ * Scheduling is lock-free, so writers do not contend with each other or with the expiration
+ * reaper. The index also keeps statistics about the expiration lag, i.e. how late expired entries
+ * were purged by the reaper.
+ *
+ * @since 5.3
+ */
+@ThreadSafe
+public final class ExpirationIndex {
+
+   /**
+    * Buckets span 2^10 milliseconds, roughly a second.
+    */
+   private static final int BUCKET_SHIFT = 10;
+
+   /**
+    * Below this number of records the index is never compacted.
+    */
+   static final int MIN_COMPACTION_THRESHOLD = 1024;
+
+   private final ConcurrentSkipListMap<Long, Bucket> buckets = new ConcurrentSkipListMap<Long, Bucket>();
+   private final AtomicInteger records = new AtomicInteger();
+   private volatile int compactionThreshold = MIN_COMPACTION_THRESHOLD;
+
+   private final AtomicLong expirations = new AtomicLong();
+   private final AtomicLong totalExpirationLag = new AtomicLong();
+   private final AtomicLong maxExpirationLag = new AtomicLong();
+
+   /**
+    * Access to the entries indexed by an {@link ExpirationIndex}.
+    */
+   interface Container {
+
+      InternalCacheEntry peek(Object key);
+
+      /**
+       * Removes the mapping of the given key only if it is mapped to the given entry.
+       */
+      boolean remove(Object key, InternalCacheEntry entry);
+   }
+
+   /**
+    * Schedules the expiration of an entry a data container has just stored, unless its key is
+    * already scheduled early enough because of the entry it replaced.
+    *
+    * @param key the key of the stored entry
+    * @param entry the stored entry
+    * @param original the entry read before storing, which the new entry was meant to replace, or
+    *                 null if there was none
+    * @param originalExpiryTime the expiry time of the original entry read before storing, or -1 if
+    *                           it could not expire
+    * @param replaced the entry that was actually replaced when storing
+    */
+   public void onEntryStored(Object key, InternalCacheEntry entry, InternalCacheEntry original,
+         long originalExpiryTime, InternalCacheEntry replaced) {
+      if (!entry.canExpire())
+         return;
+      long expiryTime = entry.getExpiryTime();
+      // a concurrent removal may have dropped the record of the original entry
+      if (replaced != original || originalExpiryTime < 0 || expiryTime < originalExpiryTime)
+         schedule(new Record(key, expiryTime));
+   }
+
+   /**
+    * Returns the number of records currently in the index, including the ones left behind by
+    * entries that have been removed or replaced since.
+    */
+   int size() {
+      return records.get();
+   }
+
+   private void schedule(Record record) {
+      Long bucketId = record.expiryTime >> BUCKET_SHIFT;
+      for (;;) {
+         Bucket bucket = buckets.get(bucketId);
+         if (bucket == null) {
+            Bucket newBucket = new Bucket();
+            bucket = buckets.putIfAbsent(bucketId, newBucket);
+            if (bucket == null)
+               bucket = newBucket;
+         }
+         bucket.offer(record);
+         // Once closed, a bucket is being drained and may have missed the record. If the record
+         // can still be taken back, it was missed, so it goes into a new bucket.
+         if (!bucket.closed || !bucket.remove(record)) {
+            records.incrementAndGet();
+            return;
+         }
+      }
+   }
+
+   /**
+    * Removes the entries that are expired at the given time, visiting only the keys scheduled to
+    * expire up to then, unless the index needs to be compacted.
+    */
+   void purgeExpired(long now, Container container) {
+      if (records.get() > compactionThreshold) {
+         drain(now, Long.MAX_VALUE, container);
+         compactionThreshold = Math.max(MIN_COMPACTION_THRESHOLD, 2 * records.get());
+      } else {
+         drain(now, now >> BUCKET_SHIFT, container);
+      }
+   }
+
+   /**
+    * Drains the buckets up to the given one, removing expired entries and scheduling again the
+    * records of entries that are still stored and not yet expired. Records of removed entries, and
+    * duplicate records of the same entry, are dropped.
+    */
+   private void drain(long now, long lastBucketId, Container container) {
+      List<Record> notYetExpired = new ArrayList<Record>();
+      Map<InternalCacheEntry, Boolean> visited = new IdentityHashMap<InternalCacheEntry, Boolean>();
+      Map.Entry<Long, Bucket> first;
+      Long fromBucketId = Long.MIN_VALUE;
+      while ((first = buckets.ceilingEntry(fromBucketId)) != null && first.getKey() <= lastBucketId) {
+         fromBucketId = first.getKey();
+         Bucket bucket = first.getValue();
+         if (!buckets.remove(fromBucketId, bucket))
+            continue;
+         bucket.closed = true;
+         Record record;
+         while ((record = bucket.poll()) != null) {
+            records.decrementAndGet();
+            InternalCacheEntry entry = container.peek(record.key);
+            if (entry == null || !entry.canExpire() || visited.put(entry, Boolean.TRUE) != null)
+               // removed, made immortal, or already handled through another record
+               continue;
+            if (entry.isExpired(now)) {
+               if (container.remove(record.key, entry)) {
+                  recordExpiration(now - entry.getExpiryTime());
+               } else {
+                  // replaced concurrently, so check the new entry on the next run
+                  notYetExpired.add(record);
+               }
+            } else {
+               long expiryTime = entry.getExpiryTime();
+               notYetExpired.add(expiryTime == record.expiryTime ? record : new Record(record.key, expiryTime));
+            }
+         }
+      }
+      for (Record record : notYetExpired)
+         schedule(record);
+   }
+
+   private void recordExpiration(long lag) {
+      expirations.incrementAndGet();
+      totalExpirationLag.addAndGet(lag);
+      long max;
+      while (lag > (max = maxExpirationLag.get())) {
+         if (maxExpirationLag.compareAndSet(max, lag))
+            break;
+      }
+   }
+
+   /**
+    * Returns the number of expired entries removed from the data container by the reaper.
+    */
+   public long getExpirations() {
+      return expirations.get();
+   }
+
+   /**
+    * Returns the average time, in milliseconds, expired entries stayed in the data container before
+    * being removed by the reaper.
+    */
+   public long getAverageExpirationLag() {
+      long count = expirations.get();
+      return count > 0 ? totalExpirationLag.get() / count : 0;
+   }
+
+   /**
+    * Returns the longest time, in milliseconds, an expired entry stayed in the data container before
+    * being removed by the reaper.
+    */
+   public long getMaxExpirationLag() {
+      return maxExpirationLag.get();
+   }
+
+   public void resetStatistics() {
+      expirations.set(0);
+      totalExpirationLag.set(0);
+      maxExpirationLag.set(0);
+   }
+
+   private static final class Record {
+      final Object key;
+      final long expiryTime;
+
+      Record(Object key, long expiryTime) {
+         this.key = key;
+         this.expiryTime = expiryTime;
+      }
+   }
+
+   private static final class Bucket extends ConcurrentLinkedQueue<Record> {
+      volatile boolean closed;
+   }
+}
@@ -0,0 +1,121 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.container;
+
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.entries.metadata.MetadataAware;
+import org.infinispan.io.MarshalledValueByteStream;
+import org.infinispan.marshall.MarshalledValue;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.util.concurrent.BoundedConcurrentHashMap.EntrySizeCalculator;
+
+/**
+ * Estimates the heap footprint of the entries held by a {@link DefaultDataContainer} bounded by
+ * memory.
+ * <p/>
+ * Sizes assume a 64-bit JVM with compressed references. <tt>byte[]</tt>, {@link String},
+ * {@link MarshalledValue} and boxed primitive keys and values are sized exactly. Other objects
+ * cannot be sized without walking their object graph, so they are accounted for with a fixed
+ * estimate; storing them as binary makes them {@link MarshalledValue}s whose size is known.
+ *
+ * @since 5.3
+ */
+public final class InternalCacheEntrySizeCalculator implements EntrySizeCalculator<Object, InternalCacheEntry> {
+
+   public static final InternalCacheEntrySizeCalculator INSTANCE = new InternalCacheEntrySizeCalculator();
+
+   private static final int OBJECT_HEADER = 12;
+   private static final int ARRAY_HEADER = 16;
+   private static final int REFERENCE = 4;
+
+   /**
+    * Container node and table slot, plus the entry object holding the key and value references.
+    */
+   private static final int ENTRY_OVERHEAD = 40 + 24;
+
+   /**
+    * Estimate used for objects of unknown types.
+    */
+   private static final int UNKNOWN_OBJECT_SIZE = 64;
+
+   private InternalCacheEntrySizeCalculator() {
+   }
+
+   @Override
+   public long calculateSize(Object key, InternalCacheEntry ice) {
+      long size = ENTRY_OVERHEAD + sizeOf(key) + sizeOf(ice.getValue());
+      // expiration timestamps are only held by mortal and transient entries
+      if (ice.getLifespan() > -1)
+         size += 16;
+      if (ice.getMaxIdle() > -1)
+         size += 16;
+      if (ice instanceof MetadataAware)
+         size += REFERENCE + sizeOf(((MetadataAware) ice).getMetadata());
+      return align(size);
+   }
+
+   static long sizeOf(Object o) {
+      if (o == null)
+         return 0;
+      if (o instanceof byte[])
+         return align(ARRAY_HEADER + ((byte[]) o).length);
+      if (o instanceof String)
+         // String object with its hash, offset and count fields, plus its char array
+         return align(OBJECT_HEADER + REFERENCE + 12) + align(ARRAY_HEADER + 2L * ((String) o).length());
+      if (o instanceof MarshalledValue)
+         return sizeOf((MarshalledValue) o);
+      if (o instanceof Long || o instanceof Double)
+         return align(OBJECT_HEADER + 8);
+      if (o instanceof Integer || o instanceof Float || o instanceof Short || o instanceof Byte
+            || o instanceof Character || o instanceof Boolean)
+         return align(OBJECT_HEADER + 4);
+      return UNKNOWN_OBJECT_SIZE;
+   }
+
+   private static long sizeOf(MarshalledValue mv) {
+      // state, serialisedSize, cachedHashCode, equality preference and marshaller
+      long size = align(OBJECT_HEADER + 2 * REFERENCE + 8 + 1);
+      MarshalledValueByteStream raw = mv.peekRaw();
+      if (raw != null)
+         size += align(OBJECT_HEADER + 2 * REFERENCE + 4) + align(ARRAY_HEADER + raw.getRaw().length);
+      Object instance = mv.peekInstance();
+      if (instance != null)
+         size += sizeOf(instance);
+      if (raw != null && instance != null)
+         // holder of both representations, until the value is compacted
+         size += align(OBJECT_HEADER + 2 * REFERENCE);
+      return size;
+   }
+
+   private static long sizeOf(Metadata metadata) {
+      // lifespan, maxIdle and version
+      long size = align(OBJECT_HEADER + 16 + REFERENCE);
+      if (metadata.version() != null)
+         size += UNKNOWN_OBJECT_SIZE / 2;
+      return size;
+   }
+
+   private static long align(long size) {
+      return (size + 7) & ~7L;
+   }
+}
@@ -0,0 +1,66 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.container;
+
+import java.util.Iterator;
+
+import org.infinispan.container.entries.InternalCacheEntry;
+
+/**
+ * A {@link DataContainer} that keeps its entries partitioned by consistent hash segment, so that operations that only
+ * concern some segments, such as state transfer or the invalidation of segments that are no longer owned, don't need
+ * to go through every entry in the container.
+ * <p/>
+ * The segment of a key is computed in the same way as {@link org.infinispan.distribution.ch.ConsistentHash#getSegment(Object)}
+ * and is therefore stable across topology changes.
+ *
+ * @since 5.3
+ */
+public interface SegmentedDataContainer extends DataContainer {
+
+   /**
+    * @return the number of segments the container is partitioned in
+    */
+   int getNumSegments();
+
+   /**
+    * @param key a key
+    * @return the segment the key belongs to
+    */
+   int getSegment(Object key);
+
+   /**
+    * Iterates over the entries of a single segment. As for {@link #iterator()}, clients should never call
+    * {@link #get(Object)} while iterating but {@link #peek(Object)} instead.
+    *
+    * @param segment the segment to iterate over
+    * @return an iterator over the entries of the segment
+    */
+   Iterator<InternalCacheEntry> iterator(int segment);
+
+   /**
+    * @param segment a segment
+    * @return count of the number of entries in the given segment
+    */
+   int size(int segment);
+}
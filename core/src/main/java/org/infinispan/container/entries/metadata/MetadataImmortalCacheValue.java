@@ -51,7 +51,7 @@ public MetadataImmortalCacheValue(Object value, Metadata metadata) {
 
    @Override
    public InternalCacheEntry toInternalCacheEntry(Object key) {
-      return new MetadataImmortalCacheEntry(key, this);
+      return new MetadataImmortalCacheEntry(key, value, metadata);
    }
 
    @Override
@@ -53,7 +53,7 @@ public MetadataMortalCacheValue(Object value, Metadata metadata, long created) {
 
    @Override
    public InternalCacheEntry toInternalCacheEntry(Object key) {
-      return new MetadataMortalCacheEntry(key, this);
+      return new MetadataMortalCacheEntry(key, value, metadata, created);
    }
 
    @Override
@@ -54,7 +54,7 @@ public MetadataTransientCacheValue(Object value, Metadata metadata, long lastUse
 
    @Override
    public InternalCacheEntry toInternalCacheEntry(Object key) {
-      return new MetadataTransientCacheEntry(key, this);
+      return new MetadataTransientCacheEntry(key, value, metadata, lastUsed);
    }
 
    @Override
@@ -53,7 +53,7 @@ public MetadataTransientMortalCacheValue(Object v, Metadata metadata, long creat
 
    @Override
    public InternalCacheEntry toInternalCacheEntry(Object key) {
-      return new MetadataTransientMortalCacheEntry(key, this);
+      return new MetadataTransientMortalCacheEntry(key, value, metadata, lastUsed, created);
    }
 
    @Override
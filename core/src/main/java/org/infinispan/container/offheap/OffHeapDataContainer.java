@@ -0,0 +1,856 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.container.offheap;
+
+import net.jcip.annotations.ThreadSafe;
+import org.infinispan.CacheException;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.InternalEntryFactory;
+import org.infinispan.container.entries.ExpiryHelper;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.eviction.ActivationManager;
+import org.infinispan.eviction.EvictionManager;
+import org.infinispan.eviction.PassivationManager;
+import org.infinispan.factories.annotations.ComponentName;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.annotations.Stop;
+import org.infinispan.io.ByteBuffer;
+import org.infinispan.marshall.StreamingMarshaller;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.util.Equivalence;
+import org.infinispan.util.Immutables;
+import org.infinispan.util.TimeService;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.io.IOException;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.infinispan.factories.KnownComponentNames.CACHE_MARSHALLER;
+
+/**
+ * A {@link DataContainer} that keeps keys, values and {@link Metadata} in marshalled form outside of the Java heap,
+ * so that the number of entries held by the container has no impact on garbage collection pauses.
+ * <p/>
+ * The container is split in segments, each one guarded by its own lock and owning an off-heap hash index (an array
+ * of addresses, one per bucket) whose buckets chain native memory blocks. Each block holds a fixed size header
+ * followed by the marshalled key, value and metadata:
+ * <pre>
+ *    0: next block in bucket     8: previous block in LRU order    16: next block in LRU order
+ *   24: key hash                28: key length                     32: value length
+ *   36: metadata length         40: created                        48: last used
+ *   56: lifespan                64: max idle                       72: key | value | metadata bytes
+ * </pre>
+ * Creation, last used, lifespan and max idle times are kept in the header so that expiration can be checked, and
+ * expired entries purged, without unmarshalling anything.
+ * <p/>
+ * Keys are compared using the configured key {@link Equivalence}, unmarshalling the stored key of the blocks whose
+ * hash matches. Since data lives off-heap, every {@link InternalCacheEntry} returned by this container is a copy:
+ * modifying it has no effect on the container contents, which can only be changed through {@link #put(Object,
+ * Object, Metadata)} and {@link #remove(Object)}.
+ * <p/>
+ * When bounded, each segment evicts its least recently used entries once it holds more than its share of the maximum
+ * number of entries, passivating them and notifying the {@link EvictionManager} in the same way as the bounded
+ * {@link org.infinispan.container.DefaultDataContainer} does. All eviction strategies are approximated with LRU.
+ * <p/>
+ * Stopping the container releases all of its native memory, bucket tables included. Tables are allocated again on
+ * the next write, so that a restarted cache can keep using the container.
+ *
+ * @since 5.3
+ */
+@ThreadSafe
+public class OffHeapDataContainer implements DataContainer {
+
+   private static final Log log = LogFactory.getLog(OffHeapDataContainer.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   private static final int MAX_SEGMENTS = 1 << 16;
+   private static final int INITIAL_CAPACITY = 16;
+   private static final int MAXIMUM_CAPACITY = 1 << 30;
+   private static final float LOAD_FACTOR = 0.75f;
+   private static final int ADDRESS_SIZE = 8;
+
+   // Block header layout
+   private static final int NEXT_OFFSET = 0;
+   private static final int LRU_PREVIOUS_OFFSET = 8;
+   private static final int LRU_NEXT_OFFSET = 16;
+   private static final int HASH_OFFSET = 24;
+   private static final int KEY_LENGTH_OFFSET = 28;
+   private static final int VALUE_LENGTH_OFFSET = 32;
+   private static final int METADATA_LENGTH_OFFSET = 36;
+   private static final int CREATED_OFFSET = 40;
+   private static final int LAST_USED_OFFSET = 48;
+   private static final int LIFESPAN_OFFSET = 56;
+   private static final int MAX_IDLE_OFFSET = 64;
+   private static final int HEADER_SIZE = 72;
+
+   private final Segment[] segments;
+   private final int segmentShift;
+   private final int segmentMask;
+   private final int maxEntriesPerSegment;
+   private final Equivalence keyEquivalence;
+
+   private StreamingMarshaller marshaller;
+   private EvictionManager evictionManager;
+   private PassivationManager passivator;
+   private ActivationManager activator;
+   private InternalEntryFactory entryFactory;
+   private TimeService timeService;
+
+   protected OffHeapDataContainer(int concurrencyLevel, int maxEntries, Equivalence keyEquivalence) {
+      if (concurrencyLevel <= 0)
+         throw new IllegalArgumentException("Concurrency level must be positive: " + concurrencyLevel);
+
+      if (concurrencyLevel > MAX_SEGMENTS)
+         concurrencyLevel = MAX_SEGMENTS;
+
+      int sshift = 0;
+      int ssize = 1;
+      while (ssize < concurrencyLevel) {
+         ++sshift;
+         ssize <<= 1;
+      }
+      segmentShift = 32 - sshift;
+      segmentMask = ssize - 1;
+      segments = new Segment[ssize];
+      for (int i = 0; i < ssize; i++)
+         segments[i] = new Segment();
+
+      // Negative values signify an unbounded container
+      maxEntriesPerSegment = maxEntries < 0 ? -1 : Math.max(1, (maxEntries + ssize - 1) / ssize);
+      this.keyEquivalence = keyEquivalence;
+   }
+
+   @Inject
+   public void initialize(@ComponentName(CACHE_MARSHALLER) StreamingMarshaller marshaller,
+         EvictionManager evictionManager, PassivationManager passivator, ActivationManager activator,
+         InternalEntryFactory entryFactory, TimeService timeService) {
+      this.marshaller = marshaller;
+      this.evictionManager = evictionManager;
+      this.passivator = passivator;
+      this.activator = activator;
+      this.entryFactory = entryFactory;
+      this.timeService = timeService;
+   }
+
+   public static DataContainer boundedDataContainer(int concurrencyLevel, int maxEntries,
+         Equivalence keyEquivalence) {
+      return new OffHeapDataContainer(concurrencyLevel, maxEntries, keyEquivalence);
+   }
+
+   public static DataContainer unBoundedDataContainer(int concurrencyLevel, Equivalence keyEquivalence) {
+      return new OffHeapDataContainer(concurrencyLevel, -1, keyEquivalence);
+   }
+
+   /**
+    * @return the number of bytes of native memory currently allocated by all off-heap containers in this JVM
+    */
+   public static long getOffHeapAllocatedBytes() {
+      return OffHeapMemory.allocatedBytes();
+   }
+
+   @Override
+   public InternalCacheEntry peek(Object k) {
+      int hash = hash(keyEquivalence.hashCode(k));
+      Segment segment = segmentFor(hash);
+      segment.lock();
+      try {
+         long address = segment.find(k, hash);
+         return address == 0 ? null : materialize(address);
+      } finally {
+         segment.unlock();
+      }
+   }
+
+   @Override
+   public InternalCacheEntry get(Object k) {
+      int hash = hash(keyEquivalence.hashCode(k));
+      Segment segment = segmentFor(hash);
+      segment.lock();
+      try {
+         long address = segment.find(k, hash);
+         if (address == 0)
+            return null;
+
+         if (canExpire(address)) {
+            long currentTimeMillis = timeService.wallClockTime();
+            if (isExpired(address, currentTimeMillis)) {
+               segment.release(address);
+               return null;
+            }
+            OffHeapMemory.putLong(address + LAST_USED_OFFSET, currentTimeMillis);
+         }
+         segment.recordAccess(address);
+         return materialize(address);
+      } finally {
+         segment.unlock();
+      }
+   }
+
+   @Override
+   public void put(Object k, Object v, Metadata metadata) {
+      // Marshall outside of the segment lock
+      ByteBuffer key = marshall(k);
+      ByteBuffer value = marshall(v);
+      ByteBuffer meta = marshall(metadata);
+      int hash = hash(keyEquivalence.hashCode(k));
+      long now = timeService.wallClockTime();
+
+      Segment segment = segmentFor(hash);
+      Map<Object, InternalCacheEntry> evicted = null;
+      segment.lock();
+      try {
+         long existing = segment.find(k, hash);
+         long address = OffHeapMemory.allocate(HEADER_SIZE + (long) key.getLength() + value.getLength() + meta.getLength());
+         OffHeapMemory.putInt(address + HASH_OFFSET, hash);
+         OffHeapMemory.putInt(address + KEY_LENGTH_OFFSET, key.getLength());
+         OffHeapMemory.putInt(address + VALUE_LENGTH_OFFSET, value.getLength());
+         OffHeapMemory.putInt(address + METADATA_LENGTH_OFFSET, meta.getLength());
+         OffHeapMemory.putLong(address + CREATED_OFFSET, now);
+         OffHeapMemory.putLong(address + LAST_USED_OFFSET, now);
+         OffHeapMemory.putLong(address + LIFESPAN_OFFSET, metadata.lifespan());
+         OffHeapMemory.putLong(address + MAX_IDLE_OFFSET, metadata.maxIdle());
+         long data = address + HEADER_SIZE;
+         OffHeapMemory.copyFromArray(key.getBuf(), key.getOffset(), data, key.getLength());
+         data += key.getLength();
+         OffHeapMemory.copyFromArray(value.getBuf(), value.getOffset(), data, value.getLength());
+         data += value.getLength();
+         OffHeapMemory.copyFromArray(meta.getBuf(), meta.getOffset(), data, meta.getLength());
+
+         if (existing != 0) {
+            segment.replace(existing, address);
+         } else {
+            segment.insert(address);
+            if (maxEntriesPerSegment >= 0) {
+               // When entry not present, attempt to activate if necessary
+               activator.activate(k);
+               evicted = segment.evictIfNeeded();
+            }
+         }
+      } finally {
+         segment.unlock();
+      }
+
+      if (evicted != null)
+         evictionManager.onEntryEviction(evicted);
+   }
+
+   @Override
+   public boolean containsKey(Object k) {
+      int hash = hash(keyEquivalence.hashCode(k));
+      Segment segment = segmentFor(hash);
+      segment.lock();
+      try {
+         long address = segment.find(k, hash);
+         if (address != 0 && canExpire(address) && isExpired(address, timeService.wallClockTime())) {
+            segment.release(address);
+            address = 0;
+         }
+         return address != 0;
+      } finally {
+         segment.unlock();
+      }
+   }
+
+   @Override
+   public InternalCacheEntry remove(Object k) {
+      int hash = hash(keyEquivalence.hashCode(k));
+      Segment segment = segmentFor(hash);
+      segment.lock();
+      try {
+         long address = segment.find(k, hash);
+         if (address == 0)
+            return null;
+
+         boolean expired = canExpire(address) && isExpired(address, timeService.wallClockTime());
+         InternalCacheEntry e = expired ? null : materialize(address);
+         segment.release(address);
+         return e;
+      } finally {
+         segment.unlock();
+      }
+   }
+
+   @Override
+   public int size() {
+      long size = 0;
+      for (Segment segment : segments)
+         size += segment.count;
+      return size > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) size;
+   }
+
+   @Override
+   public void clear() {
+      for (Segment segment : segments) {
+         segment.lock();
+         try {
+            segment.clear();
+         } finally {
+            segment.unlock();
+         }
+      }
+   }
+
+   /**
+    * Frees every block and bucket table held by the container.
+    */
+   @Stop(priority = 999)
+   public void stop() {
+      for (Segment segment : segments) {
+         segment.lock();
+         try {
+            segment.destroy();
+         } finally {
+            segment.unlock();
+         }
+      }
+   }
+
+   @Override
+   public Set<Object> keySet() {
+      return new KeySet();
+   }
+
+   @Override
+   public Collection<Object> values() {
+      return new Values();
+   }
+
+   @Override
+   public Set<InternalCacheEntry> entrySet() {
+      return new EntrySet();
+   }
+
+   @Override
+   public void purgeExpired() {
+      long currentTimeMillis = timeService.wallClockTime();
+      for (Segment segment : segments) {
+         segment.lock();
+         try {
+            segment.purgeExpired(currentTimeMillis);
+         } finally {
+            segment.unlock();
+         }
+      }
+   }
+
+   @Override
+   public Iterator<InternalCacheEntry> iterator() {
+      return new EntryIterator();
+   }
+
+   private Segment segmentFor(int hash) {
+      return segments[(hash >>> segmentShift) & segmentMask];
+   }
+
+   private static int hash(int h) {
+      // Spread bits to regularize both segment and index locations,
+      // using variant of single-word Wang/Jenkins hash.
+      h += h <<  15 ^ 0xffffcd7d;
+      h ^= h >>> 10;
+      h += h <<   3;
+      h ^= h >>>  6;
+      h += (h <<   2) + (h << 14);
+      return h ^ h >>> 16;
+   }
+
+   private static long blockSize(long address) {
+      return HEADER_SIZE + (long) OffHeapMemory.getInt(address + KEY_LENGTH_OFFSET)
+            + OffHeapMemory.getInt(address + VALUE_LENGTH_OFFSET)
+            + OffHeapMemory.getInt(address + METADATA_LENGTH_OFFSET);
+   }
+
+   private static boolean canExpire(long address) {
+      return OffHeapMemory.getLong(address + LIFESPAN_OFFSET) > -1
+            || OffHeapMemory.getLong(address + MAX_IDLE_OFFSET) > -1;
+   }
+
+   private static boolean isExpired(long address, long now) {
+      long lifespan = OffHeapMemory.getLong(address + LIFESPAN_OFFSET);
+      long maxIdle = OffHeapMemory.getLong(address + MAX_IDLE_OFFSET);
+      long created = OffHeapMemory.getLong(address + CREATED_OFFSET);
+      long lastUsed = OffHeapMemory.getLong(address + LAST_USED_OFFSET);
+      if (lifespan > -1 && maxIdle > -1)
+         return ExpiryHelper.isExpiredTransientMortal(maxIdle, lastUsed, lifespan, created, now);
+      else if (lifespan > -1)
+         return ExpiryHelper.isExpiredMortal(lifespan, created, now);
+      else
+         return maxIdle > -1 && ExpiryHelper.isExpiredTransient(maxIdle, lastUsed, now);
+   }
+
+   private ByteBuffer marshall(Object o) {
+      try {
+         return marshaller.objectToBuffer(o);
+      } catch (IOException e) {
+         throw new CacheException("Unable to marshall " + o + " into off-heap storage", e);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new CacheException(e);
+      }
+   }
+
+   private Object unmarshall(byte[] buf, int offset, int length) {
+      try {
+         return marshaller.objectFromByteBuffer(buf, offset, length);
+      } catch (IOException e) {
+         throw new CacheException("Unable to unmarshall off-heap data", e);
+      } catch (ClassNotFoundException e) {
+         throw new CacheException("Unable to unmarshall off-heap data", e);
+      }
+   }
+
+   private Object unmarshallKey(long address) {
+      int keyLength = OffHeapMemory.getInt(address + KEY_LENGTH_OFFSET);
+      byte[] buf = new byte[keyLength];
+      OffHeapMemory.copyToArray(address + HEADER_SIZE, buf, 0, keyLength);
+      return unmarshall(buf, 0, keyLength);
+   }
+
+   /**
+    * Builds an on-heap copy of the entry stored at the given address. Must be called with the owning segment locked.
+    */
+   private InternalCacheEntry materialize(long address) {
+      int keyLength = OffHeapMemory.getInt(address + KEY_LENGTH_OFFSET);
+      int valueLength = OffHeapMemory.getInt(address + VALUE_LENGTH_OFFSET);
+      int metadataLength = OffHeapMemory.getInt(address + METADATA_LENGTH_OFFSET);
+      byte[] buf = new byte[keyLength + valueLength + metadataLength];
+      OffHeapMemory.copyToArray(address + HEADER_SIZE, buf, 0, buf.length);
+
+      Object key = unmarshall(buf, 0, keyLength);
+      Object value = unmarshall(buf, keyLength, valueLength);
+      Metadata metadata = (Metadata) unmarshall(buf, keyLength + valueLength, metadataLength);
+      return entryFactory.create(key, value, metadata,
+            OffHeapMemory.getLong(address + CREATED_OFFSET), OffHeapMemory.getLong(address + LIFESPAN_OFFSET),
+            OffHeapMemory.getLong(address + LAST_USED_OFFSET), OffHeapMemory.getLong(address + MAX_IDLE_OFFSET));
+   }
+
+   /**
+    * A segment owns an off-heap bucket table and a doubly linked LRU list over its blocks. All methods must be
+    * invoked with the segment locked, except for reading {@link #count}.
+    */
+   private final class Segment extends ReentrantLock {
+
+      private static final long serialVersionUID = 5419536893485927375L;
+
+      volatile int count;
+      int capacity;
+      long table;
+      long lruHead;
+      long lruTail;
+
+      Segment() {
+         capacity = INITIAL_CAPACITY;
+         table = OffHeapMemory.allocateZeroed((long) capacity * ADDRESS_SIZE);
+      }
+
+      private long bucket(int hash) {
+         return table + (long) (hash & (capacity - 1)) * ADDRESS_SIZE;
+      }
+
+      long find(Object key, int hash) {
+         if (table == 0)
+            return 0;
+         long address = OffHeapMemory.getLong(bucket(hash));
+         while (address != 0) {
+            if (OffHeapMemory.getInt(address + HASH_OFFSET) == hash
+                  && keyEquivalence.equals(key, unmarshallKey(address)))
+               return address;
+            address = OffHeapMemory.getLong(address + NEXT_OFFSET);
+         }
+         return 0;
+      }
+
+      void insert(long address) {
+         if (table == 0) {
+            // released when the container was stopped
+            capacity = INITIAL_CAPACITY;
+            table = OffHeapMemory.allocateZeroed((long) capacity * ADDRESS_SIZE);
+         }
+         long bucket = bucket(OffHeapMemory.getInt(address + HASH_OFFSET));
+         OffHeapMemory.putLong(address + NEXT_OFFSET, OffHeapMemory.getLong(bucket));
+         OffHeapMemory.putLong(bucket, address);
+         linkLast(address);
+         count++;
+         if (count > capacity * LOAD_FACTOR)
+            rehash();
+      }
+
+      void replace(long existing, long address) {
+         long bucket = bucket(OffHeapMemory.getInt(existing + HASH_OFFSET));
+         OffHeapMemory.putLong(address + NEXT_OFFSET, OffHeapMemory.getLong(existing + NEXT_OFFSET));
+         long previous = findPrevious(bucket, existing);
+         if (previous == 0)
+            OffHeapMemory.putLong(bucket, address);
+         else
+            OffHeapMemory.putLong(previous + NEXT_OFFSET, address);
+         unlinkLru(existing);
+         linkLast(address);
+         OffHeapMemory.free(existing, blockSize(existing));
+      }
+
+      /**
+       * Unlinks the block from the bucket chain and the LRU list and frees its memory.
+       */
+      void release(long address) {
+         long bucket = bucket(OffHeapMemory.getInt(address + HASH_OFFSET));
+         long next = OffHeapMemory.getLong(address + NEXT_OFFSET);
+         long previous = findPrevious(bucket, address);
+         if (previous == 0)
+            OffHeapMemory.putLong(bucket, next);
+         else
+            OffHeapMemory.putLong(previous + NEXT_OFFSET, next);
+         unlinkLru(address);
+         OffHeapMemory.free(address, blockSize(address));
+         count--;
+      }
+
+      void recordAccess(long address) {
+         if (maxEntriesPerSegment >= 0 && address != lruTail) {
+            unlinkLru(address);
+            linkLast(address);
+         }
+      }
+
+      Map<Object, InternalCacheEntry> evictIfNeeded() {
+         Map<Object, InternalCacheEntry> evicted = null;
+         while (count > maxEntriesPerSegment && lruHead != 0) {
+            long victim = lruHead;
+            InternalCacheEntry entry = materialize(victim);
+            if (trace)
+               log.tracef("Evicting off-heap entry with key %s", entry.getKey());
+            // Required to guarantee passivation/activation correctness
+            passivator.passivate(entry);
+            release(victim);
+            if (evicted == null)
+               evicted = new HashMap<Object, InternalCacheEntry>(4);
+            evicted.put(entry.getKey(), entry);
+         }
+         return evicted == null ? null : Collections.unmodifiableMap(evicted);
+      }
+
+      void purgeExpired(long now) {
+         for (int i = 0; i < capacity; i++) {
+            long address = OffHeapMemory.getLong(table + (long) i * ADDRESS_SIZE);
+            while (address != 0) {
+               long next = OffHeapMemory.getLong(address + NEXT_OFFSET);
+               if (canExpire(address) && isExpired(address, now))
+                  release(address);
+               address = next;
+            }
+         }
+      }
+
+      void clear() {
+         long address = lruHead;
+         while (address != 0) {
+            long next = OffHeapMemory.getLong(address + LRU_NEXT_OFFSET);
+            OffHeapMemory.free(address, blockSize(address));
+            address = next;
+         }
+         lruHead = lruTail = 0;
+         if (table != 0)
+            OffHeapMemory.fill(table, (long) capacity * ADDRESS_SIZE, (byte) 0);
+         count = 0;
+      }
+
+      void destroy() {
+         clear();
+         if (table != 0) {
+            OffHeapMemory.free(table, (long) capacity * ADDRESS_SIZE);
+            table = 0;
+            capacity = 0;
+         }
+      }
+
+      /**
+       * Collects copies of the entries stored in a bucket of the current table.
+       */
+      void collect(int bucketIndex, Collection<InternalCacheEntry> target) {
+         long address = OffHeapMemory.getLong(table + (long) bucketIndex * ADDRESS_SIZE);
+         while (address != 0) {
+            target.add(materialize(address));
+            address = OffHeapMemory.getLong(address + NEXT_OFFSET);
+         }
+      }
+
+      private long findPrevious(long bucket, long address) {
+         long previous = 0;
+         long current = OffHeapMemory.getLong(bucket);
+         while (current != address) {
+            previous = current;
+            current = OffHeapMemory.getLong(current + NEXT_OFFSET);
+         }
+         return previous;
+      }
+
+      private void linkLast(long address) {
+         OffHeapMemory.putLong(address + LRU_PREVIOUS_OFFSET, lruTail);
+         OffHeapMemory.putLong(address + LRU_NEXT_OFFSET, 0);
+         if (lruTail == 0)
+            lruHead = address;
+         else
+            OffHeapMemory.putLong(lruTail + LRU_NEXT_OFFSET, address);
+         lruTail = address;
+      }
+
+      private void unlinkLru(long address) {
+         long previous = OffHeapMemory.getLong(address + LRU_PREVIOUS_OFFSET);
+         long next = OffHeapMemory.getLong(address + LRU_NEXT_OFFSET);
+         if (previous == 0)
+            lruHead = next;
+         else
+            OffHeapMemory.putLong(previous + LRU_NEXT_OFFSET, next);
+         if (next == 0)
+            lruTail = previous;
+         else
+            OffHeapMemory.putLong(next + LRU_PREVIOUS_OFFSET, previous);
+      }
+
+      private void rehash() {
+         if (capacity >= MAXIMUM_CAPACITY)
+            return;
+
+         int newCapacity = capacity << 1;
+         long newTable = OffHeapMemory.allocateZeroed((long) newCapacity * ADDRESS_SIZE);
+         int sizeMask = newCapacity - 1;
+         for (int i = 0; i < capacity; i++) {
+            long address = OffHeapMemory.getLong(table + (long) i * ADDRESS_SIZE);
+            while (address != 0) {
+               long next = OffHeapMemory.getLong(address + NEXT_OFFSET);
+               long bucket = newTable + (long) (OffHeapMemory.getInt(address + HASH_OFFSET) & sizeMask) * ADDRESS_SIZE;
+               OffHeapMemory.putLong(address + NEXT_OFFSET, OffHeapMemory.getLong(bucket));
+               OffHeapMemory.putLong(bucket, address);
+               address = next;
+            }
+         }
+         OffHeapMemory.free(table, (long) capacity * ADDRESS_SIZE);
+         table = newTable;
+         capacity = newCapacity;
+      }
+   }
+
+   /**
+    * Weakly consistent iterator that copies entries out of the container a few buckets at a time, so that segment
+    * locks are only held briefly. Since tables only ever double in size, buckets already visited before a resize can
+    * be recognised in the new table by masking bucket indexes with the previous capacity.
+    */
+   private class EntryIterator implements Iterator<InternalCacheEntry> {
+
+      private static final int BATCH_SIZE = 64;
+
+      private final ArrayDeque<InternalCacheEntry> buffer = new ArrayDeque<InternalCacheEntry>(BATCH_SIZE);
+      private final List<int[]> visitedBeforeResize = new ArrayList<int[]>(2);
+      private int segmentIndex;
+      private int bucketIndex;
+      private int capacity = -1;
+
+      @Override
+      public boolean hasNext() {
+         while (buffer.isEmpty() && segmentIndex < segments.length)
+            fill(segments[segmentIndex]);
+         return !buffer.isEmpty();
+      }
+
+      @Override
+      public InternalCacheEntry next() {
+         if (!hasNext())
+            throw new NoSuchElementException();
+         return buffer.poll();
+      }
+
+      @Override
+      public void remove() {
+         throw new UnsupportedOperationException();
+      }
+
+      private void fill(Segment segment) {
+         segment.lock();
+         try {
+            if (capacity < 0) {
+               capacity = segment.capacity;
+            } else if (capacity != segment.capacity) {
+               visitedBeforeResize.add(new int[]{capacity - 1, bucketIndex});
+               capacity = segment.capacity;
+               bucketIndex = 0;
+            }
+            while (bucketIndex < capacity && buffer.size() < BATCH_SIZE) {
+               if (!visited(bucketIndex))
+                  segment.collect(bucketIndex, buffer);
+               bucketIndex++;
+            }
+         } finally {
+            segment.unlock();
+         }
+
+         if (bucketIndex >= capacity) {
+            segmentIndex++;
+            bucketIndex = 0;
+            capacity = -1;
+            visitedBeforeResize.clear();
+         }
+      }
+
+      private boolean visited(int bucket) {
+         for (int[] maskAndLimit : visitedBeforeResize) {
+            if ((bucket & maskAndLimit[0]) < maskAndLimit[1])
+               return true;
+         }
+         return false;
+      }
+   }
+
+   private static class ImmutableEntryIterator implements Iterator<InternalCacheEntry> {
+      private final Iterator<InternalCacheEntry> it;
+
+      ImmutableEntryIterator(Iterator<InternalCacheEntry> it) {
+         this.it = it;
+      }
+
+      @Override
+      public boolean hasNext() {
+         return it.hasNext();
+      }
+
+      @Override
+      public InternalCacheEntry next() {
+         return Immutables.immutableInternalCacheEntry(it.next());
+      }
+
+      @Override
+      public void remove() {
+         throw new UnsupportedOperationException();
+      }
+   }
+
+   /**
+    * Minimal implementation needed for unmodifiable Set
+    */
+   private class KeySet extends AbstractSet<Object> {
+
+      @Override
+      public boolean contains(Object o) {
+         return peek(o) != null;
+      }
+
+      @Override
+      public Iterator<Object> iterator() {
+         final Iterator<InternalCacheEntry> it = new EntryIterator();
+         return new Iterator<Object>() {
+            @Override
+            public boolean hasNext() {
+               return it.hasNext();
+            }
+
+            @Override
+            public Object next() {
+               return it.next().getKey();
+            }
+
+            @Override
+            public void remove() {
+               throw new UnsupportedOperationException();
+            }
+         };
+      }
+
+      @Override
+      public int size() {
+         return OffHeapDataContainer.this.size();
+      }
+   }
+
+   /**
+    * Minimal implementation needed for unmodifiable Set
+    */
+   private class EntrySet extends AbstractSet<InternalCacheEntry> {
+
+      @Override
+      public boolean contains(Object o) {
+         if (!(o instanceof Map.Entry)) {
+            return false;
+         }
+
+         @SuppressWarnings("rawtypes")
+         Map.Entry e = (Map.Entry) o;
+         InternalCacheEntry ice = peek(e.getKey());
+         if (ice == null) {
+            return false;
+         }
+         return ice.getValue().equals(e.getValue());
+      }
+
+      @Override
+      public Iterator<InternalCacheEntry> iterator() {
+         return new ImmutableEntryIterator(new EntryIterator());
+      }
+
+      @Override
+      public int size() {
+         return OffHeapDataContainer.this.size();
+      }
+   }
+
+   /**
+    * Minimal implementation needed for unmodifiable Collection
+    */
+   private class Values extends AbstractCollection<Object> {
+
+      @Override
+      public Iterator<Object> iterator() {
+         final Iterator<InternalCacheEntry> it = new EntryIterator();
+         return new Iterator<Object>() {
+            @Override
+            public boolean hasNext() {
+               return it.hasNext();
+            }
+
+            @Override
+            public Object next() {
+               return it.next().getValue();
+            }
+
+            @Override
+            public void remove() {
+               throw new UnsupportedOperationException();
+            }
+         };
+      }
+
+      @Override
+      public int size() {
+         return OffHeapDataContainer.this.size();
+      }
+   }
+}
@@ -0,0 +1,125 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.container.offheap;
+
+import java.lang.reflect.Field;
+import java.security.AccessController;
+import java.security.PrivilegedExceptionAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thin wrapper around {@link sun.misc.Unsafe} used to allocate, access and release native memory blocks outside of
+ * the Java heap. Addresses are plain longs and <tt>0</tt> is used as the null address.
+ * <p/>
+ * No bounds checking is performed: callers are responsible for only touching memory inside the blocks they have
+ * allocated and for releasing every block exactly once.
+ *
+ * @since 5.3
+ */
+final class OffHeapMemory {
+
+   private static final sun.misc.Unsafe UNSAFE = getUnsafe();
+   private static final long BYTE_ARRAY_OFFSET = UNSAFE.arrayBaseOffset(byte[].class);
+
+   /**
+    * Bytes currently allocated through this class, across all containers.
+    */
+   private static final AtomicLong allocated = new AtomicLong();
+
+   private OffHeapMemory() {
+   }
+
+   static long allocate(long size) {
+      long address = UNSAFE.allocateMemory(size);
+      allocated.addAndGet(size);
+      return address;
+   }
+
+   static long allocateZeroed(long size) {
+      long address = allocate(size);
+      UNSAFE.setMemory(address, size, (byte) 0);
+      return address;
+   }
+
+   static void free(long address, long size) {
+      UNSAFE.freeMemory(address);
+      allocated.addAndGet(-size);
+   }
+
+   static long allocatedBytes() {
+      return allocated.get();
+   }
+
+   static long getLong(long address) {
+      return UNSAFE.getLong(address);
+   }
+
+   static void putLong(long address, long value) {
+      UNSAFE.putLong(address, value);
+   }
+
+   static int getInt(long address) {
+      return UNSAFE.getInt(address);
+   }
+
+   static void putInt(long address, int value) {
+      UNSAFE.putInt(address, value);
+   }
+
+   static void fill(long address, long size, byte value) {
+      UNSAFE.setMemory(address, size, value);
+   }
+
+   static void copyFromArray(byte[] src, int srcOffset, long address, int length) {
+      UNSAFE.copyMemory(src, BYTE_ARRAY_OFFSET + srcOffset, null, address, length);
+   }
+
+   static void copyToArray(long address, byte[] dst, int dstOffset, int length) {
+      UNSAFE.copyMemory(null, address, dst, BYTE_ARRAY_OFFSET + dstOffset, length);
+   }
+
+   private static sun.misc.Unsafe getUnsafe() {
+      try {
+         return sun.misc.Unsafe.getUnsafe();
+      } catch (SecurityException tryReflectionInstead) {
+         // Not loaded by the bootstrap class loader, fall back on reflection
+      }
+      try {
+         return AccessController.doPrivileged(new PrivilegedExceptionAction<sun.misc.Unsafe>() {
+            @Override
+            public sun.misc.Unsafe run() throws Exception {
+               Class<sun.misc.Unsafe> k = sun.misc.Unsafe.class;
+               for (Field f : k.getDeclaredFields()) {
+                  f.setAccessible(true);
+                  Object x = f.get(null);
+                  if (k.isInstance(x))
+                     return k.cast(x);
+               }
+               throw new NoSuchFieldError("the Unsafe");
+            }
+         });
+      } catch (java.security.PrivilegedActionException e) {
+         throw new RuntimeException("Could not access sun.misc.Unsafe", e.getCause());
+      }
+   }
+}
@@ -73,6 +73,16 @@ public InvocationContext createRemoteInvocationContextForCommand(
       }
    }
 
+   @Override
+   public InvocationContext createSingleKeyReadInvocationContext() {
+      return createInvocationContext(false, 1);
+   }
+
+   @Override
+   public void releaseReadInvocationContext(InvocationContext ctx) {
+      // read contexts are not reused by default
+   }
+
    @Override
    public InvocationContext getInvocationContext(boolean quiet) {
       InvocationContext ctx = ctxHolder.get();
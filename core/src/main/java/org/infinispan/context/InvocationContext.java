@@ -61,6 +61,10 @@ public interface InvocationContext extends EntryLookup, Cloneable {
    /**
     * Indicates whether the call requires a {@link java.util.concurrent.Future}
     * as return type.
+    * <p/>
+    * When set, interceptors which would otherwise wait for remote nodes to respond may instead return a
+    * {@link org.infinispan.util.concurrent.NotifyingFuture} completed with the actual return value once they do.
+    * Interceptors looking at return values must then attach a listener to such futures rather than inspect them.
     *
     * @return true if the call requires a {@link java.util.concurrent.Future}
     *              as return type, false otherwise
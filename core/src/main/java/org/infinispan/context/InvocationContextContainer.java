@@ -94,6 +94,18 @@ public interface InvocationContextContainer {
     */
    InvocationContext createSingleKeyNonTxInvocationContext();
 
+   /**
+    * Returns a context for a local, non-transactional read of a single key. The context may be reused by the next read
+    * of the calling thread, so it must be passed to {@link #releaseReadInvocationContext(InvocationContext)} as soon
+    * as the read completes, and must not be referenced afterwards.
+    */
+   InvocationContext createSingleKeyReadInvocationContext();
+
+   /**
+    * Releases a context returned by {@link #createSingleKeyReadInvocationContext()} once the read completes.
+    */
+   void releaseReadInvocationContext(InvocationContext ctx);
+
    /**
     * Returns a {@link org.infinispan.context.impl.LocalTxInvocationContext}.
     */
@@ -38,6 +38,12 @@
  */
 public class NonTransactionalInvocationContextContainer extends AbstractInvocationContextContainer {
 
+   /**
+    * Reusable context for the single key reads of each thread.
+    */
+   private final ThreadLocal<SingleKeyNonTxInvocationContext> readContexts =
+         new ThreadLocal<SingleKeyNonTxInvocationContext>();
+
    @Inject
    public void init(Configuration config) {
       super.init(config);
@@ -76,6 +82,26 @@ public NonTxInvocationContext createNonTxInvocationContext() {
       return ctx;
    }
 
+   @Override
+   public InvocationContext createSingleKeyReadInvocationContext() {
+      SingleKeyNonTxInvocationContext result = readContexts.get();
+      if (result == null) {
+         result = new SingleKeyNonTxInvocationContext(true, keyEq);
+         readContexts.set(result);
+      }
+      if (!result.acquire()) {
+         // a nested read, e.g. by a listener notified of the read that uses the context
+         result = new SingleKeyNonTxInvocationContext(true, keyEq);
+      }
+      ctxHolder.set(result);
+      return result;
+   }
+
+   @Override
+   public void releaseReadInvocationContext(InvocationContext ctx) {
+      ((SingleKeyNonTxInvocationContext) ctx).reset();
+   }
+
    @Override
    public InvocationContext createSingleKeyNonTxInvocationContext() {
       SingleKeyNonTxInvocationContext result = new SingleKeyNonTxInvocationContext(true, keyEq);
@@ -134,6 +134,29 @@ public void clearLookedUpEntries() {
       clearLockedKeys();
    }
 
+   /**
+    * Marks a reusable context as used by an invocation.
+    *
+    * @return false if the context is already used by an ongoing invocation
+    */
+   boolean acquire() {
+      if (isContextFlagSet(ContextFlag.IN_USE))
+         return false;
+      setContextFlag(ContextFlag.IN_USE);
+      return true;
+   }
+
+   /**
+    * Clears the state of the invocation that used this context, so that it can be reused.
+    */
+   @Override
+   protected void reset() {
+      super.reset();
+      key = null;
+      cacheEntry = null;
+      isLocked = false;
+   }
+
    public Object getKey() {
       return key;
    }
@@ -50,7 +50,8 @@ public abstract class AbstractInvocationContext implements InvocationContext {
    // a single byte.  Always start shifting with 0, the last shift cannot be greater than 7.
    protected enum ContextFlag {
       USE_FUTURE_RETURN_TYPE(1), // same as 1 << 0
-      ORIGIN_LOCAL(1 << 1);
+      ORIGIN_LOCAL(1 << 1),
+      IN_USE(1 << 2); // set while a reusable context is used by an invocation
 
       final byte mask;
 
@@ -100,6 +101,15 @@ protected final void setContextFlag(ContextFlag flag, boolean set) {
          unsetContextFlag(flag);
    }
 
+   /**
+    * Clears the context flags, origin and class loader, so that the context can be reused by another invocation.
+    */
+   protected void reset() {
+      contextFlags = 0;
+      origin = null;
+      classLoader = null;
+   }
+
    @Override
    public Address getOrigin() {
 	   return origin;
@@ -38,7 +38,12 @@ public enum EvictionStrategy {
    @Deprecated
    FIFO, 
    LRU, 
-   LIRS;
+   LIRS,
+   /**
+    * Window TinyLFU: a frequency based admission filter in front of a segmented LRU, which resists
+    * scans better than LRU and records reads without locking.
+    */
+   TINY_LFU;
 
    public boolean isEnabled() {
       return this != NONE;
@@ -25,8 +25,13 @@
 import org.infinispan.config.ConfigurationException;
 import org.infinispan.container.DataContainer;
 import org.infinispan.container.DefaultDataContainer;
+import org.infinispan.container.DefaultSegmentedDataContainer;
+import org.infinispan.container.offheap.OffHeapDataContainer;
 import org.infinispan.eviction.EvictionStrategy;
 import org.infinispan.eviction.EvictionThreadPolicy;
+import org.infinispan.distribution.ch.ConsistentHashFactory;
+import org.infinispan.distribution.ch.DefaultConsistentHashFactory;
+import org.infinispan.distribution.ch.SyncConsistentHashFactory;
 import org.infinispan.factories.annotations.DefaultFactoryFor;
 import org.infinispan.util.AnyEquivalence;
 import org.infinispan.util.Equivalence;
@@ -53,6 +58,12 @@ public <T> T construct(Class<T> componentType) {
          Equivalence keyEquivalence = configuration.dataContainer().keyEquivalence();
          Equivalence valueEquivalence = configuration.dataContainer().valueEquivalence();
 
+         if (configuration.dataContainer().offHeap())
+            return (T) constructOffHeap(st, level, keyEquivalence);
+
+         if (configuration.dataContainer().segmented())
+            return (T) constructSegmented(level, keyEquivalence, valueEquivalence);
+
          switch (st) {
             case NONE:
                return (T) DefaultDataContainer.unBoundedDataContainer(
@@ -61,9 +72,11 @@ public <T> T construct(Class<T> componentType) {
             case LRU:
             case FIFO:
             case LIRS:
+            case TINY_LFU:
                int maxEntries = configuration.eviction().maxEntries();
+               long maxMemory = configuration.eviction().maxMemory();
                //handle case when < 0 value signifies unbounded container 
-               if(maxEntries < 0) {
+               if(maxEntries < 0 && maxMemory <= 0) {
                    return (T) DefaultDataContainer.unBoundedDataContainer(
                          level, keyEquivalence, valueEquivalence);
                }
@@ -71,11 +84,44 @@ public <T> T construct(Class<T> componentType) {
                EvictionThreadPolicy policy = configuration.eviction().threadPolicy();
 
                return (T) DefaultDataContainer.boundedDataContainer(
-                  level, maxEntries, st, policy, keyEquivalence, valueEquivalence);
+                  level, maxEntries, maxMemory, st, policy, keyEquivalence, valueEquivalence);
             default:
                throw new ConfigurationException("Unknown eviction strategy "
                         + configuration.eviction().strategy());
          }
       }
    }
+
+   private DataContainer constructSegmented(int level, Equivalence keyEquivalence, Equivalence valueEquivalence) {
+      // Segments are computed like DefaultConsistentHash does, so make sure that is the consistent hash in use
+      ConsistentHashFactory chFactory = configuration.clustering().hash().consistentHashFactory();
+      if (chFactory != null && !(chFactory instanceof DefaultConsistentHashFactory)
+            && !(chFactory instanceof SyncConsistentHashFactory)) {
+         throw new ConfigurationException("A segmented data container cannot be used with consistent hash factory "
+               + chFactory.getClass().getName());
+      }
+      return new DefaultSegmentedDataContainer(level, configuration.clustering().hash().numSegments(),
+            configuration.clustering().hash().hash(), keyEquivalence, valueEquivalence);
+   }
+
+   private DataContainer constructOffHeap(EvictionStrategy st, int level, Equivalence keyEquivalence) {
+      switch (st) {
+         case NONE:
+            return OffHeapDataContainer.unBoundedDataContainer(level, keyEquivalence);
+         case UNORDERED:
+         case LRU:
+         case FIFO:
+         case LIRS:
+         case TINY_LFU:
+            int maxEntries = configuration.eviction().maxEntries();
+            //handle case when < 0 value signifies unbounded container
+            if (maxEntries < 0)
+               return OffHeapDataContainer.unBoundedDataContainer(level, keyEquivalence);
+
+            return OffHeapDataContainer.boundedDataContainer(level, maxEntries, keyEquivalence);
+         default:
+            throw new ConfigurationException("Unknown eviction strategy "
+                     + configuration.eviction().strategy());
+      }
+   }
 }
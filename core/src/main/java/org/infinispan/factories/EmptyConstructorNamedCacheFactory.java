@@ -52,6 +52,7 @@
 import org.infinispan.transaction.xa.TransactionFactory;
 import org.infinispan.transaction.xa.recovery.RecoveryAdminOperations;
 import org.infinispan.util.concurrent.locks.containers.LockContainer;
+import org.infinispan.util.concurrent.locks.containers.LockWordStripedLockContainer;
 import org.infinispan.util.concurrent.locks.containers.OwnableReentrantPerEntryLockContainer;
 import org.infinispan.util.concurrent.locks.containers.OwnableReentrantStripedLockContainer;
 import org.infinispan.util.concurrent.locks.containers.ReentrantPerEntryLockContainer;
@@ -121,7 +122,9 @@ public <T> T construct(Class<T> componentType) {
             return (T) new EvictionManagerImpl();
          } else if (componentType.equals(LockContainer.class)) {
             boolean  notTransactional = !isTransactional;
-            LockContainer<?> lockContainer = configuration.locking().useLockStriping() ?
+            LockContainer<?> lockContainer = configuration.locking().useLockWords() ?
+                  new LockWordStripedLockContainer(configuration.locking().concurrencyLevel()) :
+                  configuration.locking().useLockStriping() ?
                   notTransactional ? new ReentrantStripedLockContainer(configuration.locking().concurrencyLevel())
                         : new OwnableReentrantStripedLockContainer(configuration.locking().concurrencyLevel()) :
                   notTransactional ? new ReentrantPerEntryLockContainer(configuration.locking().concurrencyLevel())
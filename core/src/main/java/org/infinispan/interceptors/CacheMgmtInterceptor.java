@@ -28,6 +28,9 @@
 import org.infinispan.commands.write.PutMapCommand;
 import org.infinispan.commands.write.RemoveCommand;
 import org.infinispan.container.DataContainer;
+import org.infinispan.container.DefaultDataContainer;
+import org.infinispan.container.DefaultSegmentedDataContainer;
+import org.infinispan.container.ExpirationIndex;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
@@ -39,10 +42,13 @@
 import org.infinispan.jmx.annotations.MeasurementType;
 import org.infinispan.jmx.annotations.Units;
 import org.infinispan.util.TimeService;
+import org.infinispan.util.concurrent.FutureListener;
+import org.infinispan.util.concurrent.NotifyingFuture;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
 import java.util.Map;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -98,21 +104,34 @@ public Object visitEvictCommand(InvocationContext ctx, EvictCommand command) thr
 
    @Override
    public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand command) throws Throwable {
-      long start = timeService.time();
+      final long start = timeService.time();
       Object retval = invokeNextInterceptor(ctx, command);
-      long intervalMilliseconds = timeService.timeDuration(start, TimeUnit.MILLISECONDS);
       if (ctx.isOriginLocal()) {
-         if (retval == null) {
-            missTimes.getAndAdd(intervalMilliseconds);
-            misses.incrementAndGet();
+         if (isFutureReturnValue(ctx, retval)) {
+            whenDone(retval, new ReturnValueListener() {
+               @Override
+               void returned(Object value) {
+                  recordGet(start, value);
+               }
+            });
          } else {
-            hitTimes.getAndAdd(intervalMilliseconds);
-            hits.incrementAndGet();
+            recordGet(start, retval);
          }
       }
       return retval;
    }
 
+   private void recordGet(long start, Object retval) {
+      long intervalMilliseconds = timeService.timeDuration(start, TimeUnit.MILLISECONDS);
+      if (retval == null) {
+         missTimes.getAndAdd(intervalMilliseconds);
+         misses.incrementAndGet();
+      } else {
+         hitTimes.getAndAdd(intervalMilliseconds);
+         hits.incrementAndGet();
+      }
+   }
+
    @Override
    public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) throws Throwable {
       final Map<Object, Object> data = command.getMap();
@@ -129,29 +148,89 @@ public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) t
    @Override
    //Map.put(key,value) :: oldValue
    public Object visitPutKeyValueCommand(InvocationContext ctx, PutKeyValueCommand command) throws Throwable {
-      long start = timeService.time();
+      final long start = timeService.time();
       Object retval = invokeNextInterceptor(ctx, command);
-      if (ctx.isOriginLocal() && command.isSuccessful()) {
-         long intervalMilliseconds = timeService.timeDuration(start, TimeUnit.MILLISECONDS);
-         storeTimes.getAndAdd(intervalMilliseconds);
-         stores.incrementAndGet();
+      if (ctx.isOriginLocal()) {
+         if (isFutureReturnValue(ctx, retval)) {
+            final PutKeyValueCommand put = command;
+            whenDone(retval, new ReturnValueListener() {
+               @Override
+               void returned(Object value) {
+                  // the command only ran locally, a putIfAbsent succeeded if the primary owner returned no value
+                  if (put.isConditional() ? value == null : put.isSuccessful())
+                     recordStore(start);
+               }
+            });
+         } else if (command.isSuccessful()) {
+            recordStore(start);
+         }
       }
       return retval;
    }
 
+   private void recordStore(long start) {
+      long intervalMilliseconds = timeService.timeDuration(start, TimeUnit.MILLISECONDS);
+      storeTimes.getAndAdd(intervalMilliseconds);
+      stores.incrementAndGet();
+   }
+
    @Override
    public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) throws Throwable {
       Object retval = invokeNextInterceptor(ctx, command);
       if (ctx.isOriginLocal()) {
-         if (retval == null) {
-            removeMisses.incrementAndGet();
+         if (isFutureReturnValue(ctx, retval)) {
+            whenDone(retval, new ReturnValueListener() {
+               @Override
+               void returned(Object value) {
+                  recordRemove(value);
+               }
+            });
          } else {
-            removeHits.incrementAndGet();
+            recordRemove(retval);
          }
       }
       return retval;
    }
 
+   private void recordRemove(Object retval) {
+      if (retval == null) {
+         removeMisses.incrementAndGet();
+      } else {
+         removeHits.incrementAndGet();
+      }
+   }
+
+   /**
+    * Whether the invocation returned a future, to be completed with its actual return value once the remote owners
+    * respond. See {@link InvocationContext#isUseFutureReturnType()}.
+    */
+   private static boolean isFutureReturnValue(InvocationContext ctx, Object retval) {
+      return ctx.isUseFutureReturnType() && retval instanceof NotifyingFuture;
+   }
+
+   @SuppressWarnings("unchecked")
+   private static void whenDone(Object futureReturnValue, ReturnValueListener listener) {
+      ((NotifyingFuture<Object>) futureReturnValue).attachListener(listener);
+   }
+
+   /**
+    * Records statistics once a future return value is completed. Failed invocations are not recorded.
+    */
+   private static abstract class ReturnValueListener implements FutureListener<Object> {
+      abstract void returned(Object value);
+
+      @Override
+      public void futureDone(Future<Object> future) {
+         Object value;
+         try {
+            value = future.get();
+         } catch (Exception e) {
+            return;
+         }
+         returned(value);
+      }
+   }
+
    @ManagedAttribute(
          description = "Number of cache attribute hits",
          displayName = "Number of cache hits",
@@ -211,6 +290,47 @@ public long getEvictions() {
       return evictions.get();
    }
 
+   @ManagedAttribute(
+         description = "Number of expired entries removed from the cache by the expiration reaper",
+         displayName = "Number of cache expirations",
+         measurementType = MeasurementType.TRENDSUP,
+         displayType = DisplayType.SUMMARY
+   )
+   public long getExpirations() {
+      ExpirationIndex expirationIndex = getExpirationIndex();
+      return expirationIndex == null ? -1 : expirationIndex.getExpirations();
+   }
+
+   @ManagedAttribute(
+         description = "Average time expired entries stayed in the cache before being removed by the expiration reaper",
+         displayName = "Average expiration lag",
+         units = Units.MILLISECONDS,
+         displayType = DisplayType.SUMMARY
+   )
+   public long getAverageExpirationLag() {
+      ExpirationIndex expirationIndex = getExpirationIndex();
+      return expirationIndex == null ? -1 : expirationIndex.getAverageExpirationLag();
+   }
+
+   @ManagedAttribute(
+         description = "Longest time an expired entry stayed in the cache before being removed by the expiration reaper",
+         displayName = "Maximum expiration lag",
+         units = Units.MILLISECONDS,
+         displayType = DisplayType.SUMMARY
+   )
+   public long getMaxExpirationLag() {
+      ExpirationIndex expirationIndex = getExpirationIndex();
+      return expirationIndex == null ? -1 : expirationIndex.getMaxExpirationLag();
+   }
+
+   private ExpirationIndex getExpirationIndex() {
+      if (dataContainer instanceof DefaultDataContainer)
+         return ((DefaultDataContainer) dataContainer).getExpirationIndex();
+      if (dataContainer instanceof DefaultSegmentedDataContainer)
+         return ((DefaultSegmentedDataContainer) dataContainer).getExpirationIndex();
+      return null;
+   }
+
    @ManagedAttribute(
          description = "Percentage hit/(hit+miss) ratio for the cache",
          displayName = "Hit ratio",
@@ -277,6 +397,18 @@ public int getNumberOfEntries() {
       return dataContainer.size();
    }
 
+   @ManagedAttribute(
+         description = "Estimated amount of memory used by the entries currently in the cache, or -1 if the cache is not bounded by memory",
+         displayName = "Memory used by current cache entries",
+         units = Units.BYTES,
+         displayType = DisplayType.SUMMARY
+   )
+   public long getMemoryUsed() {
+      if (dataContainer instanceof DefaultDataContainer)
+         return ((DefaultDataContainer) dataContainer).memoryUsed();
+      return -1;
+   }
+
    @ManagedAttribute(
          description = "Number of seconds since cache started",
          displayName = "Seconds since cache started",
@@ -314,6 +446,9 @@ public void resetStatistics() {
       storeTimes.set(0);
       removeHits.set(0);
       removeMisses.set(0);
+      ExpirationIndex expirationIndex = getExpirationIndex();
+      if (expirationIndex != null)
+         expirationIndex.resetStatistics();
       resetNanoseconds.set(timeService.time());
    }
 }
@@ -41,13 +41,19 @@
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.interceptors.base.JmxStatsCommandInterceptor;
+import org.infinispan.jmx.annotations.DisplayType;
 import org.infinispan.jmx.annotations.MBean;
 import org.infinispan.jmx.annotations.ManagedAttribute;
 import org.infinispan.jmx.annotations.ManagedOperation;
 import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Units;
+import org.infinispan.loaders.CacheLoader;
 import org.infinispan.loaders.CacheLoaderException;
 import org.infinispan.loaders.CacheLoaderManager;
 import org.infinispan.loaders.CacheStore;
+import org.infinispan.loaders.decorators.AbstractDelegatingStore;
+import org.infinispan.loaders.decorators.AsyncStore;
+import org.infinispan.loaders.decorators.ChainingCacheStore;
 import org.infinispan.loaders.modifications.Clear;
 import org.infinispan.loaders.modifications.Modification;
 import org.infinispan.loaders.modifications.Remove;
@@ -67,6 +73,7 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static org.infinispan.context.Flag.SKIP_CACHE_STORE;
@@ -98,6 +105,11 @@ protected Log getLog() {
       return log;
    }
 
+   @Override
+   public boolean actsOnReads() {
+      return false;
+   }
+
    @Inject
    protected void init(CacheLoaderManager loaderManager, InternalEntryFactory entryFactory, TransactionManager transactionManager) {
       this.loaderManager = loaderManager;
@@ -405,6 +417,8 @@ private Object visitSingleStore(InvocationContext ctx, Object key) throws Throwa
    )
    public void resetStatistics() {
       cacheStores.set(0);
+      for (AsyncStore asyncStore : getAsyncStores())
+         asyncStore.resetStatistics();
    }
 
    @ManagedAttribute(
@@ -416,6 +430,70 @@ public long getCacheLoaderStores() {
       return cacheStores.get();
    }
 
+   @ManagedAttribute(
+         description = "Number of modifications buffered by asynchronous cache stores and not yet written",
+         displayName = "Async store queue depth",
+         measurementType = MeasurementType.DYNAMIC
+   )
+   public long getAsyncStoreQueueDepth() {
+      long depth = 0;
+      for (AsyncStore asyncStore : getAsyncStores())
+         depth += asyncStore.getQueueDepth();
+      return depth;
+   }
+
+   @ManagedAttribute(
+         description = "Number of modifications handed to asynchronous cache stores per modification actually written, after coalescing",
+         displayName = "Async store coalescing ratio",
+         measurementType = MeasurementType.DYNAMIC
+   )
+   public double getAsyncStoreCoalescingRatio() {
+      long queued = 0, written = 0;
+      for (AsyncStore asyncStore : getAsyncStores()) {
+         queued += asyncStore.getModificationsQueued();
+         written += asyncStore.getModificationsWritten();
+      }
+      return written == 0 ? 0 : (double) queued / written;
+   }
+
+   @ManagedAttribute(
+         description = "Average time taken by asynchronous cache stores to write a batch of modifications",
+         displayName = "Async store average flush time",
+         units = Units.MILLISECONDS,
+         displayType = DisplayType.SUMMARY
+   )
+   public long getAsyncStoreAverageFlushTime() {
+      long flushes = 0, time = 0;
+      for (AsyncStore asyncStore : getAsyncStores()) {
+         flushes += asyncStore.getFlushCount();
+         time += asyncStore.getFlushTime(TimeUnit.MILLISECONDS);
+      }
+      return flushes == 0 ? 0 : time / flushes;
+   }
+
+   private List<AsyncStore> getAsyncStores() {
+      List<AsyncStore> asyncStores = new ArrayList<AsyncStore>(1);
+      CacheLoader loader = loaderManager.getCacheLoader();
+      if (loader instanceof ChainingCacheStore) {
+         for (CacheStore cs : ((ChainingCacheStore) loader).getStores().keySet())
+            addAsyncStore(cs, asyncStores);
+      } else {
+         addAsyncStore(loader, asyncStores);
+      }
+      return asyncStores;
+   }
+
+   private static void addAsyncStore(CacheLoader loader, List<AsyncStore> asyncStores) {
+      // the async decorator may itself be wrapped by read-only or singleton decorators
+      while (loader instanceof AbstractDelegatingStore) {
+         if (loader instanceof AsyncStore) {
+            asyncStores.add((AsyncStore) loader);
+            return;
+         }
+         loader = ((AbstractDelegatingStore) loader).getDelegate();
+      }
+   }
+
    InternalCacheEntry getStoredEntry(Object key, InvocationContext ctx) {
       CacheEntry entry = ctx.lookupEntry(key);
       if (entry instanceof InternalCacheEntry) {
@@ -58,6 +58,11 @@ protected Log getLog() {
       return log;
    }
 
+   @Override
+   public boolean actsOnReads() {
+      return false;
+   }
+
    /**
     * Only does a sanity check.
     */
@@ -23,7 +23,6 @@
 
 package org.infinispan.interceptors;
 
-import org.infinispan.context.InvocationContext;
 import org.infinispan.marshall.MarshalledValue;
 
 /**
@@ -31,6 +30,10 @@
  * proactively. By doing so, clients are no longer able to make any changes
  * via direct object references, so any changes require a cache modification
  * call via put/replace...etc methods.
+ * <p/>
+ * Each caller gets its own copy, deserialized from the stored bytes, so the
+ * stored value stays in its serialized form and never has to be compacted
+ * again after a read.
  *
  * @author Galder Zamarreño
  * @since 5.3
@@ -45,15 +48,9 @@ protected void compact(MarshalledValue mv) {
    }
 
    @Override
-   protected Object processRetVal(Object retVal, InvocationContext ctx) {
-      Object ret = retVal;
-      if (retVal instanceof MarshalledValue) {
-         // Calculate return
-         ret = super.processRetVal(ret, ctx);
-         // Re-compact in case deserialization happened
-         ((MarshalledValue) retVal).compact(true, true);
-      }
-      return ret;
+   protected Object unwrap(MarshalledValue mv) {
+      recordDeserialization();
+      return mv.deserializeCopy();
    }
 
 }
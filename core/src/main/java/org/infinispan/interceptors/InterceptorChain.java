@@ -24,6 +24,7 @@
 
 import org.infinispan.CacheException;
 import org.infinispan.commands.VisitableCommand;
+import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.config.ConfigurationException;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.factories.annotations.Inject;
@@ -61,6 +62,11 @@ public class InterceptorChain {
     */
    private volatile CommandInterceptor firstInChain;
 
+   /**
+    * reference to the first interceptor in the chain that acts on {@link GetKeyValueCommand}s
+    */
+   private volatile CommandInterceptor firstReadInterceptor;
+
    final ReentrantLock lock = new ReentrantLock();
    final ComponentMetadataRepo componentMetadataRepo;
 
@@ -71,6 +77,12 @@ public InterceptorChain(ComponentMetadataRepo componentMetadataRepo) {
       this.componentMetadataRepo = componentMetadataRepo;
    }
 
+   @Start
+   private void start() {
+      // some interceptors only act on reads in some configurations, which is known once they have been wired
+      updateReadPath();
+   }
+
    @Start
    private void printChainInfo() {
       if (log.isDebugEnabled()) {
@@ -129,6 +141,7 @@ public void addInterceptor(CommandInterceptor interceptor, int position) {
          }
          throw new IllegalArgumentException("Invalid index: " + index + " !");
       } finally {
+         updateReadPath();
          lock.unlock();
       }
    }
@@ -160,6 +173,7 @@ public void removeInterceptor(int position) {
          }
          throw new IllegalArgumentException("Invalid position: " + position + " !");
       } finally {
+         updateReadPath();
          lock.unlock();
       }
    }
@@ -216,6 +230,7 @@ public void removeInterceptor(Class<? extends CommandInterceptor> clazz) {
             it = it.getNext();
          }
       } finally {
+         updateReadPath();
          lock.unlock();
       }
    }
@@ -247,6 +262,7 @@ public boolean addInterceptorAfter(CommandInterceptor toAdd, Class<? extends Com
          }
          return false;
       } finally {
+         updateReadPath();
          lock.unlock();
       }
    }
@@ -280,6 +296,7 @@ public boolean addInterceptorBefore(CommandInterceptor toAdd, Class<? extends Co
          }
          return false;
       } finally {
+         updateReadPath();
          lock.unlock();
       }
    }
@@ -318,6 +335,7 @@ public boolean replaceInterceptor(CommandInterceptor replacingInterceptor, Class
          }
          return false;
       } finally {
+         updateReadPath();
          lock.unlock();
       }
    }
@@ -333,6 +351,27 @@ public void appendInterceptor(CommandInterceptor ci, boolean isCustom) {
       it.setNext(ci);
       // make sure we nullify the "next" pointer in the last interceptors.
       ci.setNext(null);
+      updateReadPath();
+   }
+
+   /**
+    * Precomputes the path of {@link GetKeyValueCommand}s through the chain, so that reads skip the interceptors that
+    * would only pass them on. Called whenever the chain changes.
+    *
+    * @see CommandInterceptor#actsOnReads()
+    */
+   private void updateReadPath() {
+      List<CommandInterceptor> interceptors = new ArrayList<CommandInterceptor>(asList());
+      CommandInterceptor nextReadInterceptor = null;
+      for (int i = interceptors.size() - 1; i >= 0; i--) {
+         CommandInterceptor interceptor = interceptors.get(i);
+         interceptor.setNextReadInterceptor(nextReadInterceptor);
+         if (interceptor.actsOnReads())
+            nextReadInterceptor = interceptor;
+         else if (log.isTraceEnabled())
+            log.tracef("Reads skip interceptor %s", interceptor.getClass().getName());
+      }
+      firstReadInterceptor = nextReadInterceptor;
    }
 
    /**
@@ -340,7 +379,7 @@ public void appendInterceptor(CommandInterceptor ci, boolean isCustom) {
     */
    public Object invoke(InvocationContext ctx, VisitableCommand command) {
       try {
-         return command.acceptVisitor(ctx, firstInChain);
+         return command.acceptVisitor(ctx, command instanceof GetKeyValueCommand ? firstReadInterceptor : firstInChain);
       } catch (CacheException e) {
          if (e.getCause() instanceof InterruptedException)
             Thread.currentThread().interrupt();
@@ -367,6 +406,7 @@ public CommandInterceptor getFirstInChain() {
     */
    public void setFirstInChain(CommandInterceptor interceptor) {
       this.firstInChain = interceptor;
+      updateReadPath();
    }
 
    /**
@@ -86,6 +86,11 @@ protected Log getLog() {
       return log;
    }
 
+   @Override
+   public boolean actsOnReads() {
+      return false;
+   }
+
    @Inject
    public void injectDependencies(CommandsFactory commandsFactory) {
       this.commandsFactory = commandsFactory;
@@ -40,6 +40,12 @@
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.interceptors.base.CommandInterceptor;
+import org.infinispan.jmx.annotations.DataType;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.ManagedOperation;
+import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Parameter;
 import org.infinispan.marshall.MarshalledValue;
 import org.infinispan.marshall.StreamingMarshaller;
 import org.infinispan.util.Immutables;
@@ -53,6 +59,7 @@
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.infinispan.factories.KnownComponentNames.CACHE_MARSHALLER;
 import static org.infinispan.marshall.MarshalledValue.isTypeExcluded;
@@ -63,7 +70,8 @@
  * include {@link String}, Java primitives and their Object wrappers, as well as arrays of excluded types.
  * <p/>
  * The {@link org.infinispan.marshall.MarshalledValue} wrapper handles lazy deserialization from byte array
- * representations.
+ * representations. Deserializations needed to hand values back to callers are counted, so that the cost of storing
+ * as binary can be monitored.
  *
  * @author Manik Surtani (<a href="mailto:manik@jboss.org">manik@jboss.org</a>)
  * @author Mircea.Markus@jboss.com
@@ -71,11 +79,14 @@
  * @see org.infinispan.marshall.MarshalledValue
  * @since 4.0
  */
+@MBean(objectName = "MarshalledValues", description = "Component wrapping and unwrapping entries stored as binary.")
 public class MarshalledValueInterceptor extends CommandInterceptor {
+   private final AtomicLong deserializations = new AtomicLong(0);
    private StreamingMarshaller marshaller;
    private boolean wrapKeys = true;
    private boolean wrapValues = true;
    private InternalEntryFactory entryFactory;
+   private boolean statisticsEnabled;
 
    private static final Log log = LogFactory.getLog(MarshalledValueInterceptor.class);
    private static final boolean trace = log.isTraceEnabled();
@@ -95,6 +106,7 @@ protected void injectMarshaller(@ComponentName(CACHE_MARSHALLER) StreamingMarsha
    protected void start() {
       wrapKeys = cacheConfiguration.storeAsBinary().storeKeysAsBinary();
       wrapValues = cacheConfiguration.storeAsBinary().storeValuesAsBinary();
+      setStatisticsEnabled(cacheConfiguration.jmxStatistics().enabled());
    }
 
    @Override
@@ -197,7 +209,6 @@ public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand
          if (!isTypeExcluded(command.getKey().getClass())) {
             mv = createMarshalledValue(command.getKey(), ctx);
             command.setKey(mv);
-            compact(mv);
          }
       }
       Object retVal = invokeNextInterceptor(ctx, command);
@@ -213,7 +224,7 @@ public Object visitKeySetCommand(InvocationContext ctx, KeySetCommand command) t
          Set<Object> copy = new HashSet<Object>(keys.size());
          for (Object key : keys) {
             if (key instanceof MarshalledValue) {
-               key = ((MarshalledValue) key).get();
+               key = unwrap((MarshalledValue) key);
             }
             copy.add(key);
          }
@@ -231,7 +242,7 @@ public Object visitValuesCommand(InvocationContext ctx, ValuesCommand command) t
          Collection<Object> copy = new ArrayList<Object>();
          for (Object value : values) {
             if (value instanceof MarshalledValue) {
-               value = ((MarshalledValue) value).get();
+               value = unwrap((MarshalledValue) value);
             }
             copy.add(value);
          }
@@ -250,10 +261,10 @@ public Object visitEntrySetCommand(InvocationContext ctx, EntrySetCommand comman
          Object key = entry.getKey();
          Object value = entry.getValue();
          if (key instanceof MarshalledValue) {
-            key = ((MarshalledValue) key).get();
+            key = unwrap((MarshalledValue) key);
          }
          if (value instanceof MarshalledValue) {
-            value = ((MarshalledValue) value).get();
+            value = unwrap((MarshalledValue) value);
          }
          InternalCacheEntry newEntry = Immutables.immutableInternalCacheEntry(entryFactory.create(key, value, entry));
          copy.add(newEntry);
@@ -323,12 +334,25 @@ protected Object processRetVal(Object retVal, InvocationContext ctx) {
       if (retVal instanceof MarshalledValue) {
          if (ctx.isOriginLocal()) {
             if (trace) log.tracef("Return is a marshall value, so extract instance from: %s", retVal);
-            retVal = ((MarshalledValue) retVal).get();
+            retVal = unwrap((MarshalledValue) retVal);
          }
       }
       return retVal;
    }
 
+   /**
+    * Extracts the instance a marshalled value hands back to the caller, deserializing it if needed.
+    */
+   protected Object unwrap(MarshalledValue mv) {
+      if (mv.peekInstance() == null)
+         recordDeserialization();
+      return mv.get();
+   }
+
+   protected final void recordDeserialization() {
+      if (statisticsEnabled) deserializations.incrementAndGet();
+   }
+
    @SuppressWarnings("unchecked")
    protected Map<Object, Object> wrapMap(Map<Object, Object> m, Set<MarshalledValue> marshalledValues, InvocationContext ctx) {
       if (m == null) {
@@ -352,4 +376,34 @@ protected Map<Object, Object> wrapMap(Map<Object, Object> m, Set<MarshalledValue
    protected MarshalledValue createMarshalledValue(Object toWrap, InvocationContext ctx) {
       return new MarshalledValue(toWrap, ctx.isOriginLocal(), marshaller);
    }
+
+   @ManagedOperation(
+         description = "Resets statistics gathered by this component",
+         displayName = "Reset statistics"
+   )
+   public void resetStatistics() {
+      deserializations.set(0);
+   }
+
+   @ManagedAttribute(
+         displayName = "Statistics enabled",
+         dataType = DataType.TRAIT,
+         writable = true
+   )
+   public boolean getStatisticsEnabled() {
+      return this.statisticsEnabled;
+   }
+
+   public void setStatisticsEnabled(@Parameter(name = "enabled", description = "Whether statistics should be enabled or disabled (true/false)") boolean enabled) {
+      this.statisticsEnabled = enabled;
+   }
+
+   @ManagedAttribute(
+         description = "Number of values deserialized to be returned to callers",
+         displayName = "Number of deserializations",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getDeserializations() {
+      return deserializations.get();
+   }
 }
@@ -48,6 +48,11 @@ protected Log getLog() {
       return log;
    }
 
+   @Override
+   public boolean actsOnReads() {
+      return false;
+   }
+
    @Inject
    public void injectDependencies(CacheNotifier notifier) {
       this.notifier = notifier;
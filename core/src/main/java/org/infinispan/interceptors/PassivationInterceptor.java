@@ -53,6 +53,11 @@ protected Log getLog() {
       return log;
    }
 
+   @Override
+   public boolean actsOnReads() {
+      return false;
+   }
+
    @Inject
    public void setDependencies(PassivationManager passivator, DataContainer dataContainer) {
       this.passivator = passivator;
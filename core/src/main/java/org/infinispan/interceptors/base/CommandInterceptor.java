@@ -57,6 +57,9 @@
  * {@link #handleDefault(InvocationContext, VisitableCommand)} and then write a series of if statements or a switch
  * block, if command-specific behaviour is needed.
  * <p/>
+ * {@link GetKeyValueCommand}s skip the interceptors that would only pass them on to the next interceptor, see
+ * {@link #actsOnReads()}.
+ * <p/>
  *
  * @author Mircea.Markus@jboss.com
  * @see VisitableCommand
@@ -69,6 +72,11 @@ public abstract class CommandInterceptor extends AbstractVisitor {
 
    private CommandInterceptor next;
 
+   /**
+    * The next interceptor in the chain that acts on {@link GetKeyValueCommand}s.
+    */
+   private CommandInterceptor nextReadInterceptor;
+
    protected Configuration cacheConfiguration;
 
    private static final Log log = LogFactory.getLog(CommandInterceptor.class);
@@ -105,6 +113,34 @@ public final boolean hasNext() {
     */
    public final void setNext(CommandInterceptor next) {
       this.next = next;
+      this.nextReadInterceptor = next;
+   }
+
+   /**
+    * Sets the interceptor {@link GetKeyValueCommand}s are passed on to, skipping the interceptors between the next
+    * interceptor and that one. Only the {@link InterceptorChain} should call this method, after checking that the
+    * skipped interceptors do not act on reads.
+    *
+    * @param nextReadInterceptor the next interceptor in the chain that acts on {@link GetKeyValueCommand}s
+    */
+   public final void setNextReadInterceptor(CommandInterceptor nextReadInterceptor) {
+      this.nextReadInterceptor = nextReadInterceptor;
+   }
+
+   /**
+    * Returns whether this interceptor acts on {@link GetKeyValueCommand}s, in the current configuration. The
+    * interceptor chain passes these commands straight to the next interceptor acting on them.
+    * <p/>
+    * Interceptors act on reads by default. Interceptors that only pass reads on to the next interceptor, i.e. that
+    * override neither {@link #visitGetKeyValueCommand(InvocationContext, GetKeyValueCommand)} nor
+    * {@link #handleDefault(InvocationContext, VisitableCommand)}, or that do nothing with reads in the current
+    * configuration, override this method to return false. The result must not change once the interceptor has been
+    * added to the chain.
+    *
+    * @return false if the interceptor only passes reads on to the next interceptor
+    */
+   public boolean actsOnReads() {
+      return true;
    }
 
    /**
@@ -117,7 +153,7 @@ public final void setNext(CommandInterceptor next) {
     * @throws Throwable in the event of problems
     */
    public final Object invokeNextInterceptor(InvocationContext ctx, VisitableCommand command) throws Throwable {
-      return command.acceptVisitor(ctx, next);
+      return command.acceptVisitor(ctx, command instanceof GetKeyValueCommand ? nextReadInterceptor : next);
    }
 
    /**
@@ -32,9 +32,18 @@
 import org.infinispan.context.InvocationContext;
 import org.infinispan.context.impl.TxInvocationContext;
 import org.infinispan.distribution.DistributionManager;
+import org.infinispan.distribution.topologyaware.TopologyLevel;
 import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.annotations.Start;
 import org.infinispan.interceptors.ClusteringInterceptor;
 import org.infinispan.interceptors.locking.ClusteringDependentLogic;
+import org.infinispan.jmx.annotations.DataType;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.ManagedOperation;
+import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Parameter;
+import org.infinispan.jmx.annotations.Units;
 import org.infinispan.remoting.responses.ClusteredGetResponseValidityFilter;
 import org.infinispan.remoting.responses.ExceptionResponse;
 import org.infinispan.remoting.responses.Response;
@@ -43,14 +52,30 @@
 import org.infinispan.remoting.rpc.ResponseMode;
 import org.infinispan.remoting.rpc.RpcOptions;
 import org.infinispan.remoting.transport.Address;
+import org.infinispan.remoting.transport.TopologyAwareAddress;
+import org.infinispan.remoting.transport.jgroups.SuspectException;
 import org.infinispan.transaction.xa.GlobalTransaction;
+import org.infinispan.util.concurrent.CompletableNotifyingFuture;
+import org.infinispan.util.concurrent.CompletingFutureListener;
+import org.infinispan.util.concurrent.FutureListener;
+import org.infinispan.util.concurrent.NotifyingFuture;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * Base class for distribution of entries across a cluster.
+ * <p/>
+ * Remote gets are sent to all the owners of the key and the first valid response wins, unless
+ * {@link org.infinispan.configuration.cache.HashConfiguration#readFromNearestOwner()} is enabled, in which case they
+ * are only sent to the topologically nearest owner. If the nearest owner does not return the entry, e.g. because it
+ * does not have it, is stopping, or has crashed, the remaining owners are asked once. The latency of remote gets is tracked by the distance of the owner
+ * that responded.
  *
  * @author Manik Surtani
  * @author Mircea.Markus@jboss.com
@@ -58,12 +83,22 @@
  * @author Dan Berindei <dan@infinispan.org>
  * @since 4.0
  */
+@MBean(objectName = "DistributionInterceptor", description = "Component that handles the distribution of entries across the cluster.")
 public abstract class BaseDistributionInterceptor extends ClusteringInterceptor {
 
+   private static final TopologyLevel[] DISTANCES = TopologyLevel.values();
+
    protected DistributionManager dm;
 
    protected ClusteringDependentLogic cdl;
 
+   private boolean readFromNearestOwner;
+   private boolean statisticsEnabled;
+
+   // remote gets and their total time in nanoseconds, indexed by the distance of the owner that responded
+   private final AtomicLongArray remoteGets = new AtomicLongArray(DISTANCES.length);
+   private final AtomicLongArray remoteGetTimes = new AtomicLongArray(DISTANCES.length);
+
    private static final Log log = LogFactory.getLog(BaseDistributionInterceptor.class);
 
    @Override
@@ -77,34 +112,199 @@ public void injectDependencies(DistributionManager distributionManager, Clusteri
       this.cdl = cdl;
    }
 
+   @Start
+   public void configureRemoteGets() {
+      readFromNearestOwner = cacheConfiguration.clustering().hash().readFromNearestOwner();
+      setStatisticsEnabled(cacheConfiguration.jmxStatistics().enabled());
+   }
+
    @Override
    protected final InternalCacheEntry retrieveFromRemoteSource(Object key, InvocationContext ctx, boolean acquireRemoteLock, FlagAffectedCommand command) throws Exception {
       GlobalTransaction gtx = acquireRemoteLock ? ((TxInvocationContext)ctx).getGlobalTransaction() : null;
       ClusteredGetCommand get = cf.buildClusteredGetCommand(key, command.getFlags(), acquireRemoteLock, gtx);
 
-      List<Address> targets = new ArrayList<Address>(stateTransferManager.getCacheTopology().getReadConsistentHash().locateOwners(key));
+      List<Address> owners = getRemoteGetOwners(key);
+      // remote locks must be acquired on the primary owner
+      List<Address> targets = getRemoteGetTargets(key, owners, !acquireRemoteLock);
+      long start = statisticsEnabled ? System.nanoTime() : 0;
+      Map<Address, Response> responses;
+      try {
+         responses = rpcManager.invokeRemotely(targets, get, getRemoteGetRpcOptions(targets));
+      } catch (SuspectException e) {
+         if (targets.size() == owners.size())
+            throw e;
+         responses = Collections.emptyMap();
+      }
+      if (targets.size() < owners.size() && !hasSuccessfulResponse(responses)) {
+         List<Address> remainingOwners = remainingOwners(owners, targets);
+         responses = rpcManager.invokeRemotely(remainingOwners, get, getRemoteGetRpcOptions(remainingOwners));
+         return toInternalCacheEntry(key, remainingOwners, responses, start);
+      }
+      return toInternalCacheEntry(key, targets, responses, start);
+   }
+
+   /**
+    * Same as {@link #retrieveFromRemoteSource(Object, InvocationContext, boolean, FlagAffectedCommand)}, without
+    * acquiring remote locks, except that no thread waits for the owners to respond.
+    */
+   protected final NotifyingFuture<InternalCacheEntry> retrieveFromRemoteSourceInFuture(final Object key, FlagAffectedCommand command) {
+      final ClusteredGetCommand get = cf.buildClusteredGetCommand(key, command.getFlags(), false, null);
+
+      final List<Address> owners = getRemoteGetOwners(key);
+      final List<Address> targets = getRemoteGetTargets(key, owners, true);
+      final long start = statisticsEnabled ? System.nanoTime() : 0;
+      final CompletableNotifyingFuture<InternalCacheEntry> result = new CompletableNotifyingFuture<InternalCacheEntry>();
+      if (targets.size() == owners.size()) {
+         remoteGetInFuture(key, get, targets, start, result);
+         return result;
+      }
+      rpcManager.invokeRemotelyInFuture(targets, get, getRemoteGetRpcOptions(targets)).attachListener(
+            new FutureListener<Map<Address, Response>>() {
+               @Override
+               public void futureDone(Future<Map<Address, Response>> future) {
+                  Map<Address, Response> responses;
+                  try {
+                     responses = future.get();
+                  } catch (ExecutionException e) {
+                     if (!(e.getCause() instanceof SuspectException)) {
+                        result.completeExceptionally(e.getCause());
+                        return;
+                     }
+                     responses = Collections.emptyMap();
+                  } catch (Throwable t) {
+                     result.completeExceptionally(t);
+                     return;
+                  }
+                  if (hasSuccessfulResponse(responses)) {
+                     try {
+                        result.complete(toInternalCacheEntry(key, targets, responses, start));
+                     } catch (Throwable t) {
+                        result.completeExceptionally(t);
+                     }
+                  } else {
+                     remoteGetInFuture(key, get, remainingOwners(owners, targets), start, result);
+                  }
+               }
+            });
+      return result;
+   }
+
+   private void remoteGetInFuture(final Object key, ClusteredGetCommand get, final List<Address> targets,
+                                  final long start, CompletableNotifyingFuture<InternalCacheEntry> result) {
+      rpcManager.invokeRemotelyInFuture(targets, get, getRemoteGetRpcOptions(targets)).attachListener(
+            new CompletingFutureListener<Map<Address, Response>, InternalCacheEntry>(result) {
+               @Override
+               protected InternalCacheEntry transform(Map<Address, Response> responses) {
+                  return toInternalCacheEntry(key, targets, responses, start);
+               }
+            });
+   }
+
+   private List<Address> getRemoteGetOwners(Object key) {
+      List<Address> owners = new ArrayList<Address>(stateTransferManager.getCacheTopology().getReadConsistentHash().locateOwners(key));
       // if any of the recipients has left the cluster since the command was issued, just don't wait for its response
-      targets.retainAll(rpcManager.getTransport().getMembers());
+      owners.retainAll(rpcManager.getTransport().getMembers());
+      return owners;
+   }
+
+   private List<Address> getRemoteGetTargets(Object key, List<Address> owners, boolean allowNearestOwner) {
+      // while the key is moving the nearest owner may not have received it yet, so ask all of them
+      if (readFromNearestOwner && allowNearestOwner && owners.size() > 1
+            && !stateTransferManager.isStateTransferInProgressForKey(key)) {
+         return Collections.singletonList(nearestOwner(owners));
+      }
+      return owners;
+   }
+
+   private static List<Address> remainingOwners(List<Address> owners, List<Address> targets) {
+      List<Address> remaining = new ArrayList<Address>(owners);
+      remaining.removeAll(targets);
+      return remaining;
+   }
+
+   private static boolean hasSuccessfulResponse(Map<Address, Response> responses) {
+      for (Response response : responses.values()) {
+         if (response instanceof SuccessfulResponse)
+            return true;
+      }
+      return false;
+   }
+
+   /**
+    * Returns the owner in the same machine, rack or site as this node, in this order of preference. Owners at the same
+    * distance are picked in the order of the consistent hash, so the primary owner is preferred.
+    */
+   private Address nearestOwner(List<Address> owners) {
+      Address nearest = null;
+      TopologyLevel nearestDistance = null;
+      for (Address owner : owners) {
+         TopologyLevel distance = distanceTo(owner);
+         if (nearestDistance == null || distance.compareTo(nearestDistance) < 0) {
+            nearest = owner;
+            nearestDistance = distance;
+         }
+      }
+      return nearest;
+   }
+
+   /**
+    * Returns the highest level of the topology separating this node from the given one: {@link TopologyLevel#NODE} if
+    * they are on the same machine, up to {@link TopologyLevel#SITE} if they are in different sites. Without topology
+    * information all the nodes are considered to be in the same site.
+    */
+   private TopologyLevel distanceTo(Address address) {
+      Address self = rpcManager.getAddress();
+      if (!(self instanceof TopologyAwareAddress) || !(address instanceof TopologyAwareAddress))
+         return TopologyLevel.RACK;
+      TopologyAwareAddress localAddress = (TopologyAwareAddress) self;
+      TopologyAwareAddress remoteAddress = (TopologyAwareAddress) address;
+      if (localAddress.isSameMachine(remoteAddress))
+         return TopologyLevel.NODE;
+      if (localAddress.isSameRack(remoteAddress))
+         return TopologyLevel.MACHINE;
+      if (localAddress.isSameSite(remoteAddress))
+         return TopologyLevel.RACK;
+      return TopologyLevel.SITE;
+   }
+
+   private RpcOptions getRemoteGetRpcOptions(List<Address> targets) {
       ResponseFilter filter = new ClusteredGetResponseValidityFilter(targets, rpcManager.getAddress());
-      RpcOptions options = rpcManager.getRpcOptionsBuilder(ResponseMode.WAIT_FOR_VALID_RESPONSE, false)
+      return rpcManager.getRpcOptionsBuilder(ResponseMode.WAIT_FOR_VALID_RESPONSE, false)
             .responseFilter(filter).build();
-      Map<Address, Response> responses = rpcManager.invokeRemotely(targets, get, options);
+   }
 
-      if (!responses.isEmpty()) {
-         for (Response r : responses.values()) {
-            if (r instanceof SuccessfulResponse) {
-               InternalCacheValue cacheValue = (InternalCacheValue) ((SuccessfulResponse) r).getResponseValue();
-               return cacheValue.toInternalCacheEntry(key);
-            }
+   private InternalCacheEntry toInternalCacheEntry(Object key, List<Address> targets, Map<Address, Response> responses, long start) {
+      for (Map.Entry<Address, Response> e : responses.entrySet()) {
+         if (e.getValue() instanceof SuccessfulResponse) {
+            recordRemoteGet(e.getKey(), start);
+            InternalCacheValue cacheValue = (InternalCacheValue) ((SuccessfulResponse) e.getValue()).getResponseValue();
+            return cacheValue.toInternalCacheEntry(key);
          }
       }
 
+      // no owner had the key, so we waited for the farthest one
+      Address farthest = null;
+      for (Address target : targets) {
+         if (farthest == null || distanceTo(target).compareTo(distanceTo(farthest)) > 0)
+            farthest = target;
+      }
+      if (farthest != null)
+         recordRemoteGet(farthest, start);
+
       // TODO If everyone returned null, and the read CH has changed, retry the remote get.
       // Otherwise our get command might be processed by the old owners after they have invalidated their data
       // and we'd return a null even though the key exists on
       return null;
    }
 
+   private void recordRemoteGet(Address owner, long start) {
+      if (statisticsEnabled && start != 0) {
+         int distance = distanceTo(owner).ordinal();
+         remoteGets.incrementAndGet(distance);
+         remoteGetTimes.addAndGet(distance, System.nanoTime() - start);
+      }
+   }
+
    protected final Object handleNonTxWriteCommand(InvocationContext ctx, DataWriteCommand command) throws Throwable {
       if (ctx.isInTxScope()) {
          throw new CacheException("Attempted execution of non-transactional write command in a transactional invocation context");
@@ -155,6 +355,9 @@ protected final Object handleNonTxWriteCommand(InvocationContext ctx, DataWriteC
             log.tracef("I'm not the primary owner, so sending the command to the primary owner(%s) in order to be forwarded", primaryOwner);
             Object localResult = invokeNextInterceptor(ctx, command);
             boolean isSyncForwarding = isSync || isNeedReliableReturnValues(command);
+            if (isSyncForwarding && ctx.isUseFutureReturnType()) {
+               return forwardToPrimaryOwnerInFuture(primaryOwner, command);
+            }
             Map<Address, Response> addressResponseMap = rpcManager.invokeRemotely(Collections.singletonList(primaryOwner), command,
                   rpcManager.getDefaultRpcOptions(isSyncForwarding));
             if (!isSyncForwarding) return localResult;
@@ -164,6 +367,22 @@ protected final Object handleNonTxWriteCommand(InvocationContext ctx, DataWriteC
       }
    }
 
+   /**
+    * Forwards the command to the primary owner, and returns a future completed with its response instead of waiting
+    * for it.
+    */
+   private NotifyingFuture<Object> forwardToPrimaryOwnerInFuture(final Address primaryOwner, DataWriteCommand command) {
+      CompletableNotifyingFuture<Object> result = new CompletableNotifyingFuture<Object>();
+      rpcManager.invokeRemotelyInFuture(Collections.singletonList(primaryOwner), command, rpcManager.getDefaultRpcOptions(true))
+            .attachListener(new CompletingFutureListener<Map<Address, Response>, Object>(result) {
+               @Override
+               protected Object transform(Map<Address, Response> responses) {
+                  return getResponseFromPrimaryOwner(primaryOwner, responses);
+               }
+            });
+      return result;
+   }
+
    private Object getResponseFromPrimaryOwner(Address primaryOwner, Map<Address, Response> addressResponseMap) {
       Response fromPrimaryOwner = addressResponseMap.get(primaryOwner);
       if (fromPrimaryOwner == null) {
@@ -178,6 +397,108 @@ private Object getResponseFromPrimaryOwner(Address primaryOwner, Map<Address, Re
       }
    }
 
+   private long averageRemoteGetTime(TopologyLevel distance) {
+      int i = distance.ordinal();
+      long gets = remoteGets.get(i);
+      return gets > 0 ? TimeUnit.NANOSECONDS.toMillis(remoteGetTimes.get(i) / gets) : 0;
+   }
+
+   @ManagedOperation(
+         description = "Resets statistics gathered by this component",
+         displayName = "Reset statistics"
+   )
+   public void resetStatistics() {
+      for (int i = 0; i < DISTANCES.length; i++) {
+         remoteGets.set(i, 0);
+         remoteGetTimes.set(i, 0);
+      }
+   }
+
+   @ManagedAttribute(
+         displayName = "Statistics enabled",
+         dataType = DataType.TRAIT,
+         writable = true
+   )
+   public boolean getStatisticsEnabled() {
+      return this.statisticsEnabled;
+   }
+
+   public void setStatisticsEnabled(@Parameter(name = "enabled", description = "Whether statistics should be enabled or disabled (true/false)") boolean enabled) {
+      this.statisticsEnabled = enabled;
+   }
+
+   @ManagedAttribute(
+         description = "Number of remote gets answered by an owner on the same machine",
+         displayName = "Remote gets from the same machine",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getRemoteGetsSameMachine() {
+      return remoteGets.get(TopologyLevel.NODE.ordinal());
+   }
+
+   @ManagedAttribute(
+         description = "Average time of the remote gets answered by an owner on the same machine",
+         displayName = "Average remote get time from the same machine",
+         units = Units.MILLISECONDS
+   )
+   public long getAverageRemoteGetTimeSameMachine() {
+      return averageRemoteGetTime(TopologyLevel.NODE);
+   }
+
+   @ManagedAttribute(
+         description = "Number of remote gets answered by an owner on another machine of the same rack",
+         displayName = "Remote gets from the same rack",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getRemoteGetsSameRack() {
+      return remoteGets.get(TopologyLevel.MACHINE.ordinal());
+   }
+
+   @ManagedAttribute(
+         description = "Average time of the remote gets answered by an owner on another machine of the same rack",
+         displayName = "Average remote get time from the same rack",
+         units = Units.MILLISECONDS
+   )
+   public long getAverageRemoteGetTimeSameRack() {
+      return averageRemoteGetTime(TopologyLevel.MACHINE);
+   }
+
+   @ManagedAttribute(
+         description = "Number of remote gets answered by an owner on another rack of the same site, or by any owner if the transport is not topology aware",
+         displayName = "Remote gets from the same site",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getRemoteGetsSameSite() {
+      return remoteGets.get(TopologyLevel.RACK.ordinal());
+   }
+
+   @ManagedAttribute(
+         description = "Average time of the remote gets answered by an owner on another rack of the same site, or by any owner if the transport is not topology aware",
+         displayName = "Average remote get time from the same site",
+         units = Units.MILLISECONDS
+   )
+   public long getAverageRemoteGetTimeSameSite() {
+      return averageRemoteGetTime(TopologyLevel.RACK);
+   }
+
+   @ManagedAttribute(
+         description = "Number of remote gets answered by an owner on another site",
+         displayName = "Remote gets from other sites",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getRemoteGetsOtherSite() {
+      return remoteGets.get(TopologyLevel.SITE.ordinal());
+   }
+
+   @ManagedAttribute(
+         description = "Average time of the remote gets answered by an owner on another site",
+         displayName = "Average remote get time from other sites",
+         units = Units.MILLISECONDS
+   )
+   public long getAverageRemoteGetTimeOtherSite() {
+      return averageRemoteGetTime(TopologyLevel.SITE);
+   }
+
    protected abstract void remoteGetBeforeWrite(InvocationContext ctx, WriteCommand command, RecipientGenerator keygen) throws Throwable;
 
    interface RecipientGenerator {
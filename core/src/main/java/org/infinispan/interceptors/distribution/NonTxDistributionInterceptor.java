@@ -32,6 +32,8 @@
 import org.infinispan.context.InvocationContext;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.remoting.transport.jgroups.SuspectException;
+import org.infinispan.util.concurrent.CompletableNotifyingFuture;
+import org.infinispan.util.concurrent.CompletingFutureListener;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
@@ -64,6 +66,11 @@ public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand
          if (returnValue == null) {
             Object key = command.getKey();
             if (needsRemoteGet(ctx, command)) {
+               if (ctx.isUseFutureReturnType()) {
+                  CompletableNotifyingFuture<Object> result = new CompletableNotifyingFuture<Object>();
+                  remoteGetInFuture(ctx, command, result);
+                  return result;
+               }
                InternalCacheEntry remoteEntry = remoteGetCacheEntry(ctx, key, command);
                returnValue = computeGetReturn(remoteEntry, command);
             }
@@ -79,6 +86,36 @@ public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand
       }
    }
 
+   /**
+    * Completes the given future with the value fetched from the owners of the key, or found locally if they returned
+    * none, without waiting for the owners to respond.
+    */
+   private void remoteGetInFuture(final InvocationContext ctx, final GetKeyValueCommand command,
+                                  final CompletableNotifyingFuture<Object> result) {
+      if (trace) log.tracef("Doing a remote get for key %s, without waiting for it", command.getKey());
+      retrieveFromRemoteSourceInFuture(command.getKey(), command).attachListener(
+            new CompletingFutureListener<InternalCacheEntry, Object>(result) {
+               @Override
+               protected Object transform(InternalCacheEntry remoteEntry) {
+                  command.setRemotelyFetchedValue(remoteEntry);
+                  if (remoteEntry != null)
+                     return computeGetReturn(remoteEntry, command);
+                  // the invocation has already returned, so there is no need to record the entry in the context
+                  return computeGetReturn(dataContainer.get(command.getKey()), command);
+               }
+
+               @Override
+               protected void onFailure(Throwable cause) {
+                  if (cause instanceof SuspectException) {
+                     // retry, like blocking gets do
+                     remoteGetInFuture(ctx, command, result);
+                  } else {
+                     super.onFailure(cause);
+                  }
+               }
+            });
+   }
+
    private Object computeGetReturn(InternalCacheEntry entry, GetKeyValueCommand command) {
       if (!command.isReturnEntry() && entry != null)
          return entry.getValue();
@@ -50,6 +50,12 @@ protected Log getLog() {
       return log;
    }
 
+   @Override
+   public boolean actsOnReads() {
+      // reads only acquire locks when fetching remote entries into L1, local caches never do
+      return cacheConfiguration == null || cacheConfiguration.clustering().cacheMode().isClustered();
+   }
+
    @Override
    public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand command) throws Throwable {
       assertNonTransactional(ctx);
@@ -189,4 +189,9 @@ private boolean processSecondCommand(TotalOrderRemoteTransactionState state, boo
       }
       return false;
    }
+
+   @Override
+   public boolean actsOnReads() {
+      return false;
+   }
 }
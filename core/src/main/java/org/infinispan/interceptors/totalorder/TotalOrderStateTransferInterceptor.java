@@ -113,4 +113,9 @@ private Object localPrepare(TxInvocationContext ctx, PrepareCommand command) thr
    private boolean needsToRePrepare(Throwable throwable) {
       return throwable instanceof RemoteException && throwable.getCause() instanceof RetryPrepareException;
    }
+
+   @Override
+   public boolean actsOnReads() {
+      return false;
+   }
 }
@@ -62,4 +62,9 @@ protected boolean shouldInvokeRemoteTxCommand(TxInvocationContext ctx) {
    protected Log getLog() {
       return log;
    }
+
+   @Override
+   public boolean actsOnReads() {
+      return false;
+   }
 }
@@ -0,0 +1,76 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.io;
+
+import net.jcip.annotations.NotThreadSafe;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * An {@link InputStream} reading the remaining bytes of a {@link java.nio.ByteBuffer} without copying them onto the
+ * heap first. This allows direct and memory-mapped buffers to be handed to a marshaller as is. The stream advances the
+ * position of the buffer it wraps, so callers sharing a buffer should pass in a {@link ByteBuffer#duplicate()}.
+ *
+ * @since 5.3
+ */
+@NotThreadSafe
+public final class ByteBufferInputStream extends InputStream {
+
+   private final ByteBuffer buffer;
+
+   public ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+   }
+
+   @Override
+   public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+   }
+
+   @Override
+   public int read(byte[] b, int off, int len) {
+      if (len == 0) {
+         return 0;
+      }
+      int remaining = buffer.remaining();
+      if (remaining == 0) {
+         return -1;
+      }
+      int count = Math.min(len, remaining);
+      buffer.get(b, off, count);
+      return count;
+   }
+
+   @Override
+   public long skip(long n) {
+      int count = (int) Math.min(Math.max(n, 0), buffer.remaining());
+      buffer.position(buffer.position() + count);
+      return count;
+   }
+
+   @Override
+   public int available() {
+      return buffer.remaining();
+   }
+}
@@ -50,12 +50,16 @@ public final class ExposedByteArrayOutputStream extends ByteArrayOutputStream im
 
    private int maxDoublingSize = DEFAULT_DOUBLING_SIZE;
 
+   private long allocatedBytes;
+
    public ExposedByteArrayOutputStream() {
       super();
+      allocatedBytes = buf.length;
    }
 
    public ExposedByteArrayOutputStream(int size) {
       super(size);
+      allocatedBytes = size;
    }
 
    /**
@@ -69,6 +73,7 @@ public ExposedByteArrayOutputStream(int size) {
    public ExposedByteArrayOutputStream(int size, int maxDoublingSize) {
       super(size);
       this.maxDoublingSize = maxDoublingSize;
+      allocatedBytes = size;
    }
 
    /**
@@ -93,6 +98,7 @@ public final void write(byte[] b, int off, int len) {
          byte newbuf[] = new byte[getNewBufferSize(buf.length, newcount)];
          System.arraycopy(buf, 0, newbuf, 0, count);
          buf = newbuf;
+         allocatedBytes += newbuf.length;
       }
 
       System.arraycopy(b, off, buf, count, len);
@@ -106,6 +112,7 @@ public final void write(int b) {
          byte newbuf[] = new byte[getNewBufferSize(buf.length, newcount)];
          System.arraycopy(buf, 0, newbuf, 0, count);
          buf = newbuf;
+         allocatedBytes += newbuf.length;
       }
       buf[count] = (byte) b;
       count = newcount;
@@ -119,6 +126,14 @@ public final int getMaxDoublingSize() {
       return maxDoublingSize;
    }
 
+   /**
+    * Gets the number of bytes allocated for the internal buffer since this stream was created,
+    * including the buffers discarded when growing it.
+    */
+   public final long getAllocatedBytes() {
+      return allocatedBytes;
+   }
+
    /**
     * Gets the number of bytes to which the internal buffer should be resized.
     *
@@ -23,6 +23,7 @@
 package org.infinispan.loaders;
 
 import org.infinispan.Cache;
+import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.marshall.StreamingMarshaller;
 import org.infinispan.util.TimeService;
 
@@ -48,6 +49,20 @@ public boolean containsKey(Object key) throws CacheLoaderException {
       return load(key) != null;
    }
 
+   /**
+    * {@inheritDoc} This implementation loads all keys and then each accepted key individually through {@link
+    * CacheLoader#load(Object)}. Subclasses should override it if they can iterate over keys and values in one pass.
+    */
+   @Override
+   public void loadEntries(KeyFilter filter, EntryHandler handler) throws CacheLoaderException {
+      for (Object key : loadAllKeys(null)) {
+         if (filter.accept(key)) {
+            InternalCacheEntry entry = load(key);
+            if (entry != null) handler.handle(entry);
+         }
+      }
+   }
+
    @Override
    public void init(CacheLoaderConfig config, Cache<?, ?> cache, StreamingMarshaller m) throws CacheLoaderException {
       this.marshaller = m;
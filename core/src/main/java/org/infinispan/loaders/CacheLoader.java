@@ -83,6 +83,18 @@ public interface CacheLoader {
     */
    Set<Object> loadAllKeys(Set<Object> keysToExclude) throws CacheLoaderException;
 
+   /**
+    * Iterates over the stored entries, passing every non-expired entry whose key is accepted by <tt>filter</tt> to
+    * <tt>handler</tt>. Unlike {@link #loadAllKeys(java.util.Set)} followed by {@link #load(Object)} for each key,
+    * implementations should read keys and values in a single pass over the underlying storage and avoid building a
+    * collection of all the stored keys.
+    *
+    * @param filter  decides which keys are of interest; {@link KeyFilter#ACCEPT_ALL} accepts all of them
+    * @param handler receives the matching entries
+    * @throws CacheLoaderException in the event of problems reading from source
+    */
+   void loadEntries(KeyFilter filter, EntryHandler handler) throws CacheLoaderException;
+
    /**
     * @param key key to test
     * @return true if the key exists, false otherwise
@@ -122,6 +122,7 @@ public CacheLoaderConfig unmarshal(AbstractCacheStoreConfig storeConfig) throws
          if (asyncStoreConfig != null && asyncStoreConfig.isEnabled()) {
             csc.asyncStore()
                   .flushLockTimeout(asyncStoreConfig.getFlushLockTimeout())
+                  .flushInterval(asyncStoreConfig.getFlushInterval())
                   .shutdownTimeout(asyncStoreConfig.getShutdownTimeout())
                   .threadPoolSize(asyncStoreConfig.getThreadPoolSize())
                   .modificationQueueSize(asyncStoreConfig.getModificationQueueSize());
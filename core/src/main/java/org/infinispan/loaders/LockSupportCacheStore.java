@@ -24,6 +24,7 @@
 
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.util.Collection;
 import java.util.Set;
 
 import org.infinispan.Cache;
@@ -99,6 +100,21 @@ protected final void lockForReading(L key) {
       locks.acquireLock(key, false);
    }
 
+   /**
+    * Acquires read or write locks on all the given keys, in an order that prevents deadlocks between threads locking
+    * overlapping sets of keys.
+    */
+   protected final void lockAll(Collection<L> keys, boolean exclusive) {
+      locks.acquireLocksInOrder(keys, exclusive);
+   }
+
+   /**
+    * Releases the locks acquired by {@link #lockAll(java.util.Collection, boolean)}.
+    */
+   protected final void unlockAll(Collection<L> keys, boolean exclusive) {
+      locks.releaseLocksInOrder(keys, exclusive);
+   }
+
    /**
     * Upgrades a read lock to a write lock.
     */
@@ -184,6 +200,18 @@ public Set<Object> loadAllKeys(Set<Object> keysToExclude) throws CacheLoaderExce
       }
    }
 
+   @Override
+   public final void loadEntries(KeyFilter filter, EntryHandler handler) throws CacheLoaderException {
+      boolean success = acquireGlobalLock(false);
+      try {
+         loadEntriesLockSafe(filter, handler);
+      } finally {
+         if(success){
+            releaseGlobalLock(false);
+         }
+      }
+   }
+
 
    @Override
    public final void store(InternalCacheEntry ed) throws CacheLoaderException {
@@ -287,6 +315,21 @@ public int getTotalLockCount() {
 
    protected abstract Set<Object> loadAllKeysLockSafe(Set<Object> keysToExclude) throws CacheLoaderException;
 
+   /**
+    * Invoked with the global read lock held, so no per-key locking is required. This default implementation loads the
+    * keys first and then each accepted entry; subclasses able to iterate over keys and values together should override
+    * it.
+    */
+   protected void loadEntriesLockSafe(KeyFilter filter, EntryHandler handler) throws CacheLoaderException {
+      long now = timeService.wallClockTime();
+      for (Object key : loadAllKeysLockSafe(null)) {
+         if (filter.accept(key)) {
+            InternalCacheEntry entry = loadLockSafe(key, getLockFromKey(key));
+            if (entry != null && !(entry.canExpire() && entry.isExpired(now))) handler.handle(entry);
+         }
+      }
+   }
+
    protected abstract void toStreamLockSafe(ObjectOutput oos) throws CacheLoaderException;
 
    protected abstract void fromStreamLockSafe(ObjectInput ois) throws CacheLoaderException;
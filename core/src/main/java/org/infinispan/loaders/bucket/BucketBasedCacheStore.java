@@ -24,6 +24,8 @@
 
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.loaders.CacheLoaderException;
+import org.infinispan.loaders.EntryHandler;
+import org.infinispan.loaders.KeyFilter;
 import org.infinispan.loaders.LockSupportCacheStore;
 
 import java.util.Collection;
@@ -220,6 +222,29 @@ public boolean consider(Collection<? extends InternalCacheEntry> entries) {
       return g.generate();
    }
 
+   /**
+    * Streams the matching entries bucket by bucket, without collecting them first. Expired entries are skipped but,
+    * unlike {@link CollectionGeneratingBucketHandler}, the buckets are not rewritten: purging is left to the eviction
+    * thread.
+    */
+   @Override
+   protected void loadEntriesLockSafe(final KeyFilter filter, final EntryHandler handler) throws CacheLoaderException {
+      loopOverBuckets(new BucketHandler() {
+         @Override
+         public boolean handle(Bucket bucket) throws CacheLoaderException {
+            if (bucket != null) {
+               long now = timeService.wallClockTime();
+               for (InternalCacheEntry ice : bucket.getStoredEntries()) {
+                  if (!(ice.canExpire() && ice.isExpired(now)) && filter.accept(ice.getKey())) {
+                     handler.handle(ice);
+                  }
+               }
+            }
+            return false;
+         }
+      });
+   }
+
    /**
     * A mechanism to loop over all buckets in the cache store.  Implementations should, very simply, loop over all
     * available buckets, and for each deserialized bucket, pass it to the handler.
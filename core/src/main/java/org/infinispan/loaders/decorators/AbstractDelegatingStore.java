@@ -31,6 +31,8 @@
 import org.infinispan.loaders.CacheLoaderException;
 import org.infinispan.loaders.CacheStore;
 import org.infinispan.loaders.CacheStoreConfig;
+import org.infinispan.loaders.EntryHandler;
+import org.infinispan.loaders.KeyFilter;
 import org.infinispan.loaders.modifications.Modification;
 
 import java.io.ObjectInput;
@@ -140,6 +142,11 @@ public Set<Object> loadAllKeys(Set<Object> keysToExclude) throws CacheLoaderExce
       return delegate.loadAllKeys(keysToExclude);
    }
 
+   @Override
+   public void loadEntries(KeyFilter filter, EntryHandler handler) throws CacheLoaderException {
+      delegate.loadEntries(filter, handler);
+   }
+
    @Override
    public boolean containsKey(Object key) throws CacheLoaderException {
       return delegate.containsKey(key);
@@ -30,6 +30,8 @@
 import org.infinispan.loaders.CacheLoaderConfig;
 import org.infinispan.loaders.CacheLoaderException;
 import org.infinispan.loaders.CacheStore;
+import org.infinispan.loaders.EntryHandler;
+import org.infinispan.loaders.KeyFilter;
 import org.infinispan.loaders.modifications.Clear;
 import org.infinispan.loaders.modifications.Modification;
 import org.infinispan.loaders.modifications.ModificationsList;
@@ -44,6 +46,7 @@
 import org.infinispan.util.logging.LogFactory;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -56,6 +59,7 @@
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.AbstractQueuedSynchronizer;
 
 /**
@@ -74,7 +78,9 @@
  * to define whether cache loader operations are to be asynchronous. If not specified, a cache loader operation is
  * assumed synchronous and this decorator is not applied.
  * <p/>
- * Write operations affecting same key are now coalesced so that only the final state is actually stored.
+ * Write operations affecting same key are now coalesced so that only the final state is actually stored. With a
+ * {@link AsyncStoreConfig#getFlushInterval() flush interval}, modifications are buffered for at least that long before
+ * being handed to the underlying store, so that a key updated many times per interval is written only once.
  * <p/>
  *
  * @author Manik Surtani
@@ -98,6 +104,12 @@ public class AsyncStore extends AbstractDelegatingStore {
    private long shutdownTimeout;
    private String cacheName;
    private TimeService timeService;
+   private long flushInterval;
+
+   private final AtomicLong modificationsQueued = new AtomicLong(0);
+   private final AtomicLong modificationsWritten = new AtomicLong(0);
+   private final AtomicLong flushes = new AtomicLong(0);
+   private final AtomicLong flushTime = new AtomicLong(0);
 
    private BufferLock stateLock;
    @GuardedBy("stateLock")
@@ -128,6 +140,7 @@ public void init(CacheLoaderConfig config, Cache<?, ?> cache, StreamingMarshalle
          shutdownTimeout = configuredAsyncStopTimeout;
       }
 
+      flushInterval = TimeUnit.MILLISECONDS.toNanos(asyncStoreConfig.getFlushInterval());
       transactions = CollectionFactory.makeConcurrentMap(64, concurrencyLevel);
       this.timeService = cache.getAdvancedCache().getComponentRegistry().getTimeService();
    }
@@ -147,6 +160,7 @@ private void put(Modification mod, int count) {
       } finally {
          stateLock.writeUnlock();
       }
+      modificationsQueued.addAndGet(count);
    }
 
    @Override
@@ -209,6 +223,49 @@ public Set<Object> loadAllKeys(Set<Object> keysToExclude) throws CacheLoaderExce
       return result;
    }
 
+   /**
+    * Collects the latest modification of every key modified in the given state or the states chained to it.
+    *
+    * @return true if one of the states was cleared, in which case the contents of the underlying store are hidden
+    */
+   private boolean collectModifications(State s, Map<Object, Modification> result) {
+      for (; s != null; s = s.next) {
+         for (Map.Entry<Object, Modification> e : s.modifications.entrySet()) {
+            if (!result.containsKey(e.getKey()))
+               result.put(e.getKey(), e.getValue());
+         }
+         if (s.clear)
+            return true;
+      }
+      return false;
+   }
+
+   /**
+    * Delegates to the underlying store, skipping the keys whose modifications are still queued, and then hands over
+    * the entries stored by the queued modifications.
+    */
+   @Override
+   public void loadEntries(final KeyFilter filter, EntryHandler handler) throws CacheLoaderException {
+      final Map<Object, Modification> pending = new HashMap<Object, Modification>();
+      if (!collectModifications(state, pending)) {
+         super.loadEntries(new KeyFilter() {
+            @Override
+            public boolean accept(Object key) {
+               return !pending.containsKey(key) && filter.accept(key);
+            }
+         }, handler);
+      }
+
+      long now = timeService.wallClockTime();
+      for (Modification mod : pending.values()) {
+         if (mod.getType() == Modification.Type.STORE) {
+            InternalCacheEntry entry = ((Store) mod).getStoredEntry();
+            if (filter.accept(entry.getKey()) && !entry.isExpired(now))
+               handler.handle(entry);
+         }
+      }
+   }
+
    @Override
    public Set<InternalCacheEntry> loadAll() throws CacheLoaderException {
       return load(Integer.MAX_VALUE);
@@ -216,13 +273,28 @@ public Set<InternalCacheEntry> loadAll() throws CacheLoaderException {
 
    @Override
    public Set<InternalCacheEntry> load(int numEntries) throws CacheLoaderException {
+      Map<Object, Modification> pending = new HashMap<Object, Modification>();
       Set<InternalCacheEntry> result = new HashSet<InternalCacheEntry>();
-      for (Object key : loadAllKeys(null)) {
-         InternalCacheEntry entry = load(key);
-         if (entry != null) {
-            result.add(entry);
-            if (result.size() == numEntries)
+      if (!collectModifications(state, pending)) {
+         // Entries whose keys were modified since are dropped, so load enough of them to make up for it
+         long toLoad = (long) numEntries + pending.size();
+         Set<InternalCacheEntry> stored = toLoad >= Integer.MAX_VALUE ? super.loadAll() : super.load((int) toLoad);
+         for (InternalCacheEntry entry : stored) {
+            if (result.size() >= numEntries)
                return result;
+            if (!pending.containsKey(entry.getKey()))
+               result.add(entry);
+         }
+      }
+
+      long now = timeService.wallClockTime();
+      for (Modification mod : pending.values()) {
+         if (result.size() >= numEntries)
+            break;
+         if (mod.getType() == Modification.Type.STORE) {
+            InternalCacheEntry entry = ((Store) mod).getStoredEntry();
+            if (!entry.isExpired(now))
+               result.add(entry);
          }
       }
       return result;
@@ -325,6 +397,7 @@ public void stop() throws CacheLoaderException {
       stateLock.writeLock(1);
       state.stopped = true;
       stateLock.writeUnlock();
+      stateLock.requestFlush();
       try {
          coordinator.join(shutdownTimeout);
          if (coordinator.isAlive())
@@ -340,6 +413,68 @@ protected void applyModificationsSync(List<Modification> mods) throws CacheLoade
       getDelegate().prepare(mods, txFactory.newGlobalTransaction(null, false), true);
    }
 
+   /**
+    * @return the number of modifications buffered and not yet written to the underlying store
+    */
+   public int getQueueDepth() {
+      int depth = 0;
+      for (State s = state; s != null; s = s.next)
+         depth += s.modifications.size();
+      return depth;
+   }
+
+   /**
+    * @return the number of modifications handed to this store
+    */
+   public long getModificationsQueued() {
+      return modificationsQueued.get();
+   }
+
+   /**
+    * @return the number of modifications written to the underlying store, after coalescing
+    */
+   public long getModificationsWritten() {
+      return modificationsWritten.get();
+   }
+
+   /**
+    * @return the number of modifications handed to this store per modification written to the underlying store, or
+    *         0 if nothing has been written yet
+    */
+   public double getCoalescingRatio() {
+      long written = modificationsWritten.get();
+      return written == 0 ? 0 : (double) modificationsQueued.get() / written;
+   }
+
+   /**
+    * @return the number of batches of modifications written to the underlying store
+    */
+   public long getFlushCount() {
+      return flushes.get();
+   }
+
+   /**
+    * @return the total time spent writing batches of modifications to the underlying store
+    */
+   public long getFlushTime(TimeUnit unit) {
+      return unit.convert(flushTime.get(), TimeUnit.NANOSECONDS);
+   }
+
+   /**
+    * @return the average time, in milliseconds, it took to write a batch of modifications to the underlying store
+    */
+   public long getAverageFlushTime() {
+      long count = flushes.get();
+      return count == 0 ? 0 : getFlushTime(TimeUnit.MILLISECONDS) / count;
+   }
+
+   public void resetStatistics() {
+      modificationsQueued.set(0);
+      modificationsWritten.set(0);
+      flushes.set(0);
+      flushTime.set(0);
+   }
+
    private static class State {
       private static final Clear CLEAR = new Clear();
 
@@ -456,7 +591,15 @@ int add(int count) {
             }
          }
 
+         boolean isFull() {
+            return getState() >= size;
+         }
+
          protected int tryAcquireShared(int count) {
+            // writers that are already waiting for buffer space go first
+            Thread first = getFirstQueuedThread();
+            if (first != null && first != Thread.currentThread())
+               return -1;
             for (;;) {
                int state = getState();
                if (state >= size)
@@ -489,6 +632,23 @@ protected boolean tryReleaseShared(int state) {
          }
       }
 
+      /**
+       * AQS state is 1 if a flush has been requested before the end of the flush interval, 0
+       * otherwise. AcquireShared blocks until a flush is requested.
+       */
+      private static class FlushRequest extends AbstractQueuedSynchronizer {
+         private static final long serialVersionUID = -3186240722542734290L;
+
+         protected int tryAcquireShared(int unused) {
+            return getState() > 0 ? 1 : -1;
+         }
+
+         protected boolean tryReleaseShared(int state) {
+            setState(state > 0 ? 1 : 0);
+            return state > 0;
+         }
+      }
+
       /**
        * Minimal non-reentrant read-write-lock. AQS state is number of concurrent shared locks, or 0
        * if unlocked, or -1 if locked exclusively.
@@ -531,6 +691,7 @@ protected boolean tryReleaseShared(int unused) {
       private final Sync sync;
       private final Counter counter;
       private final Available available;
+      private final FlushRequest flushRequest;
 
       /**
        * Create a new BufferLock with the specified buffer size.
@@ -542,6 +703,7 @@ protected boolean tryReleaseShared(int unused) {
          sync = new Sync();
          counter = size > 0 ? new Counter(size) : null;
          available = new Available();
+         flushRequest = new FlushRequest();
       }
 
       /**
@@ -552,8 +714,14 @@ protected boolean tryReleaseShared(int unused) {
        *           number of items the caller intends to write
        */
       void writeLock(int count) {
-         if (counter != null)
+         if (counter != null) {
+            // the buffer is full, don't wait for the end of the flush interval
+            if (counter.isFull())
+               flushRequest.releaseShared(1);
             counter.acquireShared(count);
+            if (counter.isFull())
+               flushRequest.releaseShared(1);
+         }
          sync.acquireShared(1);
       }
 
@@ -581,6 +749,33 @@ void readUnlock() {
          sync.release(1);
       }
 
+      /**
+       * Blocks until data is available, then until the specified time has elapsed or a flush has
+       * been requested, whichever happens first.
+       *
+       * @param nanos
+       *           maximum time to buffer data for, in nanoseconds
+       */
+      void awaitFlush(long nanos) throws InterruptedException {
+         available.acquireShared(1);
+         flushRequest.tryAcquireSharedNanos(1, nanos);
+      }
+
+      /**
+       * Makes a pending or subsequent {@link #awaitFlush(long)} return immediately.
+       */
+      void requestFlush() {
+         flushRequest.releaseShared(1);
+      }
+
+      /**
+       * Discards flush requests made before the buffer was handed off. Must be called with the
+       * read lock held.
+       */
+      void clearFlushRequest() {
+         flushRequest.releaseShared(0);
+      }
+
       /**
        * Resets the buffer counter to the specified number.
        *
@@ -619,6 +814,15 @@ public void run() {
                   return;
                }
 
+               // buffer modifications for the flush interval, so that repeated writes are coalesced
+               if (flushInterval > 0 && !s.stopped) {
+                  try {
+                     stateLock.awaitFlush(flushInterval);
+                  } catch (InterruptedException e) {
+                     Thread.currentThread().interrupt();
+                  }
+               }
+
                stateLock.readLock();
                try {
                   s = state;
@@ -626,6 +830,7 @@ public void run() {
                   assert tail == null || tail.next == null : "State chain longer than 3 entries!";
                   state = head = newState(false, s);
                } finally {
+                  stateLock.clearFlushRequest();
                   stateLock.reset(0);
                   stateLock.readUnlock();
                }
@@ -740,7 +945,11 @@ private void retryWork(int maxRetries) {
                log.debugf("Retrying due to previous failure. %s attempts left.", maxRetries - attempt);
 
             try {
+               long start = timeService.time();
                AsyncStore.this.applyModificationsSync(modifications);
+               flushTime.addAndGet(timeService.timeDuration(start, TimeUnit.NANOSECONDS));
+               flushes.incrementAndGet();
+               modificationsWritten.addAndGet(modifications.size());
                return;
             } catch (Exception e) {
                if (log.isDebugEnabled())
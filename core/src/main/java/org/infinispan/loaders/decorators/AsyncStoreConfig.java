@@ -65,6 +65,9 @@ public class AsyncStoreConfig extends AbstractDecoratorConfigurationBean {
    @ConfigurationDocRef(bean=AsyncStoreConfig.class,targetElement="setModificationQueueSize")
    protected Integer modificationQueueSize = 1024;
 
+   @ConfigurationDocRef(bean=AsyncStoreConfig.class,targetElement="setFlushInterval")
+   protected Long flushInterval = 0L;
+
    @XmlAttribute
    public Boolean isEnabled() {
       return enabled;
@@ -197,6 +200,37 @@ public void setModificationQueueSize(Integer modificationQueueSize) {
       this.modificationQueueSize = modificationQueueSize;
    }
 
+   @XmlAttribute
+   public Long getFlushInterval() {
+      return flushInterval;
+   }
+
+   /**
+    * Minimum time, in milliseconds, that modifications are buffered before being flushed to the cache store. Repeated
+    * writes to the same key within an interval are coalesced so that only the final state is written. Defaults to 0,
+    * which flushes as soon as modifications are available.
+    *
+    * @param flushInterval
+    * @deprecated The visibility of this method will be reduced. Use {@link #flushInterval(Long)} instead.
+    */
+   @Deprecated
+   public void setFlushInterval(Long flushInterval) {
+      testImmutability("flushInterval");
+      this.flushInterval = flushInterval;
+   }
+
+   /**
+    * Minimum time, in milliseconds, that modifications are buffered before being flushed to the cache store. Repeated
+    * writes to the same key within an interval are coalesced so that only the final state is written.
+    *
+    * @param flushInterval
+    */
+   public AsyncStoreConfig flushInterval(Long flushInterval) {
+      testImmutability("flushInterval");
+      this.flushInterval = flushInterval;
+      return this;
+   }
+
    @Override
    public AsyncStoreConfig clone() {
       return (AsyncStoreConfig) super.clone();
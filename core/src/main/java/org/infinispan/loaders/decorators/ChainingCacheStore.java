@@ -33,6 +33,8 @@
 import org.infinispan.loaders.CacheLoaderException;
 import org.infinispan.loaders.CacheStore;
 import org.infinispan.loaders.CacheStoreConfig;
+import org.infinispan.loaders.EntryHandler;
+import org.infinispan.loaders.KeyFilter;
 import org.infinispan.loaders.modifications.Modification;
 import org.infinispan.marshall.StreamingMarshaller;
 import org.infinispan.transaction.xa.GlobalTransaction;
@@ -260,6 +262,32 @@ public Set<Object> loadAllKeys(Set<Object> keysToExclude) throws CacheLoaderExce
       return set;
    }
 
+   @Override
+   public void loadEntries(final KeyFilter filter, final EntryHandler handler) throws CacheLoaderException {
+      // the same key may be present in several stores, only hand it over once. Keys are only marked as seen once
+      // handled, since a store may still skip an accepted key whose entry has expired
+      final Set<Object> seen = new HashSet<Object>();
+      KeyFilter unseen = new KeyFilter() {
+         @Override
+         public boolean accept(Object key) {
+            return filter.accept(key) && !seen.contains(key);
+         }
+      };
+      EntryHandler once = new EntryHandler() {
+         @Override
+         public void handle(InternalCacheEntry entry) throws CacheLoaderException {
+            if (seen.add(entry.getKey()))
+               handler.handle(entry);
+         }
+      };
+      loadersAndStoresMutex.readLock().lock();
+      try {
+         for (CacheStore s : stores.keySet()) s.loadEntries(unseen, once);
+      } finally {
+         loadersAndStoresMutex.readLock().unlock();
+      }
+   }
+
    @Override
    public boolean containsKey(Object key) throws CacheLoaderException {
       loadersAndStoresMutex.readLock().lock();
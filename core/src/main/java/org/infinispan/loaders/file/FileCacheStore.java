@@ -24,6 +24,7 @@
 
 import org.infinispan.Cache;
 import org.infinispan.config.ConfigurationException;
+import org.infinispan.io.ByteBufferInputStream;
 import org.infinispan.io.ExposedByteArrayOutputStream;
 import org.infinispan.loaders.CacheLoaderConfig;
 import org.infinispan.loaders.CacheLoaderException;
@@ -78,6 +79,7 @@ public class FileCacheStore extends BucketBasedCacheStore {
    FileCacheStoreConfig config;
    File root;
    FileSync fileSync;
+   MappedRegionCache mappedRegions;
 
    /**
     * @return root directory where all files for this {@link org.infinispan.loaders.CacheStore CacheStore} are written.
@@ -98,7 +100,20 @@ protected void loopOverBuckets(BucketHandler handler) throws CacheLoaderExceptio
          File[] listFiles;
          if (root != null && (listFiles = root.listFiles(NUMERIC_NAMED_FILES_FILTER)) != null) {
             for (File bucketFile : listFiles) {
-               Bucket bucket = loadBucket(bucketFile);
+               Bucket bucket;
+               if (mappedRegions != null) {
+                  // Only the global read lock is held here, and a writer holding the bucket lock could truncate or
+                  // rewrite the file while it is read through its mapping
+                  Integer bucketKey = Integer.valueOf(bucketFile.getName());
+                  lockForReading(bucketKey);
+                  try {
+                     bucket = loadBucket(bucketFile);
+                  } finally {
+                     unlock(bucketKey);
+                  }
+               } else {
+                  bucket = loadBucket(bucketFile);
+               }
                if (handler.handle(bucket)) {
                   break;
                }
@@ -114,6 +129,10 @@ protected void loopOverBuckets(BucketHandler handler) throws CacheLoaderExceptio
 
    @Override
    protected void fromStreamLockSafe(ObjectInput objectInput) throws CacheLoaderException {
+      if (mappedRegions != null) {
+         // Incoming files overwrite bucket files in place
+         mappedRegions.clear();
+      }
       try {
          int numFiles = objectInput.readInt();
          byte[] buffer = new byte[streamBufferSize];
@@ -259,7 +278,7 @@ private boolean doPurge(File bucketFile) {
             // Bucket may be an empty 0-length file
             if (bucketFile.exists() && bucketFile.length() == 0) {
                upgradeLock(bucketKey);
-               fileSync.deleteFile(bucketFile);
+               deleteFile(bucketFile);
                if (bucketFile.exists())
                   log.info("Unable to remove empty file " + bucketFile + " - will try again later.");
             }
@@ -295,6 +314,20 @@ protected Bucket loadBucket(File bucketFile) throws CacheLoaderException, Interr
          }
          InputStream is = null;
          try {
+            if (mappedRegions != null) {
+               ByteBuffer region = mappedRegions.get(bucketFile);
+               if (region == null) {
+                  // It could happen that the output buffer might not have been
+                  // flushed, so just in case, flush it before mapping it.
+                  fileSync.flush(bucketFile);
+                  region = mappedRegions.map(bucketFile);
+               }
+               if (region != null) {
+                  bucket = (Bucket) objectFromMappedRegion(region);
+                  bucket.setBucketId(bucketFile.getName());
+                  return bucket;
+               }
+            }
             // It could happen that the output buffer might not have been
             // flushed, so just in case, flush it to be able to read it.
             fileSync.flush(bucketFile);
@@ -384,12 +417,20 @@ public void start() throws CacheLoaderException {
       }
 
       log.debugf("Using %s file sync mode", fsyncMode);
+
+      if (config.getMappedRegionBudget() > 0) {
+         mappedRegions = new MappedRegionCache(config.getMappedRegionBudget());
+         log.debugf("Reading bucket files through memory mappings of up to %d bytes", config.getMappedRegionBudget());
+      }
    }
 
    @Override
    public void stop() throws CacheLoaderException {
       super.stop();
       fileSync.stop();
+      if (mappedRegions != null) {
+         mappedRegions.clear();
+      }
    }
 
    public Bucket loadBucketContainingKey(String key) throws CacheLoaderException {
@@ -400,6 +441,7 @@ private void deleteFile(File f) {
       if (trace) {
          log.tracef("Really delete file %s", f);
       }
+      invalidateMappedRegion(f);
       fileSync.deleteFile(f);
    }
 
@@ -407,6 +449,7 @@ private boolean purgeFile(File f) {
       if (trace) {
          log.tracef("Really clear file %s", f);
       }
+      invalidateMappedRegion(f);
       try {
          fileSync.purge(f);
          return true;
@@ -417,6 +460,25 @@ private boolean purgeFile(File f) {
       }
    }
 
+   private void invalidateMappedRegion(File f) {
+      if (mappedRegions != null) {
+         mappedRegions.invalidate(f);
+      }
+   }
+
+   /**
+    * Unmarshalls straight from a memory-mapped bucket file, avoiding the heap copy made by
+    * {@link #objectFromInputStreamInReentrantMode(java.io.InputStream)}.
+    */
+   private Object objectFromMappedRegion(ByteBuffer region) throws IOException, ClassNotFoundException, InterruptedException {
+      ObjectInput unmarshaller = marshaller.startObjectInput(new ByteBufferInputStream(region), false);
+      try {
+         return marshaller.objectFromObjectStream(unmarshaller);
+      } finally {
+         marshaller.finishObjectInput(unmarshaller);
+      }
+   }
+
    private Object objectFromInputStreamInReentrantMode(InputStream is) throws IOException, ClassNotFoundException, InterruptedException {
       int len = is.available();
       Object o = null;
@@ -59,6 +59,9 @@
  * changes in the cache need to be flushed. This option has only effect when
  * <tt>periodic</tt> fsync mode is in use. The default fsync interval is 1
  * second.</li>
+ *   <li><tt>mappedRegionBudget</tt> - when greater than zero, bucket files are read through read-only memory
+ * mappings instead of being copied onto the heap, and mappings of up to this many bytes are kept for subsequent reads.
+ * By default, this is set to <tt>0</tt>, which disables memory-mapped reads.</li>
  *
  * </ul>
  *
@@ -75,6 +78,7 @@ public class FileCacheStoreConfig extends LockSupportCacheStoreConfig {
    private int streamBufferSize = 8192;
    private FsyncMode fsyncMode = FsyncMode.DEFAULT;
    private long fsyncInterval = 1000;
+   private long mappedRegionBudget = 0;
 
    public FileCacheStoreConfig() {
       setCacheLoaderClassName(FileCacheStore.class.getName());
@@ -170,6 +174,20 @@ public FileCacheStoreConfig fsyncMode(FsyncMode fsyncMode) {
       return this;
    }
 
+   public long getMappedRegionBudget() {
+      return mappedRegionBudget;
+   }
+
+   public void setMappedRegionBudget(long mappedRegionBudget) {
+      testImmutability("mappedRegionBudget");
+      this.mappedRegionBudget = mappedRegionBudget;
+   }
+
+   public FileCacheStoreConfig mappedRegionBudget(long mappedRegionBudget) {
+      setMappedRegionBudget(mappedRegionBudget);
+      return this;
+   }
+
    public static enum FsyncMode {
       DEFAULT, PER_WRITE, PERIODIC
    }
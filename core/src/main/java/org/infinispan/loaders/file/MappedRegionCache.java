@@ -0,0 +1,119 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.loaders.file;
+
+import net.jcip.annotations.ThreadSafe;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps read-only memory mappings of bucket files so that {@link FileCacheStore} can unmarshall buckets straight from
+ * the page cache. The total size of the retained mappings is bounded by a budget; the least recently read mappings are
+ * released first when it is exceeded, and files larger than the budget are not mapped at all.
+ * <p/>
+ * Bucket files are truncated and rewritten in place, so callers must {@link #invalidate(File)} a file's mapping before
+ * modifying it, while holding the bucket's write lock, and read a mapping only while holding the bucket's read lock.
+ * Released mappings are unmapped by the garbage collector once no
+ * reader references them anymore.
+ *
+ * @since 5.3
+ */
+@ThreadSafe
+final class MappedRegionCache {
+
+   private final long budget;
+   private final Map<File, MappedByteBuffer> regions = new LinkedHashMap<File, MappedByteBuffer>(16, 0.75f, true);
+   private long mappedBytes;
+
+   MappedRegionCache(long budget) {
+      this.budget = budget;
+   }
+
+   /**
+    * @return a read-only view of the retained mapping of the given file, or null if the file is not currently mapped
+    */
+   synchronized ByteBuffer get(File f) {
+      MappedByteBuffer region = regions.get(f);
+      return region == null ? null : region.duplicate();
+   }
+
+   /**
+    * Maps the given file and retains the mapping.
+    *
+    * @return a read-only view of the mapped file, or null if the file is empty or does not fit in the budget
+    */
+   ByteBuffer map(File f) throws IOException {
+      long size = f.length();
+      if (size == 0 || size > budget || size > Integer.MAX_VALUE) {
+         return null;
+      }
+      MappedByteBuffer region;
+      RandomAccessFile raf = new RandomAccessFile(f, "r");
+      try {
+         // The mapping remains valid once the channel is closed
+         region = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, size);
+      } finally {
+         raf.close();
+      }
+      synchronized (this) {
+         release(regions.put(f, region));
+         mappedBytes += size;
+         Iterator<Map.Entry<File, MappedByteBuffer>> it = regions.entrySet().iterator();
+         while (mappedBytes > budget && it.hasNext()) {
+            Map.Entry<File, MappedByteBuffer> eldest = it.next();
+            if (eldest.getValue() != region) {
+               it.remove();
+               release(eldest.getValue());
+            }
+         }
+      }
+      return region.duplicate();
+   }
+
+   synchronized void invalidate(File f) {
+      release(regions.remove(f));
+   }
+
+   synchronized void clear() {
+      regions.clear();
+      mappedBytes = 0;
+   }
+
+   synchronized long getMappedBytes() {
+      return mappedBytes;
+   }
+
+   private void release(MappedByteBuffer region) {
+      if (region != null) {
+         mappedBytes -= region.capacity();
+      }
+   }
+}
@@ -38,6 +38,7 @@
 import org.infinispan.factories.ComponentRegistry;
 import org.infinispan.factories.GlobalComponentRegistry;
 import org.infinispan.factories.InternalCacheFactory;
+import org.infinispan.factories.KnownComponentNames;
 import org.infinispan.factories.annotations.SurvivesRestarts;
 import org.infinispan.factories.scopes.Scope;
 import org.infinispan.factories.scopes.Scopes;
@@ -51,15 +52,22 @@
 import org.infinispan.jmx.annotations.Parameter;
 import org.infinispan.lifecycle.ComponentStatus;
 import org.infinispan.lifecycle.Lifecycle;
+import org.infinispan.marshall.GlobalMarshaller;
+import org.infinispan.marshall.StreamingMarshaller;
 import org.infinispan.loaders.CacheLoaderManager;
 import org.infinispan.notifications.cachemanagerlistener.CacheManagerNotifier;
+import org.infinispan.remoting.InboundInvocationHandler;
+import org.infinispan.remoting.InboundInvocationHandlerImpl;
 import org.infinispan.remoting.rpc.ResponseMode;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.remoting.transport.Transport;
+import org.infinispan.remoting.transport.jgroups.CommandBundler;
+import org.infinispan.remoting.transport.jgroups.JGroupsTransport;
 import org.infinispan.util.FileLookupFactory;
 import org.infinispan.util.Immutables;
 import org.infinispan.util.InfinispanCollections;
 import org.infinispan.util.CollectionFactory;
+import org.infinispan.util.concurrent.KeyOrderedExecutor;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
@@ -917,6 +925,40 @@ public int getClusterSize() {
       return t.getMembers().size();
    }
 
+   @ManagedAttribute(description = "Number of asynchronous commands bundled in each message sent, as the count of messages per range of bundle sizes", displayName = "Command bundle sizes", dataType = DataType.TRAIT)
+   public String getCommandBundleSizes() {
+      CommandBundler bundler = getCommandBundler();
+      return bundler == null ? "N/A" : bundler.getBundleSizeHistogram();
+   }
+
+   @ManagedAttribute(description = "Average number of asynchronous commands bundled in each message sent", displayName = "Average command bundle size")
+   public double getAverageCommandBundleSize() {
+      CommandBundler bundler = getCommandBundler();
+      return bundler == null ? 0 : bundler.getAverageBundleSize();
+   }
+
+   @ManagedAttribute(description = "Queue depth, maximum queue depth, number of commands performed, and average and maximum wait time in microseconds of each lane performing the ordered remote commands, or N/A if they are performed by the JGroups threads", displayName = "Remote command lanes", dataType = DataType.TRAIT)
+   public String getRemoteCommandLanes() {
+      InboundInvocationHandler handler = globalComponentRegistry == null ? null :
+            globalComponentRegistry.getComponent(InboundInvocationHandler.class);
+      KeyOrderedExecutor executor = handler instanceof InboundInvocationHandlerImpl ?
+            ((InboundInvocationHandlerImpl) handler).getKeyOrderedExecutor() : null;
+      return executor == null ? "N/A" : executor.printLaneStatistics();
+   }
+
+   @ManagedAttribute(description = "Number of commands marshalled for other nodes, their average size, the average number of bytes allocated for marshalling them and their next predicted size, per kind of command", displayName = "Marshalled command sizes", dataType = DataType.TRAIT)
+   public String getMarshalledCommandSizes() {
+      StreamingMarshaller marshaller = globalComponentRegistry == null ? null :
+            globalComponentRegistry.getComponent(StreamingMarshaller.class, KnownComponentNames.GLOBAL_MARSHALLER);
+      return marshaller instanceof GlobalMarshaller ?
+            ((GlobalMarshaller) marshaller).getCommandSizePredictors().printStatistics() : "N/A";
+   }
+
+   private CommandBundler getCommandBundler() {
+      Transport t = getTransport();
+      return t instanceof JGroupsTransport ? ((JGroupsTransport) t).getCommandBundler() : null;
+   }
+
    /**
     * {@inheritDoc}
     */
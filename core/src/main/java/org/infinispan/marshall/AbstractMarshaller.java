@@ -22,6 +22,7 @@
  */
 package org.infinispan.marshall;
 
+import org.infinispan.commands.ReplicableCommand;
 import org.infinispan.io.ByteBuffer;
 import org.infinispan.io.ExposedByteArrayOutputStream;
 
@@ -38,11 +39,22 @@ public abstract class AbstractMarshaller implements Marshaller {
 
    protected final MarshallableTypeHints marshallableTypeHints = new MarshallableTypeHints();
 
+   protected final CommandBufferSizePredictors commandSizePredictors = new CommandBufferSizePredictors();
+
    @Override
    public BufferSizePredictor getBufferSizePredictor(Object o) {
+      if (o instanceof ReplicableCommand)
+         return commandSizePredictors.getBufferSizePredictor((ReplicableCommand) o);
       return marshallableTypeHints.getBufferSizePredictor(o.getClass());
    }
 
+   /**
+    * Returns the size predictors and statistics of the commands marshalled by this marshaller.
+    */
+   public CommandBufferSizePredictors getCommandSizePredictors() {
+      return commandSizePredictors;
+   }
+
    /**
     * This is a convenience method for converting an object into a {@link org.infinispan.io.ByteBuffer} which takes
     * an estimated size as parameter. A {@link org.infinispan.io.ByteBuffer} allows direct access to the byte
@@ -57,14 +69,21 @@ public BufferSizePredictor getBufferSizePredictor(Object o) {
 
    @Override
    public ByteBuffer objectToBuffer(Object obj) throws IOException, InterruptedException {
-      if (obj != null) {
+      if (obj instanceof ReplicableCommand) {
+         ReplicableCommand command = (ReplicableCommand) obj;
+         long allocatedBefore = OutputBufferPool.getAllocatedBytes();
+         ByteBuffer byteBuffer = objectToBuffer(obj, commandSizePredictors.getBufferSizePredictor(command).nextSize(obj));
+         commandSizePredictors.recordMarshalled(command, byteBuffer.getLength(),
+               OutputBufferPool.getAllocatedBytes() - allocatedBefore);
+         return byteBuffer;
+      } else if (obj != null) {
          BufferSizePredictor sizePredictor = marshallableTypeHints
                .getBufferSizePredictor(obj.getClass());
          int estimatedSize = sizePredictor.nextSize(obj);
          ByteBuffer byteBuffer = objectToBuffer(obj, estimatedSize);
          int length = byteBuffer.getLength();
-         // If the prediction is way off, then trim it
-         if (estimatedSize > (length * 4)) {
+         // If the buffer is way larger than needed, then trim it
+         if (byteBuffer.getBuf().length > (length * 4)) {
             byte[] buffer = trimBuffer(byteBuffer);
             byteBuffer = new ByteBuffer(buffer, 0, buffer.length);
          }
@@ -77,10 +96,8 @@ public ByteBuffer objectToBuffer(Object obj) throws IOException, InterruptedExce
 
    @Override
    public byte[] objectToByteBuffer(Object o) throws IOException, InterruptedException {
-      int estimatedSize = 0;
       if (o != null) {
-         BufferSizePredictor sizePredictor = marshallableTypeHints
-               .getBufferSizePredictor(o.getClass());
+         BufferSizePredictor sizePredictor = getBufferSizePredictor(o);
          byte[] bytes = objectToByteBuffer(o, sizePredictor.nextSize(o));
          sizePredictor.recordSize(bytes.length);
          return bytes;
@@ -96,6 +113,8 @@ public byte[] objectToByteBuffer(Object obj, int estimatedSize) throws IOExcepti
    }
 
    private byte[] trimBuffer(ByteBuffer b) {
+      if (b.getOffset() == 0 && b.getBuf().length == b.getLength())
+         return b.getBuf();
       byte[] bytes = new byte[b.getLength()];
       System.arraycopy(b.getBuf(), b.getOffset(), bytes, 0, b.getLength());
       return bytes;
@@ -0,0 +1,134 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.marshall;
+
+import net.jcip.annotations.ThreadSafe;
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commands.remote.SingleRpcCommand;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Registry of the {@link BufferSizePredictor}s used to marshall replicable commands, keyed by
+ * command id rather than by class.
+ * <p/>
+ * A {@link SingleRpcCommand} is keyed by the id of the command it wraps, so that the sizes of
+ * small commands such as removals are predicted separately from the sizes of large puts. The
+ * registry also records, for each kind of command, how many were marshalled, their serialized
+ * size and the number of bytes allocated for marshalling them.
+ *
+ * @since 5.3
+ */
+@ThreadSafe
+public final class CommandBufferSizePredictors {
+
+   private static final int COMMAND_IDS = 256;
+
+   private final AtomicReferenceArray<Entry> entries = new AtomicReferenceArray<Entry>(2 * COMMAND_IDS);
+
+   /**
+    * Returns the buffer size predictor for the given command.
+    */
+   public BufferSizePredictor getBufferSizePredictor(ReplicableCommand command) {
+      return getEntry(command).sizePredictor;
+   }
+
+   /**
+    * Records the marshalling of a command.
+    *
+    * @param command the marshalled command
+    * @param size the size of the serialized command, in bytes
+    * @param allocatedBytes the number of bytes allocated for marshalling the command
+    */
+   public void recordMarshalled(ReplicableCommand command, int size, long allocatedBytes) {
+      Entry entry = getEntry(command);
+      entry.sizePredictor.recordSize(size);
+      entry.count.incrementAndGet();
+      entry.totalSize.addAndGet(size);
+      entry.totalAllocatedBytes.addAndGet(allocatedBytes);
+   }
+
+   private Entry getEntry(ReplicableCommand command) {
+      ReplicableCommand wrapped = command instanceof SingleRpcCommand ?
+            ((SingleRpcCommand) command).getCommand() : null;
+      int index = wrapped == null ? command.getCommandId() & 0xFF : COMMAND_IDS + (wrapped.getCommandId() & 0xFF);
+      Entry entry = entries.get(index);
+      if (entry == null) {
+         String name = wrapped == null ? command.getClass().getSimpleName() :
+               command.getClass().getSimpleName() + "(" + wrapped.getClass().getSimpleName() + ")";
+         entries.compareAndSet(index, null, new Entry(name));
+         entry = entries.get(index);
+      }
+      return entry;
+   }
+
+   /**
+    * Returns, for each kind of command marshalled, the number of commands, their average
+    * serialized size, the average number of bytes allocated for marshalling them, and the next
+    * predicted size.
+    */
+   public String printStatistics() {
+      StringBuilder sb = new StringBuilder("[");
+      for (int i = 0; i < entries.length(); i++) {
+         Entry entry = entries.get(i);
+         if (entry == null)
+            continue;
+         long count = entry.count.get();
+         if (count == 0)
+            continue;
+         if (sb.length() > 1)
+            sb.append(", ");
+         sb.append(entry.name)
+               .append("{count=").append(count)
+               .append(", averageSize=").append(entry.totalSize.get() / count)
+               .append(", averageAllocated=").append(entry.totalAllocatedBytes.get() / count)
+               .append(", predictedSize=").append(entry.sizePredictor.nextSize(null))
+               .append('}');
+      }
+      return sb.append(']').toString();
+   }
+
+   public void resetStatistics() {
+      for (int i = 0; i < entries.length(); i++) {
+         Entry entry = entries.get(i);
+         if (entry != null) {
+            entry.count.set(0);
+            entry.totalSize.set(0);
+            entry.totalAllocatedBytes.set(0);
+         }
+      }
+   }
+
+   private static final class Entry {
+      final String name;
+      final BufferSizePredictor sizePredictor = new AdaptiveBufferSizePredictor();
+      final AtomicLong count = new AtomicLong();
+      final AtomicLong totalSize = new AtomicLong();
+      final AtomicLong totalAllocatedBytes = new AtomicLong();
+
+      Entry(String name) {
+         this.name = name;
+      }
+   }
+}
@@ -42,4 +42,11 @@ public void stop() {
       super.stop();
    }
 
+   /**
+    * Returns the size predictors and statistics of the commands sent to other nodes.
+    */
+   public CommandBufferSizePredictors getCommandSizePredictors() {
+      return ((VersionAwareMarshaller) this.marshaller).getCommandSizePredictors();
+   }
+
 }
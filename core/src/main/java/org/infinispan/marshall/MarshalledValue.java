@@ -39,6 +39,7 @@
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
  * Wrapper that wraps cached data, providing lazy deserialization using the calling thread's context class loader.
@@ -71,8 +72,15 @@
  * @since 4.0
  */
 public final class MarshalledValue implements Serializable {
-   volatile protected Object instance;
-   volatile protected MarshalledValueByteStream raw;
+   private static final AtomicReferenceFieldUpdater<MarshalledValue, Object> STATE_UPDATER =
+         AtomicReferenceFieldUpdater.newUpdater(MarshalledValue.class, Object.class, "state");
+
+   /**
+    * The instance, its serialized form as a {@link MarshalledValueByteStream}, or both held by a
+    * {@link Both}. Both representations live in this single field so that they can be updated
+    * atomically without locking.
+    */
+   private volatile Object state;
    volatile protected int serialisedSize = 128; //size of serialized representation: initial value is a guess
    volatile private int cachedHashCode = 0;
    // by default equals() will test on the instance rather than the byte array if conversion is required.
@@ -83,74 +91,86 @@ public final class MarshalledValue implements Serializable {
    public MarshalledValue(Object instance, boolean equalityPreferenceForInstance, StreamingMarshaller marshaller) {
       if (instance == null) throw new NullPointerException("Null values cannot be wrapped as MarshalledValues!");
 
-      this.instance = instance;
+      this.state = instance;
       this.equalityPreferenceForInstance = equalityPreferenceForInstance;
       this.marshaller = marshaller;
    }
 
    private MarshalledValue(byte[] raw, int cachedHashCode, StreamingMarshaller marshaller) {
-      init(raw, cachedHashCode);
-      this.marshaller = marshaller;
-   }
-
-   private void init(byte[] raw, int cachedHashCode) {
-      // for unmarshalling
-      this.raw = new ImmutableMarshalledValueByteStream(raw);
+      // for unmarshalling, the bytes received are kept as they are
+      this.state = new ImmutableMarshalledValueByteStream(raw);
       this.serialisedSize = raw.length;
       this.cachedHashCode = cachedHashCode;
-   }
-
-   public synchronized MarshalledValueByteStream serialize() {
-      return serialize0();
+      this.marshaller = marshaller;
    }
 
    /**
-    * Should only be called from a synchronized method
+    * Returns the serialized representation, serializing the instance if needed. Concurrent callers
+    * may both serialize the instance, but only one serialized representation is ever kept.
     */
-   private MarshalledValueByteStream serialize0() {
-      MarshalledValueByteStream localRaw = raw;
-      if (localRaw == null) {
+   public MarshalledValueByteStream serialize() {
+      for (;;) {
+         Object currentState = state;
+         MarshalledValueByteStream raw = rawOf(currentState);
+         if (raw != null)
+            return raw;
+         // Do NOT drop the instance over here, since it may be used elsewhere (e.g., in a cache listener).
+         // this will be compacted by the MarshalledValueInterceptor when the call returns.
+         raw = marshall(currentState);
+         if (STATE_UPDATER.compareAndSet(this, currentState, new Both(currentState, raw)))
+            return raw;
+      }
+   }
+
+   private MarshalledValueByteStream marshall(Object instance) {
+      try {
+         MarshalledValueByteStream baos = new ExpandableMarshalledValueByteStream(this.serialisedSize);
+         ObjectOutput out = marshaller.startObjectOutput(baos, true, this.serialisedSize);
          try {
-            // Do NOT set instance to null over here, since it may be used elsewhere (e.g., in a cache listener).
-            // this will be compacted by the MarshalledValueInterceptor when the call returns.
-            MarshalledValueByteStream baos = new ExpandableMarshalledValueByteStream(this.serialisedSize);
-            ObjectOutput out = marshaller.startObjectOutput(baos, true, this.serialisedSize);
-            try {
-               marshaller.objectToObjectStream(instance, out);
-            } finally {
-               marshaller.finishObjectOutput(out);
-            }
-            serialisedSize = baos.size();
-            localRaw = baos;
-            raw = baos;
-         } catch (Exception e) {
-            throw new CacheException("Unable to marshall value " + instance, e);
+            marshaller.objectToObjectStream(instance, out);
+         } finally {
+            marshaller.finishObjectOutput(out);
          }
+         serialisedSize = baos.size();
+         return baos;
+      } catch (Exception e) {
+         throw new CacheException("Unable to marshall value " + instance, e);
       }
-      return localRaw;
    }
 
-   public synchronized Object deserialize() {
-      return deserialize0();
+   /**
+    * Returns the instance, deserializing the serialized representation if needed. Concurrent
+    * callers may both deserialize it, but only one instance is ever kept.
+    */
+   public Object deserialize() {
+      for (;;) {
+         Object currentState = state;
+         Object instance = instanceOf(currentState);
+         if (instance != null)
+            return instance;
+         MarshalledValueByteStream raw = (MarshalledValueByteStream) currentState;
+         instance = unmarshall(raw);
+         if (STATE_UPDATER.compareAndSet(this, currentState, new Both(instance, raw)))
+            return instance;
+      }
    }
 
    /**
-    * Should only be called from a synchronized method
+    * Deserializes a new copy of the instance, without keeping it, so that the copy is never shared
+    * with other callers.
     */
-   private Object deserialize0() {
-      Object instanceValue = instance;
-      if (instanceValue == null) {
-         try {
-            // StreamingMarshaller underneath deals with making sure the right classloader is set.
-            instanceValue = marshaller.objectFromByteBuffer(raw.getRaw(), 0, raw.size());
-            instance = instanceValue;
-            return instanceValue;
-         }
-         catch (Exception e) {
-            throw new CacheException("Unable to unmarshall value", e);
-         }
+   public Object deserializeCopy() {
+      return unmarshall(serialize());
+   }
+
+   private Object unmarshall(MarshalledValueByteStream raw) {
+      try {
+         // StreamingMarshaller underneath deals with making sure the right classloader is set.
+         return marshaller.objectFromByteBuffer(raw.getRaw(), 0, raw.size());
+      }
+      catch (Exception e) {
+         throw new CacheException("Unable to unmarshall value", e);
       }
-      return instanceValue;
    }
 
    /**
@@ -166,55 +186,63 @@ private Object deserialize0() {
     * @param force                          ensures the preferred representation is maintained and the other released,
     *                                       even if this means serializing or deserializing.
     */
-   public synchronized void compact(boolean preferSerializedRepresentation, boolean force) {
+   public void compact(boolean preferSerializedRepresentation, boolean force) {
       // reset the equalityPreference
       equalityPreferenceForInstance = true;
-      Object thisInstance = this.instance;
-      MarshalledValueByteStream thisRaw = this.raw;
       if (force) {
-         if (preferSerializedRepresentation && thisRaw == null) {
-            // Accessing a synchronized method from an already synchronized
-            // method is expensive, so delegate to a private not synched method.
-            thisRaw = serialize0();
-         }
-         else if (!preferSerializedRepresentation && thisInstance == null){
-            // Accessing a synchronized method from an already synchronized
-            // method is expensive, so delegate to a private not synched method.
-            thisInstance = deserialize0();
-         }
+         if (preferSerializedRepresentation)
+            serialize();
+         else
+            deserialize();
       }
 
-      if (thisInstance != null && thisRaw != null) {
+      for (;;) {
+         Object currentState = state;
+         if (!(currentState instanceof Both))
+            return;
+         Both both = (Both) currentState;
          // need to loose one representation!
-         if (preferSerializedRepresentation) {
-            //in both branches we first set one then null the other, so that there's always one available
-            //to read from those methods not being synchronized
-            raw = thisRaw;
-            instance = null;
-         } else {
-            instance = thisInstance;
-            raw = null;
-         }
+         Object compacted = preferSerializedRepresentation ? both.raw : both.instance;
+         if (STATE_UPDATER.compareAndSet(this, currentState, compacted))
+            return;
       }
    }
 
    public MarshalledValueByteStream getRaw() {
-      MarshalledValueByteStream rawValue = raw;
-      if (rawValue == null){
-         rawValue = serialize();
-      }
-      return rawValue;
+      return serialize();
+   }
+
+   /**
+    * Returns the serialized representation if there is one, without serializing the instance.
+    */
+   public MarshalledValueByteStream peekRaw() {
+      return rawOf(state);
+   }
+
+   /**
+    * Returns the instance if there is one, without deserializing the serialized representation.
+    */
+   public Object peekInstance() {
+      return instanceOf(state);
    }
 
    /**
     * Returns the 'cached' instance
     */
    public Object get() {
-      Object value = instance;
-      if (value == null) {
-         value = deserialize();
-      }
-      return value;
+      return deserialize();
+   }
+
+   private static Object instanceOf(Object state) {
+      if (state instanceof Both)
+         return ((Both) state).instance;
+      return state instanceof MarshalledValueByteStream ? null : state;
+   }
+
+   private static MarshalledValueByteStream rawOf(Object state) {
+      if (state instanceof Both)
+         return ((Both) state).raw;
+      return state instanceof MarshalledValueByteStream ? (MarshalledValueByteStream) state : null;
    }
 
    @Override
@@ -229,15 +257,17 @@ public boolean equals(Object o) {
 
       // if both versions are serialized or deserialized, just compare the relevant representations,
       // but attempt the operations in order to respect the value of equalityPreferenceForInstance
-      Object thisInstance = this.instance;
-      Object thatInstance = that.instance;
+      Object thisState = this.state;
+      Object thatState = that.state;
+      Object thisInstance = instanceOf(thisState);
+      Object thatInstance = instanceOf(thatState);
       //test the default equality first so we might skip some work:
       if (preferInstanceEquality && thisInstance != null && thatInstance != null) {
          return thisInstance.equals(thatInstance);
       }
 
-      MarshalledValueByteStream thisRaw = this.raw;
-      MarshalledValueByteStream thatRaw = that.raw;
+      MarshalledValueByteStream thisRaw = rawOf(thisState);
+      MarshalledValueByteStream thatRaw = rawOf(thatState);
       if (thisRaw != null && thatRaw != null) return thisRaw.equals(thatRaw);
       if (thisInstance != null && thatInstance != null) {
          return thisInstance.equals(thatInstance);
@@ -268,7 +298,7 @@ public int hashCode() {
       //make a local copy to avoid multiple read/writes on the volatile field
       int value = cachedHashCode;
       if (value == 0) {
-         Object localInstance = deserialize();
+         Object localInstance = get();
          value = localInstance.hashCode();
          if (value == 0) // degenerate case
          {
@@ -281,10 +311,13 @@ public int hashCode() {
 
    @Override
    public String toString() {
+      Object currentState = state;
+      Object instance = instanceOf(currentState);
+      MarshalledValueByteStream raw = rawOf(currentState);
       StringBuilder sb = new StringBuilder()
          .append("MarshalledValue{")
          .append("instance=").append(instance != null ? instance.toString() : "<serialized>")
-         .append(", serialized=").append(raw != null ?  Util.printArray(raw == null ? Util.EMPTY_BYTE_ARRAY : raw.getRaw(), false) : "false")
+         .append(", serialized=").append(raw != null ?  Util.printArray(raw.getRaw(), false) : "false")
          .append(", cachedHashCode=").append(cachedHashCode)
          .append("}@").append(Util.hexIdHashCode(this));
       return sb.toString();
@@ -310,6 +343,19 @@ public static boolean isTypeExcluded(Class<?> type) {
             ReplicableCommand.class.isAssignableFrom(type) || type.equals(MarshalledValue.class);
    }
 
+   /**
+    * Both representations of a value, held until it is compacted.
+    */
+   private static final class Both implements Serializable {
+      final Object instance;
+      final MarshalledValueByteStream raw;
+
+      Both(Object instance, MarshalledValueByteStream raw) {
+         this.instance = instance;
+         this.raw = raw;
+      }
+   }
+
    public static class Externalizer extends AbstractExternalizer<MarshalledValue> {
       private final StreamingMarshaller globalMarshaller;
 
@@ -0,0 +1,128 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.marshall;
+
+import org.infinispan.io.ExposedByteArrayOutputStream;
+
+/**
+ * Per-thread pool of the output buffers objects are marshalled into.
+ * <p/>
+ * Marshalling is reentrant: a command's externalizer marshalls the command parameters into a
+ * buffer of their own, which may in turn marshall values into further buffers. So each thread
+ * keeps a small stack of buffers, and buffers must be released in the reverse order they were
+ * acquired. Buffers beyond the depth of the stack, or that have grown too large to be retained,
+ * are simply left to the garbage collector.
+ * <p/>
+ * Since pooled buffers are reused, their contents must be copied, e.g. with
+ * {@link #copyOf(ExposedByteArrayOutputStream)}, before they are released if they are needed
+ * afterwards. The pool also keeps count of the bytes each thread allocated for marshalling, so
+ * that the allocation caused by marshalling a particular object can be measured.
+ *
+ * @since 5.3
+ */
+public final class OutputBufferPool {
+
+   private static final int POOL_DEPTH = 4;
+
+   /**
+    * Buffers larger than this are not kept for reuse, not to retain too much memory per thread.
+    */
+   private static final int MAX_POOLED_BUFFER_SIZE = 64 * 1024;
+
+   private static final int MIN_POOLED_BUFFER_SIZE = 512;
+
+   private static final ThreadLocal<Buffers> BUFFERS = new ThreadLocal<Buffers>() {
+      @Override
+      protected Buffers initialValue() {
+         return new Buffers();
+      }
+   };
+
+   private OutputBufferPool() {
+   }
+
+   /**
+    * Returns an empty buffer, to be released with {@link #release(ExposedByteArrayOutputStream)}
+    * once its contents are no longer needed.
+    *
+    * @param estimatedSize the expected number of bytes to be written, used when a new buffer needs
+    *                      to be allocated
+    */
+   public static ExposedByteArrayOutputStream acquire(int estimatedSize) {
+      Buffers buffers = BUFFERS.get();
+      int depth = buffers.depth++;
+      if (depth >= POOL_DEPTH)
+         return new ExposedByteArrayOutputStream(estimatedSize);
+
+      ExposedByteArrayOutputStream buffer = buffers.pool[depth];
+      if (buffer == null) {
+         buffer = new ExposedByteArrayOutputStream(Math.max(estimatedSize, MIN_POOLED_BUFFER_SIZE));
+         buffers.pool[depth] = buffer;
+         buffers.allocatedMarks[depth] = 0;
+      } else {
+         buffer.reset();
+         buffers.allocatedMarks[depth] = buffer.getAllocatedBytes();
+      }
+      return buffer;
+   }
+
+   /**
+    * Gives back a buffer obtained from {@link #acquire(int)} on the same thread.
+    */
+   public static void release(ExposedByteArrayOutputStream buffer) {
+      Buffers buffers = BUFFERS.get();
+      int depth = --buffers.depth;
+      if (depth >= POOL_DEPTH || buffers.pool[depth] != buffer) {
+         buffers.allocatedBytes += buffer.getAllocatedBytes();
+         return;
+      }
+      buffers.allocatedBytes += buffer.getAllocatedBytes() - buffers.allocatedMarks[depth];
+      if (buffer.getRawBuffer().length > MAX_POOLED_BUFFER_SIZE)
+         buffers.pool[depth] = null;
+   }
+
+   /**
+    * Returns a copy of the bytes written to a buffer, in an array of their exact length.
+    */
+   public static byte[] copyOf(ExposedByteArrayOutputStream buffer) {
+      byte[] bytes = new byte[buffer.size()];
+      System.arraycopy(buffer.getRawBuffer(), 0, bytes, 0, bytes.length);
+      BUFFERS.get().allocatedBytes += bytes.length;
+      return bytes;
+   }
+
+   /**
+    * Returns the number of bytes allocated for marshalling buffers by the current thread. Bytes
+    * allocated for a buffer are accounted for when it is released.
+    */
+   public static long getAllocatedBytes() {
+      return BUFFERS.get().allocatedBytes;
+   }
+
+   private static final class Buffers {
+      final ExposedByteArrayOutputStream[] pool = new ExposedByteArrayOutputStream[POOL_DEPTH];
+      final long[] allocatedMarks = new long[POOL_DEPTH];
+      int depth;
+      long allocatedBytes;
+   }
+}
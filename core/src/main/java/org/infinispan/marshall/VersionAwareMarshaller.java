@@ -86,7 +86,18 @@ public void stop() {
 
    @Override
    protected ByteBuffer objectToBuffer(Object obj, int estimatedSize) throws IOException, InterruptedException {
-      ExposedByteArrayOutputStream baos = new ExposedByteArrayOutputStream(estimatedSize);
+      ExposedByteArrayOutputStream baos = OutputBufferPool.acquire(estimatedSize);
+      try {
+         marshall(obj, baos, estimatedSize);
+         // the pooled buffer is reused, so the marshalled bytes are copied into an array of their exact size
+         byte[] bytes = OutputBufferPool.copyOf(baos);
+         return new ByteBuffer(bytes, 0, bytes.length);
+      } finally {
+         OutputBufferPool.release(baos);
+      }
+   }
+
+   private void marshall(Object obj, ExposedByteArrayOutputStream baos, int estimatedSize) throws IOException, InterruptedException {
       ObjectOutput out = startObjectOutput(baos, false, estimatedSize);
       try {
          defaultMarshaller.objectToObjectStream(obj, out);
@@ -104,7 +115,6 @@ protected ByteBuffer objectToBuffer(Object obj, int estimatedSize) throws IOExce
       } finally {
          finishObjectOutput(out);
       }
-      return new ByteBuffer(baos.getRawBuffer(), 0, baos.size());
    }
 
    @Override
@@ -54,6 +54,7 @@
 import org.infinispan.marshall.AbstractExternalizer;
 import org.infinispan.marshall.BufferSizePredictor;
 import org.infinispan.marshall.Ids;
+import org.infinispan.marshall.OutputBufferPool;
 import org.infinispan.marshall.StreamingMarshaller;
 import org.infinispan.marshall.jboss.ExtendedRiverUnmarshaller;
 import org.infinispan.statetransfer.StateRequestCommand;
@@ -107,7 +108,7 @@ public Set<Class<? extends CacheRpcCommand>> getTypeClasses() {
 
    @Override
    public void writeObject(ObjectOutput output, CacheRpcCommand command) throws IOException {
-      cmdExt.writeCommandHeader(output, command);
+      byte type = cmdExt.writeCommandHeader(output, command);
 
       String cacheName = command.getCacheName();
       output.writeUTF(cacheName);
@@ -116,27 +117,31 @@ public void writeObject(ObjectOutput output, CacheRpcCommand command) throws IOE
       // Take the cache marshaller and generate the payload for the rest of
       // the command using that cache marshaller and the write the bytes in
       // the original payload.
-      ExposedByteArrayOutputStream os = marshallParameters(command, marshaller);
-      UnsignedNumeric.writeUnsignedInt(output, os.size());
-      // Do not rely on the raw buffer's length which is likely to be much longer!
-      output.write(os.getRawBuffer(), 0, os.size());
+      BufferSizePredictor sizePredictor = marshaller.getBufferSizePredictor(command);
+      int estimatedSize = sizePredictor.nextSize(command);
+      ExposedByteArrayOutputStream os = OutputBufferPool.acquire(estimatedSize);
+      try {
+         marshallParameters(command, type, marshaller, os, estimatedSize);
+         sizePredictor.recordSize(os.size());
+         UnsignedNumeric.writeUnsignedInt(output, os.size());
+         // Do not rely on the raw buffer's length which is likely to be much longer!
+         output.write(os.getRawBuffer(), 0, os.size());
+      } finally {
+         OutputBufferPool.release(os);
+      }
       if (command instanceof TopologyAffectedCommand) {
          output.writeInt(((TopologyAffectedCommand) command).getTopologyId());
       }
    }
 
-   private ExposedByteArrayOutputStream marshallParameters(
-         CacheRpcCommand cmd, StreamingMarshaller marshaller) throws IOException {
-      BufferSizePredictor sizePredictor = marshaller.getBufferSizePredictor(cmd);
-      int estimatedSize = sizePredictor.nextSize(cmd);
-      ExposedByteArrayOutputStream baos = new ExposedByteArrayOutputStream(estimatedSize);
+   private void marshallParameters(CacheRpcCommand cmd, byte type, StreamingMarshaller marshaller,
+         ExposedByteArrayOutputStream baos, int estimatedSize) throws IOException {
       ObjectOutput output = marshaller.startObjectOutput(baos, true, estimatedSize);
       try {
-         cmdExt.writeCommandParameters(output, cmd);
+         cmdExt.writeCommandParameters(output, cmd, type);
       } finally {
          marshaller.finishObjectOutput(output);
       }
-      return baos;
    }
 
    @Override
@@ -162,7 +167,7 @@ public CacheRpcCommand readObject(ObjectInput input) throws IOException, ClassNo
          ((ExtendedRiverUnmarshaller) paramsInput).setInfinispanMarshaller(marshaller);
 
       try {
-         Object[] args = cmdExt.readParameters(paramsInput);
+         Object[] args = cmdExt.readParameters(paramsInput, type, methodId);
          CacheRpcCommand cacheRpcCommand = cmdExt.fromStream(methodId, args, type, cacheName);
          if (cacheRpcCommand instanceof TopologyAffectedCommand) {
             int topologyId = input.readInt();
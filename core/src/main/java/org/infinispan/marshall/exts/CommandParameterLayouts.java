@@ -0,0 +1,185 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.marshall.exts;
+
+import org.infinispan.atomic.DeltaAware;
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commands.remote.ClusteredGetCommand;
+import org.infinispan.commands.tx.PrepareCommand;
+import org.infinispan.commands.write.PutKeyValueCommand;
+import org.infinispan.commands.write.RemoveCommand;
+import org.infinispan.commands.write.ReplaceCommand;
+import org.infinispan.context.Flag;
+import org.infinispan.io.UnsignedNumeric;
+import org.infinispan.statetransfer.StateResponseCommand;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Compact encodings of the parameters of the core commands sent on every write, remote get,
+ * transaction prepare and state transfer.
+ * <p/>
+ * The parameters of other commands are written as a count followed by one object per parameter.
+ * The parameters of these commands are instead written following a fixed layout, so their count
+ * and the type header of each primitive parameter are not needed: booleans are packed into a
+ * single byte, integers are written as variable length numbers, and flag sets as bit sets.
+ * Parameters beyond the layout, such as the modifications of a prepare, are written as objects,
+ * preceded by their count.
+ *
+ * @since 5.3
+ */
+final class CommandParameterLayouts {
+
+   private static final byte OBJECT = 0;
+   private static final byte BOOLEAN = 1;
+   private static final byte INT = 2;
+   private static final byte FLAGS = 3;
+
+   private static final Flag[] FLAG_VALUES = Flag.values();
+
+   /**
+    * Layouts of the parameters of core commands, indexed by command id.
+    */
+   private static final byte[][] LAYOUTS = new byte[256][];
+
+   static {
+      LAYOUTS[PutKeyValueCommand.COMMAND_ID] = new byte[]{OBJECT, OBJECT, OBJECT, BOOLEAN, FLAGS, BOOLEAN};
+      LAYOUTS[RemoveCommand.COMMAND_ID] = new byte[]{OBJECT, OBJECT, FLAGS, BOOLEAN, BOOLEAN};
+      LAYOUTS[ReplaceCommand.COMMAND_ID] = new byte[]{OBJECT, OBJECT, OBJECT, OBJECT, BOOLEAN, FLAGS, BOOLEAN};
+      LAYOUTS[ClusteredGetCommand.COMMAND_ID] = new byte[]{OBJECT, FLAGS, BOOLEAN, OBJECT};
+      LAYOUTS[PrepareCommand.COMMAND_ID] = new byte[]{OBJECT, BOOLEAN, INT};
+      LAYOUTS[StateResponseCommand.COMMAND_ID] = new byte[]{OBJECT, INT, OBJECT};
+      // bit sets of flags are held in a long
+      assert FLAG_VALUES.length < 64;
+   }
+
+   private CommandParameterLayouts() {
+   }
+
+   /**
+    * Returns the layout of the parameters of a command, or null if they have no compact encoding.
+    *
+    * @param type 0 for core commands, 1 for module commands
+    */
+   static byte[] getLayout(byte type, byte commandId) {
+      return type == 0 ? LAYOUTS[commandId & 0xFF] : null;
+   }
+
+   static void writeParameters(ObjectOutput output, byte[] layout, Object[] args) throws IOException {
+      int booleans = 0;
+      int bit = 0;
+      for (int i = 0; i < layout.length; i++) {
+         if (layout[i] == BOOLEAN) {
+            if ((Boolean) args[i])
+               booleans |= 1 << bit;
+            bit++;
+         }
+      }
+      output.writeByte(booleans);
+
+      for (int i = 0; i < layout.length; i++) {
+         switch (layout[i]) {
+            case OBJECT:
+               writeObject(output, args[i]);
+               break;
+            case INT:
+               int value = (Integer) args[i];
+               UnsignedNumeric.writeUnsignedInt(output, (value << 1) ^ (value >> 31));
+               break;
+            case FLAGS:
+               UnsignedNumeric.writeUnsignedLong(output, toBitSet((Set<?>) args[i]));
+               break;
+         }
+      }
+
+      int extraArgs = args.length - layout.length;
+      UnsignedNumeric.writeUnsignedInt(output, extraArgs);
+      for (int i = layout.length; i < args.length; i++)
+         writeObject(output, args[i]);
+   }
+
+   static Object[] readParameters(ObjectInput input, byte[] layout) throws IOException, ClassNotFoundException {
+      int booleans = input.readUnsignedByte();
+      int bit = 0;
+      Object[] fixedArgs = new Object[layout.length];
+      for (int i = 0; i < layout.length; i++) {
+         switch (layout[i]) {
+            case OBJECT:
+               fixedArgs[i] = input.readObject();
+               break;
+            case BOOLEAN:
+               fixedArgs[i] = (booleans & (1 << bit++)) != 0;
+               break;
+            case INT:
+               int value = UnsignedNumeric.readUnsignedInt(input);
+               fixedArgs[i] = (value >>> 1) ^ -(value & 1);
+               break;
+            case FLAGS:
+               fixedArgs[i] = fromBitSet(UnsignedNumeric.readUnsignedLong(input));
+               break;
+         }
+      }
+
+      int extraArgs = UnsignedNumeric.readUnsignedInt(input);
+      if (extraArgs == 0)
+         return fixedArgs;
+      Object[] args = new Object[layout.length + extraArgs];
+      System.arraycopy(fixedArgs, 0, args, 0, layout.length);
+      for (int i = layout.length; i < args.length; i++)
+         args[i] = input.readObject();
+      return args;
+   }
+
+   private static void writeObject(ObjectOutput output, Object arg) throws IOException {
+      // Only write deltas so that replication can be more efficient
+      output.writeObject(arg instanceof DeltaAware ? ((DeltaAware) arg).delta() : arg);
+   }
+
+   /**
+    * Bit 0 tells a null set apart from an empty one, and the ordinal of each flag in the set
+    * gives the following bits.
+    */
+   private static long toBitSet(Set<?> flags) {
+      if (flags == null)
+         return 0;
+      long bits = 1;
+      for (Object flag : flags)
+         bits |= 1L << (((Flag) flag).ordinal() + 1);
+      return bits;
+   }
+
+   private static Set<Flag> fromBitSet(long bits) {
+      if (bits == 0)
+         return null;
+      EnumSet<Flag> flags = EnumSet.noneOf(Flag.class);
+      for (int i = 0; i < FLAG_VALUES.length; i++) {
+         if ((bits & (1L << (i + 1))) != 0)
+            flags.add(FLAG_VALUES[i]);
+      }
+      return flags;
+   }
+}
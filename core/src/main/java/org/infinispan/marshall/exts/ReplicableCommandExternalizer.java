@@ -34,6 +34,7 @@
 import org.infinispan.io.UnsignedNumeric;
 import org.infinispan.marshall.AbstractExternalizer;
 import org.infinispan.marshall.Ids;
+import org.infinispan.remoting.transport.jgroups.CommandBundle;
 import org.infinispan.topology.CacheTopologyControlCommand;
 import org.infinispan.util.Util;
 
@@ -60,12 +61,21 @@ public ReplicableCommandExternalizer(RemoteCommandsFactory cmdFactory, GlobalCom
 
    @Override
    public void writeObject(ObjectOutput output, ReplicableCommand command) throws IOException {
-      writeCommandHeader(output, command);
-      writeCommandParameters(output, command);
+      byte type = writeCommandHeader(output, command);
+      writeCommandParameters(output, command, type);
+      if (command instanceof TopologyAffectedCommand) {
+         output.writeInt(((TopologyAffectedCommand) command).getTopologyId());
+      }
    }
 
-   protected void writeCommandParameters(ObjectOutput output, ReplicableCommand command) throws IOException {
+   protected void writeCommandParameters(ObjectOutput output, ReplicableCommand command, byte type) throws IOException {
       Object[] args = command.getParameters();
+      byte[] layout = CommandParameterLayouts.getLayout(type, command.getCommandId());
+      if (layout != null) {
+         CommandParameterLayouts.writeParameters(output, layout, args);
+         return;
+      }
+
       int numArgs = (args == null ? 0 : args.length);
 
       UnsignedNumeric.writeUnsignedInt(output, numArgs);
@@ -79,30 +89,28 @@ protected void writeCommandParameters(ObjectOutput output, ReplicableCommand com
             output.writeObject(arg);
          }
       }
-
-      if (command instanceof TopologyAffectedCommand) {
-         output.writeInt(((TopologyAffectedCommand) command).getTopologyId());
-      }
    }
 
-   protected void writeCommandHeader(ObjectOutput output, ReplicableCommand command) throws IOException {
+   /**
+    * Writes the type and id of a command, and returns its type: 0 for core commands, 1 for module
+    * commands.
+    */
+   protected byte writeCommandHeader(ObjectOutput output, ReplicableCommand command) throws IOException {
       // To decide whether it's a core or user defined command, load them all and check
       Collection<Class<? extends ReplicableCommand>> moduleCommands = getModuleCommands();
       // Write an indexer to separate commands defined external to the
       // infinispan core module from the ones defined via module commands
-      if (moduleCommands != null && moduleCommands.contains(command.getClass()))
-         output.writeByte(1);
-      else
-         output.writeByte(0);
-
+      byte type = moduleCommands != null && moduleCommands.contains(command.getClass()) ? (byte) 1 : (byte) 0;
+      output.writeByte(type);
       output.writeShort(command.getCommandId());
+      return type;
    }
 
    @Override
    public ReplicableCommand readObject(ObjectInput input) throws IOException, ClassNotFoundException {
       byte type = input.readByte();
       short methodId = input.readShort();
-      Object[] args = readParameters(input);
+      Object[] args = readParameters(input, type, (byte) methodId);
       ReplicableCommand replicableCommand = cmdFactory.fromStream((byte) methodId, args, type);
       if (replicableCommand instanceof TopologyAffectedCommand) {
          int topologyId = input.readInt();
@@ -111,7 +119,11 @@ public ReplicableCommand readObject(ObjectInput input) throws IOException, Class
       return replicableCommand;
    }
 
-   protected Object[] readParameters(ObjectInput input) throws IOException, ClassNotFoundException {
+   protected Object[] readParameters(ObjectInput input, byte type, byte commandId) throws IOException, ClassNotFoundException {
+      byte[] layout = CommandParameterLayouts.getLayout(type, commandId);
+      if (layout != null)
+         return CommandParameterLayouts.readParameters(input, layout);
+
       int numArgs = UnsignedNumeric.readUnsignedInt(input);
       Object[] args = null;
       if (numArgs > 0) {
@@ -141,7 +153,7 @@ public Set<Class<? extends ReplicableCommand>> getTypeClasses() {
             InvalidateCommand.class, InvalidateL1Command.class,
             PutKeyValueCommand.class,
             PutMapCommand.class, RemoveCommand.class,
-            ReplaceCommand.class);
+            ReplaceCommand.class, CommandBundle.class);
       // Search only those commands that replicable and not cache specific replicable commands
       Collection<Class<? extends ReplicableCommand>> moduleCommands = globalComponentRegistry.getModuleProperties().moduleOnlyReplicableCommands();
       if (moduleCommands != null && !moduleCommands.isEmpty()) coreCommands.addAll(moduleCommands);
@@ -22,6 +22,7 @@
 import org.infinispan.io.ByteBuffer;
 import org.infinispan.io.ExposedByteArrayOutputStream;
 import org.infinispan.marshall.AbstractMarshaller;
+import org.infinispan.marshall.OutputBufferPool;
 import org.infinispan.marshall.StreamingMarshaller;
 import org.infinispan.util.logging.BasicLogFactory;
 import org.jboss.logging.BasicLogger;
@@ -98,14 +99,20 @@ final public void objectToObjectStream(final Object obj, final ObjectOutput out)
 
    @Override
    final protected ByteBuffer objectToBuffer(final Object o, final int estimatedSize) throws IOException {
-      ExposedByteArrayOutputStream baos = new ExposedByteArrayOutputStream(estimatedSize);
-      ObjectOutput marshaller = startObjectOutput(baos, false, estimatedSize);
+      ExposedByteArrayOutputStream baos = OutputBufferPool.acquire(estimatedSize);
       try {
-         objectToObjectStream(o, marshaller);
+         ObjectOutput marshaller = startObjectOutput(baos, false, estimatedSize);
+         try {
+            objectToObjectStream(o, marshaller);
+         } finally {
+            finishObjectOutput(marshaller);
+         }
+         // the pooled buffer is reused, so the marshalled bytes are copied into an array of their exact size
+         byte[] bytes = OutputBufferPool.copyOf(baos);
+         return new ByteBuffer(bytes, 0, bytes.length);
       } finally {
-         finishObjectOutput(marshaller);
+         OutputBufferPool.release(baos);
       }
-      return new ByteBuffer(baos.getRawBuffer(), 0, baos.size());
    }
 
    @Override
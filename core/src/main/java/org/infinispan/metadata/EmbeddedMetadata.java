@@ -24,6 +24,7 @@
 package org.infinispan.metadata;
 
 import org.infinispan.container.versioning.EntryVersion;
+import org.infinispan.io.UnsignedNumeric;
 import org.infinispan.marshall.AbstractExternalizer;
 import org.infinispan.marshall.Ids;
 import org.infinispan.util.Util;
@@ -152,8 +153,21 @@ public Metadata build() {
 
    }
 
+   /**
+    * Writes a header byte telling how lifespan and maxIdle are encoded and whether there is a
+    * version, so that metadata without expiration or version, the most common, takes a single byte.
+    */
    public static class Externalizer extends AbstractExternalizer<EmbeddedMetadata> {
 
+      private static final int NO_EXPIRATION = 0;
+      private static final int UNSIGNED = 1;
+      private static final int SIGNED = 2;
+
+      private static final int LIFESPAN_SHIFT = 0;
+      private static final int MAX_IDLE_SHIFT = 2;
+      private static final int ENCODING_MASK = 3;
+      private static final int HAS_VERSION = 1 << 4;
+
       @Override
       @SuppressWarnings("unchecked")
       public Set<Class<? extends EmbeddedMetadata>> getTypeClasses() {
@@ -167,21 +181,53 @@ public Integer getId() {
 
       @Override
       public void writeObject(ObjectOutput output, EmbeddedMetadata object) throws IOException {
-         output.writeLong(object.lifespan);
-         output.writeLong(object.maxIdle);
-         output.writeObject(object.version);
+         int header = encoding(object.lifespan) << LIFESPAN_SHIFT | encoding(object.maxIdle) << MAX_IDLE_SHIFT;
+         if (object.version != null)
+            header |= HAS_VERSION;
+         output.writeByte(header);
+         writeTime(output, object.lifespan);
+         writeTime(output, object.maxIdle);
+         if (object.version != null)
+            output.writeObject(object.version);
       }
 
       @Override
       public EmbeddedMetadata readObject(ObjectInput input) throws IOException, ClassNotFoundException {
-         long lifespan = input.readLong();
-         long maxIdle = input.readLong();
-         EntryVersion version = (EntryVersion) input.readObject();
+         int header = input.readUnsignedByte();
+         long lifespan = readTime(input, (header >> LIFESPAN_SHIFT) & ENCODING_MASK);
+         long maxIdle = readTime(input, (header >> MAX_IDLE_SHIFT) & ENCODING_MASK);
+         EntryVersion version = (header & HAS_VERSION) != 0 ? (EntryVersion) input.readObject() : null;
          return new EmbeddedMetadata(lifespan, TimeUnit.MILLISECONDS,
                maxIdle, TimeUnit.MILLISECONDS,
                version);
       }
 
+      private static int encoding(long time) {
+         return time == -1 ? NO_EXPIRATION : time >= 0 ? UNSIGNED : SIGNED;
+      }
+
+      private static void writeTime(ObjectOutput output, long time) throws IOException {
+         switch (encoding(time)) {
+            case UNSIGNED:
+               UnsignedNumeric.writeUnsignedLong(output, time);
+               break;
+            case SIGNED:
+               output.writeLong(time);
+               break;
+         }
+      }
+
+      private static long readTime(ObjectInput input, int encoding) throws IOException {
+         switch (encoding) {
+            case UNSIGNED:
+               return UnsignedNumeric.readUnsignedLong(input);
+            case SIGNED:
+               return input.readLong();
+            default:
+               return -1;
+         }
+      }
+
    }
 
 }
@@ -26,12 +26,18 @@
 import org.infinispan.commands.CancellableCommand;
 import org.infinispan.commands.CancellationService;
 import org.infinispan.commands.CommandsFactory;
+import org.infinispan.commands.DataCommand;
+import org.infinispan.commands.ReplicableCommand;
 import org.infinispan.commands.remote.CacheRpcCommand;
+import org.infinispan.commands.remote.ClusteredGetCommand;
+import org.infinispan.commands.remote.SingleRpcCommand;
 import org.infinispan.commands.tx.PrepareCommand;
 import org.infinispan.commands.tx.totalorder.TotalOrderCommitCommand;
 import org.infinispan.commands.tx.totalorder.TotalOrderPrepareCommand;
 import org.infinispan.commands.tx.totalorder.TotalOrderRollbackCommand;
 import org.infinispan.commands.tx.totalorder.TotalOrderVersionedCommitCommand;
+import org.infinispan.commands.write.WriteCommand;
+import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.global.GlobalConfiguration;
 import org.infinispan.factories.ComponentRegistry;
 import org.infinispan.factories.GlobalComponentRegistry;
@@ -51,21 +57,35 @@
 import org.infinispan.transaction.TotalOrderRemoteTransactionState;
 import org.infinispan.transaction.totalorder.TotalOrderLatch;
 import org.infinispan.transaction.totalorder.TotalOrderManager;
+import org.infinispan.util.TimeService;
+import org.infinispan.util.TypedProperties;
 import org.infinispan.util.concurrent.BlockingRunnable;
 import org.infinispan.util.concurrent.BlockingTaskAwareExecutorService;
+import org.infinispan.util.concurrent.KeyOrderedExecutor;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.concurrent.ExecutorService;
 
 /**
  * Sets the cache interceptor chain on an RPCCommand before calling it to perform
+ * <p/>
+ * Commands whose order must be preserved are normally performed by the JGroups thread delivering them. When the
+ * <tt>keyOrderedLanes</tt> property of the remote commands executor is set, they are performed instead by the lanes
+ * of a {@link KeyOrderedExecutor} running on the remote commands executor, so that a slow command only delays the
+ * commands affecting the same keys. Each lane holds at most <tt>keyOrderedLaneCapacity</tt> commands, 1024 by
+ * default, and the delivering thread blocks while a lane is full.
  *
  * @author Manik Surtani
  * @since 4.0
  */
 @Scope(Scopes.GLOBAL)
 public class InboundInvocationHandlerImpl implements InboundInvocationHandler {
+   public static final String KEY_ORDERED_LANES = "keyOrderedLanes";
+   public static final String KEY_ORDERED_LANE_CAPACITY = "keyOrderedLaneCapacity";
+
    private GlobalComponentRegistry gcr;
    private static final Log log = LogFactory.getLog(InboundInvocationHandlerImpl.class);
    private static final boolean trace = log.isTraceEnabled();
@@ -74,18 +94,32 @@ public class InboundInvocationHandlerImpl implements InboundInvocationHandler {
    private CancellationService cancelService;
    private ExecutorService remoteCommandsExecutor;
    private BlockingTaskAwareExecutorService totalOrderExecutorService;
+   private KeyOrderedExecutor keyOrderedExecutor;
 
    @Inject
    public void inject(GlobalComponentRegistry gcr, Transport transport,
                       @ComponentName(KnownComponentNames.REMOTE_COMMAND_EXECUTOR) ExecutorService remoteCommandsExecutor,
                       @ComponentName(KnownComponentNames.TOTAL_ORDER_EXECUTOR) BlockingTaskAwareExecutorService totalOrderExecutorService,
-                      GlobalConfiguration globalConfiguration, CancellationService cancelService) {
+                      GlobalConfiguration globalConfiguration, CancellationService cancelService,
+                      TimeService timeService) {
       this.gcr = gcr;
       this.transport = transport;
       this.globalConfiguration = globalConfiguration;
       this.cancelService = cancelService;
       this.remoteCommandsExecutor = remoteCommandsExecutor;
       this.totalOrderExecutorService = totalOrderExecutorService;
+      TypedProperties executorProperties = globalConfiguration.remoteCommandsExecutor().properties();
+      int lanes = executorProperties.getIntProperty(KEY_ORDERED_LANES, 0);
+      int laneCapacity = executorProperties.getIntProperty(KEY_ORDERED_LANE_CAPACITY, 1024);
+      this.keyOrderedExecutor = lanes > 0 ? new KeyOrderedExecutor(remoteCommandsExecutor, timeService, lanes, laneCapacity) : null;
+   }
+
+   /**
+    * Returns the executor performing the commands whose order must be preserved, or null if they are performed by
+    * the JGroups threads.
+    */
+   public KeyOrderedExecutor getKeyOrderedExecutor() {
+      return keyOrderedExecutor;
    }
 
    @Override
@@ -201,6 +235,28 @@ public void run() {
             }
          });
          return;
+      } else if (preserveOrder && keyOrderedExecutor != null) {
+         Configuration configuration = cr.getComponent(Configuration.class);
+         keyOrderedExecutor.execute(affectedKeys(cmd), configuration.dataContainer().keyEquivalence(), new Runnable() {
+            @Override
+            public void run() {
+               Response resp;
+               try {
+                  resp = handleInternal(cmd, cr);
+               } catch (Throwable throwable) {
+                  log.exceptionHandlingCommand(cmd, throwable);
+                  resp = new ExceptionResponse(new CacheException("Problems invoking command.", throwable));
+               }
+               reply(response, resp);
+               afterResponseSent(cmd, resp);
+            }
+
+            @Override
+            public String toString() {
+               return cmd.toString();
+            }
+         });
+         return;
       }
       Response resp = handleInternal(cmd, cr);
 
@@ -213,6 +269,27 @@ public void run() {
       afterResponseSent(cmd, resp);
    }
    
+   /**
+    * Returns the keys affected by the command, or null if they are unknown, in which case the command is ordered
+    * with respect to all the other commands.
+    */
+   private static Collection<?> affectedKeys(CacheRpcCommand cmd) {
+      if (cmd instanceof PrepareCommand)
+         return ((PrepareCommand) cmd).getAffectedKeys();
+      if (cmd instanceof ClusteredGetCommand)
+         return Collections.singleton(((ClusteredGetCommand) cmd).getKey());
+      if (cmd instanceof SingleRpcCommand) {
+         ReplicableCommand command = ((SingleRpcCommand) cmd).getCommand();
+         // write commands first, as invalidations are data commands without a single key
+         if (command instanceof WriteCommand)
+            // empty for clear commands, which affect every key
+            return ((WriteCommand) command).getAffectedKeys();
+         if (command instanceof DataCommand)
+            return Collections.singleton(((DataCommand) command).getKey());
+      }
+      return null;
+   }
+
    private void reply(org.jgroups.blocks.Response response, Object retVal) {
       if (response != null) {
          response.send(retVal, false);
@@ -27,6 +27,7 @@
 import org.infinispan.remoting.responses.Response;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.remoting.transport.Transport;
+import org.infinispan.util.concurrent.NotifyingFuture;
 import org.infinispan.util.concurrent.NotifyingNotifiableFuture;
 
 import java.util.Collection;
@@ -252,6 +253,22 @@ void invokeRemotelyInFuture(Collection<Address> recipients, ReplicableCommand rp
    void invokeRemotelyInFuture(Collection<Address> recipients, ReplicableCommand rpc, RpcOptions options,
                                NotifyingNotifiableFuture<Object> future);
 
+   /**
+    * The same as {@link #invokeRemotely(java.util.Collection, org.infinispan.commands.ReplicableCommand, RpcOptions)}
+    * except that no thread waits for the responses. The returned future is completed with them, or with the failure of
+    * the invocation, by a thread of the async transport executor, so listeners attached to it never run on the thread
+    * receiving the responses.
+    *
+    * @param recipients recipients to invoke remote call on. If this is {@code null}, the call is broadcast to the
+    *                   entire cluster.
+    * @param rpc        command to execute remotely.
+    * @param options    it configures the invocation. The same instance can be re-used since {@link RpcManager} does
+    *                   not change it.
+    * @return a future completed with the map of responses from each member contacted.
+    */
+   NotifyingFuture<Map<Address, Response>> invokeRemotelyInFuture(Collection<Address> recipients, ReplicableCommand rpc,
+                                                                  RpcOptions options);
+
    /**
     * @return a reference to the underlying transport.
     */
@@ -49,6 +49,9 @@
 import org.infinispan.topology.CacheTopology;
 import org.infinispan.topology.LocalTopologyManager;
 import org.infinispan.util.TimeService;
+import org.infinispan.util.concurrent.CompletableNotifyingFuture;
+import org.infinispan.util.concurrent.FutureListener;
+import org.infinispan.util.concurrent.NotifyingFuture;
 import org.infinispan.util.concurrent.NotifyingNotifiableFuture;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
@@ -59,7 +62,10 @@
 import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -294,12 +300,7 @@ public Map<Address, Response> invokeRemotely(Collection<Address> recipients, Rep
 //                  responseFilter = new IgnoreExtraResponsesValidityFilter(cacheMembers, getAddress());
 //               }
 //            }
-         if (rpc instanceof TopologyAffectedCommand) {
-            TopologyAffectedCommand topologyAffectedCommand = (TopologyAffectedCommand) rpc;
-            if (topologyAffectedCommand.getTopologyId() == -1) {
-               topologyAffectedCommand.setTopologyId(stateTransferManager.getCacheTopology().getTopologyId());
-            }
-         }
+         setTopologyId(rpc);
          Map<Address, Response> result = t.invokeRemotely(recipients, rpc, options.responseMode(), options.timeUnit().toMillis(options.timeout()),
                                                           !options.fifoOrder(), options.responseFilter(), options.totalOrder(),
                                                           configuration.clustering().cacheMode().isDistributed());
@@ -325,6 +326,87 @@ public Map<Address, Response> invokeRemotely(Collection<Address> recipients, Rep
       }
    }
 
+   private void setTopologyId(ReplicableCommand rpc) {
+      if (rpc instanceof TopologyAffectedCommand) {
+         TopologyAffectedCommand topologyAffectedCommand = (TopologyAffectedCommand) rpc;
+         if (topologyAffectedCommand.getTopologyId() == -1) {
+            topologyAffectedCommand.setTopologyId(stateTransferManager.getCacheTopology().getTopologyId());
+         }
+      }
+   }
+
+   @Override
+   public NotifyingFuture<Map<Address, Response>> invokeRemotelyInFuture(Collection<Address> recipients, ReplicableCommand rpc,
+                                                                         RpcOptions options) {
+      if (!options.responseMode().isSynchronous() || options.totalOrder()) {
+         // nothing to wait for, or ordering only supported by the blocking invocation
+         CompletableNotifyingFuture<Map<Address, Response>> future = new CompletableNotifyingFuture<Map<Address, Response>>();
+         try {
+            future.complete(invokeRemotely(recipients, rpc, options));
+         } catch (Throwable t) {
+            future.completeExceptionally(t);
+         }
+         return future;
+      }
+      if (trace) log.tracef("%s invoking %s to recipient list %s with options %s, without waiting", t.getAddress(), rpc,
+                            recipients, options);
+      if (!configuration.clustering().cacheMode().isClustered())
+         throw new IllegalStateException("Trying to invoke a remote command but the cache is not clustered");
+      if (!(rpc instanceof CacheRpcCommand)) {
+         rpc = cf.buildSingleRpcCommand(rpc);
+      }
+      setTopologyId(rpc);
+      final ReplicableCommand command = rpc;
+      final long startTimeNanos = statisticsEnabled ? timeService.time() : 0;
+      final CompletableNotifyingFuture<Map<Address, Response>> future = new CompletableNotifyingFuture<Map<Address, Response>>();
+      t.invokeRemotelyInFuture(recipients, command, options.responseMode(), options.timeUnit().toMillis(options.timeout()),
+                               !options.fifoOrder(), options.responseFilter())
+            .attachListener(new FutureListener<Map<Address, Response>>() {
+               @Override
+               public void futureDone(final Future<Map<Address, Response>> responses) {
+                  // Called by the thread receiving the responses: complete the future, and so run the listeners
+                  // attached to it, on the async executor instead
+                  Runnable completion = new Runnable() {
+                     @Override
+                     public void run() {
+                        completeInFuture(responses, command, startTimeNanos, future);
+                     }
+                  };
+                  try {
+                     asyncExecutor.execute(completion);
+                  } catch (RejectedExecutionException e) {
+                     log.tracef("Async executor saturated, completing the invocation of %s in the receiving thread", command);
+                     completion.run();
+                  }
+               }
+            });
+      return future;
+   }
+
+   private void completeInFuture(Future<Map<Address, Response>> responses, ReplicableCommand command,
+                                 long startTimeNanos, CompletableNotifyingFuture<Map<Address, Response>> future) {
+      if (statisticsEnabled) {
+         totalReplicationTime.getAndAdd(timeService.timeDuration(startTimeNanos, TimeUnit.MILLISECONDS));
+      }
+      try {
+         Map<Address, Response> result = responses.get();
+         if (statisticsEnabled) replicationCount.incrementAndGet();
+         if (trace) log.tracef("Response(s) to %s is %s", command, result);
+         checkResponses(result);
+         future.complete(result);
+      } catch (Throwable th) {
+         if (statisticsEnabled) replicationFailures.incrementAndGet();
+         Throwable cause = th instanceof ExecutionException ? th.getCause() : th;
+         if (cause instanceof CacheException) {
+            log.trace("replication exception: ", cause);
+            future.completeExceptionally(cause);
+         } else {
+            log.unexpectedErrorReplicating(cause);
+            future.completeExceptionally(new CacheException(cause));
+         }
+      }
+   }
+
    @Override
    public void invokeRemotelyInFuture(final Collection<Address> recipients, final ReplicableCommand rpc,
                                       final RpcOptions options, final NotifyingNotifiableFuture<Object> future) {
@@ -23,15 +23,21 @@
 package org.infinispan.remoting.transport;
 
 import org.infinispan.CacheException;
+import org.infinispan.commands.ReplicableCommand;
 import org.infinispan.configuration.global.GlobalConfiguration;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.manager.NamedCacheNotFoundException;
 import org.infinispan.remoting.responses.ExceptionResponse;
 import org.infinispan.remoting.responses.Response;
+import org.infinispan.remoting.rpc.ResponseFilter;
+import org.infinispan.remoting.rpc.ResponseMode;
 import org.infinispan.remoting.transport.jgroups.SuspectException;
+import org.infinispan.util.concurrent.CompletableNotifyingFuture;
+import org.infinispan.util.concurrent.NotifyingFuture;
 import org.infinispan.util.concurrent.TimeoutException;
 import org.infinispan.util.logging.Log;
 
+import java.util.Collection;
 import java.util.Map;
 
 /**
@@ -58,6 +64,22 @@ private boolean shouldThrowException(Exception ce) {
       return true;
    }
 
+   /**
+    * Invokes the command synchronously, and returns an already completed future.
+    */
+   @Override
+   public NotifyingFuture<Map<Address, Response>> invokeRemotelyInFuture(Collection<Address> recipients, ReplicableCommand rpcCommand,
+                                                                         ResponseMode mode, long timeout, boolean usePriorityQueue,
+                                                                         ResponseFilter responseFilter) {
+      CompletableNotifyingFuture<Map<Address, Response>> future = new CompletableNotifyingFuture<Map<Address, Response>>();
+      try {
+         future.complete(invokeRemotely(recipients, rpcCommand, mode, timeout, usePriorityQueue, responseFilter, false, false));
+      } catch (Throwable t) {
+         future.completeExceptionally(t);
+      }
+      return future;
+   }
+
    public final boolean checkResponse(Object responseObject, Address sender) throws Exception {
       Log log = getLog();
       if (responseObject instanceof Response) {
@@ -31,6 +31,7 @@
 import org.infinispan.remoting.responses.Response;
 import org.infinispan.remoting.rpc.ResponseFilter;
 import org.infinispan.remoting.rpc.ResponseMode;
+import org.infinispan.util.concurrent.NotifyingFuture;
 import org.infinispan.util.logging.Log;
 import org.infinispan.xsite.XSiteBackup;
 
@@ -71,6 +72,21 @@ Map<Address, Response> invokeRemotely(Collection<Address> recipients, Replicable
                                  boolean usePriorityQueue, ResponseFilter responseFilter, boolean totalOrder,
                                  boolean anycast) throws Exception;
 
+   /**
+    * Same as {@link #invokeRemotely(java.util.Collection, org.infinispan.commands.ReplicableCommand, ResponseMode,
+    * long, boolean, ResponseFilter, boolean, boolean)}, except that the caller does not wait for the responses: the
+    * returned future is completed with them, or with the failure of the call, once they are received.
+    * <p/>
+    * Implementations that cannot wait for responses without blocking a thread may complete the call before returning.
+    * Listeners attached to the future may be invoked by the thread receiving the responses, so they should only hand
+    * the result over to another thread, as {@link org.infinispan.remoting.rpc.RpcManager} does.
+    *
+    * @return a future completed with a map of responses from each member contacted.
+    */
+   NotifyingFuture<Map<Address, Response>> invokeRemotelyInFuture(Collection<Address> recipients, ReplicableCommand rpcCommand,
+                                                                  ResponseMode mode, long timeout, boolean usePriorityQueue,
+                                                                  ResponseFilter responseFilter);
+
 
    BackupResponse backupRemotely(Collection<XSiteBackup> backups, ReplicableCommand rpcCommand) throws Exception;
 
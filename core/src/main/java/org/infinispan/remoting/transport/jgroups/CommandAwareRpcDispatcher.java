@@ -202,6 +202,40 @@ public Response call() throws Exception {
       }
    }
 
+   /**
+    * Sends the command to each recipient, without waiting for the responses.
+    * <p/>
+    * The returned future is completed by the thread receiving the last expected response, or the first valid one when
+    * a filter is used, and fails if a recipient fails, times out, or is suspected and leavers are not ignored.
+    *
+    * @param recipients Guaranteed not to be null.  Must <b>not</b> contain self.
+    * @param mode either {@link ResponseMode#GET_ALL} or {@link ResponseMode#GET_FIRST}
+    */
+   public org.infinispan.util.concurrent.NotifyingFuture<RspList<Object>> invokeRemoteCommandsInFuture(
+         List<Address> recipients, ReplicableCommand command, ResponseMode mode, long timeout, boolean oob,
+         RspFilter filter, boolean ignoreLeavers) {
+      if (trace) log.tracef("Replication task sending %s to addresses %s with response mode %s, without waiting", command, recipients, mode);
+      ResponseCollector collector = new ResponseCollector(recipients.size(), filter, ignoreLeavers);
+      if (recipients.isEmpty()) {
+         collector.result.complete(new RspList<Object>());
+         return collector.result;
+      }
+      boolean rsvp = command instanceof CacheTopologyControlCommand || isRsvpCommand(command);
+      Buffer buf = marshallCall(req_marshaller, command);
+      RequestOptions opts = new RequestOptions(mode, timeout);
+      for (Address a : recipients) {
+         NotifyingFuture<Object> f;
+         try {
+            f = sendMessageWithFuture(constructMessage(buf, a, oob, rsvp, false), opts);
+         } catch (Exception e) {
+            collector.result.completeExceptionally(rewrapAsCacheException(e));
+            break;
+         }
+         collector.watchFuture(f, a);
+      }
+      return collector.result;
+   }
+
    public RspList<Object> broadcastRemoteCommands(ReplicableCommand command, ResponseMode mode, long timeout,
                                                   boolean oob, RspFilter filter,
                                                   boolean asyncMarshalling, boolean ignoreLeavers, boolean totalOrder, boolean distribution)
@@ -227,7 +261,9 @@ public void handle(Message req, org.jgroups.blocks.Response response) throws Exc
          try {
             cmd = (ReplicableCommand) req_marshaller.objectFromBuffer(req.getRawBuffer(), req.getOffset(), req.getLength());
             if (cmd == null) throw new NullPointerException("Unable to execute a null command!  Message was " + req);
-            if (req.getSrc() instanceof SiteAddress) {
+            if (cmd instanceof CommandBundle) {
+               handleBundle((CommandBundle) cmd, req, preserveOrder);
+            } else if (req.getSrc() instanceof SiteAddress) {
                executeCommandFromRemoteSite(cmd, (SiteAddress) req.getSrc(), response, preserveOrder);
             } else {
                executeCommandFromLocalCluster(cmd, req, response, preserveOrder);
@@ -247,6 +283,31 @@ public void handle(Message req, org.jgroups.blocks.Response response) throws Exc
       }
    }
 
+   /**
+    * Handles the commands of a bundle in order, as if each of them had been received in its own message. Bundled
+    * commands are asynchronous, so they are not replied to.
+    */
+   private void handleBundle(CommandBundle bundle, Message req, boolean preserveOrder) throws InterruptedException {
+      if (trace) log.tracef("Unpacking a bundle of %d commands [sender=%s]", bundle.size(), req.getSrc());
+      for (int i = 0; i < bundle.size(); i++) {
+         byte[] buf = bundle.getCommand(i);
+         ReplicableCommand cmd = null;
+         try {
+            cmd = (ReplicableCommand) req_marshaller.objectFromBuffer(buf, 0, buf.length);
+            if (cmd == null) throw new NullPointerException("Unable to execute a null command!  Message was " + req);
+            executeCommandFromLocalCluster(cmd, req, null, preserveOrder);
+         } catch (InterruptedException e) {
+            throw e;
+         } catch (Throwable x) {
+            // a command failing must not prevent the next ones from being handled
+            if (cmd == null)
+               log.errorUnMarshallingCommand(x);
+            else
+               log.exceptionHandlingCommand(cmd, x);
+         }
+      }
+   }
+
    private void executeCommandFromRemoteSite(final ReplicableCommand cmd, final SiteAddress src, final org.jgroups.blocks.Response response, boolean preserveOrder) throws Throwable {
       if (! (cmd instanceof SingleRpcCommand)) {
          throw new IllegalStateException("Only CacheRpcCommand commands expected as a result of xsite calls but got " + cmd.getClass().getName());
@@ -486,7 +547,7 @@ private static RspList<Object> processCalls(ReplicableCommand command, boolean b
       return retval;
    }
 
-   private static boolean isRsvpCommand(ReplicableCommand command) {
+   static boolean isRsvpCommand(ReplicableCommand command) {
       return command instanceof FlagAffectedCommand
             && ((FlagAffectedCommand) command).hasFlag(Flag.GUARANTEED_DELIVERY);
    }
@@ -508,6 +569,100 @@ public String toString() {
       }
    }
 
+   /**
+    * Collects the responses of the recipients of {@link #invokeRemoteCommandsInFuture}, as they are received.
+    */
+   final static class ResponseCollector implements FutureListener<Object> {
+      final org.infinispan.util.concurrent.CompletableNotifyingFuture<RspList<Object>> result =
+            new org.infinispan.util.concurrent.CompletableNotifyingFuture<RspList<Object>>();
+      final RspFilter filter;
+      final boolean ignoreLeavers;
+      final Map<Future<Object>, SenderContainer> futures = new HashMap<Future<Object>, SenderContainer>(4);
+      @GuardedBy("this")
+      private final RspList<Object> responses = new RspList<Object>();
+      @GuardedBy("this")
+      private Exception exception;
+      @GuardedBy("this")
+      private int expectedResponses;
+      @GuardedBy("this")
+      private boolean leavers;
+
+      ResponseCollector(int expectedResponses, RspFilter filter, boolean ignoreLeavers) {
+         this.expectedResponses = expectedResponses;
+         this.filter = filter;
+         this.ignoreLeavers = ignoreLeavers;
+      }
+
+      synchronized void watchFuture(NotifyingFuture<Object> f, Address address) {
+         futures.put(f, new SenderContainer(address));
+         f.setListener(this);
+      }
+
+      @Override
+      public void futureDone(Future<Object> objectFuture) {
+         RspList<Object> completed = null;
+         Exception failed = null;
+         synchronized (this) {
+            SenderContainer sc = futures.get(objectFuture);
+            // JGroups may notify a listener twice, see FutureCollator
+            if (sc.processed || result.isDone())
+               return;
+            sc.processed = true;
+            expectedResponses--;
+            Address sender = sc.address;
+            try {
+               Object response = objectFuture.get();
+               if (trace) log.tracef("Received response: %s from %s", response, sender);
+               if (filter == null) {
+                  responses.addRsp(sender, response);
+               } else if (filter.isAcceptable(response, sender) && !filter.needMoreResponses()) {
+                  completed = new RspList(Collections.singleton(new Rsp(sender, response)));
+               }
+            } catch (InterruptedException e) {
+               // cannot happen, the future is done
+               Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+               Exception cause;
+               if (e.getCause() instanceof org.jgroups.TimeoutException)
+                  cause = new TimeoutException("Node " + sender + " timed out", e);
+               else if (e.getCause() instanceof SuspectedException)
+                  cause = ignoreLeavers ? null : new SuspectException("Node " + sender + " was suspected", e);
+               else if (e.getCause() instanceof Exception)
+                  cause = rewrapAsCacheException(e.getCause());
+               else
+                  cause = new CacheException("Caught a throwable", e.getCause());
+               if (cause != null) {
+                  if (trace) log.tracef(cause, "Caught exception from sender %s", sender);
+                  if (filter == null)
+                     failed = cause;
+                  else
+                     // another recipient may still send a valid response
+                     exception = cause;
+               } else {
+                  log.tracef("Ignoring node %s that left during the remote call", sender);
+                  leavers = true;
+               }
+            }
+            if (completed == null && failed == null && expectedResponses == 0) {
+               if (filter == null)
+                  completed = responses;
+               else if (exception != null)
+                  failed = exception;
+               else if (leavers)
+                  // like blocking invocations, which fail when the valid responses could only come from leavers
+                  failed = new SuspectException(format("All of %s left during the remote call", futures.values()));
+               else
+                  failed = new RpcException(format("No more valid responses.  Received invalid responses from all of %s", futures.values()));
+            }
+         }
+         // complete outside of the lock, as it runs the listeners of the future
+         if (failed != null)
+            result.completeExceptionally(failed);
+         else if (completed != null)
+            result.complete(completed);
+      }
+   }
+
    final static class FutureCollator implements FutureListener<Object> {
       final RspFilter filter;
       final Map<Future<Object>, SenderContainer> futures = new HashMap<Future<Object>, SenderContainer>(4);
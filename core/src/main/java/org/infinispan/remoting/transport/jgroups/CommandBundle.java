@@ -0,0 +1,95 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.remoting.transport.jgroups;
+
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.context.InvocationContext;
+
+/**
+ * Message carrying several asynchronous commands sent by a {@link CommandBundler} to the same destination.
+ * <p/>
+ * The commands are marshalled individually, so a command that cannot be unmarshalled, e.g. because its cache is not
+ * running on the destination, does not prevent the others from being handled. Bundles are never performed, the
+ * {@link CommandAwareRpcDispatcher} of the destination unpacks them and handles each command in order.
+ *
+ * @since 5.3
+ */
+public class CommandBundle implements ReplicableCommand {
+
+   public static final byte COMMAND_ID = 40;
+
+   private Object[] commands;
+
+   public CommandBundle() {
+   }
+
+   /**
+    * @param commands the marshalled commands, each one a <tt>byte[]</tt>
+    */
+   public CommandBundle(Object[] commands) {
+      this.commands = commands;
+   }
+
+   public int size() {
+      return commands == null ? 0 : commands.length;
+   }
+
+   public byte[] getCommand(int index) {
+      return (byte[]) commands[index];
+   }
+
+   @Override
+   public Object perform(InvocationContext ctx) throws Throwable {
+      throw new UnsupportedOperationException("Command bundles are unpacked by the RPC dispatcher");
+   }
+
+   @Override
+   public byte getCommandId() {
+      return COMMAND_ID;
+   }
+
+   @Override
+   public Object[] getParameters() {
+      return commands;
+   }
+
+   @Override
+   public void setParameters(int commandId, Object[] parameters) {
+      this.commands = parameters;
+   }
+
+   @Override
+   public boolean isReturnValueExpected() {
+      return false;
+   }
+
+   @Override
+   public boolean canBlock() {
+      return false;
+   }
+
+   @Override
+   public String toString() {
+      return "CommandBundle{commands=" + size() + '}';
+   }
+}
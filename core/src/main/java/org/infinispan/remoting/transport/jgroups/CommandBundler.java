@@ -0,0 +1,468 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.remoting.transport.jgroups;
+
+import net.jcip.annotations.ThreadSafe;
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.marshall.StreamingMarshaller;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.topology.CacheTopologyControlCommand;
+import org.infinispan.util.TimeService;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+import org.jgroups.blocks.RequestOptions;
+import org.jgroups.blocks.ResponseMode;
+import org.jgroups.util.Buffer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Coalesces the asynchronous commands sent by concurrent threads, so that each destination receives a single message
+ * carrying all the commands sent to it within a latency window, instead of one message per command.
+ * <p/>
+ * A single thread collects the submitted commands, waiting at most the configured delay after the first one, and
+ * sends one {@link CommandBundle} per destination. Commands are sent in the order they were submitted and JGroups
+ * delivers the messages of a sender in order, so each destination handles the commands in the order they were sent
+ * to it. Each command is marshalled once, whatever the number of its destinations, and a destination receiving a
+ * single command gets it in a plain message. Without any delay, commands are only bundled while the thread is busy
+ * sending the previous bundles, i.e. under load.
+ * <p/>
+ * Commands that must not be bundled, because JGroups has to guarantee their delivery, still go through the queue
+ * but are sent on their own, after the bundles of the commands queued before them. Other regular messages sent
+ * directly by the transport call {@link #flush(Collection)} first, which only waits if some of their destinations
+ * have commands queued. Both keep the order of the messages sent to each member.
+ * Commands sent to all the members are sent to each of them separately rather than multicast, because JGroups does
+ * not order unicast messages against multicast ones.
+ * <p/>
+ * The queue is bounded, and the submitting threads block while it is full, until the sending thread catches up.
+ *
+ * @since 5.3
+ */
+@ThreadSafe
+public class CommandBundler {
+
+   private static final Log log = LogFactory.getLog(CommandBundler.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   /**
+    * Bucket <tt>i</tt> of the histogram counts the bundles of <tt>2^i</tt> to <tt>2^(i+1) - 1</tt> commands.
+    */
+   private static final int HISTOGRAM_BUCKETS = 16;
+
+   private static final Entry STOP = new Entry(null, null, null, true, null);
+
+   /**
+    * How often a thread waiting for the queue or for a flush checks whether the bundler has been stopped.
+    */
+   private static final long STOP_CHECK_MILLIS = 100;
+
+   private final JGroupsTransport transport;
+   private final CommandAwareRpcDispatcher dispatcher;
+   private final StreamingMarshaller marshaller;
+   private final TimeService timeService;
+   private final long maxDelayMicros;
+   private final int maxCommands;
+   private final BlockingQueue<Entry> queue;
+   /**
+    * The number of commands queued and not sent yet, for each destination. Destinations without any are removed.
+    */
+   private final ConcurrentMap<Address, Integer> pendingByDestination = new ConcurrentHashMap<Address, Integer>();
+   /**
+    * The number of commands queued and not sent yet that are sent to all the members.
+    */
+   private final AtomicInteger pendingToAll = new AtomicInteger();
+   private final AtomicLongArray bundleSizes = new AtomicLongArray(HISTOGRAM_BUCKETS);
+   private volatile long bundles;
+   private volatile long bundledCommands;
+   private Thread sender;
+   private volatile boolean stopped;
+
+   public CommandBundler(JGroupsTransport transport, CommandAwareRpcDispatcher dispatcher,
+                         StreamingMarshaller marshaller, TimeService timeService, long maxDelayMicros,
+                         int maxCommands, int maxQueuedCommands) {
+      this.transport = transport;
+      this.dispatcher = dispatcher;
+      this.marshaller = marshaller;
+      this.timeService = timeService;
+      this.maxDelayMicros = maxDelayMicros;
+      this.maxCommands = maxCommands;
+      this.queue = new LinkedBlockingQueue<Entry>(maxQueuedCommands);
+   }
+
+   public synchronized void start() {
+      sender = new Thread(new Runnable() {
+         @Override
+         public void run() {
+            sendBundles();
+         }
+      }, "CommandBundler," + transport.getAddress());
+      sender.setDaemon(true);
+      sender.start();
+   }
+
+   /**
+    * Sends the commands submitted so far and stops the sending thread.
+    */
+   public synchronized void stop() {
+      if (sender == null)
+         return;
+      try {
+         long timeoutMillis = TimeUnit.SECONDS.toMillis(10);
+         if (queue.offer(STOP, timeoutMillis, TimeUnit.MILLISECONDS))
+            sender.join(timeoutMillis);
+         else
+            sender.interrupt();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      } finally {
+         // release the threads waiting for the queue or for a flush
+         stopped = true;
+         sender = null;
+      }
+   }
+
+   /**
+    * Whether the command can be bundled, i.e. it does not require JGroups to guarantee its delivery.
+    */
+   private boolean canBundle(ReplicableCommand command) {
+      return !(command instanceof CacheTopologyControlCommand) && !CommandAwareRpcDispatcher.isRsvpCommand(command);
+   }
+
+   /**
+    * Queues the command to be sent with the next bundle, or on its own after the commands queued before it if it
+    * cannot be bundled. Blocks while the queue is full.
+    *
+    * @param recipients the destinations of the command, or null to send it to all the members
+    * @param syncMarshalling whether the command is marshalled by the calling thread, so that marshalling errors are
+    *                        reported to the caller, or by the sending thread
+    * @return false if the bundler was stopped, in which case the caller must send the command itself
+    */
+   public boolean bundle(Collection<Address> recipients, ReplicableCommand command, boolean syncMarshalling)
+         throws InterruptedException {
+      byte[] marshalled = syncMarshalling ? marshall(command) : null;
+      Entry entry = new Entry(recipients == null ? null : new ArrayList<Address>(recipients), command, marshalled,
+                              canBundle(command), null);
+      addPending(entry, 1);
+      boolean queued = false;
+      try {
+         queued = enqueue(entry);
+      } finally {
+         if (!queued)
+            addPending(entry, -1);
+      }
+      return queued;
+   }
+
+   /**
+    * Waits until the commands queued so far have been sent, if some of them are sent to one of the given
+    * destinations, so that a message sent directly to them afterwards does not overtake them.
+    *
+    * @param recipients the destinations of the message, or null if it is sent to all the members
+    */
+   public void flush(Collection<Address> recipients) throws InterruptedException {
+      if (!hasPending(recipients))
+         return;
+      CountDownLatch sent = new CountDownLatch(1);
+      if (!enqueue(new Entry(null, null, null, false, sent)))
+         return;
+      while (!sent.await(STOP_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+         if (stopped)
+            return;
+      }
+   }
+
+   private boolean hasPending(Collection<Address> recipients) {
+      if (pendingToAll.get() > 0)
+         return true;
+      if (recipients == null)
+         return !pendingByDestination.isEmpty();
+      for (Address recipient : recipients) {
+         if (pendingByDestination.containsKey(recipient))
+            return true;
+      }
+      return false;
+   }
+
+   private void addPending(Entry entry, int delta) {
+      if (entry.recipients == null) {
+         pendingToAll.addAndGet(delta);
+         return;
+      }
+      for (Address recipient : entry.recipients) {
+         for (;;) {
+            Integer count = pendingByDestination.get(recipient);
+            if (count == null) {
+               if (pendingByDestination.putIfAbsent(recipient, delta) == null)
+                  break;
+            } else if (count + delta == 0) {
+               if (pendingByDestination.remove(recipient, count))
+                  break;
+            } else if (pendingByDestination.replace(recipient, count, count + delta)) {
+               break;
+            }
+         }
+      }
+   }
+
+   private boolean enqueue(Entry entry) throws InterruptedException {
+      while (!queue.offer(entry, STOP_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+         if (stopped)
+            return false;
+      }
+      return true;
+   }
+
+   private byte[] marshall(ReplicableCommand command) {
+      try {
+         return marshaller.objectToByteBuffer(command);
+      } catch (Exception e) {
+         throw new RuntimeException("Failure to marshal argument(s)", e);
+      }
+   }
+
+   private void sendBundles() {
+      List<Entry> entries = new ArrayList<Entry>();
+      boolean done = false;
+      while (!done) {
+         try {
+            entries.add(queue.take());
+            if (maxDelayMicros > 0) {
+               long endTime = timeService.expectedEndTime(maxDelayMicros, TimeUnit.MICROSECONDS);
+               long remaining;
+               while (entries.size() < maxCommands
+                     && (remaining = timeService.remainingTime(endTime, TimeUnit.NANOSECONDS)) > 0) {
+                  Entry entry = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                  if (entry == null)
+                     break;
+                  entries.add(entry);
+               }
+            }
+            queue.drainTo(entries, maxCommands - entries.size());
+            int stop = entries.indexOf(STOP);
+            if (stop >= 0) {
+               done = true;
+               List<Entry> dropped = entries.subList(stop, entries.size());
+               release(dropped);
+               dropped.clear();
+            }
+            send(entries);
+         } catch (InterruptedException e) {
+            done = true;
+         } catch (Throwable t) {
+            log.errorf(t, "Unexpected error while sending command bundles");
+         } finally {
+            release(entries);
+            entries.clear();
+         }
+      }
+      stopped = true;
+   }
+
+   /**
+    * Sends the bundleable commands between two commands that cannot be bundled or flushes, then the latter, so that
+    * every destination receives its messages in the order the commands were queued.
+    */
+   private void send(List<Entry> entries) {
+      int start = 0;
+      for (int i = 0; i < entries.size(); i++) {
+         Entry entry = entries.get(i);
+         if (entry.bundleable)
+            continue;
+         sendBundles(entries.subList(start, i));
+         if (entry.flushed == null)
+            sendAlone(entry);
+         else
+            entry.flushed.countDown();
+         start = i + 1;
+      }
+      sendBundles(entries.subList(start, entries.size()));
+   }
+
+   private void release(List<Entry> entries) {
+      for (Entry entry : entries) {
+         if (entry == STOP)
+            continue;
+         if (entry.flushed == null)
+            addPending(entry, -1);
+         else
+            entry.flushed.countDown();
+      }
+   }
+
+   private void sendAlone(Entry entry) {
+      byte[] marshalled;
+      try {
+         marshalled = entry.marshalled != null ? entry.marshalled : marshall(entry.command);
+      } catch (RuntimeException e) {
+         log.errorf(e, "Failed to marshall command %s, it will not be sent", entry.command);
+         return;
+      }
+      Buffer buf = new Buffer(marshalled, 0, marshalled.length);
+      RequestOptions opts = new RequestOptions(ResponseMode.GET_NONE, 0);
+      Address self = transport.getAddress();
+      for (Address destination : entry.recipients == null ? transport.getMembers() : entry.recipients) {
+         if (destination.equals(self))
+            continue;
+         org.jgroups.Address jgroupsDestination = JGroupsTransport.toJGroupsAddress(destination);
+         try {
+            if (trace) log.tracef("Sending command %s to %s", entry.command, jgroupsDestination);
+            dispatcher.sendMessage(CommandAwareRpcDispatcher.constructMessage(buf, jgroupsDestination, false, true, false), opts);
+         } catch (Exception ex) {
+            log.failedToSendCommandBundle(1, jgroupsDestination, ex);
+         }
+      }
+   }
+
+   private void sendBundles(List<Entry> entries) {
+      if (entries.isEmpty())
+         return;
+      Address self = transport.getAddress();
+      List<Address> members = transport.getMembers();
+      Map<Address, List<Object>> bundlesByDestination = new LinkedHashMap<Address, List<Object>>();
+      for (Entry entry : entries) {
+         byte[] marshalled;
+         try {
+            marshalled = entry.marshalled != null ? entry.marshalled : marshall(entry.command);
+         } catch (RuntimeException e) {
+            log.errorf(e, "Failed to marshall command %s, it will not be sent", entry.command);
+            continue;
+         }
+         for (Address destination : entry.recipients == null ? members : entry.recipients) {
+            if (destination.equals(self))
+               continue;
+            List<Object> bundle = bundlesByDestination.get(destination);
+            if (bundle == null) {
+               bundle = new ArrayList<Object>();
+               bundlesByDestination.put(destination, bundle);
+            }
+            bundle.add(marshalled);
+         }
+      }
+
+      RequestOptions opts = new RequestOptions(ResponseMode.GET_NONE, 0);
+      for (Map.Entry<Address, List<Object>> e : bundlesByDestination.entrySet()) {
+         List<Object> commands = e.getValue();
+         org.jgroups.Address destination = JGroupsTransport.toJGroupsAddress(e.getKey());
+         try {
+            Buffer buf;
+            if (commands.size() == 1) {
+               byte[] marshalled = (byte[]) commands.get(0);
+               buf = new Buffer(marshalled, 0, marshalled.length);
+            } else {
+               buf = CommandAwareRpcDispatcher.marshallCall(dispatcher.getMarshaller(),
+                                                            new CommandBundle(commands.toArray()));
+            }
+            if (trace) log.tracef("Sending a bundle of %d commands to %s", commands.size(), destination);
+            dispatcher.sendMessage(CommandAwareRpcDispatcher.constructMessage(buf, destination, false, false, false), opts);
+            recordBundle(commands.size());
+         } catch (Exception ex) {
+            log.failedToSendCommandBundle(commands.size(), destination, ex);
+         }
+      }
+   }
+
+   private void recordBundle(int size) {
+      // only updated by the sending thread
+      bundles++;
+      bundledCommands += size;
+      bundleSizes.incrementAndGet(Math.min(31 - Integer.numberOfLeadingZeros(size), HISTOGRAM_BUCKETS - 1));
+   }
+
+   /**
+    * Returns the number of messages sent, each carrying one or more commands.
+    */
+   public long getBundles() {
+      return bundles;
+   }
+
+   /**
+    * Returns the average number of commands carried by each message.
+    */
+   public double getAverageBundleSize() {
+      long bundles = this.bundles;
+      return bundles == 0 ? 0 : (double) bundledCommands / bundles;
+   }
+
+   /**
+    * Returns the histogram of the number of commands per message, as the count of messages for each power of two
+    * range of sizes, e.g. <tt>{1=10, 2-3=4, 4-7=1}</tt>.
+    */
+   public String getBundleSizeHistogram() {
+      StringBuilder sb = new StringBuilder("{");
+      for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+         long count = bundleSizes.get(i);
+         if (count == 0)
+            continue;
+         if (sb.length() > 1)
+            sb.append(", ");
+         int low = 1 << i;
+         if (i == 0)
+            sb.append(1);
+         else if (i == HISTOGRAM_BUCKETS - 1)
+            sb.append(low).append('+');
+         else
+            sb.append(low).append('-').append((low << 1) - 1);
+         sb.append('=').append(count);
+      }
+      return sb.append('}').toString();
+   }
+
+   public void resetStatistics() {
+      bundles = 0;
+      bundledCommands = 0;
+      for (int i = 0; i < HISTOGRAM_BUCKETS; i++)
+         bundleSizes.set(i, 0);
+   }
+
+   private static final class Entry {
+      final Collection<Address> recipients;
+      final ReplicableCommand command;
+      final byte[] marshalled;
+      final boolean bundleable;
+      /**
+       * Not null if the entry only marks a flush, counted down once the entries queued before it have been sent.
+       */
+      final CountDownLatch flushed;
+
+      Entry(Collection<Address> recipients, ReplicableCommand command, byte[] marshalled, boolean bundleable,
+            CountDownLatch flushed) {
+         this.recipients = recipients;
+         this.command = command;
+         this.marshalled = marshalled;
+         this.bundleable = bundleable;
+         this.flushed = flushed;
+      }
+   }
+}
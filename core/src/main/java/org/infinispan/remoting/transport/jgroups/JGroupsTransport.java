@@ -47,6 +47,9 @@
 import org.infinispan.util.TimeService;
 import org.infinispan.util.TypedProperties;
 import org.infinispan.util.Util;
+import org.infinispan.util.concurrent.CompletableNotifyingFuture;
+import org.infinispan.util.concurrent.CompletingFutureListener;
+import org.infinispan.util.concurrent.NotifyingFuture;
 import org.infinispan.util.concurrent.TimeoutException;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
@@ -99,6 +102,16 @@
  * <li><tt>channelLookup</tt> - Fully qualified class name of a
  * {@link org.infinispan.remoting.transport.jgroups.JGroupsChannelLookup} instance</li>
  * </ul>
+ * Asynchronous commands can also be bundled into fewer messages by a {@link CommandBundler}, with the following
+ * properties:
+ * <ul>
+ * <li><tt>commandBundling</tt> - whether to bundle asynchronous commands, false by default</li>
+ * <li><tt>commandBundlingMaxDelay</tt> - how long, in microseconds, to wait for more commands after the first one of
+ * a bundle, 0 by default so that commands are only bundled while the previous bundles are being sent</li>
+ * <li><tt>commandBundlingMaxCommands</tt> - the maximum number of commands per bundle, 512 by default</li>
+ * <li><tt>commandBundlingMaxQueuedCommands</tt> - the maximum number of commands waiting to be sent, 8192 by
+ * default, beyond which the sending threads block</li>
+ * </ul>
  * These are normally passed in as Properties in
  * {@link org.infinispan.config.GlobalConfiguration#setTransportProperties(java.util.Properties)} or
  * in the Infinispan XML configuration file.
@@ -112,6 +125,10 @@ public class JGroupsTransport extends AbstractTransport implements MembershipLis
    public static final String CONFIGURATION_XML = "configurationXml";
    public static final String CONFIGURATION_FILE = "configurationFile";
    public static final String CHANNEL_LOOKUP = "channelLookup";
+   public static final String COMMAND_BUNDLING = "commandBundling";
+   public static final String COMMAND_BUNDLING_MAX_DELAY = "commandBundlingMaxDelay";
+   public static final String COMMAND_BUNDLING_MAX_COMMANDS = "commandBundlingMaxCommands";
+   public static final String COMMAND_BUNDLING_MAX_QUEUED_COMMANDS = "commandBundlingMaxQueuedCommands";
    protected static final String DEFAULT_JGROUPS_CONFIGURATION_FILE = "jgroups-udp.xml";
 
    static final Log log = LogFactory.getLog(JGroupsTransport.class);
@@ -119,6 +136,7 @@ public class JGroupsTransport extends AbstractTransport implements MembershipLis
 
    protected boolean startChannel = true, stopChannel = true;
    private CommandAwareRpcDispatcher dispatcher;
+   private volatile CommandBundler bundler;
    protected TypedProperties props;
    protected InboundInvocationHandler inboundInvocationHandler;
    protected StreamingMarshaller marshaller;
@@ -208,6 +226,23 @@ public void start() {
       startJGroupsChannelIfNeeded();
 
       waitForChannelToConnect();
+      startCommandBundlerIfNeeded();
+   }
+
+   private void startCommandBundlerIfNeeded() {
+      if (!props.getBooleanProperty(COMMAND_BUNDLING, false))
+         return;
+      long maxDelay = props.getLongProperty(COMMAND_BUNDLING_MAX_DELAY, 0);
+      int maxCommands = props.getIntProperty(COMMAND_BUNDLING_MAX_COMMANDS, 512);
+      int maxQueuedCommands = props.getIntProperty(COMMAND_BUNDLING_MAX_QUEUED_COMMANDS, 8192);
+      if (maxDelay < 0 || maxCommands < 1 || maxQueuedCommands < 1)
+         throw new CacheConfigurationException(String.format(
+               "Invalid command bundling settings, %s=%d, %s=%d and %s=%d", COMMAND_BUNDLING_MAX_DELAY, maxDelay,
+               COMMAND_BUNDLING_MAX_COMMANDS, maxCommands, COMMAND_BUNDLING_MAX_QUEUED_COMMANDS, maxQueuedCommands));
+      CommandBundler commandBundler = new CommandBundler(this, dispatcher, marshaller, timeService, maxDelay, maxCommands,
+                                                         maxQueuedCommands);
+      commandBundler.start();
+      bundler = commandBundler;
    }
 
    protected void startJGroupsChannelIfNeeded() {
@@ -255,6 +290,11 @@ public int getViewId() {
 
    @Override
    public void stop() {
+      CommandBundler commandBundler = bundler;
+      if (commandBundler != null) {
+         bundler = null;
+         commandBundler.stop();
+      }
       try {
          if (stopChannel && channel != null && channel.isOpen()) {
             log.disconnectAndCloseJGroups();
@@ -484,6 +524,11 @@ public Map<Address, Response> invokeRemotely(Collection<Address> recipients, Rep
 
       if (trace)
          log.tracef("dests=%s, command=%s, mode=%s, timeout=%s", recipients, rpcCommand, mode, timeout);
+      CommandBundler commandBundler = bundler;
+      if (commandBundler != null && mode.isAsynchronous() && !usePriorityQueue && !totalOrder
+            && commandBundler.bundle(recipients, rpcCommand, mode == ResponseMode.ASYNCHRONOUS_WITH_SYNC_MARSHALLING)) {
+         return InfinispanCollections.emptyMap();
+      }
       Address self = getAddress();
       boolean ignoreLeavers = mode == ResponseMode.SYNCHRONOUS_IGNORE_LEAVERS || mode == ResponseMode.WAIT_FOR_VALID_RESPONSE;
       if (mode.isSynchronous() && recipients != null && !getMembers().containsAll(recipients)) {
@@ -497,6 +542,9 @@ public Map<Address, Response> invokeRemotely(Collection<Address> recipients, Rep
       boolean asyncMarshalling = mode == ResponseMode.ASYNCHRONOUS;
       if (!usePriorityQueue && (ResponseMode.SYNCHRONOUS == mode || ResponseMode.SYNCHRONOUS_IGNORE_LEAVERS == mode))
          usePriorityQueue = true;
+      // regular messages must not overtake the bundled commands sent before them to the same members
+      if (commandBundler != null && !usePriorityQueue && !totalOrder)
+         commandBundler.flush(recipients);
 
       List<org.jgroups.Address> jgAddressList = toJGroupsAddressListExcludingSelf(recipients, totalOrder);
       int membersSize = members.size();
@@ -550,19 +598,75 @@ usePriorityQueue, toJGroupsFilter(responseFilter),
             responses = Collections.singletonMap(fromJGroupsAddress(singleJGAddress), singleResponse);
          }
       } else {      
-         Map<Address, Response> retval = new HashMap<Address, Response>(rsps.size());
+         responses = toResponseMap(rsps, responseFilter != null, ignoreLeavers);
+      }
+      return responses;
+   }
+
+   private Map<Address, Response> toResponseMap(RspList<Object> rsps, boolean usedResponseFilter, boolean ignoreLeavers) throws Exception {
+      Map<Address, Response> retval = new HashMap<Address, Response>(rsps.size());
+
+      boolean noValidResponses = true;
+      for (Rsp<Object> rsp : rsps.values()) {
+         noValidResponses &= parseResponseAndAddToResponseList(rsp.getValue(), rsp.getException(), retval, rsp.wasSuspected(), rsp.wasReceived(), fromJGroupsAddress(rsp.getSender()),
+               usedResponseFilter, ignoreLeavers);
+      }
+
+      if (noValidResponses)
+         throw new TimeoutException("Timed out waiting for valid responses!");
+      return retval;
+   }
 
-         boolean noValidResponses = true;
-         for (Rsp<Object> rsp : rsps.values()) {
-            noValidResponses &= parseResponseAndAddToResponseList(rsp.getValue(), rsp.getException(), retval, rsp.wasSuspected(), rsp.wasReceived(), fromJGroupsAddress(rsp.getSender()),
-                  responseFilter != null, ignoreLeavers);
+   /**
+    * Sends the command with parallel unicasts, and completes the returned future from the thread receiving the
+    * responses. Asynchronous calls do not wait for responses, so they are invoked as usual.
+    */
+   @Override
+   public NotifyingFuture<Map<Address, Response>> invokeRemotelyInFuture(Collection<Address> recipients, ReplicableCommand rpcCommand,
+                                                                         ResponseMode mode, long timeout, boolean usePriorityQueue,
+                                                                         final ResponseFilter responseFilter) {
+      if (!mode.isSynchronous())
+         return super.invokeRemotelyInFuture(recipients, rpcCommand, mode, timeout, usePriorityQueue, responseFilter);
+
+      final CompletableNotifyingFuture<Map<Address, Response>> future = new CompletableNotifyingFuture<Map<Address, Response>>();
+      if (trace)
+         log.tracef("dests=%s, command=%s, mode=%s, timeout=%s, in future", recipients, rpcCommand, mode, timeout);
+      final boolean ignoreLeavers = mode == ResponseMode.SYNCHRONOUS_IGNORE_LEAVERS || mode == ResponseMode.WAIT_FOR_VALID_RESPONSE;
+      Collection<Address> targets = recipients == null ? getMembers() : recipients;
+      if (recipients != null && !getMembers().containsAll(recipients)) {
+         if (ignoreLeavers) {
+            targets = new HashSet<Address>(recipients);
+            targets.retainAll(getMembers());
+         } else {
+            future.completeExceptionally(new SuspectException("One or more nodes have left the cluster while replicating command " + rpcCommand));
+            return future;
          }
+      }
+      List<org.jgroups.Address> jgAddressList = toJGroupsAddressListExcludingSelf(targets, false);
+      if (jgAddressList.isEmpty()) {
+         log.trace("Destination list is empty: no need to send message");
+         future.complete(InfinispanCollections.<Address, Response>emptyMap());
+         return future;
+      }
 
-         if (noValidResponses)
-            throw new TimeoutException("Timed out waiting for valid responses!");
-         responses = retval;
+      NotifyingFuture<RspList<Object>> rsps;
+      try {
+         rsps = dispatcher.invokeRemoteCommandsInFuture(jgAddressList, rpcCommand, toJGroupsMode(mode), timeout,
+                                                        true, toJGroupsFilter(responseFilter), ignoreLeavers);
+      } catch (Throwable t) {
+         future.completeExceptionally(t);
+         return future;
       }
-      return responses;
+      rsps.attachListener(new CompletingFutureListener<RspList<Object>, Map<Address, Response>>(future) {
+         @Override
+         protected Map<Address, Response> transform(RspList<Object> rspList) throws Exception {
+            // every recipient left, and leavers are ignored
+            if (rspList.isEmpty())
+               return InfinispanCollections.emptyMap();
+            return toResponseMap(rspList, responseFilter != null, ignoreLeavers);
+         }
+      });
+      return future;
    }
 
    @Override
@@ -734,6 +838,13 @@ private static List<Address> fromJGroupsAddressList(List<org.jgroups.Address> li
 
    // mainly for unit testing
 
+   /**
+    * Returns the bundler of asynchronous commands, or null if command bundling is not enabled.
+    */
+   public CommandBundler getCommandBundler() {
+      return bundler;
+   }
+
    public CommandAwareRpcDispatcher getCommandAwareRpcDispatcher() {
       return dispatcher;
    }
@@ -25,18 +25,20 @@
 
 import org.infinispan.commands.CommandsFactory;
 import org.infinispan.container.DataContainer;
+import org.infinispan.container.SegmentedDataContainer;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.distribution.ch.ConsistentHash;
 import org.infinispan.loaders.CacheLoaderException;
 import org.infinispan.loaders.CacheLoaderManager;
 import org.infinispan.loaders.CacheStore;
+import org.infinispan.loaders.EntryHandler;
+import org.infinispan.loaders.KeyFilter;
 import org.infinispan.remoting.rpc.ResponseMode;
 import org.infinispan.remoting.rpc.RpcManager;
 import org.infinispan.remoting.rpc.RpcOptions;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.remoting.transport.jgroups.SuspectException;
 import org.infinispan.util.InfinispanCollections;
-import org.infinispan.util.ReadOnlyDataContainerBackedKeySet;
 import org.infinispan.util.CollectionFactory;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
@@ -154,35 +156,47 @@ public Set<Integer> getSegments() {
    public void run() {
       try {
          // send data container entries
-         for (InternalCacheEntry ice : dataContainer) {
-            Object key = ice.getKey();  //todo [anistor] should we check for expired entries?
-            int segmentId = readCh.getSegment(key);
-            if (segments.contains(segmentId)) {
-               sendEntry(ice, segmentId);
+         if (isSegmented()) {
+            SegmentedDataContainer segmentedDataContainer = (SegmentedDataContainer) dataContainer;
+            for (int segmentId : segments) {
+               for (Iterator<InternalCacheEntry> it = segmentedDataContainer.iterator(segmentId); it.hasNext(); ) {
+                  sendEntry(it.next(), segmentId);
+               }
+            }
+         } else {
+            for (InternalCacheEntry ice : dataContainer) {
+               Object key = ice.getKey();  //todo [anistor] should we check for expired entries?
+               int segmentId = readCh.getSegment(key);
+               if (segments.contains(segmentId)) {
+                  sendEntry(ice, segmentId);
+               }
             }
          }
 
          // send cache store entries if needed
          CacheStore cacheStore = getCacheStore();
          if (cacheStore != null) {
+            final Set<Object> sentKeys = new HashSet<Object>();
             try {
-               //todo [anistor] need to extend CacheStore interface to be able to specify a filter when loading keys (ie. keys should belong to desired segments)
-               Set<Object> storedKeys = cacheStore.loadAllKeys(new ReadOnlyDataContainerBackedKeySet(dataContainer));
-               for (Object key : storedKeys) {
-                  int segmentId = readCh.getSegment(key);
-                  if (segments.contains(segmentId)) {
-                     try {
-                        InternalCacheEntry ice = cacheStore.load(key);
-                        if (ice != null) { // check entry still exists
-                           sendEntry(ice, segmentId);
-                        }
-                     } catch (CacheLoaderException e) {
-                        log.failedLoadingValueFromCacheStore(key, e);
-                     }
+               // only the entries of the requested segments that were not already sent from the data container
+               cacheStore.loadEntries(new KeyFilter() {
+                  @Override
+                  public boolean accept(Object key) {
+                     return isStoredKeyToSend(key, sentKeys);
                   }
-               }
+               }, new EntryHandler() {
+                  @Override
+                  public void handle(InternalCacheEntry ice) {
+                     sentKeys.add(ice.getKey());
+                     sendEntry(ice, readCh.getSegment(ice.getKey()));
+                  }
+               });
             } catch (CacheLoaderException e) {
-               log.failedLoadingKeysFromCacheStore(e);
+               // a single entry that cannot be loaded aborts the iteration, load the remaining entries one by one
+               if (trace) {
+                  log.tracef(e, "Failed to iterate over the stored entries, loading the remaining ones by key");
+               }
+               sendStoredEntriesByKey(cacheStore, sentKeys);
             }
          } else {
             if (trace) {
@@ -203,6 +217,46 @@ public void run() {
       }
    }
 
+   private void sendStoredEntriesByKey(CacheStore cacheStore, Set<Object> sentKeys) {
+      Set<Object> storedKeys;
+      try {
+         storedKeys = cacheStore.loadAllKeys(null);
+      } catch (CacheLoaderException e) {
+         log.failedLoadingKeysFromCacheStore(e);
+         return;
+      }
+      for (Object key : storedKeys) {
+         if (isStoredKeyToSend(key, sentKeys)) {
+            try {
+               InternalCacheEntry ice = cacheStore.load(key);
+               if (ice != null) { // check entry still exists
+                  sendEntry(ice, readCh.getSegment(key));
+               }
+            } catch (CacheLoaderException e) {
+               log.failedLoadingValueFromCacheStore(key, e);
+            }
+         }
+      }
+   }
+
+   /**
+    * Checks whether a stored key belongs to the requested segments and was neither sent from the data container nor
+    * already sent from the cache store. The data container is only peeked, so that its expired entries are not
+    * removed as a side effect.
+    */
+   private boolean isStoredKeyToSend(Object key, Set<Object> sentKeys) {
+      return segments.contains(readCh.getSegment(key)) && dataContainer.peek(key) == null && !sentKeys.contains(key);
+   }
+
+   /**
+    * Checks whether the entries of the requested segments can be obtained directly from a segmented data container
+    * whose partitioning matches the read consistent hash.
+    */
+   private boolean isSegmented() {
+      return dataContainer instanceof SegmentedDataContainer
+            && ((SegmentedDataContainer) dataContainer).getNumSegments() == readCh.getNumSegments();
+   }
+
    /**
     * Obtains the CacheStore that will be used for pulling segments that will be sent to other new owners on request.
     * The CacheStore is ignored if it is disabled or if it is shared or if fetchPersistentState is disabled.
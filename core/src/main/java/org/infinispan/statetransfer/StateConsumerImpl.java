@@ -30,6 +30,7 @@
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.container.DataContainer;
+import org.infinispan.container.SegmentedDataContainer;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
@@ -827,13 +828,33 @@ private void invalidateSegments(Set<Integer> newSegments, Set<Integer> segmentsT
       Set<Object> keysToRemove = new HashSet<Object>();
 
       // gather all keys from data container that belong to the segments that are being removed/moved to L1
-      for (InternalCacheEntry ice : dataContainer) {
-         Object key = ice.getKey();
-         int keySegment = getSegment(key);
-         if (segmentsToL1.contains(keySegment)) {
-            keysToL1.add(key);
-         } else if (!newSegments.contains(keySegment)) {
-            keysToRemove.add(key);
+      int numSegments = cacheTopology.getReadConsistentHash().getNumSegments();
+      if (dataContainer instanceof SegmentedDataContainer
+            && ((SegmentedDataContainer) dataContainer).getNumSegments() == numSegments) {
+         // only go through the entries of the segments we don't own anymore
+         SegmentedDataContainer segmentedDataContainer = (SegmentedDataContainer) dataContainer;
+         for (int segment = 0; segment < numSegments; segment++) {
+            Set<Object> keys;
+            if (segmentsToL1.contains(segment)) {
+               keys = keysToL1;
+            } else if (!newSegments.contains(segment)) {
+               keys = keysToRemove;
+            } else {
+               continue;
+            }
+            for (Iterator<InternalCacheEntry> it = segmentedDataContainer.iterator(segment); it.hasNext(); ) {
+               keys.add(it.next().getKey());
+            }
+         }
+      } else {
+         for (InternalCacheEntry ice : dataContainer) {
+            Object key = ice.getKey();
+            int keySegment = getSegment(key);
+            if (segmentsToL1.contains(keySegment)) {
+               keysToL1.add(key);
+            } else if (!newSegments.contains(keySegment)) {
+               keysToRemove.add(key);
+            }
          }
       }
 
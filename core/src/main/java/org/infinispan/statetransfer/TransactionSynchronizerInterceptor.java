@@ -97,4 +97,9 @@ public Object visitLockControlCommand(TxInvocationContext ctx, LockControlComman
          return super.visitLockControlCommand(ctx, command);
       }
    }
+
+   @Override
+   public boolean actsOnReads() {
+      return false;
+   }
 }
@@ -44,6 +44,8 @@
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.concurrent.locks.ReentrantLock;
 
 
@@ -167,6 +169,12 @@
     */
    static final int RETRIES_BEFORE_LOCK = 2;
 
+   /**
+    * Per segment capacity of maps only bounded by memory, which never evict based on the number
+    * of entries.
+    */
+   static final int UNBOUNDED_CAPACITY = Integer.MAX_VALUE;
+
    /* ---------------- Fields -------------- */
 
    /**
@@ -192,7 +200,9 @@
    private transient final Equivalence<K> keyEquivalence;
    private transient final Equivalence<V> valueEquivalence;
    private transient final EvictionListener<K, V> evictionListener;
+   private transient final EntrySizeCalculator<? super K, ? super V> entrySizeCalculator;
    private final int evictCap;
+   private final long maxSegmentMemory;
 
    /* ---------------- Small Utilities -------------- */
 
@@ -223,6 +233,17 @@ final Segment<K,V> segmentFor(int hash) {
       return segments[hash >>> segmentShift & segmentMask];
    }
 
+   /**
+    * Returns the estimated memory footprint of a mapping, or 0 if this map is not bounded by memory
+    */
+   final int weigh(K key, V value) {
+      if (entrySizeCalculator == null) {
+         return 0;
+      }
+      long size = entrySizeCalculator.calculateSize(key, value);
+      return size > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) size;
+   }
+
    /* ---------------- Inner Classes -------------- */
 
    /**
@@ -242,6 +263,8 @@ final Segment<K,V> segmentFor(int hash) {
       final int hash;
       volatile V value;
       final HashEntry<K, V> next;
+      // estimated memory footprint, only written while holding the Segment lock
+      int weight;
 
       HashEntry(K key, int hash, HashEntry<K, V> next, V value) {
          this.key = key;
@@ -293,20 +316,31 @@ public <K, V> EvictionPolicy<K, V> make(Segment<K, V> s, int capacity, float lf)
          public <K, V> EvictionPolicy<K, V> make(Segment<K, V> s, int capacity, float lf) {
             boolean isIBMJavaVendor = Util.isIBMJavaVendor();
             if (isIBMJavaVendor) {
-               return new IBMLRU<K, V>(s,capacity,lf,capacity*10,lf);
+               return new IBMLRU<K, V>(s,capacity,lf,batchSize(capacity),lf);
             } else {
-               return new LRU<K, V>(s,capacity,lf,capacity*10,lf);
+               return new LRU<K, V>(s,capacity,lf,batchSize(capacity),lf);
             }
          }
       },
       LIRS {
          @Override
          public <K, V> EvictionPolicy<K, V> make(Segment<K, V> s, int capacity, float lf) {
-            return new LIRS<K,V>(s,capacity,capacity*10,lf);
+            return new LIRS<K,V>(s,capacity,batchSize(capacity),lf);
+         }
+      },
+      TINY_LFU {
+         @Override
+         public <K, V> EvictionPolicy<K, V> make(Segment<K, V> s, int capacity, float lf) {
+            return new TinyLFU<K, V>(s, capacity);
          }
       };
 
       abstract <K, V> EvictionPolicy<K, V> make(Segment<K, V> s, int capacity, float lf);
+
+      private static int batchSize(int capacity) {
+         // avoid overflowing with the capacity of maps only bounded by memory
+         return (int) Math.min(capacity * 10L, EvictionPolicy.MAX_BATCH_SIZE);
+      }
    }
 
    public interface EvictionListener<K, V> {
@@ -339,6 +373,18 @@ public void onEntryRemoved(Object key) {
       }
    }
 
+   /**
+    * Estimates the memory footprint of the mappings of a map bounded by memory.
+    */
+   public interface EntrySizeCalculator<K, V> {
+
+      /**
+       * Returns the estimated number of bytes a mapping occupies in memory, including the key and
+       * the value.
+       */
+      long calculateSize(K key, V value);
+   }
+
    public interface EvictionPolicy<K, V> {
 
       int MAX_BATCH_SIZE = 64;
@@ -388,6 +434,19 @@ public void onEntryRemoved(Object key) {
        */
       void onEntryRemove(HashEntry<K, V> e);
 
+      /**
+       * Invoked to notify EvictionPolicy implementation that a rehash of the Segment replaced some
+       * entries by copies linked into the resized table. Each copy takes the place of the entry it
+       * replaces, keeping its recency and frequency, and is neither an access, a removal nor an
+       * addition.
+       * <p>
+       * Invoked while holding the lock on Segment.
+       *
+       * @param copies
+       *            replaced entries in Segment, mapped to their copies
+       */
+      void onEntriesCopied(Map<HashEntry<K, V>, HashEntry<K, V>> copies);
+
       /**
        * Invoked to notify EvictionPolicy implementation that all Segment entries have been
        * cleared.
@@ -402,6 +461,16 @@ public void onEntryRemoved(Object key) {
        */
       Eviction strategy();
 
+      /**
+       * Returns the entry that should be evicted next when the Segment exceeds its memory budget,
+       * without removing it.
+       * <p>
+       * Invoked while holding the lock on Segment, after {@link #execute()} applied pending hits.
+       *
+       * @return the next entry to evict, or null if the policy does not track any entry
+       */
+      HashEntry<K, V> nextVictim();
+
       /**
        * Returns true if batching threshold has expired, false otherwise.
        * <p>
@@ -439,6 +508,11 @@ public void onEntryRemove(HashEntry<K, V> e) {
          // Do nothing.
       }
 
+      @Override
+      public void onEntriesCopied(Map<HashEntry<K, V>, HashEntry<K, V>> copies) {
+         // Do nothing.
+      }
+
       @Override
       public boolean thresholdExpired() {
          return false;
@@ -448,6 +522,11 @@ public boolean thresholdExpired() {
       public Eviction strategy() {
          return Eviction.NONE;
       }
+
+      @Override
+      public HashEntry<K, V> nextVictim() {
+         return null;
+      }
       
       @Override
       public HashEntry<K, V> createNewEntry(K key, int hash, HashEntry<K, V> next, V value) {
@@ -469,7 +548,8 @@ public HashEntry<K, V> createNewEntry(K key, int hash, HashEntry<K, V> next, V v
       private final AtomicInteger accessQueueSize = new AtomicInteger(0);
 
       public LRU(Segment<K,V> s, int capacity, float lf, int maxBatchSize, float batchThresholdFactor) {
-         super(capacity, lf, true);
+         // maps bounded by memory have an unbounded capacity, so let the map grow on demand
+         super(Math.min(capacity, DEFAULT_MAXIMUM_CAPACITY), lf, true);
          this.segment = s;
          this.trimDownSize = capacity;
          this.maxBatchQueueSize = maxBatchSize > MAX_BATCH_SIZE ? MAX_BATCH_SIZE : maxBatchSize;
@@ -531,6 +611,21 @@ public void onEntryRemove(HashEntry<K, V> e) {
          }
       }
 
+      @Override
+      public void onEntriesCopied(Map<HashEntry<K, V>, HashEntry<K, V>> copies) {
+         // keys cannot be replaced in place, so put all the entries back in their current order;
+         // hits still queued for the replaced entries promote the equal copies
+         List<HashEntry<K, V>> entries = new ArrayList<HashEntry<K, V>>(keySet());
+         super.clear();
+         for (HashEntry<K, V> e : entries) {
+            HashEntry<K, V> copy = copies.get(e);
+            if (copy != null) {
+               e = copy;
+            }
+            put(e, e.value);
+         }
+      }
+
       @Override
       public void clear() {
          super.clear();
@@ -543,6 +638,11 @@ public Eviction strategy() {
          return Eviction.LRU;
       }
 
+      @Override
+      public HashEntry<K, V> nextVictim() {
+         return isEmpty() ? null : keySet().iterator().next();
+      }
+
       protected boolean isAboveThreshold(){
          return size() > trimDownSize;
       }
@@ -583,7 +683,8 @@ public HashEntry<K, V> createNewEntry(K key, int hash, HashEntry<K, V> next, V v
       private final AtomicInteger accessQueueSize = new AtomicInteger(0);
 
       public IBMLRU(Segment<K,V> s, int capacity, float lf, int maxBatchSize, float batchThresholdFactor) {
-         super(capacity, lf);
+         // maps bounded by memory have an unbounded capacity, so let the map grow on demand
+         super(Math.min(capacity, DEFAULT_MAXIMUM_CAPACITY), lf);
          this.segment = s;
          this.trimDownSize = capacity;
          this.maxBatchQueueSize = maxBatchSize > MAX_BATCH_SIZE ? MAX_BATCH_SIZE : maxBatchSize;
@@ -663,6 +764,20 @@ public void onEntryRemove(HashEntry<K, V> e) {
          }
       }
 
+      @Override
+      public void onEntriesCopied(Map<HashEntry<K, V>, HashEntry<K, V>> copies) {
+         for (Map.Entry<HashEntry<K, V>, HashEntry<K, V>> entry : copies.entrySet()) {
+            LRUHashEntry<K, V> e = (LRUHashEntry<K, V>) entry.getKey();
+            LRUHashEntry<K, V> copy = (LRUHashEntry<K, V>) entry.getValue();
+            if (containsKey(e)) {
+               remove(e);
+               put(copy, copy.value);
+               copy.replace(e);
+            }
+         }
+         replaceCopiedEntries(accessQueue, copies);
+      }
+
       @Override
       public void clear() {
          super.clear();
@@ -676,6 +791,11 @@ public Eviction strategy() {
          return Eviction.LRU;
       }
 
+      @Override
+      public HashEntry<K, V> nextVictim() {
+         return head.nextEntry == head ? null : head.nextEntry;
+      }
+
       protected boolean isAboveThreshold(){
          return size() > trimDownSize;
       }
@@ -710,6 +830,17 @@ private void addBefore(LRUHashEntry<K,V> entry) {
          nextEntry.previousEntry = this;
       }
 
+      /**
+       * Takes the place of the given entry in the doubly-linked list.
+       */
+      private void replace(LRUHashEntry<K,V> entry) {
+         previousEntry = entry.previousEntry;
+         nextEntry = entry.nextEntry;
+         previousEntry.nextEntry = this;
+         nextEntry.previousEntry = this;
+         entry.previousEntry = entry.nextEntry = null;
+      }
+
       @Override
       public boolean equals(Object o) {
          if (this == o) {
@@ -1083,6 +1214,29 @@ private void migrateToStack() {
         hot();
       }
 
+      /**
+       * Takes the place of the given entry in the stack and in the queue, with its status. The given
+       * entry is left unlinked and non-resident, so that hits still recorded for it are ignored.
+       */
+      private void replace(LIRSHashEntry<K,V> entry) {
+        state = entry.state;
+        previousInStack = entry.previousInStack;
+        nextInStack = entry.nextInStack;
+        if (inStack()) {
+          previousInStack.nextInStack = this;
+          nextInStack.previousInStack = this;
+        }
+        previousInQueue = entry.previousInQueue;
+        nextInQueue = entry.nextInQueue;
+        if (inQueue()) {
+          previousInQueue.nextInQueue = this;
+          nextInQueue.previousInQueue = this;
+        }
+        entry.previousInStack = entry.nextInStack = null;
+        entry.previousInQueue = entry.nextInQueue = null;
+        entry.state = Recency.HIR_NONRESIDENT;
+      }
+
       /**
        * Evicts this entry, removing it from the queue and setting its status to
        * cold non-resident. If the entry is already absent from the stack, it is
@@ -1286,6 +1440,14 @@ public void onEntryRemove(HashEntry<K, V> e) {
          }
       }
 
+      @Override
+      public void onEntriesCopied(Map<HashEntry<K, V>, HashEntry<K, V>> copies) {
+         for (Map.Entry<HashEntry<K, V>, HashEntry<K, V>> entry : copies.entrySet()) {
+            ((LIRSHashEntry<K, V>) entry.getValue()).replace((LIRSHashEntry<K, V>) entry.getKey());
+         }
+         replaceCopiedEntries(accessQueue, copies);
+      }
+
       @Override
       public void clear() {
          accessQueue.clear();
@@ -1297,6 +1459,13 @@ public Eviction strategy() {
          return Eviction.LIRS;
       }
 
+      @Override
+      public HashEntry<K, V> nextVictim() {
+         // cold resident entries go first, then the least recently used hot entry
+         LIRSHashEntry<K, V> victim = queueFront();
+         return victim != null ? victim : stackBottom();
+      }
+
       /**
        * Returns the entry at the bottom of the stack.
        */
@@ -1328,6 +1497,518 @@ public HashEntry<K, V> createNewEntry(K key, int hash, HashEntry<K, V> next, V v
       }
    }
 
+   /**
+    * Region of the segmented LRU a {@link TinyLFUHashEntry} currently belongs to.
+    */
+   private enum Region {
+      NONE, WINDOW, PROBATION, PROTECTED
+   }
+
+   private static final class TinyLFUHashEntry<K, V> extends HashEntry<K, V> {
+
+      // links within the region queue, only accessed while holding the Segment lock
+      private TinyLFUHashEntry<K, V> previousInRegion;
+      private TinyLFUHashEntry<K, V> nextInRegion;
+      private Region region = Region.NONE;
+
+      TinyLFUHashEntry(K key, int hash, HashEntry<K, V> next, V value) {
+         super(key, hash, next, value);
+      }
+   }
+
+   /**
+    * Access ordered doubly-linked list of {@link TinyLFUHashEntry} with a sentinel header. The least
+    * recently used entry sits at the front of the queue.
+    */
+   private static final class RegionQueue<K, V> {
+
+      private final TinyLFUHashEntry<K, V> header = new TinyLFUHashEntry<K, V>(null, -1, null, null);
+      private final Region region;
+      private int size;
+
+      RegionQueue(Region region) {
+         this.region = region;
+         header.previousInRegion = header.nextInRegion = header;
+      }
+
+      TinyLFUHashEntry<K, V> peekFirst() {
+         TinyLFUHashEntry<K, V> first = header.nextInRegion;
+         return first == header ? null : first;
+      }
+
+      void addLast(TinyLFUHashEntry<K, V> e) {
+         e.nextInRegion = header;
+         e.previousInRegion = header.previousInRegion;
+         header.previousInRegion.nextInRegion = e;
+         header.previousInRegion = e;
+         e.region = region;
+         size++;
+      }
+
+      void remove(TinyLFUHashEntry<K, V> e) {
+         e.previousInRegion.nextInRegion = e.nextInRegion;
+         e.nextInRegion.previousInRegion = e.previousInRegion;
+         e.previousInRegion = e.nextInRegion = null;
+         e.region = Region.NONE;
+         size--;
+      }
+
+      void moveToLast(TinyLFUHashEntry<K, V> e) {
+         remove(e);
+         addLast(e);
+      }
+
+      void replace(TinyLFUHashEntry<K, V> e, TinyLFUHashEntry<K, V> copy) {
+         copy.previousInRegion = e.previousInRegion;
+         copy.nextInRegion = e.nextInRegion;
+         copy.previousInRegion.nextInRegion = copy;
+         copy.nextInRegion.previousInRegion = copy;
+         copy.region = region;
+         e.previousInRegion = e.nextInRegion = null;
+         e.region = Region.NONE;
+      }
+
+      void clear() {
+         TinyLFUHashEntry<K, V> e = header.nextInRegion;
+         while (e != header) {
+            TinyLFUHashEntry<K, V> next = e.nextInRegion;
+            e.previousInRegion = e.nextInRegion = null;
+            e.region = Region.NONE;
+            e = next;
+         }
+         header.previousInRegion = header.nextInRegion = header;
+         size = 0;
+      }
+   }
+
+   /**
+    * Bounded, lossy ring buffer recording entry hits without holding the Segment lock. Any number of
+    * readers may offer to it concurrently, while it is only ever drained by the thread holding the
+    * Segment lock. Unlike the unbounded access queues used by LRU and LIRS, offering never allocates,
+    * and records offered while the buffer is full are simply dropped: losing a few hits only makes
+    * the eviction policy marginally less accurate, whereas blocking readers on the Segment lock would
+    * make it a contention point.
+    */
+   private static final class ReadBuffer<K, V> {
+
+      private static final int SIZE = 2 * EvictionPolicy.MAX_BATCH_SIZE;
+      private static final int MASK = SIZE - 1;
+
+      private final AtomicReferenceArray<TinyLFUHashEntry<K, V>> buffer =
+            new AtomicReferenceArray<TinyLFUHashEntry<K, V>>(SIZE);
+      private final AtomicLong readCounter = new AtomicLong();
+      private final AtomicLong writeCounter = new AtomicLong();
+
+      /*
+       * Invoked without holding a lock on Segment
+       */
+      void offer(TinyLFUHashEntry<K, V> e) {
+         long head = readCounter.get();
+         long tail = writeCounter.get();
+         if (tail - head < SIZE && writeCounter.compareAndSet(tail, tail + 1)) {
+            buffer.lazySet((int) tail & MASK, e);
+         }
+      }
+
+      /*
+       * Invoked without holding a lock on Segment
+       */
+      int pending() {
+         return (int) (writeCounter.get() - readCounter.get());
+      }
+
+      void drainTo(TinyLFU<K, V> policy) {
+         long head = readCounter.get();
+         long tail = writeCounter.get();
+         while (head != tail) {
+            int index = (int) head & MASK;
+            TinyLFUHashEntry<K, V> e = buffer.get(index);
+            if (e == null) {
+               // the slot has been claimed but not yet written, resume from here on the next drain
+               break;
+            }
+            buffer.lazySet(index, null);
+            policy.onAccess(e);
+            head++;
+         }
+         readCounter.lazySet(head);
+      }
+   }
+
+   /**
+    * A count-min sketch estimating the access frequency of keys within a Segment, using four 4-bit
+    * counters per key spread over a table of longs. Counters are periodically halved so that the
+    * history of keys that are no longer popular fades away.
+    * <p>
+    * Not thread safe, only accessed while holding the Segment lock.
+    */
+   static final class FrequencySketch {
+
+      private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+      private static final long RESET_MASK = 0x7777777777777777L;
+      private static final long ONE_MASK = 0x1111111111111111L;
+
+      private long[] table;
+      private int tableMask;
+      private int sampleSize;
+      private int additions;
+
+      FrequencySketch(int maximumSize) {
+         ensureCapacity(maximumSize);
+      }
+
+      /**
+       * Grows the sketch so that it can track the given number of keys accurately, dropping the
+       * history gathered so far.
+       */
+      void ensureCapacity(int maximumSize) {
+         int length = 1;
+         while (length < maximumSize) {
+            length <<= 1;
+         }
+         if (table == null || table.length < length) {
+            table = new long[length];
+            tableMask = length - 1;
+            sampleSize = 10 * length;
+            additions = 0;
+         }
+      }
+
+      int frequency(int hash) {
+         int start = (hash & 3) << 2;
+         int frequency = Integer.MAX_VALUE;
+         for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+         }
+         return frequency;
+      }
+
+      void increment(int hash) {
+         int start = (hash & 3) << 2;
+         boolean added = false;
+         for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+         }
+         if (added && ++additions == sampleSize) {
+            reset();
+         }
+      }
+
+      private boolean incrementAt(int index, int counter) {
+         int offset = counter << 2;
+         long mask = 0xfL << offset;
+         if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+         }
+         return false;
+      }
+
+      private int indexOf(int hash, int i) {
+         long h = (hash + SEEDS[i]) * SEEDS[i];
+         h += h >>> 32;
+         return (int) h & tableMask;
+      }
+
+      private void reset() {
+         int odd = 0;
+         for (int i = 0; i < table.length; i++) {
+            odd += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+         }
+         additions = (additions >>> 1) - (odd >>> 2);
+      }
+   }
+
+   /**
+    * Window TinyLFU eviction policy.
+    * <p>
+    * New entries are admitted into a small LRU window. Entries falling out of the window compete
+    * with the least recently used entry of the main space, a segmented LRU made of a probation and
+    * a protected region, and only the one estimated to be accessed more frequently by a
+    * {@link FrequencySketch} is kept. The window lets bursts of new keys build up frequency, while
+    * the admission filter stops scans and one-hit wonders from flushing the hot working set.
+    * <p>
+    * Hits are recorded in a lossy {@link ReadBuffer} and replayed in batches while holding the
+    * Segment lock, so reads never wait for the lock and removals do not have to search the buffer.
+    * <p>
+    * See "TinyLFU: A Highly Efficient Cache Admission Policy", http://arxiv.org/abs/1512.00727
+    */
+   static final class TinyLFU<K, V> implements EvictionPolicy<K, V> {
+
+      /** The percentage of the Segment dedicated to the admission window. */
+      private static final float WINDOW_PERCENTAGE = 0.01f;
+
+      /** The percentage of the main space dedicated to the protected region. */
+      private static final float PROTECTED_PERCENTAGE = 0.8f;
+
+      /** The owning segment */
+      private final Segment<K, V> segment;
+
+      private final int maximumSize;
+
+      private final FrequencySketch sketch;
+      private final ReadBuffer<K, V> readBuffer = new ReadBuffer<K, V>();
+      private final RegionQueue<K, V> window = new RegionQueue<K, V>(Region.WINDOW);
+      private final RegionQueue<K, V> probation = new RegionQueue<K, V>(Region.PROBATION);
+      private final RegionQueue<K, V> protectedRegion = new RegionQueue<K, V>(Region.PROTECTED);
+
+      public TinyLFU(Segment<K, V> s, int capacity) {
+         this.segment = s;
+         this.maximumSize = Math.max(capacity, 1);
+         // maps bounded by memory have an unbounded capacity, so the sketch grows with the segment
+         this.sketch = new FrequencySketch(Math.min(maximumSize, DEFAULT_MAXIMUM_CAPACITY));
+      }
+
+      @Override
+      public Set<HashEntry<K, V>> execute() {
+         readBuffer.drainTo(this);
+         Set<HashEntry<K, V>> evicted = new HashSet<HashEntry<K, V>>();
+         evicted.addAll(evict());
+         return evicted;
+      }
+
+      @Override
+      public Set<HashEntry<K, V>> onEntryMiss(HashEntry<K, V> en) {
+         TinyLFUHashEntry<K, V> e = (TinyLFUHashEntry<K, V>) en;
+         window.addLast(e);
+         sketch.ensureCapacity(Math.min(size(), maximumSize));
+         sketch.increment(e.hash);
+         return evict();
+      }
+
+      /*
+       * Invoked without holding a lock on Segment
+       */
+      @Override
+      public boolean onEntryHit(HashEntry<K, V> e) {
+         readBuffer.offer((TinyLFUHashEntry<K, V>) e);
+         return thresholdExpired();
+      }
+
+      /*
+       * Invoked without holding a lock on Segment
+       */
+      @Override
+      public boolean thresholdExpired() {
+         return readBuffer.pending() >= MAX_BATCH_SIZE;
+      }
+
+      @Override
+      public void onEntryRemove(HashEntry<K, V> e) {
+         // stale records left in the read buffer are skipped once drained
+         unlink((TinyLFUHashEntry<K, V>) e);
+      }
+
+      @Override
+      public void onEntriesCopied(Map<HashEntry<K, V>, HashEntry<K, V>> copies) {
+         // records of the replaced entries left in the read buffer are skipped once drained
+         for (Map.Entry<HashEntry<K, V>, HashEntry<K, V>> entry : copies.entrySet()) {
+            TinyLFUHashEntry<K, V> e = (TinyLFUHashEntry<K, V>) entry.getKey();
+            TinyLFUHashEntry<K, V> copy = (TinyLFUHashEntry<K, V>) entry.getValue();
+            switch (e.region) {
+               case WINDOW:
+                  window.replace(e, copy);
+                  break;
+               case PROBATION:
+                  probation.replace(e, copy);
+                  break;
+               case PROTECTED:
+                  protectedRegion.replace(e, copy);
+                  break;
+               default:
+                  break;
+            }
+         }
+      }
+
+      @Override
+      public void clear() {
+         window.clear();
+         probation.clear();
+         protectedRegion.clear();
+         readBuffer.drainTo(this);
+      }
+
+      @Override
+      public Eviction strategy() {
+         return Eviction.TINY_LFU;
+      }
+
+      @Override
+      public HashEntry<K, V> nextVictim() {
+         TinyLFUHashEntry<K, V> victim = probation.peekFirst();
+         if (victim == null) {
+            victim = protectedRegion.peekFirst();
+         }
+         // the entry about to leave the window is evicted instead if it is less popular
+         TinyLFUHashEntry<K, V> candidate = window.size > 1 ? window.peekFirst() : null;
+         if (victim == null) {
+            return candidate != null ? candidate : window.peekFirst();
+         }
+         if (candidate != null && sketch.frequency(candidate.hash) < sketch.frequency(victim.hash)) {
+            return candidate;
+         }
+         return victim;
+      }
+
+      @Override
+      public HashEntry<K, V> createNewEntry(K key, int hash, HashEntry<K, V> next, V value) {
+         return new TinyLFUHashEntry<K, V>(key, hash, next, value);
+      }
+
+      /**
+       * Replays a hit recorded in the read buffer.
+       */
+      private void onAccess(TinyLFUHashEntry<K, V> e) {
+         switch (e.region) {
+            case WINDOW:
+               sketch.increment(e.hash);
+               window.moveToLast(e);
+               break;
+            case PROBATION:
+               sketch.increment(e.hash);
+               probation.remove(e);
+               protectedRegion.addLast(e);
+               int maximumProtectedSize = maximumProtectedSize();
+               while (protectedRegion.size > maximumProtectedSize) {
+                  TinyLFUHashEntry<K, V> demoted = protectedRegion.peekFirst();
+                  protectedRegion.remove(demoted);
+                  probation.addLast(demoted);
+               }
+               break;
+            case PROTECTED:
+               sketch.increment(e.hash);
+               protectedRegion.moveToLast(e);
+               break;
+            default:
+               // already removed from the segment
+               break;
+         }
+      }
+
+      private int size() {
+         return window.size + probation.size + protectedRegion.size;
+      }
+
+      /*
+       * The regions are sized after the number of entries held while the segment fills up, and
+       * with maps only bounded by memory.
+       */
+      private int maximumWindowSize() {
+         return Math.max(1, (int) (Math.min(size(), maximumSize) * WINDOW_PERCENTAGE));
+      }
+
+      private int maximumProtectedSize() {
+         return (int) ((Math.min(size(), maximumSize) - maximumWindowSize()) * PROTECTED_PERCENTAGE);
+      }
+
+      /**
+       * Moves the entries overflowing the window to the main space and evicts until the Segment is
+       * within its capacity again.
+       */
+      private Set<HashEntry<K, V>> evict() {
+         Set<HashEntry<K, V>> evicted = null;
+         while (window.size > maximumWindowSize()) {
+            TinyLFUHashEntry<K, V> candidate = window.peekFirst();
+            window.remove(candidate);
+            probation.addLast(candidate);
+            if (size() > maximumSize) {
+               if (evicted == null) {
+                  evicted = new HashSet<HashEntry<K, V>>();
+               }
+               evicted.add(admit(candidate));
+            }
+         }
+         while (size() > maximumSize) {
+            TinyLFUHashEntry<K, V> victim = probation.peekFirst();
+            if (victim == null) {
+               victim = protectedRegion.peekFirst();
+            }
+            if (victim == null) {
+               victim = window.peekFirst();
+            }
+            unlink(victim);
+            if (evicted == null) {
+               evicted = new HashSet<HashEntry<K, V>>();
+            }
+            evicted.add(victim);
+         }
+         if (evicted == null) {
+            return InfinispanCollections.emptySet();
+         }
+         removeFromSegment(evicted);
+         return evicted;
+      }
+
+      /**
+       * Lets the candidate coming out of the window compete with the least recently used entry of
+       * the main space and unlinks the loser, which is returned.
+       */
+      private TinyLFUHashEntry<K, V> admit(TinyLFUHashEntry<K, V> candidate) {
+         TinyLFUHashEntry<K, V> victim = probation.peekFirst();
+         if (victim == candidate) {
+            victim = protectedRegion.peekFirst();
+         }
+         TinyLFUHashEntry<K, V> loser;
+         if (victim == null || sketch.frequency(candidate.hash) <= sketch.frequency(victim.hash)) {
+            loser = candidate;
+         } else {
+            loser = victim;
+         }
+         unlink(loser);
+         return loser;
+      }
+
+      private void unlink(TinyLFUHashEntry<K, V> e) {
+         switch (e.region) {
+            case WINDOW:
+               window.remove(e);
+               break;
+            case PROBATION:
+               probation.remove(e);
+               break;
+            case PROTECTED:
+               protectedRegion.remove(e);
+               break;
+            default:
+               break;
+         }
+      }
+
+      private void removeFromSegment(Set<HashEntry<K, V>> evicted) {
+         for (HashEntry<K, V> e : evicted) {
+            segment.remove(e.key, e.hash, null, true);
+         }
+      }
+   }
+
+   /**
+    * Replaces the entries copied by a rehash with their copies in an access queue, keeping the
+    * number of queued hits.
+    */
+   @SuppressWarnings("unchecked")
+   private static <K, V, E extends HashEntry<K, V>> void replaceCopiedEntries(Queue<E> accessQueue,
+         Map<HashEntry<K, V>, HashEntry<K, V>> copies) {
+      List<E> replaced = null;
+      for (Iterator<E> it = accessQueue.iterator(); it.hasNext(); ) {
+         HashEntry<K, V> copy = copies.get(it.next());
+         if (copy != null) {
+            it.remove();
+            if (replaced == null) {
+               replaced = new ArrayList<E>();
+            }
+            replaced.add((E) copy);
+         }
+      }
+      if (replaced != null) {
+         accessQueue.addAll(replaced);
+      }
+   }
+
    /**
     * Segments are specialized versions of hash tables.  This
     * subclasses from ReentrantLock opportunistically, just to
@@ -1378,6 +2059,12 @@ public HashEntry<K, V> createNewEntry(K key, int hash, HashEntry<K, V> next, V v
        */
       transient volatile int count;
 
+      /**
+       * The estimated memory footprint of the elements in this segment's region, only maintained
+       * when the map is bounded by memory. Only written while holding the lock.
+       */
+      transient volatile long weight;
+
       /**
        * Number of updates that alter the size of the table. This is
        * used during bulk-read methods to make sure they see a
@@ -1493,6 +2180,20 @@ V get(Object key, int hash) {
          return null;
       }
 
+      V peek(Object key, int hash) {
+         if (count != 0) { // read-volatile
+            HashEntry<K,V> e = getFirst(hash);
+            while (e != null) {
+               if (e.hash == hash && map.keyEquivalence.equals(key, e.key)) {
+                  V v = e.value;
+                  return v != null ? v : readValueUnderLock(e); // recheck
+               }
+               e = e.next;
+            }
+         }
+         return null;
+      }
+
       boolean containsKey(Object key, int hash) {
          if (count != 0) { // read-volatile
             HashEntry<K,V> e = getFirst(hash);
@@ -1538,9 +2239,11 @@ boolean replace(K key, int hash, V oldValue, V newValue) {
             if (e != null && map.valueEquivalence.equals(oldValue, e.value)) {
                replaced = true;
                e.value = newValue;
+               reweigh(e, key, newValue);
                if (eviction.onEntryHit(e)) {
                   evicted = attemptEviction(true);
                }
+               evicted = evictToMemoryBudget(evicted);
             }
             return replaced;
          } finally {
@@ -1562,9 +2265,11 @@ V replace(K key, int hash, V newValue) {
             if (e != null) {
                oldValue = e.value;
                e.value = newValue;
+               reweigh(e, key, newValue);
                if (eviction.onEntryHit(e)) {
                   evicted = attemptEviction(true);
                }
+               evicted = evictToMemoryBudget(evicted);
             }
             return oldValue;
          } finally {
@@ -1578,7 +2283,7 @@ V put(K key, int hash, V value, boolean onlyIfAbsent) {
          Set<HashEntry<K, V>> evicted = null;
          try {
             int c = count;
-            if (c++ > threshold && eviction.strategy() == Eviction.NONE) {
+            if (c++ > threshold && (eviction.strategy() == Eviction.NONE || map.evictCap == UNBOUNDED_CAPACITY)) {
                rehash();
             }
             HashEntry<K, V>[] tab = table;
@@ -1594,6 +2299,7 @@ V put(K key, int hash, V value, boolean onlyIfAbsent) {
                oldValue = e.value;
                if (!onlyIfAbsent) {
                   e.value = value;
+                  reweigh(e, key, value);
                   eviction.onEntryHit(e);
                }
             } else {
@@ -1609,6 +2315,7 @@ V put(K key, int hash, V value, boolean onlyIfAbsent) {
                   }
                   // add a new entry
                   tab[index] = eviction.createNewEntry(key, hash, first, value);
+                  reweigh(tab[index], key, value);
                   // notify a miss
                   Set<HashEntry<K, V>> newlyEvicted = eviction.onEntryMiss(tab[index]);
                   if (!newlyEvicted.isEmpty()) {
@@ -1624,6 +2331,7 @@ V put(K key, int hash, V value, boolean onlyIfAbsent) {
                // When entry not present, attempt to activate if necessary
                map.evictionListener.onEntryActivated(key);
             }
+            evicted = evictToMemoryBudget(evicted);
             return oldValue;
          } finally {
             unlock();
@@ -1655,6 +2363,10 @@ void rehash() {
          HashEntry<K,V>[] newTable = HashEntry.newArray(oldCapacity<<1);
          threshold = (int)(newTable.length * loadFactor);
          int sizeMask = newTable.length - 1;
+         // only maps without eviction or bounded by memory alone are rehashed, and the latter must
+         // tell the eviction policy which entries were copied
+         Map<HashEntry<K,V>, HashEntry<K,V>> copies = eviction.strategy() == Eviction.NONE
+               ? null : new HashMap<HashEntry<K,V>, HashEntry<K,V>>();
          for (int i = 0; i < oldCapacity ; i++) {
             // We need to guarantee that any existing reads of old Map can
             //  proceed. So we cannot yet null out each bin.
@@ -1687,11 +2399,18 @@ void rehash() {
                      int k = p.hash & sizeMask;
                      HashEntry<K,V> n = newTable[k];
                      newTable[k] = eviction.createNewEntry(p.key, p.hash, n, p.value);
+                     newTable[k].weight = p.weight;
+                     if (copies != null) {
+                        copies.put(p, newTable[k]);
+                     }
                   }
                }
             }
          }
          table = newTable;
+         if (copies != null && !copies.isEmpty()) {
+            eviction.onEntriesCopied(copies);
+         }
       }
 
       /**
@@ -1727,6 +2446,7 @@ V remove(Object key, int hash, Object value, boolean isEvict) {
 
                   // e was removed
                   eviction.onEntryRemove(e);
+                  weight -= e.weight;
 
                   HashEntry<K, V> newFirst = e.next;
                   for (HashEntry<K, V> p = first; p != e; p = p.next) {
@@ -1734,6 +2454,7 @@ V remove(Object key, int hash, Object value, boolean isEvict) {
                      // allow p to be GC-ed
                      eviction.onEntryRemove(p);
                      newFirst = eviction.createNewEntry(p.key, p.hash, newFirst, p.value);
+                     newFirst.weight = p.weight;
                      // and notify eviction algorithm about new hash entries
                      eviction.onEntryMiss(newFirst);
                   }
@@ -1772,6 +2493,7 @@ void clear() {
                }
                ++modCount;
                eviction.clear();
+               weight = 0;
                count = 0; // write-volatile
             } finally {
                unlock();
@@ -1779,6 +2501,40 @@ void clear() {
          }
       }
 
+      /**
+       * Updates the estimated memory footprint of an entry whose value has been set.
+       * Call only while holding lock.
+       */
+      private void reweigh(HashEntry<K, V> e, K key, V value) {
+         int entryWeight = map.weigh(key, value);
+         weight += entryWeight - e.weight;
+         e.weight = entryWeight;
+      }
+
+      /**
+       * Evicts the entries chosen by the eviction policy until the segment fits in its memory
+       * budget again, when the map is bounded by memory. Call only while holding lock.
+       */
+      private Set<HashEntry<K, V>> evictToMemoryBudget(Set<HashEntry<K, V>> evicted) {
+         if (map.maxSegmentMemory < 0 || weight <= map.maxSegmentMemory) {
+            return evicted;
+         }
+         Set<HashEntry<K, V>> evictedCopy = new HashSet<HashEntry<K, V>>();
+         if (evicted != null) {
+            evictedCopy.addAll(evicted);
+         }
+         // apply the pending hits so that the policy picks the right victims
+         evictedCopy.addAll(eviction.execute());
+         while (weight > map.maxSegmentMemory) {
+            HashEntry<K, V> victim = eviction.nextVictim();
+            if (victim == null || remove(victim.key, victim.hash, null, true) == null) {
+               break;
+            }
+            evictedCopy.add(victim);
+         }
+         return evictedCopy;
+      }
+
       private Set<HashEntry<K, V>> attemptEviction(boolean lockedAlready) {
          boolean shouldAttemptEvict = lockedAlready || tryLock();
 
@@ -1854,26 +2610,70 @@ private void notifyEvictionListener(Set<HashEntry<K, V>> evicted) {
    public BoundedConcurrentHashMap(int capacity, int concurrencyLevel,
          Eviction evictionStrategy, EvictionListener<K, V> evictionListener,
          Equivalence<K> keyEquivalence, Equivalence<V> valueEquivalence) {
+      this(capacity, -1, concurrencyLevel, evictionStrategy, evictionListener, null, keyEquivalence, valueEquivalence);
+   }
+
+   /**
+    * Creates a new, empty map bounded by the estimated memory footprint of its elements, and
+    * optionally by their number as well.
+    *
+    * @param capacity
+    *            is the upper bound capacity for the number of elements in this map, or a negative
+    *            value if the number of elements is only bounded by memory
+    *
+    * @param maxMemory
+    *            is the upper bound, in bytes, for the estimated memory footprint of the elements
+    *            in this map, or a negative value if this map is not bounded by memory
+    *
+    * @param concurrencyLevel
+    *            the estimated number of concurrently updating threads. The implementation performs
+    *            internal sizing to try to accommodate this many threads.
+    *
+    * @param evictionStrategy
+    *            the algorithm used to evict elements from this map
+    *
+    * @param evictionListener
+    *            the evicton listener callback to be notified about evicted elements
+    *
+    * @param entrySizeCalculator
+    *            estimates the memory footprint of the elements, required if maxMemory is positive
+    *
+    * @throws IllegalArgumentException
+    *             if neither the capacity nor the maximum memory are positive or the
+    *             concurrencyLevel is nonpositive.
+    */
+   public BoundedConcurrentHashMap(int capacity, long maxMemory, int concurrencyLevel,
+         Eviction evictionStrategy, EvictionListener<K, V> evictionListener,
+         EntrySizeCalculator<? super K, ? super V> entrySizeCalculator,
+         Equivalence<K> keyEquivalence, Equivalence<V> valueEquivalence) {
       this.keyEquivalence = keyEquivalence;
       this.valueEquivalence = valueEquivalence;
 
-      if (capacity < 0 || concurrencyLevel <= 0) {
+      boolean memoryBounded = maxMemory > 0;
+      if ((capacity < 0 && !memoryBounded) || concurrencyLevel <= 0) {
          throw new IllegalArgumentException();
       }
 
-      concurrencyLevel = Math.min(capacity / 2, concurrencyLevel); // concurrencyLevel cannot be > capacity/2
-      concurrencyLevel = Math.max(concurrencyLevel, 1); // concurrencyLevel cannot be less than 1
+      if (capacity >= 0) {
+         concurrencyLevel = Math.min(capacity / 2, concurrencyLevel); // concurrencyLevel cannot be > capacity/2
+         concurrencyLevel = Math.max(concurrencyLevel, 1); // concurrencyLevel cannot be less than 1
 
-      // minimum two elements per segment
-      if (capacity < concurrencyLevel * 2 && capacity != 1) {
-         throw new IllegalArgumentException("Maximum capacity has to be at least twice the concurrencyLevel");
+         // minimum two elements per segment
+         if (capacity < concurrencyLevel * 2 && capacity != 1) {
+            throw new IllegalArgumentException("Maximum capacity has to be at least twice the concurrencyLevel");
+         }
       }
 
       if (evictionStrategy == null || evictionListener == null) {
          throw new IllegalArgumentException();
       }
 
+      if (memoryBounded && (entrySizeCalculator == null || evictionStrategy == Eviction.NONE)) {
+         throw new IllegalArgumentException("Bounding by memory requires an entry size calculator and an eviction strategy");
+      }
+
       this.evictionListener = evictionListener;
+      this.entrySizeCalculator = memoryBounded ? entrySizeCalculator : null;
 
       if (concurrencyLevel > MAX_SEGMENTS) {
          concurrencyLevel = MAX_SEGMENTS;
@@ -1890,17 +2690,25 @@ public BoundedConcurrentHashMap(int capacity, int concurrencyLevel,
       segmentMask = ssize - 1;
       this.segments = Segment.newArray(ssize);
 
-      if (capacity > MAXIMUM_CAPACITY) {
-         capacity = MAXIMUM_CAPACITY;
+      this.maxSegmentMemory = memoryBounded ? Math.max(maxMemory / ssize, 1) : -1;
+
+      int c;
+      if (capacity < 0) {
+         // only bounded by memory, so start small and let segments rehash as they grow
+         c = DEFAULT_MAXIMUM_CAPACITY / ssize;
+         this.evictCap = UNBOUNDED_CAPACITY;
+      } else {
+         if (capacity > MAXIMUM_CAPACITY) {
+            capacity = MAXIMUM_CAPACITY;
+         }
+         c = capacity / ssize;
+         this.evictCap = c;
       }
-      int c = capacity / ssize;
       int cap = 1;
       while (cap < c) {
          cap <<= 1;
       }
 
-      this.evictCap = c;
-
       for (int i = 0; i < this.segments.length; ++i) {
          this.segments[i] = new Segment<K, V>(cap, DEFAULT_LOAD_FACTOR, evictionStrategy, this);
       }
@@ -1973,6 +2781,23 @@ public BoundedConcurrentHashMap(Equivalence<K> keyEquivalence, Equivalence<V> va
       this(DEFAULT_MAXIMUM_CAPACITY, DEFAULT_CONCURRENCY_LEVEL, keyEquivalence, valueEquivalence);
    }
 
+   /**
+    * Returns the estimated memory footprint, in bytes, of the mappings in this map, or -1 if this
+    * map is not bounded by memory.
+    *
+    * @return the estimated memory footprint of the mappings in this map
+    */
+   public long memoryUsed() {
+      if (maxSegmentMemory < 0) {
+         return -1;
+      }
+      long memoryUsed = 0;
+      for (Segment<K, V> segment : segments) {
+         memoryUsed += segment.weight;
+      }
+      return memoryUsed;
+   }
+
    /**
     * Returns <tt>true</tt> if this map contains no key-value mappings.
     *
@@ -2087,6 +2912,18 @@ public V get(Object key) {
       return segmentFor(hash).get(key, hash);
    }
 
+   /**
+    * Returns the value to which the specified key is mapped, like {@link #get(Object)}, except that
+    * the access is not recorded by the eviction policy, so the entry keeps its place in the eviction
+    * order.
+    *
+    * @throws NullPointerException if the specified key is null
+    */
+   public V peek(Object key) {
+      int hash = hash(keyEquivalence.hashCode(key));
+      return segmentFor(hash).peek(key, hash);
+   }
+
    /**
     * Tests if the specified object is a key in this table.
     *
@@ -0,0 +1,121 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.util.concurrent;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A {@link NotifyingFuture} completed explicitly, through {@link #complete(Object)} or
+ * {@link #completeExceptionally(Throwable)}, by whoever produces its result.
+ * <p/>
+ * Unlike futures backed by a task submitted to an executor, no thread waits for the result. Listeners are invoked by
+ * the thread completing the future, or by the thread attaching them if the future is already done, so they should be
+ * quick and never block.
+ *
+ * @since 5.3
+ */
+public class CompletableNotifyingFuture<T> extends BaseNotifyingFuture<T> {
+
+   private final CountDownLatch done = new CountDownLatch(1);
+   private final AtomicReference<Outcome<T>> outcome = new AtomicReference<Outcome<T>>();
+
+   /**
+    * Completes the future with the given value, unless it is already done.
+    *
+    * @return true if this call completed the future
+    */
+   public boolean complete(T value) {
+      return setOutcome(new Outcome<T>(value, null));
+   }
+
+   /**
+    * Completes the future with the given failure, unless it is already done.
+    *
+    * @return true if this call completed the future
+    */
+   public boolean completeExceptionally(Throwable throwable) {
+      if (throwable == null)
+         throw new IllegalArgumentException("Failure cannot be null");
+      return setOutcome(new Outcome<T>(null, throwable));
+   }
+
+   private boolean setOutcome(Outcome<T> o) {
+      if (!outcome.compareAndSet(null, o))
+         return false;
+      done.countDown();
+      notifyDone();
+      return true;
+   }
+
+   @Override
+   public boolean cancel(boolean mayInterruptIfRunning) {
+      return completeExceptionally(new CancellationException());
+   }
+
+   @Override
+   public boolean isCancelled() {
+      Outcome<T> o = outcome.get();
+      return o != null && o.failure instanceof CancellationException;
+   }
+
+   @Override
+   public boolean isDone() {
+      return outcome.get() != null;
+   }
+
+   @Override
+   public T get() throws InterruptedException, ExecutionException {
+      done.await();
+      return report();
+   }
+
+   @Override
+   public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, java.util.concurrent.TimeoutException {
+      if (!done.await(timeout, unit))
+         throw new java.util.concurrent.TimeoutException();
+      return report();
+   }
+
+   private T report() throws ExecutionException {
+      Outcome<T> o = outcome.get();
+      if (o.failure == null)
+         return o.value;
+      if (o.failure instanceof CancellationException)
+         throw (CancellationException) o.failure;
+      throw new ExecutionException(o.failure);
+   }
+
+   private static final class Outcome<T> {
+      final T value;
+      final Throwable failure;
+
+      Outcome(T value, Throwable failure) {
+         this.value = value;
+         this.failure = failure;
+      }
+   }
+}
@@ -0,0 +1,72 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.util.concurrent;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * A {@link FutureListener} completing another future with the result of the future it listens to, once transformed
+ * by {@link #transform(Object)}. Failures of the future it listens to, and of the transformation, are passed on.
+ *
+ * @since 5.3
+ */
+public abstract class CompletingFutureListener<S, T> implements FutureListener<S> {
+
+   protected final CompletableNotifyingFuture<T> target;
+
+   protected CompletingFutureListener(CompletableNotifyingFuture<T> target) {
+      this.target = target;
+   }
+
+   /**
+    * Computes the result of the target future from the result of the future listened to.
+    */
+   protected abstract T transform(S value) throws Exception;
+
+   /**
+    * Called when the future listened to failed. Fails the target future by default.
+    */
+   protected void onFailure(Throwable cause) {
+      target.completeExceptionally(cause);
+   }
+
+   @Override
+   public final void futureDone(Future<S> future) {
+      S value;
+      try {
+         value = future.get();
+      } catch (ExecutionException e) {
+         onFailure(e.getCause());
+         return;
+      } catch (Throwable t) {
+         onFailure(t);
+         return;
+      }
+      try {
+         target.complete(transform(value));
+      } catch (Throwable t) {
+         target.completeExceptionally(t);
+      }
+   }
+}
@@ -0,0 +1,337 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.util.concurrent;
+
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+import org.infinispan.util.Equivalence;
+import org.infinispan.util.TimeService;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executes tasks in order of submission per key, and in parallel across keys.
+ * <p/>
+ * Keys are hashed onto a fixed number of lanes, each one running its tasks one at a time, in order of submission, on
+ * the threads of an underlying executor. A task affecting keys of several lanes, or whose keys are unknown and
+ * therefore affects all of them, acts as a barrier: it runs once all its lanes have reached it, and they only resume
+ * once it has completed. Lanes waiting for a barrier do not hold a thread of the underlying executor, but a lane keeps
+ * its thread as long as it has tasks to run, so the executor should have at least as many threads as there are lanes.
+ * If the executor rejects a lane, the submitting thread runs it instead.
+ * <p/>
+ * Lanes are bounded: submitting a task to a full lane blocks until the lane has run one of its tasks, so that a slow
+ * lane slows down the submitting thread, and through it the senders of the tasks.
+ * <p/>
+ * The queue depth and the time tasks wait in their queue before running are tracked per lane.
+ *
+ * @since 5.3
+ */
+@ThreadSafe
+public class KeyOrderedExecutor {
+
+   private static final Log log = LogFactory.getLog(KeyOrderedExecutor.class);
+
+   private final Executor executor;
+   private final TimeService timeService;
+   private final int laneCapacity;
+   private final Lane[] lanes;
+
+   public KeyOrderedExecutor(Executor executor, TimeService timeService, int numLanes, int laneCapacity) {
+      if (numLanes < 1)
+         throw new IllegalArgumentException("The number of lanes must be positive: " + numLanes);
+      if (laneCapacity < 1)
+         throw new IllegalArgumentException("The capacity of the lanes must be positive: " + laneCapacity);
+      this.executor = executor;
+      this.timeService = timeService;
+      this.laneCapacity = laneCapacity;
+      this.lanes = new Lane[numLanes];
+      for (int i = 0; i < numLanes; i++)
+         lanes[i] = new Lane();
+   }
+
+   /**
+    * Runs the task after the tasks previously submitted for any of its keys, and before the tasks submitted later
+    * for any of them.
+    *
+    * @param keys the keys affected by the task, or null or empty if they are unknown
+    * @param equivalence the equivalence used to hash the keys
+    * @param task the task to run
+    * @throws InterruptedException if interrupted while waiting for room in a full lane
+    */
+   public void execute(Collection<?> keys, Equivalence<Object> equivalence, Runnable task) throws InterruptedException {
+      long now = timeService.time();
+      if (keys == null || keys.isEmpty()) {
+         enqueueBarrier(lanes, new Task(task, now, lanes.length));
+         return;
+      }
+
+      Lane first = null;
+      boolean[] affected = null;
+      int numAffected = 0;
+      for (Object key : keys) {
+         Lane lane = lanes[laneIndex(equivalence.hashCode(key))];
+         if (first == null) {
+            first = lane;
+            numAffected = 1;
+         } else if (lane != first) {
+            if (affected == null) {
+               affected = new boolean[lanes.length];
+               affected[indexOf(first)] = true;
+            }
+            int index = indexOf(lane);
+            if (!affected[index]) {
+               affected[index] = true;
+               numAffected++;
+            }
+         }
+      }
+
+      if (numAffected == 1) {
+         if (first.enqueue(new Task(task, now, 1)))
+            first.schedule();
+      } else {
+         Lane[] barrierLanes = new Lane[numAffected];
+         for (int i = 0, j = 0; i < lanes.length; i++) {
+            if (affected[i])
+               barrierLanes[j++] = lanes[i];
+         }
+         enqueueBarrier(barrierLanes, new Task(task, now, numAffected));
+      }
+   }
+
+   private void enqueueBarrier(Lane[] barrierLanes, Task task) throws InterruptedException {
+      task.lanes = barrierLanes;
+      boolean[] schedule = new boolean[barrierLanes.length];
+      // Barriers must be queued in the same order on every lane, or lanes could wait for each other forever
+      synchronized (this) {
+         for (int i = 0; i < barrierLanes.length; i++)
+            schedule[i] = barrierLanes[i].enqueue(task);
+      }
+      for (int i = 0; i < barrierLanes.length; i++) {
+         if (schedule[i])
+            barrierLanes[i].schedule();
+      }
+   }
+
+   private int laneIndex(int hashCode) {
+      int h = hashCode ^ (hashCode >>> 16);
+      return (h & Integer.MAX_VALUE) % lanes.length;
+   }
+
+   private int indexOf(Lane lane) {
+      for (int i = 0; i < lanes.length; i++) {
+         if (lanes[i] == lane)
+            return i;
+      }
+      throw new IllegalStateException();
+   }
+
+   public int getNumberOfLanes() {
+      return lanes.length;
+   }
+
+   /**
+    * Returns the number of tasks queued on the given lane, including the running one.
+    */
+   public int getQueueDepth(int lane) {
+      return lanes[lane].depth();
+   }
+
+   /**
+    * Returns the highest number of tasks queued on the given lane.
+    */
+   public int getMaxQueueDepth(int lane) {
+      return lanes[lane].maxDepth;
+   }
+
+   /**
+    * Returns the number of tasks run by the given lane.
+    */
+   public long getExecutedTasks(int lane) {
+      return lanes[lane].executed.get();
+   }
+
+   /**
+    * Returns the average time, in microseconds, the tasks of the given lane waited before running.
+    */
+   public long getAverageWaitTime(int lane) {
+      Lane l = lanes[lane];
+      long executed = l.executed.get();
+      return executed == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(l.totalWait.get() / executed);
+   }
+
+   /**
+    * Returns the longest time, in microseconds, a task of the given lane waited before running.
+    */
+   public long getMaxWaitTime(int lane) {
+      return TimeUnit.NANOSECONDS.toMicros(lanes[lane].maxWait.get());
+   }
+
+   /**
+    * Returns the statistics of each lane, with wait times in microseconds.
+    */
+   public String printLaneStatistics() {
+      StringBuilder sb = new StringBuilder("[");
+      for (int i = 0; i < lanes.length; i++) {
+         if (i > 0)
+            sb.append(", ");
+         sb.append("{depth=").append(getQueueDepth(i))
+               .append(", maxDepth=").append(getMaxQueueDepth(i))
+               .append(", executed=").append(getExecutedTasks(i))
+               .append(", averageWait=").append(getAverageWaitTime(i))
+               .append(", maxWait=").append(getMaxWaitTime(i))
+               .append('}');
+      }
+      return sb.append(']').toString();
+   }
+
+   public void resetStatistics() {
+      for (Lane lane : lanes) {
+         synchronized (lane) {
+            lane.maxDepth = lane.queue.size();
+         }
+         lane.executed.set(0);
+         lane.totalWait.set(0);
+         lane.maxWait.set(0);
+      }
+   }
+
+   private static final class Task {
+      final Runnable runnable;
+      final long submitTime;
+      final AtomicInteger pendingLanes;
+      Lane[] lanes;
+
+      Task(Runnable runnable, long submitTime, int numLanes) {
+         this.runnable = runnable;
+         this.submitTime = submitTime;
+         this.pendingLanes = numLanes > 1 ? new AtomicInteger(numLanes) : null;
+      }
+   }
+
+   private final class Lane implements Runnable {
+      @GuardedBy("this")
+      final ArrayDeque<Task> queue = new ArrayDeque<Task>();
+      @GuardedBy("this")
+      boolean scheduled;
+      volatile int maxDepth;
+      final AtomicLong executed = new AtomicLong();
+      final AtomicLong totalWait = new AtomicLong();
+      final AtomicLong maxWait = new AtomicLong();
+
+      /**
+       * Queues the task, waiting while the lane is full.
+       *
+       * @return whether the lane was idle, and must be scheduled by the caller
+       */
+      boolean enqueue(Task task) throws InterruptedException {
+         synchronized (this) {
+            while (queue.size() >= laneCapacity)
+               wait();
+            queue.add(task);
+            if (queue.size() > maxDepth)
+               maxDepth = queue.size();
+            boolean schedule = !scheduled;
+            scheduled = true;
+            return schedule;
+         }
+      }
+
+      void schedule() {
+         try {
+            executor.execute(this);
+         } catch (RejectedExecutionException e) {
+            // the lane is still marked as scheduled, so it must run here or it would never run again
+            run();
+         }
+      }
+
+      synchronized void poll() {
+         queue.poll();
+         if (queue.size() == laneCapacity - 1)
+            notifyAll();
+      }
+
+      synchronized int depth() {
+         return queue.size();
+      }
+
+      @Override
+      public void run() {
+         for (;;) {
+            Task task;
+            synchronized (this) {
+               task = queue.peek();
+               if (task == null) {
+                  scheduled = false;
+                  return;
+               }
+            }
+            if (task.pendingLanes != null && task.pendingLanes.decrementAndGet() > 0) {
+               // Park until the last lane reaching the barrier runs it, the lane stays scheduled meanwhile
+               return;
+            }
+            runTask(task);
+            poll();
+            if (task.pendingLanes != null) {
+               for (Lane lane : task.lanes) {
+                  if (lane != this)
+                     lane.resume();
+               }
+            }
+         }
+      }
+
+      /**
+       * Removes the completed barrier this lane was parked on, and schedules it again.
+       */
+      void resume() {
+         poll();
+         schedule();
+      }
+
+      private void runTask(Task task) {
+         long wait = timeService.time() - task.submitTime;
+         executed.incrementAndGet();
+         totalWait.addAndGet(wait);
+         long max;
+         while (wait > (max = maxWait.get())) {
+            if (maxWait.compareAndSet(max, wait))
+               break;
+         }
+         try {
+            task.runnable.run();
+         } catch (Throwable t) {
+            log.errorf(t, "Unexpected error running task %s", task.runnable);
+         }
+      }
+   }
+}
@@ -125,6 +125,10 @@ public Object getOwner(Object key) {
 
          if (l instanceof OwnableReentrantLock) {
             return ((OwnableReentrantLock) l).getOwner();
+         } else if (l instanceof LockWord) {
+            Object owner = ((LockWord) l).getOwner();
+            if (owner != null)
+               return owner;
          } else if (l instanceof VisibleOwnerReentrantLock) {
             Thread owner = ((VisibleOwnerReentrantLock) l).getOwner();
             // Don't assume the key is unlocked if getOwner() returned null.
@@ -0,0 +1,222 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.util.concurrent.locks;
+
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A lightweight lock that supports reentrancy based on owner, like {@link OwnableReentrantLock}, but whose state is a
+ * single owner reference acquired with a compare-and-swap.
+ * <p/>
+ * Uncontended acquisitions and releases neither allocate nor queue: only threads that fail to acquire the lock after
+ * spinning for a short while register themselves as waiters and park until the owner releases the lock, or until
+ * their timeout elapses. The lock is not fair, a releasing owner wakes up the longest waiting thread but other threads
+ * may barge in.
+ * <p/>
+ * The owner is the thread for non-transactional invocations, or the {@link org.infinispan.transaction.xa.GlobalTransaction}
+ * otherwise. The methods of the {@link Lock} interface use the current thread as the owner.
+ *
+ * @see org.infinispan.util.concurrent.locks.containers.LockWordStripedLockContainer
+ * @since 5.3
+ */
+@ThreadSafe
+public final class LockWord implements Lock {
+
+   private static final AtomicReferenceFieldUpdater<LockWord, Object> OWNER_UPDATER =
+         AtomicReferenceFieldUpdater.newUpdater(LockWord.class, Object.class, "owner");
+
+   /**
+    * Spinning only pays off when the owner can make progress on another processor.
+    */
+   private static final int MAX_SPINS = Runtime.getRuntime().availableProcessors() > 1 ? 64 : 0;
+
+   private volatile Object owner;
+
+   /**
+    * Number of holds of the owner, only written by the owner. Volatile because a transaction may release its locks
+    * from a different thread than the one that acquired them.
+    */
+   private volatile int holds;
+
+   private final ConcurrentLinkedQueue<Thread> waiters = new ConcurrentLinkedQueue<Thread>();
+
+   /**
+    * Acquires the lock if it is free or already held by the given owner, without waiting.
+    *
+    * @return true if the lock was acquired
+    */
+   public boolean tryLock(Object requestor) {
+      Object current = owner;
+      if (current == null) {
+         if (OWNER_UPDATER.compareAndSet(this, null, requestor)) {
+            holds = 1;
+            return true;
+         }
+      } else if (current == requestor || current.equals(requestor)) {
+         holds++;
+         return true;
+      }
+      return false;
+   }
+
+   /**
+    * Acquires the lock, waiting at most the given time for the current owner to release it.
+    *
+    * @return true if the lock was acquired, false if the timeout elapsed first
+    * @throws InterruptedException if the current thread was interrupted while waiting
+    */
+   public boolean tryLock(Object requestor, long time, TimeUnit unit) throws InterruptedException {
+      if (tryLock(requestor))
+         return true;
+      long deadline = System.nanoTime() + unit.toNanos(time);
+      for (int spins = MAX_SPINS; spins > 0; spins--) {
+         if (owner == null && tryLock(requestor))
+            return true;
+      }
+      return await(requestor, deadline);
+   }
+
+   private boolean await(Object requestor, long deadline) throws InterruptedException {
+      Thread current = Thread.currentThread();
+      // registering before trying again makes sure a release either lets us in or wakes us up
+      waiters.add(current);
+      boolean acquired = false;
+      try {
+         for (;;) {
+            if (tryLock(requestor)) {
+               acquired = true;
+               return true;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0)
+               return false;
+            LockSupport.parkNanos(this, remaining);
+            if (Thread.interrupted())
+               throw new InterruptedException();
+         }
+      } finally {
+         waiters.remove(current);
+         // we may have consumed the wake up meant for the next waiter
+         if (!acquired && owner == null)
+            wakeUpNext();
+      }
+   }
+
+   /**
+    * Acquires the lock, waiting uninterruptibly for as long as it takes.
+    */
+   public void lock(Object requestor) {
+      boolean interrupted = false;
+      for (;;) {
+         try {
+            if (tryLock(requestor, Long.MAX_VALUE, TimeUnit.NANOSECONDS))
+               break;
+         } catch (InterruptedException e) {
+            interrupted = true;
+         }
+      }
+      if (interrupted)
+         Thread.currentThread().interrupt();
+   }
+
+   /**
+    * Releases one hold of the lock.
+    *
+    * @throws IllegalMonitorStateException if the lock is not held by the given owner
+    */
+   public void unlock(Object requestor) {
+      Object current = owner;
+      if (current == null || (current != requestor && !current.equals(requestor)))
+         throw new IllegalMonitorStateException(this.toString());
+      if (--holds == 0) {
+         owner = null;
+         wakeUpNext();
+      }
+   }
+
+   private void wakeUpNext() {
+      Thread next = waiters.peek();
+      if (next != null)
+         LockSupport.unpark(next);
+   }
+
+   /**
+    * @return the owner of the lock, or null if it is not locked
+    */
+   public Object getOwner() {
+      return owner;
+   }
+
+   public boolean isLocked() {
+      return owner != null;
+   }
+
+   public boolean isHeldBy(Object requestor) {
+      Object current = owner;
+      return current != null && (current == requestor || current.equals(requestor));
+   }
+
+   @Override
+   public void lock() {
+      lock(Thread.currentThread());
+   }
+
+   @Override
+   public void lockInterruptibly() throws InterruptedException {
+      if (!tryLock(Thread.currentThread(), Long.MAX_VALUE, TimeUnit.NANOSECONDS))
+         throw new IllegalStateException("Unbounded lock acquisition timed out");
+   }
+
+   @Override
+   public boolean tryLock() {
+      return tryLock(Thread.currentThread());
+   }
+
+   @Override
+   public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+      return tryLock(Thread.currentThread(), time, unit);
+   }
+
+   @Override
+   public void unlock() {
+      unlock(Thread.currentThread());
+   }
+
+   @Override
+   public Condition newCondition() {
+      throw new UnsupportedOperationException();
+   }
+
+   @Override
+   public String toString() {
+      Object current = owner;
+      return super.toString() + (current == null ? "[Unlocked]" : "[Locked by " + current + "]");
+   }
+}
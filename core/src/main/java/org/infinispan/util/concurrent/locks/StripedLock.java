@@ -26,6 +26,8 @@
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
@@ -195,6 +197,44 @@ public void acquireAllLocks(List<Object> keys, boolean exclusive) {
     }
    }
 
+   /**
+    * Acquires the locks guarding all the keys passed in. Each lock is acquired once, in the same order as {@link
+    * #acquireGlobalLock(boolean, long)}, so that threads locking overlapping sets of keys cannot deadlock. Blocks until
+    * all locks are acquired.
+    *
+    * @param keys      keys to lock
+    * @param exclusive whether locks are exclusive.
+    * @see #releaseLocksInOrder(java.util.Collection, boolean)
+    */
+   public void acquireLocksInOrder(Collection<?> keys, boolean exclusive) {
+      BitSet stripes = stripesOf(keys);
+      for (int i = stripes.nextSetBit(0); i >= 0; i = stripes.nextSetBit(i + 1)) {
+         Lock toAcquire = exclusive ? sharedLocks[i].writeLock() : sharedLocks[i].readLock();
+         toAcquire.lock();
+      }
+      if (trace) log.tracef("%s acquired for %s", exclusive ? "WLs" : "RLs", keys);
+   }
+
+   /**
+    * Releases the locks acquired by {@link #acquireLocksInOrder(java.util.Collection, boolean)} for the same keys.
+    */
+   public void releaseLocksInOrder(Collection<?> keys, boolean exclusive) {
+      BitSet stripes = stripesOf(keys);
+      for (int i = stripes.nextSetBit(0); i >= 0; i = stripes.nextSetBit(i + 1)) {
+         Lock toRelease = exclusive ? sharedLocks[i].writeLock() : sharedLocks[i].readLock();
+         toRelease.unlock();
+      }
+      if (trace) log.tracef("%s released for %s", exclusive ? "WLs" : "RLs", keys);
+   }
+
+   private BitSet stripesOf(Collection<?> keys) {
+      BitSet stripes = new BitSet(sharedLocks.length);
+      for (Object k : keys) {
+         stripes.set(hashToIndex(k));
+      }
+      return stripes;
+   }
+
    /**
     * Returns the total number of locks held by this class.
     */
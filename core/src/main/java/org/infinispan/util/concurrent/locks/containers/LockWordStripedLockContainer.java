@@ -0,0 +1,136 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.util.concurrent.locks.containers;
+
+import net.jcip.annotations.ThreadSafe;
+import org.infinispan.util.concurrent.locks.LockWord;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A striped LockContainer that holds {@link LockWord}s.
+ * <p/>
+ * Unlike the per-entry containers, acquiring and releasing a lock does not create, register and remove a lock
+ * instance for the key, so the uncontended path boils down to a compare-and-swap on the owner of the stripe. Lock words
+ * being small, the container creates {@link #STRIPES_PER_CONCURRENCY_LEVEL} times more stripes than the other striped
+ * containers, which keeps unrelated keys from contending on the same stripe.
+ * <p/>
+ * Owners are tracked like in {@link OwnableReentrantStripedLockContainer}, so this container can be used by both
+ * transactional and non-transactional caches.
+ *
+ * @see org.infinispan.configuration.cache.LockingConfigurationBuilder#useLockWords(boolean)
+ * @since 5.3
+ */
+@ThreadSafe
+public class LockWordStripedLockContainer extends AbstractStripedLockContainer<LockWord> {
+
+   static final int STRIPES_PER_CONCURRENCY_LEVEL = 16;
+
+   private LockWord[] sharedLocks;
+   private static final Log log = LogFactory.getLog(LockWordStripedLockContainer.class);
+
+   @Override
+   protected Log getLog() {
+      return log;
+   }
+
+   /**
+    * Creates a new LockContainer which uses a certain number of shared lock words across all elements that need to be
+    * locked.
+    *
+    * @param concurrencyLevel concurrency level for number of stripes to create.  Stripes are created in powers of two,
+    *                         with a minimum of concurrencyLevel * {@link #STRIPES_PER_CONCURRENCY_LEVEL} created.
+    */
+   public LockWordStripedLockContainer(int concurrencyLevel) {
+      initLocks(calculateNumberOfSegments(concurrencyLevel * STRIPES_PER_CONCURRENCY_LEVEL));
+   }
+
+   @Override
+   protected void initLocks(int numLocks) {
+      sharedLocks = new LockWord[numLocks];
+      for (int i = 0; i < numLocks; i++) sharedLocks[i] = new LockWord();
+   }
+
+   @Override
+   public final LockWord getLock(Object object) {
+      return sharedLocks[hashToIndex(object)];
+   }
+
+   @Override
+   public final int getNumLocksHeld() {
+      int i = 0;
+      for (LockWord l : sharedLocks)
+         if (l.isLocked()) {
+            i++;
+         }
+      return i;
+   }
+
+   @Override
+   public int size() {
+      return sharedLocks.length;
+   }
+
+   @Override
+   public final boolean ownsLock(Object object, Object owner) {
+      LockWord lock = getLock(object);
+      return lock.isHeldBy(owner);
+   }
+
+   @Override
+   public final boolean isLocked(Object object) {
+      LockWord lock = getLock(object);
+      return lock.isLocked();
+   }
+
+   @Override
+   public LockWord acquireLock(Object lockOwner, Object key, long timeout, TimeUnit unit) throws InterruptedException {
+      LockWord lock = getLock(key);
+      // unlike the other lock implementations, a failed acquisition never leaves the lock held
+      return lock.tryLock(lockOwner, timeout, unit) ? lock : null;
+   }
+
+   public String toString() {
+      return "LockWordStripedLockContainer{" +
+            "sharedLocks=" + (sharedLocks == null ? null : Arrays.asList(sharedLocks)) +
+            '}';
+   }
+
+   @Override
+   protected void unlock(LockWord l, Object owner) {
+      l.unlock(owner);
+   }
+
+   @Override
+   protected boolean tryLock(LockWord lock, long timeout, TimeUnit unit, Object lockOwner) throws InterruptedException {
+      return lock.tryLock(lockOwner, timeout, unit);
+   }
+
+   @Override
+   protected void lock(LockWord lock, Object lockOwner) {
+      lock.lock(lockOwner);
+   }
+}
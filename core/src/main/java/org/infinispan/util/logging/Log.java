@@ -888,5 +888,9 @@ void asyncStoreShutdownTimeoutTooHigh(long configuredAsyncStopTimeout,
    @Message(value = "Unexpected initial version type (only NumericVersion instances supported): %s", id = 229)
    IllegalArgumentException unexpectedInitialVersion(String className);
 
+   @LogMessage(level = ERROR)
+   @Message(value = "Failed to send a bundle of %d asynchronous commands to %s", id = 230)
+   void failedToSendCommandBundle(int commands, Object destination, @Cause Throwable cause);
+
 }
 
@@ -202,6 +202,21 @@ public void testClusterNameNull() {
       gc.transport().clusterName(null).build();
    }
 
+   @Test(expectedExceptions = ConfigurationException.class)
+   public void testMaxMemoryWithOffHeapDataContainer() {
+      ConfigurationBuilder cb = new ConfigurationBuilder();
+      cb.eviction().maxMemory(1024 * 1024).dataContainer().offHeap(true);
+      cb.build();
+   }
+
+   @Test(expectedExceptions = ConfigurationException.class)
+   public void testMaxMemoryWithSegmentedDataContainer() {
+      ConfigurationBuilder cb = new ConfigurationBuilder();
+      cb.clustering().cacheMode(CacheMode.DIST_SYNC)
+            .eviction().maxMemory(1024 * 1024).dataContainer().segmented(true);
+      cb.build();
+   }
+
    @Test
    public void testSchema() throws Exception {
       FileLookup lookup = FileLookupFactory.newInstance();
@@ -0,0 +1,89 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.container;
+
+import org.infinispan.commons.hash.MurmurHash3;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.distribution.TestAddress;
+import org.infinispan.distribution.ch.DefaultConsistentHash;
+import org.infinispan.distribution.ch.DefaultConsistentHashFactory;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.util.AnyEquivalence;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+/**
+ * Runs the {@link SimpleDataContainerTest} suite against the segmented data container and checks the per-segment
+ * operations.
+ *
+ * @since 5.3
+ */
+@Test(groups = "unit", testName = "container.DefaultSegmentedDataContainerTest")
+public class DefaultSegmentedDataContainerTest extends SimpleDataContainerTest {
+
+   private static final int NUM_SEGMENTS = 60;
+
+   @Override
+   protected DataContainer createContainer() {
+      DefaultSegmentedDataContainer dc = new DefaultSegmentedDataContainer(16, NUM_SEGMENTS, new MurmurHash3(),
+            AnyEquivalence.getInstance(), AnyEquivalence.getInstance());
+      InternalEntryFactoryImpl internalEntryFactory = new InternalEntryFactoryImpl();
+      internalEntryFactory.injectTimeService(TIME_SERVICE);
+      dc.initialize(internalEntryFactory, TIME_SERVICE, null);
+      return dc;
+   }
+
+   public void testSegmentsMatchConsistentHash() {
+      List<Address> members = Collections.<Address>singletonList(new TestAddress(0));
+      DefaultConsistentHash ch = new DefaultConsistentHashFactory().create(new MurmurHash3(), 1, NUM_SEGMENTS, members);
+      SegmentedDataContainer sdc = (SegmentedDataContainer) dc;
+      for (int i = 0; i < 1000; i++) {
+         String key = "key" + i;
+         assertEquals(ch.getSegment(key), sdc.getSegment(key));
+      }
+   }
+
+   public void testSegmentIterationAndSize() {
+      SegmentedDataContainer sdc = (SegmentedDataContainer) dc;
+      for (int i = 0; i < 1000; i++) dc.put("key" + i, "value", new EmbeddedMetadata.Builder().build());
+
+      int segment = sdc.getSegment("key0");
+      int count = 0;
+      for (Iterator<InternalCacheEntry> it = sdc.iterator(segment); it.hasNext(); ) {
+         assertEquals(segment, sdc.getSegment(it.next().getKey()));
+         count++;
+      }
+      assertEquals(count, sdc.size(segment));
+
+      int total = 0;
+      for (int i = 0; i < NUM_SEGMENTS; i++) total += sdc.size(i);
+      assertEquals(1000, total);
+      assertEquals(1000, dc.size());
+   }
+}
@@ -0,0 +1,181 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.container;
+
+import org.infinispan.container.entries.ImmortalCacheEntry;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.entries.MortalCacheEntry;
+import org.infinispan.container.entries.TransientCacheEntry;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests the {@link ExpirationIndex} against a plain map, using explicit timestamps.
+ *
+ * @since 5.3
+ */
+@Test(groups = "unit", testName = "container.ExpirationIndexTest")
+public class ExpirationIndexTest extends AbstractInfinispanTest {
+
+   private static final long NOW = 1000000000L;
+
+   ExpirationIndex index;
+   ConcurrentMap<Object, InternalCacheEntry> entries;
+   AtomicInteger lookups;
+   ExpirationIndex.Container container;
+
+   @BeforeMethod
+   public void setUp() {
+      index = new ExpirationIndex();
+      entries = new ConcurrentHashMap<Object, InternalCacheEntry>();
+      lookups = new AtomicInteger();
+      container = new ExpirationIndex.Container() {
+         @Override
+         public InternalCacheEntry peek(Object key) {
+            lookups.incrementAndGet();
+            return entries.get(key);
+         }
+
+         @Override
+         public boolean remove(Object key, InternalCacheEntry entry) {
+            return entries.remove(key, entry);
+         }
+      };
+   }
+
+   public void testOnlyExpiringKeysAreVisited() {
+      for (int i = 0; i < 100; i++)
+         store("immortal" + i, new ImmortalCacheEntry("immortal" + i, "v"));
+      for (int i = 0; i < 100; i++)
+         store("later" + i, new MortalCacheEntry("later" + i, "v", 60000, NOW));
+      for (int i = 0; i < 10; i++)
+         store("soon" + i, new MortalCacheEntry("soon" + i, "v", 100, NOW));
+
+      index.purgeExpired(NOW + 5000, container);
+
+      assertEquals(10, lookups.get());
+      assertEquals(200, entries.size());
+      assertEquals(10, index.getExpirations());
+      assertEquals(4900, index.getAverageExpirationLag());
+      assertEquals(4900, index.getMaxExpirationLag());
+
+      index.purgeExpired(NOW + 61000, container);
+      assertEquals(110, lookups.get());
+      assertEquals(100, entries.size());
+      assertEquals(110, index.getExpirations());
+
+      index.resetStatistics();
+      assertEquals(0, index.getExpirations());
+      assertEquals(0, index.getAverageExpirationLag());
+      assertEquals(0, index.getMaxExpirationLag());
+   }
+
+   public void testTouchedEntryIsRescheduled() {
+      TransientCacheEntry entry = new TransientCacheEntry("k", "v", 1000, NOW);
+      store("k", entry);
+
+      entry.touch(NOW + 900);
+      index.purgeExpired(NOW + 1500, container);
+      assertTrue(entries.containsKey("k"));
+
+      index.purgeExpired(NOW + 1800, container);
+      assertTrue(entries.containsKey("k"));
+
+      index.purgeExpired(NOW + 2000, container);
+      assertFalse(entries.containsKey("k"));
+      assertEquals(1, index.getExpirations());
+   }
+
+   public void testReplacedEntryIsRescheduled() {
+      store("k", new MortalCacheEntry("k", "v", 1000, NOW));
+      // expires later, so the existing record is enough
+      store("k", new MortalCacheEntry("k", "v2", 5000, NOW));
+      index.purgeExpired(NOW + 2000, container);
+      assertTrue(entries.containsKey("k"));
+
+      // expires earlier, so the key is scheduled again
+      store("k", new MortalCacheEntry("k", "v3", 2000, NOW + 1000));
+      index.purgeExpired(NOW + 3500, container);
+      assertFalse(entries.containsKey("k"));
+      assertEquals(1, index.getExpirations());
+
+      // the record left for the replaced entry is dropped
+      lookups.set(0);
+      index.purgeExpired(NOW + 10000, container);
+      assertEquals(1, lookups.get());
+   }
+
+   public void testRemovedAndImmortalEntriesAreDropped() {
+      store("removed", new MortalCacheEntry("removed", "v", 1000, NOW));
+      store("immortal", new MortalCacheEntry("immortal", "v", 1000, NOW));
+      entries.remove("removed");
+      store("immortal", new ImmortalCacheEntry("immortal", "v"));
+
+      index.purgeExpired(NOW + 2000, container);
+      assertEquals(2, lookups.get());
+      assertTrue(entries.containsKey("immortal"));
+      assertEquals(0, index.getExpirations());
+
+      index.purgeExpired(NOW + 100000, container);
+      assertEquals(2, lookups.get());
+   }
+
+   public void testIndexStaysBoundedUnderRemoveChurn() {
+      for (int i = 0; i < 10; i++)
+         store("live" + i, new MortalCacheEntry("live" + i, "v", 60000, NOW));
+      for (int i = 0; i < 100000; i++) {
+         Object key = "churn" + (i % 5000);
+         store(key, new MortalCacheEntry(key, "v", 60000, NOW));
+         entries.remove(key);
+         if (i % 1000 == 999) {
+            // writers never visit the container, compaction is left to the reaper
+            assertEquals(0, lookups.get());
+            index.purgeExpired(NOW + 1000, container);
+            lookups.set(0);
+            assertTrue(index.size() <= ExpirationIndex.MIN_COMPACTION_THRESHOLD);
+         }
+      }
+
+      // compacting never expires or loses the records of the entries still stored
+      index.purgeExpired(NOW + 61000, container);
+      assertEquals(10, index.getExpirations());
+      assertTrue(entries.isEmpty());
+      assertEquals(0, index.size());
+   }
+
+   private void store(Object key, InternalCacheEntry entry) {
+      InternalCacheEntry original = entries.get(key);
+      long originalExpiryTime = original != null && original.canExpire() ? original.getExpiryTime() : -1;
+      InternalCacheEntry replaced = entries.put(key, entry);
+      index.onEntryStored(key, entry, original, originalExpiryTime, replaced);
+   }
+}
@@ -0,0 +1,209 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.container;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.offheap.OffHeapDataContainer;
+import org.infinispan.eviction.ActivationManager;
+import org.infinispan.eviction.EvictionManager;
+import org.infinispan.eviction.PassivationManager;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.infinispan.util.AnyEquivalence;
+import org.mockito.ArgumentCaptor;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.infinispan.test.TestingUtil.extractCacheMarshaller;
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNotSame;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Runs the {@link SimpleDataContainerTest} suite against the off-heap data container, using the production
+ * marshaller.
+ *
+ * @since 5.3
+ */
+@Test(groups = "unit", testName = "container.OffHeapDataContainerTest")
+public class OffHeapDataContainerTest extends SimpleDataContainerTest {
+
+   private EmbeddedCacheManager cm;
+
+   @Override
+   protected DataContainer createContainer() {
+      return createContainer(-1);
+   }
+
+   private DataContainer createContainer(int maxEntries) {
+      if (cm == null)
+         cm = TestCacheManagerFactory.createLocalCacheManager(false);
+
+      OffHeapDataContainer dc = (OffHeapDataContainer) (maxEntries < 0
+            ? OffHeapDataContainer.unBoundedDataContainer(16, AnyEquivalence.getInstance())
+            : OffHeapDataContainer.boundedDataContainer(1, maxEntries, AnyEquivalence.getInstance()));
+      InternalEntryFactoryImpl internalEntryFactory = new InternalEntryFactoryImpl();
+      internalEntryFactory.injectTimeService(TIME_SERVICE);
+      dc.initialize(extractCacheMarshaller(cm.getCache()), mock(EvictionManager.class),
+            mock(PassivationManager.class), mock(ActivationManager.class), internalEntryFactory, TIME_SERVICE);
+      return dc;
+   }
+
+   @AfterMethod
+   @Override
+   public void tearDown() {
+      ((OffHeapDataContainer) dc).stop();
+      super.tearDown();
+   }
+
+   @AfterClass
+   public void destroy() {
+      if (cm != null) cm.stop();
+   }
+
+   @Override
+   public void testUpdatingLastUsed() throws Exception {
+      // Entries are copied out of native memory, so the last used stamp can
+      // only be verified by reading the entry again
+      long idle = 600000;
+      dc.put("k", "v", new EmbeddedMetadata.Builder().maxIdle(idle, TimeUnit.MILLISECONDS).build());
+      long oldTime = System.currentTimeMillis();
+      Thread.sleep(100); // for time calc granularity
+      InternalCacheEntry ice = dc.get("k");
+      assertEquals(transienttype(), ice.getClass());
+      assertTrue(ice.getLastUsed() > oldTime);
+      assertEquals(idle, ice.getMaxIdle());
+      assertEquals(-1, ice.getLifespan());
+
+      long lastUsed = ice.getLastUsed();
+      Thread.sleep(100); // for time calc granularity
+      assertTrue(dc.get("k").getLastUsed() > lastUsed);
+      assertNotSame(ice, dc.peek("k"));
+   }
+
+   @Override
+   public void testEntrySet() {
+      dc.put("k1", "v1", new EmbeddedMetadata.Builder().lifespan(100, TimeUnit.MINUTES).build());
+      dc.put("k2", "v2", new EmbeddedMetadata.Builder().build());
+      dc.put("k3", "v3", new EmbeddedMetadata.Builder().maxIdle(100, TimeUnit.MINUTES).build());
+
+      Map<Object, Object> actual = new HashMap<Object, Object>();
+      for (InternalCacheEntry ice : dc.entrySet()) actual.put(ice.getKey(), ice.getValue());
+
+      Map<Object, Object> expected = new HashMap<Object, Object>();
+      expected.put("k1", "v1");
+      expected.put("k2", "v2");
+      expected.put("k3", "v3");
+      assertEquals(expected, actual);
+   }
+
+   public void testRemoveAndClearReleaseMemory() {
+      long before = OffHeapDataContainer.getOffHeapAllocatedBytes();
+      for (int i = 0; i < 100; i++) dc.put(i, "value" + i, new EmbeddedMetadata.Builder().build());
+      assertTrue(OffHeapDataContainer.getOffHeapAllocatedBytes() > before);
+      assertEquals("value7", dc.remove(7).getValue());
+      assertNull(dc.get(7));
+      assertEquals(99, dc.size());
+      dc.clear();
+      assertEquals(0, dc.size());
+      assertFalse(dc.containsKey(8));
+   }
+
+   public void testIterationAcrossResize() {
+      for (int i = 0; i < 1000; i++) dc.put(i, "value", new EmbeddedMetadata.Builder().build());
+      int count = 0;
+      for (InternalCacheEntry ice : dc) {
+         // Grow the tables while iterating
+         dc.put(-1 - (Integer) ice.getKey(), "value", new EmbeddedMetadata.Builder().build());
+         if ((Integer) ice.getKey() >= 0) count++;
+      }
+      assertEquals(1000, count);
+   }
+
+   public void testBoundedEvictsLeastRecentlyUsed() {
+      PassivationManager passivator = mock(PassivationManager.class);
+      EvictionManager evictionManager = mock(EvictionManager.class);
+      InternalEntryFactoryImpl internalEntryFactory = new InternalEntryFactoryImpl();
+      internalEntryFactory.injectTimeService(TIME_SERVICE);
+      OffHeapDataContainer bounded = (OffHeapDataContainer) createContainer(3);
+      bounded.initialize(extractCacheMarshaller(cm.getCache()), evictionManager, passivator,
+            mock(ActivationManager.class), internalEntryFactory, TIME_SERVICE);
+      try {
+         bounded.put("a", "1", new EmbeddedMetadata.Builder().build());
+         bounded.put("b", "2", new EmbeddedMetadata.Builder().build());
+         bounded.put("c", "3", new EmbeddedMetadata.Builder().build());
+         bounded.get("a");
+         bounded.put("d", "4", new EmbeddedMetadata.Builder().build());
+
+         assertEquals(3, bounded.size());
+         assertTrue(bounded.containsKey("a"));
+         assertFalse(bounded.containsKey("b"));
+
+         ArgumentCaptor<InternalCacheEntry> passivated = ArgumentCaptor.forClass(InternalCacheEntry.class);
+         verify(passivator).passivate(passivated.capture());
+         assertEquals("b", passivated.getValue().getKey());
+         verify(evictionManager).onEntryEviction(anyMapOf(Object.class, InternalCacheEntry.class));
+      } finally {
+         bounded.stop();
+      }
+   }
+
+   public void testStopReleasesMemory() {
+      // Only the memory of the cache's container should be accounted for
+      ((OffHeapDataContainer) dc).stop();
+      assertEquals(0, OffHeapDataContainer.getOffHeapAllocatedBytes());
+
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.dataContainer().offHeap(true);
+      EmbeddedCacheManager offHeapCm = TestCacheManagerFactory.createCacheManager(builder);
+      try {
+         Cache<Object, Object> cache = offHeapCm.getCache();
+         for (int i = 0; i < 100; i++) cache.put(i, "value" + i);
+         assertTrue(OffHeapDataContainer.getOffHeapAllocatedBytes() > 0);
+         cache.stop();
+         assertEquals(0, OffHeapDataContainer.getOffHeapAllocatedBytes());
+
+         // The container allocates its tables again when the cache is restarted
+         cache.start();
+         cache.put("k", "v");
+         assertEquals("v", cache.get("k"));
+      } finally {
+         TestingUtil.killCacheManagers(offHeapCm);
+      }
+      assertEquals(0, OffHeapDataContainer.getOffHeapAllocatedBytes());
+   }
+}
@@ -0,0 +1,156 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.container.entries;
+
+import org.infinispan.container.entries.metadata.MetadataImmortalCacheEntry;
+import org.infinispan.container.entries.metadata.MetadataMortalCacheEntry;
+import org.infinispan.container.entries.metadata.MetadataTransientCacheEntry;
+import org.infinispan.container.entries.metadata.MetadataTransientMortalCacheEntry;
+import org.infinispan.container.versioning.SimpleClusteredVersion;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+/**
+ * Checks that every {@link InternalCacheEntry} type is a single object, not counting the key, value
+ * and metadata objects it references, and logs its estimated size in bytes per entry.
+ * <p/>
+ * Sizes are estimated for a 64-bit JVM with compressed references: a 12 byte header, 4 byte
+ * references and 8 byte alignment, ignoring the padding between fields.
+ *
+ * @since 5.3
+ */
+@Test(groups = "unit", testName = "container.entries.InternalCacheEntryFootprintTest")
+public class InternalCacheEntryFootprintTest {
+
+   private static final Log log = LogFactory.getLog(InternalCacheEntryFootprintTest.class);
+
+   private static final int HEADER_SIZE = 12;
+   private static final int REFERENCE_SIZE = 4;
+   private static final int OBJECT_ALIGNMENT = 8;
+
+   public void testEntriesHaveNoSeparateHolders() {
+      Object key = "key";
+      Object value = "value";
+      Metadata metadata = new EmbeddedMetadata.Builder().lifespan(1000).maxIdle(1000)
+            .version(new SimpleClusteredVersion(1, 1)).build();
+      long now = System.currentTimeMillis();
+
+      Map<String, InternalCacheEntry> entries = new LinkedHashMap<String, InternalCacheEntry>();
+      entries.put("Immortal", new ImmortalCacheEntry(key, value));
+      entries.put("Mortal", new MortalCacheEntry(key, value, 1000, now));
+      entries.put("Transient", new TransientCacheEntry(key, value, 1000, now));
+      entries.put("TransientMortal", new TransientMortalCacheEntry(key, value, 1000, 1000, now));
+      entries.put("MetadataImmortal", new MetadataImmortalCacheEntry(key, value, metadata));
+      entries.put("MetadataMortal", new MetadataMortalCacheEntry(key, value, metadata, now));
+      entries.put("MetadataTransient", new MetadataTransientCacheEntry(key, value, metadata, now));
+      entries.put("MetadataTransientMortal", new MetadataTransientMortalCacheEntry(key, value, metadata, now));
+
+      for (Map.Entry<String, InternalCacheEntry> e : entries.entrySet()) {
+         InternalCacheEntry entry = e.getValue();
+         List<Object> reachable = reachable(entry, key, value, metadata);
+         log.debugf("%s: %d bytes per entry", e.getKey(), estimatedSize(entry));
+         // the value, lifespan and timestamps are inlined, so the entry is a single object
+         assertEquals(e.getKey() + " holds objects of its own: " + reachable, 1, reachable.size());
+      }
+   }
+
+   /**
+    * Returns the objects reachable from the given root, including it but not the excluded ones.
+    */
+   private static List<Object> reachable(Object root, Object... excluded) {
+      Map<Object, Boolean> visited = new IdentityHashMap<Object, Boolean>();
+      for (Object o : excluded)
+         visited.put(o, Boolean.TRUE);
+      List<Object> reachable = new ArrayList<Object>();
+      List<Object> pending = new ArrayList<Object>();
+      pending.add(root);
+      while (!pending.isEmpty()) {
+         Object o = pending.remove(pending.size() - 1);
+         if (o == null || visited.put(o, Boolean.TRUE) != null)
+            continue;
+         reachable.add(o);
+         if (o.getClass().isArray()) {
+            if (!o.getClass().getComponentType().isPrimitive()) {
+               for (int i = 0; i < Array.getLength(o); i++)
+                  pending.add(Array.get(o, i));
+            }
+            continue;
+         }
+         for (Field field : instanceFields(o.getClass())) {
+            if (!field.getType().isPrimitive()) {
+               field.setAccessible(true);
+               try {
+                  pending.add(field.get(o));
+               } catch (IllegalAccessException e) {
+                  throw new AssertionError(e);
+               }
+            }
+         }
+      }
+      return reachable;
+   }
+
+   private static long estimatedSize(Object o) {
+      long size = HEADER_SIZE;
+      for (Field field : instanceFields(o.getClass()))
+         size += fieldSize(field.getType());
+      return (size + OBJECT_ALIGNMENT - 1) / OBJECT_ALIGNMENT * OBJECT_ALIGNMENT;
+   }
+
+   private static List<Field> instanceFields(Class<?> clazz) {
+      List<Field> fields = new ArrayList<Field>();
+      for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+         for (Field field : c.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers()))
+               fields.add(field);
+         }
+      }
+      return fields;
+   }
+
+   private static int fieldSize(Class<?> type) {
+      if (type == long.class || type == double.class)
+         return 8;
+      if (type == int.class || type == float.class)
+         return 4;
+      if (type == short.class || type == char.class)
+         return 2;
+      if (type == byte.class || type == boolean.class)
+         return 1;
+      return REFERENCE_SIZE;
+   }
+}
@@ -0,0 +1,156 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.distribution;
+
+import org.infinispan.Cache;
+import org.infinispan.CacheException;
+import org.infinispan.commands.VisitableCommand;
+import org.infinispan.commands.write.PutKeyValueCommand;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.interceptors.base.CommandInterceptor;
+import org.infinispan.util.concurrent.FutureListener;
+import org.infinispan.util.concurrent.NotifyingFuture;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.infinispan.test.TestingUtil.k;
+import static org.infinispan.test.TestingUtil.v;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Tests that asynchronous methods invoked on a node which does not own the key are invoked by the calling thread, and
+ * complete their future once the owner responds.
+ *
+ * @since 5.3
+ */
+@Test(groups = "functional", testName = "distribution.NonBlockingAsyncMethodsTest")
+public class NonBlockingAsyncMethodsTest extends BaseDistFunctionalTest {
+
+   public NonBlockingAsyncMethodsTest() {
+      INIT_CLUSTER_SIZE = 2;
+      numOwners = 1;
+      sync = true;
+      tx = false;
+      l1CacheEnabled = false;
+   }
+
+   public void testWritesInvokedByCallingThread(Method m) throws Exception {
+      Cache<Object, String> nonOwner = getNonOwners(k(m), 1)[0];
+      InvokingThreadInterceptor interceptor = addInvokingThreadInterceptor(nonOwner);
+      try {
+         assertNull(nonOwner.putAsync(k(m), v(m)).get());
+         assertTrue(interceptor.futureReturned);
+         interceptor.futureReturned = false;
+
+         assertEquals(nonOwner.replaceAsync(k(m), v(m, 1)).get(), v(m));
+         assertTrue(interceptor.futureReturned);
+         interceptor.futureReturned = false;
+
+         assertEquals(nonOwner.removeAsync(k(m)).get(), v(m, 1));
+         assertTrue(interceptor.futureReturned);
+      } finally {
+         nonOwner.getAdvancedCache().removeInterceptor(InvokingThreadInterceptor.class);
+      }
+      assertNull(getOwners(k(m), 1)[0].get(k(m)));
+   }
+
+   public void testGetInvokedByCallingThread(Method m) throws Exception {
+      getOwners(k(m), 1)[0].put(k(m), v(m));
+      Cache<Object, String> nonOwner = getNonOwners(k(m), 1)[0];
+      InvokingThreadInterceptor interceptor = addInvokingThreadInterceptor(nonOwner);
+      try {
+         final CountDownLatch notified = new CountDownLatch(1);
+         final AtomicReference<String> listenerThread = new AtomicReference<String>();
+         NotifyingFuture<String> f = nonOwner.getAsync(k(m)).attachListener(new FutureListener<String>() {
+            @Override
+            public void futureDone(Future<String> future) {
+               listenerThread.set(Thread.currentThread().getName());
+               notified.countDown();
+            }
+         });
+         assertEquals(f.get(), v(m));
+         assertTrue(notified.await(10, TimeUnit.SECONDS));
+         assertTrue(interceptor.futureReturned);
+         // listeners never run on the JGroups thread that received the response
+         String threadName = listenerThread.get();
+         assertTrue(threadName.startsWith("asyncTransportThread")
+               || threadName.equals(Thread.currentThread().getName()), threadName);
+      } finally {
+         nonOwner.getAdvancedCache().removeInterceptor(InvokingThreadInterceptor.class);
+      }
+   }
+
+   public void testRemoteFailureCompletesFuture(Method m) throws Exception {
+      Cache<Object, String> owner = getOwners(k(m), 1)[0];
+      owner.getAdvancedCache().addInterceptor(new FailingInterceptor(), 1);
+      try {
+         getNonOwners(k(m), 1)[0].putAsync(k(m), v(m)).get();
+         fail("The put should have failed on the owner");
+      } catch (ExecutionException e) {
+         assertTrue(e.getCause() instanceof CacheException, "Unexpected failure " + e.getCause());
+      } finally {
+         owner.getAdvancedCache().removeInterceptor(FailingInterceptor.class);
+      }
+   }
+
+   private InvokingThreadInterceptor addInvokingThreadInterceptor(Cache<Object, String> cache) {
+      InvokingThreadInterceptor interceptor = new InvokingThreadInterceptor(Thread.currentThread());
+      cache.getAdvancedCache().addInterceptor(interceptor, 0);
+      return interceptor;
+   }
+
+   static class InvokingThreadInterceptor extends CommandInterceptor {
+      final Thread expectedThread;
+      volatile boolean futureReturned;
+
+      InvokingThreadInterceptor(Thread expectedThread) {
+         this.expectedThread = expectedThread;
+      }
+
+      @Override
+      protected Object handleDefault(InvocationContext ctx, VisitableCommand command) throws Throwable {
+         Object retval = invokeNextInterceptor(ctx, command);
+         if (Thread.currentThread() == expectedThread && retval instanceof NotifyingFuture)
+            futureReturned = true;
+         return retval;
+      }
+   }
+
+   static class FailingInterceptor extends CommandInterceptor {
+      @Override
+      public Object visitPutKeyValueCommand(InvocationContext ctx, PutKeyValueCommand command) throws Throwable {
+         if (!ctx.isOriginLocal())
+            throw new CacheException("Induced failure");
+         return invokeNextInterceptor(ctx, command);
+      }
+   }
+}
@@ -0,0 +1,170 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.distribution.topologyaware;
+
+import org.infinispan.commands.read.GetKeyValueCommand;
+import org.infinispan.commands.remote.ClusteredGetCommand;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.interceptors.base.CommandInterceptor;
+import org.infinispan.interceptors.distribution.BaseDistributionInterceptor;
+import org.infinispan.remoting.rpc.RpcManager;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.CleanupAfterMethod;
+import org.infinispan.tx.dld.ControlledRpcManager;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+/**
+ * Tests that remote gets are only sent to the nearest owner when reading from the nearest owner is enabled, and to the
+ * other owners only if the nearest one does not return the entry.
+ *
+ * @since 5.3
+ */
+@CleanupAfterMethod
+@Test(groups = "functional", testName = "distribution.topologyaware.ReadFromNearestOwnerTest")
+public class ReadFromNearestOwnerTest extends MultipleCacheManagersTest {
+
+   private final RemoteGetCounter[] counters = new RemoteGetCounter[3];
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      builder.clustering().hash().numOwners(2).readFromNearestOwner(true).l1().disable();
+
+      // nodes 0 and 1 share a rack, node 2 is in another site, so every key has an owner in each site
+      addNode(builder, "s0", "r0", "m0");
+      addNode(builder, "s0", "r0", "m1");
+      addNode(builder, "s1", "r1", "m2");
+      waitForClusterToForm();
+
+      for (int i = 0; i < counters.length; i++) {
+         counters[i] = new RemoteGetCounter();
+         advancedCache(i).addInterceptor(counters[i], 0);
+      }
+   }
+
+   private void addNode(ConfigurationBuilder builder, String siteId, String rackId, String machineId) {
+      GlobalConfigurationBuilder gcb = GlobalConfigurationBuilder.defaultClusteredBuilder();
+      gcb.transport().siteId(siteId).rackId(rackId).machineId(machineId);
+      addClusterEnabledCacheManager(gcb, builder);
+   }
+
+   public void testGetFromSameRack() {
+      Object key = keyOwnedBy(address(1), address(2));
+      cache(2).put(key, "value");
+      resetCounters();
+
+      BaseDistributionInterceptor distribution = TestingUtil.findInterceptor(cache(0), BaseDistributionInterceptor.class);
+      distribution.setStatisticsEnabled(true);
+      distribution.resetStatistics();
+
+      assertEquals(cache(0).get(key), "value");
+      assertEquals(counters[1].remoteGets.get(), 1);
+      assertEquals(counters[2].remoteGets.get(), 0);
+      assertEquals(distribution.getRemoteGetsSameRack(), 1);
+      assertEquals(distribution.getRemoteGetsOtherSite(), 0);
+   }
+
+   public void testMissingKeyAsksRemainingOwners() {
+      Object key = keyOwnedBy(address(1), address(2));
+      resetCounters();
+
+      assertNull(cache(0).get(key));
+      assertEquals(counters[1].remoteGets.get(), 1);
+      assertEquals(counters[2].remoteGets.get(), 1);
+   }
+
+   public void testNearestOwnerStopped() throws Exception {
+      final Object key = keyOwnedBy(address(1), address(2));
+      cache(2).put(key, "value");
+      resetCounters();
+
+      ControlledRpcManager rpcManager = new ControlledRpcManager(TestingUtil.extractComponent(cache(0), RpcManager.class));
+      rpcManager.blockBefore(ClusteredGetCommand.class);
+      TestingUtil.replaceComponent(cache(0), RpcManager.class, rpcManager, true);
+
+      Future<Object> get = fork(new Callable<Object>() {
+         @Override
+         public Object call() throws Exception {
+            return cache(0).get(key);
+         }
+      });
+      // the remote get already targets the nearest owner when it stops
+      rpcManager.waitForCommandToBlock();
+      cache(1).stop();
+      rpcManager.stopBlocking();
+
+      assertEquals(get.get(10, TimeUnit.SECONDS), "value");
+      assertEquals(counters[2].remoteGets.get(), 1);
+   }
+
+   public void testOwnersReadLocally() {
+      Object key = keyOwnedBy(address(1), address(2));
+      cache(0).put(key, "value");
+      resetCounters();
+
+      assertEquals(cache(1).get(key), "value");
+      assertEquals(cache(2).get(key), "value");
+      assertEquals(counters[1].remoteGets.get(), 0);
+      assertEquals(counters[2].remoteGets.get(), 0);
+   }
+
+   private Object keyOwnedBy(Address... owners) {
+      for (int i = 0; ; i++) {
+         Object key = "key" + i;
+         List<Address> locations = advancedCache(0).getDistributionManager().locate(key);
+         if (locations.size() == owners.length && locations.containsAll(Arrays.asList(owners)))
+            return key;
+      }
+   }
+
+   private void resetCounters() {
+      for (RemoteGetCounter counter : counters)
+         counter.remoteGets.set(0);
+   }
+
+   static class RemoteGetCounter extends CommandInterceptor {
+      final AtomicInteger remoteGets = new AtomicInteger();
+
+      @Override
+      public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand command) throws Throwable {
+         if (!ctx.isOriginLocal())
+            remoteGets.incrementAndGet();
+         return invokeNextInterceptor(ctx, command);
+      }
+   }
+}
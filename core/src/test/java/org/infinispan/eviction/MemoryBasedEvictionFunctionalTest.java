@@ -0,0 +1,89 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.eviction;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.DefaultDataContainer;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests eviction of a cache bounded by the memory footprint of its entries rather than by their
+ * number.
+ *
+ * @since 5.3
+ */
+@Test(groups = "functional", testName = "eviction.MemoryBasedEvictionFunctionalTest")
+public class MemoryBasedEvictionFunctionalTest extends SingleCacheManagerTest {
+
+   private static final long MAX_MEMORY = 256 * 1024;
+   private static final int VALUE_SIZE = 1024;
+
+   public MemoryBasedEvictionFunctionalTest() {
+      cleanup = CleanupPhase.AFTER_METHOD;
+   }
+
+   protected EvictionStrategy getEvictionStrategy() {
+      return EvictionStrategy.LIRS;
+   }
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      builder.eviction().maxMemory(MAX_MEMORY).strategy(getEvictionStrategy());
+      EmbeddedCacheManager cm = TestCacheManagerFactory.createCacheManager(builder);
+      cache = cm.getCache();
+      return cm;
+   }
+
+   public void testEvictionByMemory() {
+      DefaultDataContainer container = (DefaultDataContainer) cache.getAdvancedCache().getDataContainer();
+      assertEquals(0, container.memoryUsed());
+
+      int numEntries = (int) (4 * MAX_MEMORY / VALUE_SIZE);
+      for (int i = 0; i < numEntries; i++) {
+         cache.put("key-" + i, new byte[VALUE_SIZE]);
+         assertTrue("Memory budget exceeded: " + container.memoryUsed(), container.memoryUsed() <= MAX_MEMORY);
+      }
+      assertTrue("Expected entries to be evicted, size was " + cache.size(), cache.size() < numEntries / 4);
+      assertTrue("Evicted too eagerly, size was " + cache.size(), cache.size() > numEntries / 16);
+   }
+
+   public void testMemoryReleasedOnRemoval() {
+      DefaultDataContainer container = (DefaultDataContainer) cache.getAdvancedCache().getDataContainer();
+      cache.put("key", new byte[VALUE_SIZE]);
+      long used = container.memoryUsed();
+      assertTrue("Entry footprint should include its value, was " + used, used > VALUE_SIZE);
+
+      cache.put("key", new byte[2 * VALUE_SIZE]);
+      assertEquals(used + VALUE_SIZE, container.memoryUsed());
+
+      cache.remove("key");
+      assertEquals(0, container.memoryUsed());
+   }
+}
@@ -28,9 +28,15 @@
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
+import org.infinispan.commands.VisitableCommand;
+import org.infinispan.commands.read.GetKeyValueCommand;
+import org.infinispan.commands.write.PutKeyValueCommand;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.context.impl.NonTxInvocationContext;
 import org.infinispan.factories.components.ComponentMetadataRepo;
 import org.infinispan.factories.components.ModuleMetadataFileFinder;
 import org.infinispan.interceptors.base.CommandInterceptor;
+import org.infinispan.util.AnyEquivalence;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 import org.testng.annotations.Test;
@@ -79,6 +85,68 @@ public void testConcurrentAddRemove() throws Exception {
       assert ic.asList().size() == 5 : "Resulting interceptor chain was actually " + ic.asList();
    }
 
+   public void testReadsSkipInterceptorsNotActingOnThem() {
+      ComponentMetadataRepo componentMetadataRepo = new ComponentMetadataRepo();
+      componentMetadataRepo.initialize(Collections.<ModuleMetadataFileFinder>emptyList(), InterceptorChainTest.class.getClassLoader());
+      InterceptorChain ic = new InterceptorChain(componentMetadataRepo);
+      ic.setFirstInChain(new TerminalInterceptor());
+      WriteCountingInterceptor writeCounting = new WriteCountingInterceptor();
+      ic.addInterceptor(writeCounting, 0);
+      ic.addInterceptor(new NotificationInterceptor(), 0);
+
+      assert !new NotificationInterceptor().actsOnReads();
+      assert new CacheMgmtInterceptor().actsOnReads();
+      assert new TerminalInterceptor().actsOnReads();
+
+      InvocationContext ctx = new NonTxInvocationContext(AnyEquivalence.getInstance());
+      assert "v".equals(ic.invoke(ctx, new GetKeyValueCommand("k", null, false)));
+      assert writeCounting.invocations == 0 : "Read went through " + writeCounting.invocations + " times";
+      ic.invoke(ctx, new PutKeyValueCommand());
+      assert writeCounting.invocations == 1;
+
+      // interceptors added later take part in reads again
+      WriteCountingInterceptor readCounting = new WriteCountingInterceptor() {
+         @Override
+         public boolean actsOnReads() {
+            return true;
+         }
+      };
+      ic.addInterceptor(readCounting, 1);
+      assert "v".equals(ic.invoke(ctx, new GetKeyValueCommand("k", null, false)));
+      assert readCounting.invocations == 1;
+      assert writeCounting.invocations == 1;
+   }
+
+   static class TerminalInterceptor extends CommandInterceptor {
+      @Override
+      public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand command) {
+         return "v";
+      }
+
+      @Override
+      protected Object handleDefault(InvocationContext ctx, VisitableCommand command) {
+         return null;
+      }
+   }
+
+   /**
+    * Sees every command, but claims not to act on reads.
+    */
+   static class WriteCountingInterceptor extends CommandInterceptor {
+      volatile int invocations;
+
+      @Override
+      protected Object handleDefault(InvocationContext ctx, VisitableCommand command) throws Throwable {
+         invocations++;
+         return invokeNextInterceptor(ctx, command);
+      }
+
+      @Override
+      public boolean actsOnReads() {
+         return false;
+      }
+   }
+
    private static class InterceptorChainUpdater implements Callable<Void> {
       private final InterceptorChain ic;
       private final CyclicBarrier barrier;
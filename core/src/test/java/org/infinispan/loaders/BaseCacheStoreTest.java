@@ -542,6 +542,39 @@ public void testLoadKeys() throws CacheLoaderException {
       assert !s.contains("k3");
    }
 
+   public void testLoadEntries() throws CacheLoaderException {
+      cs.store(TestInternalCacheEntryFactory.create("k1", "v1"));
+      cs.store(TestInternalCacheEntryFactory.create("k2", "v2"));
+      cs.store(TestInternalCacheEntryFactory.create("k3", "v3"));
+      cs.store(TestInternalCacheEntryFactory.create("k4", "v4"));
+
+      final Set<Object> handled = new HashSet<Object>();
+      cs.loadEntries(new KeyFilter() {
+         @Override
+         public boolean accept(Object key) {
+            return !"k2".equals(key) && !"k4".equals(key);
+         }
+      }, new EntryHandler() {
+         @Override
+         public void handle(InternalCacheEntry entry) {
+            assert entry.getValue().equals("v" + ((String) entry.getKey()).substring(1)) : "Unexpected entry " + entry;
+            assert handled.add(entry.getKey()) : "Key handled twice: " + entry.getKey();
+         }
+      });
+      assertEquals(2, handled.size());
+      assert handled.contains("k1");
+      assert handled.contains("k3");
+
+      handled.clear();
+      cs.loadEntries(KeyFilter.ACCEPT_ALL, new EntryHandler() {
+         @Override
+         public void handle(InternalCacheEntry entry) {
+            handled.add(entry.getKey());
+         }
+      });
+      assertEquals(4, handled.size());
+   }
+
    public void testStreamingAPI() throws IOException, CacheLoaderException {
       cs.store(TestInternalCacheEntryFactory.create("k1", "v1"));
       cs.store(TestInternalCacheEntryFactory.create("k2", "v2"));
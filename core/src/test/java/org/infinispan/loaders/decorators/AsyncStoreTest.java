@@ -32,6 +32,8 @@
 import org.infinispan.loaders.CacheLoaderException;
 import org.infinispan.loaders.CacheLoaderMetadata;
 import org.infinispan.loaders.CacheStore;
+import org.infinispan.loaders.EntryHandler;
+import org.infinispan.loaders.KeyFilter;
 import org.infinispan.loaders.dummy.DummyInMemoryCacheStore;
 import org.infinispan.loaders.modifications.Clear;
 import org.infinispan.loaders.modifications.Modification;
@@ -50,7 +52,10 @@
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
@@ -121,6 +126,72 @@ public void testMultiplePutsOnSameKey() throws Exception {
       doTestSameKeyRemove(key);
    }
 
+   @Test(timeOut=10000)
+   public void testRepeatedWritesCoalescedWithinFlushInterval(Method m) throws Exception {
+      DummyInMemoryCacheStore underlying = new DummyInMemoryCacheStore();
+      AsyncStoreConfig asyncConfig = new AsyncStoreConfig().threadPoolSize(10).flushInterval(1000L);
+      store = new AsyncStore(underlying, asyncConfig);
+      store.init(new DummyInMemoryCacheStore.Cfg().storeName(m.getName()), getCache(), null);
+      store.start();
+
+      final String key = k(m);
+      final int number = 1000;
+      for (int i = 0; i < number; i++)
+         store.store(TestInternalCacheEntryFactory.create(key, v(m, i)));
+      assert store.getQueueDepth() == 1;
+
+      underlying.blockUntilCacheStoreContains(key, v(m, number - 1), 5000);
+      assert underlying.stats().get("store") < number;
+      assert store.getModificationsQueued() == number;
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return store.getQueueDepth() == 0 && store.getFlushCount() > 0;
+         }
+      });
+      assert store.getCoalescingRatio() > 1;
+   }
+
+   @Test(timeOut=10000)
+   public void testLoadEntriesMergesQueuedModifications(Method m) throws Exception {
+      DummyInMemoryCacheStore underlying = new DummyInMemoryCacheStore();
+      // keep the modifications queued for the whole test
+      AsyncStoreConfig asyncConfig = new AsyncStoreConfig().threadPoolSize(10).flushInterval(60000L);
+      store = new AsyncStore(underlying, asyncConfig);
+      store.init(new DummyInMemoryCacheStore.Cfg().storeName(m.getName()), getCache(), null);
+      store.start();
+
+      underlying.store(TestInternalCacheEntryFactory.create("k1", "v1"));
+      underlying.store(TestInternalCacheEntryFactory.create("k2", "v2"));
+      underlying.store(TestInternalCacheEntryFactory.create("k3", "v3"));
+      store.remove("k1");
+      store.store(TestInternalCacheEntryFactory.create("k2", "v2-updated"));
+      store.store(TestInternalCacheEntryFactory.create("k4", "v4"));
+
+      final Map<Object, Object> loaded = new HashMap<Object, Object>();
+      store.loadEntries(new KeyFilter() {
+         @Override
+         public boolean accept(Object key) {
+            return !"k3".equals(key);
+         }
+      }, new EntryHandler() {
+         @Override
+         public void handle(InternalCacheEntry entry) {
+            assert loaded.put(entry.getKey(), entry.getValue()) == null : "Entry handled twice: " + entry;
+         }
+      });
+      assert loaded.size() == 2 : loaded;
+      assert "v2-updated".equals(loaded.get("k2"));
+      assert "v4".equals(loaded.get("k4"));
+      assert underlying.stats().get("load") == 0 : "Modified keys should not be loaded from the underlying store";
+
+      Set<InternalCacheEntry> all = store.loadAll();
+      assert all.size() == 3 : all;
+      for (InternalCacheEntry entry : all)
+         assert !"k1".equals(entry.getKey());
+      assert store.load(2).size() == 2;
+   }
+
    @Test(timeOut=10000)
    public void testRestrictionOnAddingToAsyncQueue() throws Exception {
       TestCacheManagerFactory.backgroundTestStarted(this);
@@ -32,6 +32,8 @@
 import org.infinispan.loaders.CacheLoaderException;
 import org.infinispan.loaders.CacheStore;
 import org.infinispan.loaders.CacheStoreConfig;
+import org.infinispan.loaders.EntryHandler;
+import org.infinispan.loaders.KeyFilter;
 import org.infinispan.loaders.dummy.DummyInMemoryCacheStore;
 import org.infinispan.loaders.modifications.Clear;
 import org.infinispan.loaders.modifications.Modification;
@@ -43,9 +45,11 @@
 import org.testng.annotations.Test;
 
 import java.io.*;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.testng.Assert.assertEquals;
@@ -199,6 +203,27 @@ public void testGetsFromMultipleSrcs() throws Exception {
       assert !store2.containsKey("k3");
    }
 
+   public void testLoadEntriesSkipsExpiredCopies() throws Exception {
+      long now = System.currentTimeMillis();
+      // k1 has expired on store1 but is still live on store2
+      store1.store(TestInternalCacheEntryFactory.create("k1", "stale", now - 10000, 1000, now - 10000, -1));
+      store2.store(TestInternalCacheEntryFactory.create("k1", "v1"));
+      store1.store(TestInternalCacheEntryFactory.create("k2", "v2"));
+      store2.store(TestInternalCacheEntryFactory.create("k2", "v2"));
+
+      final Map<Object, Object> loaded = new HashMap<Object, Object>();
+      cs.loadEntries(KeyFilter.ACCEPT_ALL, new EntryHandler() {
+         @Override
+         public void handle(InternalCacheEntry entry) {
+            assert loaded.put(entry.getKey(), entry.getValue()) == null : "Entry handled twice: " + entry;
+         }
+      });
+
+      assertEquals(loaded.size(), 2);
+      assertEquals(loaded.get("k1"), "v1");
+      assertEquals(loaded.get("k2"), "v2");
+   }
+
    public void testPropagatingOnePhaseCommit() throws Exception {
       List<Modification> list = new LinkedList<Modification>();
       list.add(new Store(TestInternalCacheEntryFactory.create("k1", "v1")));
@@ -0,0 +1,90 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.loaders.file;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.FileCacheStoreConfiguration;
+import org.infinispan.loaders.CacheLoaderException;
+import org.infinispan.loaders.CacheStore;
+import org.infinispan.test.fwk.TestInternalCacheEntryFactory;
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+
+/**
+ * Runs the file cache store tests with bucket files read through memory mappings.
+ *
+ * @since 5.3
+ */
+@Test(groups = "unit", testName = "loaders.file.FileCacheStoreMappedReadTest")
+public class FileCacheStoreMappedReadTest extends FileCacheStoreTest {
+
+   private static final long MAPPED_REGION_BUDGET = 4096;
+
+   @Override
+   protected CacheStore createCacheStore() throws CacheLoaderException {
+      clearTempDir();
+      fcs = new FileCacheStore();
+      FileCacheStoreConfig cfg = new FileCacheStoreConfig()
+         .fetchPersistentState(true)
+         .location(tmpDirectory)
+         .mappedRegionBudget(MAPPED_REGION_BUDGET)
+         .purgeSynchronously(true); // for more accurate unit testing
+      fcs.init(cfg, getCache(), getMarshaller());
+      fcs.start();
+      return fcs;
+   }
+
+   public void testMappingInvalidatedOnWrite() throws Exception {
+      cs.store(TestInternalCacheEntryFactory.create("k1", "v1"));
+      assertEquals("v1", cs.load("k1").getValue());
+      assert fcs.mappedRegions.getMappedBytes() > 0;
+
+      cs.store(TestInternalCacheEntryFactory.create("k1", "a considerably longer value than before"));
+      assertEquals("a considerably longer value than before", cs.load("k1").getValue());
+
+      cs.remove("k1");
+      assertNull(cs.load("k1"));
+      assertEquals(0, fcs.mappedRegions.getMappedBytes());
+   }
+
+   public void testMappedRegionBudget() throws Exception {
+      for (int i = 0; i < 100; i++) {
+         cs.store(TestInternalCacheEntryFactory.create("k" + i, "v" + i));
+      }
+      for (int i = 0; i < 100; i++) {
+         assertEquals("v" + i, cs.load("k" + i).getValue());
+         assert fcs.mappedRegions.getMappedBytes() <= MAPPED_REGION_BUDGET;
+      }
+   }
+
+   public void testConfigurationAdaptor() {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.loaders().addFileCacheStore().mappedRegionBudget(1024);
+      FileCacheStoreConfiguration configuration =
+            (FileCacheStoreConfiguration) builder.build().loaders().cacheLoaders().get(0);
+      assertEquals(1024, configuration.mappedRegionBudget());
+      assertEquals(1024, configuration.adapt().getMappedRegionBudget());
+   }
+}
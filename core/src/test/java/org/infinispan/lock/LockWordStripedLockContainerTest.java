@@ -0,0 +1,149 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.lock;
+
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.util.concurrent.locks.LockWord;
+import org.infinispan.util.concurrent.locks.containers.LockWordStripedLockContainer;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.AssertJUnit.*;
+
+/**
+ * Tests for {@link LockWordStripedLockContainer}.
+ *
+ * @since 5.3
+ */
+@Test(groups = "unit", testName = "lock.LockWordStripedLockContainerTest")
+public class LockWordStripedLockContainerTest extends AbstractInfinispanTest {
+
+   private LockWordStripedLockContainer lc;
+
+   @BeforeMethod
+   public void setUp() {
+      lc = new LockWordStripedLockContainer(32);
+   }
+
+   public void testStripes() {
+      assertEquals(512, lc.size());
+      assertEquals(lc.getLockId("k"), lc.getLockId(new String("k")));
+      assertSame(lc.getLock("k"), lc.getLock(new String("k")));
+   }
+
+   public void testReentrancyAndOwnership() throws Exception {
+      Object owner = new Object();
+      assertNotNull(lc.acquireLock(owner, "k", 0, TimeUnit.MILLISECONDS));
+      assertNotNull(lc.acquireLock(owner, "k", 0, TimeUnit.MILLISECONDS));
+      assertTrue(lc.isLocked("k"));
+      assertTrue(lc.ownsLock("k", owner));
+      assertFalse(lc.ownsLock("k", new Object()));
+      assertEquals(1, lc.getNumLocksHeld());
+
+      lc.releaseLock(owner, "k");
+      assertTrue(lc.ownsLock("k", owner));
+      lc.releaseLock(owner, "k");
+      assertFalse(lc.isLocked("k"));
+      assertEquals(0, lc.getNumLocksHeld());
+
+      // releasing a lock that is not held is harmless
+      lc.releaseLock(owner, "k");
+      assertFalse(lc.isLocked("k"));
+   }
+
+   public void testOwnersComparedByEquality() throws Exception {
+      assertNotNull(lc.acquireLock(new String("owner"), "k", 0, TimeUnit.MILLISECONDS));
+      assertTrue(lc.ownsLock("k", new String("owner")));
+      lc.releaseLock(new String("owner"), "k");
+      assertFalse(lc.isLocked("k"));
+   }
+
+   public void testTimeout() throws Exception {
+      Object owner = new Object();
+      lc.acquireLock(owner, "k", 0, TimeUnit.MILLISECONDS);
+      Future<LockWord> other = fork(new Callable<LockWord>() {
+         @Override
+         public LockWord call() throws Exception {
+            return lc.acquireLock(new Object(), "k", 100, TimeUnit.MILLISECONDS);
+         }
+      });
+      assertNull(other.get(10, TimeUnit.SECONDS));
+      assertTrue(lc.ownsLock("k", owner));
+      lc.releaseLock(owner, "k");
+      assertFalse(lc.isLocked("k"));
+   }
+
+   public void testWaiterAcquiresReleasedLock() throws Exception {
+      Object owner = new Object();
+      lc.acquireLock(owner, "k", 0, TimeUnit.MILLISECONDS);
+      final Object otherOwner = new Object();
+      Future<LockWord> other = fork(new Callable<LockWord>() {
+         @Override
+         public LockWord call() throws Exception {
+            return lc.acquireLock(otherOwner, "k", 10, TimeUnit.SECONDS);
+         }
+      });
+      Thread.sleep(100);
+      lc.releaseLock(owner, "k");
+      assertNotNull(other.get(10, TimeUnit.SECONDS));
+      assertTrue(lc.ownsLock("k", otherOwner));
+      lc.releaseLock(otherOwner, "k");
+   }
+
+   public void testMutualExclusion() throws Exception {
+      final int threads = 4;
+      final int iterations = 10000;
+      final CountDownLatch start = new CountDownLatch(1);
+      final AtomicInteger inside = new AtomicInteger();
+      final AtomicInteger violations = new AtomicInteger();
+      Future[] futures = new Future[threads];
+      for (int t = 0; t < threads; t++) {
+         futures[t] = fork(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+               Object owner = Thread.currentThread();
+               start.await();
+               for (int i = 0; i < iterations; i++) {
+                  assertNotNull(lc.acquireLock(owner, "k", 10, TimeUnit.SECONDS));
+                  if (inside.incrementAndGet() != 1)
+                     violations.incrementAndGet();
+                  inside.decrementAndGet();
+                  lc.releaseLock(owner, "k");
+               }
+               return null;
+            }
+         });
+      }
+      start.countDown();
+      for (Future future : futures)
+         future.get(60, TimeUnit.SECONDS);
+      assertEquals(0, violations.get());
+      assertFalse(lc.isLocked("k"));
+   }
+}
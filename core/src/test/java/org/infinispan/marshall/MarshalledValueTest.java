@@ -117,15 +117,15 @@ public void tearDown() {
    }
 
    private void assertOnlyOneRepresentationExists(MarshalledValue mv) {
-      assert (mv.instance != null && mv.raw == null) || (mv.instance == null && mv.raw != null) : "Only instance or raw representations should exist in a MarshalledValue; never both";
+      assert (mv.peekInstance() != null && mv.peekRaw() == null) || (mv.peekInstance() == null && mv.peekRaw() != null) : "Only instance or raw representations should exist in a MarshalledValue; never both";
    }
 
    private void assertSerialized(MarshalledValue mv) {
-      assert mv.raw != null : "Should be serialized";
+      assert mv.peekRaw() != null : "Should be serialized";
    }
 
    private void assertDeserialized(MarshalledValue mv) {
-      assert mv.instance != null : "Should be deserialized";
+      assert mv.peekInstance() != null : "Should be deserialized";
    }
 
    private void assertSerializationCounts(int serializationCount, int deserializationCount) {
@@ -470,18 +470,41 @@ public void testEquality() {
       MarshalledValue mv2 = new MarshalledValue(
             value, false, extractCacheMarshaller(cache(0, "replSync")));
 
-      // Simulate that the marshalled value had a bigger value before
-      mv2.instance = prevBytes;
+      // Simulate that the marshalled value had a bigger value before, so
+      // that the serialized buffer is larger than the serialized form
+      mv2.serialisedSize = prevBytes.length;
       mv2.serialize();
-      // Now back to the original instance and force it to serialize again
-      mv2.instance = value;
-      mv2.raw = null;
-      mv2.serialize();
-      mv2.instance = null;
+      mv2.compact(true, false);
 
       assertEquals(mv, mv2);
    }
 
+   public void testDeserializeCopy() {
+      Pojo pojo = new Pojo();
+      MarshalledValue mv = new MarshalledValue(pojo, true, extractCacheMarshaller(cache(0, "replSync")));
+      mv.compact(true, true);
+      assertSerialized(mv);
+      assertOnlyOneRepresentationExists(mv);
+
+      Object copy1 = mv.deserializeCopy();
+      Object copy2 = mv.deserializeCopy();
+      assertEquals(pojo, copy1);
+      assertEquals(pojo, copy2);
+      assert copy1 != copy2 : "Each copy should be deserialized separately";
+      // copies are never kept
+      assertOnlyOneRepresentationExists(mv);
+      assertSerialized(mv);
+
+      // the instance is only deserialized once when it is kept
+      Object instance = mv.get();
+      assert instance == mv.get();
+      assertDeserialized(mv);
+      assertSerialized(mv);
+      mv.compact(false, false);
+      assertOnlyOneRepresentationExists(mv);
+      assertDeserialized(mv);
+   }
+
    @Listener
    public static class MockListener {
       Object newValue;
@@ -0,0 +1,97 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.marshall;
+
+import org.infinispan.commands.remote.SingleRpcCommand;
+import org.infinispan.commands.write.PutKeyValueCommand;
+import org.infinispan.commands.write.RemoveCommand;
+import org.infinispan.io.ExposedByteArrayOutputStream;
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.*;
+
+/**
+ * Tests the reuse of pooled marshalling buffers and the per command size predictors.
+ *
+ * @since 5.3
+ */
+@Test(groups = "functional", testName = "marshall.OutputBufferPoolTest")
+public class OutputBufferPoolTest {
+
+   public void testNestedBuffersAreReused() {
+      ExposedByteArrayOutputStream outer = OutputBufferPool.acquire(16);
+      ExposedByteArrayOutputStream inner = OutputBufferPool.acquire(16);
+      assertNotSame(outer, inner);
+      inner.write(1);
+      OutputBufferPool.release(inner);
+      outer.write(2);
+      OutputBufferPool.release(outer);
+
+      long allocated = OutputBufferPool.getAllocatedBytes();
+      ExposedByteArrayOutputStream buffer = OutputBufferPool.acquire(16);
+      assertSame(outer, buffer);
+      assertEquals(0, buffer.size());
+      ExposedByteArrayOutputStream nested = OutputBufferPool.acquire(16);
+      assertSame(inner, nested);
+      OutputBufferPool.release(nested);
+      OutputBufferPool.release(buffer);
+      assertEquals(allocated, OutputBufferPool.getAllocatedBytes());
+   }
+
+   public void testAllocatedBytes() {
+      ExposedByteArrayOutputStream buffer = OutputBufferPool.acquire(16);
+      long allocated = OutputBufferPool.getAllocatedBytes();
+      buffer.write(new byte[2000], 0, 2000);
+      byte[] copy = OutputBufferPool.copyOf(buffer);
+      OutputBufferPool.release(buffer);
+      assertEquals(2000, copy.length);
+      assertTrue(OutputBufferPool.getAllocatedBytes() - allocated >= copy.length);
+
+      // buffers too large to be retained are not reused
+      buffer = OutputBufferPool.acquire(16);
+      buffer.write(new byte[128 * 1024], 0, 128 * 1024);
+      OutputBufferPool.release(buffer);
+      ExposedByteArrayOutputStream next = OutputBufferPool.acquire(16);
+      assertNotSame(buffer, next);
+      OutputBufferPool.release(next);
+   }
+
+   public void testCommandsWrappedInSingleRpcCommandArePredictedSeparately() {
+      CommandBufferSizePredictors predictors = new CommandBufferSizePredictors();
+      SingleRpcCommand put = new SingleRpcCommand("cache", new PutKeyValueCommand());
+      SingleRpcCommand remove = new SingleRpcCommand("cache", new RemoveCommand());
+      assertNotSame(predictors.getBufferSizePredictor(put), predictors.getBufferSizePredictor(remove));
+      assertSame(predictors.getBufferSizePredictor(put),
+            predictors.getBufferSizePredictor(new SingleRpcCommand("cache", new PutKeyValueCommand())));
+
+      for (int i = 0; i < 10; i++) {
+         predictors.recordMarshalled(put, 10000, 10000);
+         predictors.recordMarshalled(remove, 50, 50);
+      }
+      assertTrue(predictors.getBufferSizePredictor(put).nextSize(put) >= 10000);
+      assertTrue(predictors.getBufferSizePredictor(remove).nextSize(remove) < 512);
+      String statistics = predictors.printStatistics();
+      assertTrue(statistics, statistics.contains("SingleRpcCommand(PutKeyValueCommand){count=10, averageSize=10000"));
+      assertTrue(statistics, statistics.contains("SingleRpcCommand(RemoveCommand){count=10, averageSize=50"));
+   }
+}
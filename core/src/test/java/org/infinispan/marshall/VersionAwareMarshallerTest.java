@@ -56,14 +56,18 @@
 import org.infinispan.container.entries.TransientCacheValue;
 import org.infinispan.container.entries.TransientMortalCacheEntry;
 import org.infinispan.container.entries.TransientMortalCacheValue;
+import org.infinispan.container.versioning.NumericVersion;
 import org.infinispan.context.Flag;
 import org.infinispan.distribution.ch.DefaultConsistentHash;
 import org.infinispan.distribution.ch.DefaultConsistentHashFactory;
 import org.infinispan.loaders.bucket.Bucket;
 import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.metadata.Metadata;
 import org.infinispan.marshall.jboss.JBossMarshallingTest.CustomReadObjectMethod;
 import org.infinispan.marshall.jboss.JBossMarshallingTest.ObjectThatContainsACustomReadObjectMethod;
+import org.infinispan.statetransfer.StateChunk;
 import org.infinispan.statetransfer.StateRequestCommand;
+import org.infinispan.statetransfer.StateResponseCommand;
 import org.infinispan.remoting.MIMECacheEntry;
 import org.infinispan.remoting.responses.ExceptionResponse;
 import org.infinispan.remoting.responses.UnsuccessfulResponse;
@@ -308,6 +312,45 @@ public void testReplicableCommandsMarshalling() throws Exception {
       marshallAndAssertEquality(c18);
    }
 
+   public void testCompactCommandParametersMarshalling() throws Exception {
+      String cacheName = EmbeddedCacheManager.DEFAULT_CACHE_NAME;
+      Metadata metadata = new EmbeddedMetadata.Builder().lifespan(1000).maxIdle(-5)
+            .version(new NumericVersion(3)).build();
+      PutKeyValueCommand put = new PutKeyValueCommand("k", "v", true, null, metadata,
+            EnumSet.of(Flag.SKIP_LOCKING, Flag.CACHE_MODE_LOCAL));
+      assertParametersEqual(put);
+
+      RemoveCommand remove = new RemoveCommand("k", "v", null, null);
+      assertParametersEqual(remove);
+
+      ClusteredGetCommand get = new ClusteredGetCommand("k", cacheName, EnumSet.of(Flag.FORCE_WRITE_LOCK),
+            true, null, AnyEquivalence.getInstance());
+      assertParametersEqual(get);
+
+      GlobalTransaction gtx = gtf.newGlobalTransaction(new JGroupsAddress(new IpAddress(12345)), false);
+      PrepareCommand prepare = new PrepareCommand(cacheName, gtx, false, put, remove);
+      assertParametersEqual(prepare);
+
+      Collection<StateChunk> chunks = Collections.singletonList(new StateChunk(3,
+            Collections.<InternalCacheEntry>emptyList(), true));
+      StateResponseCommand stateResponse = new StateResponseCommand(cacheName, new JGroupsAddress(new IpAddress(12345)), 7, chunks);
+      StateResponseCommand readStateResponse = (StateResponseCommand) marshaller.objectFromByteBuffer(
+            marshaller.objectToByteBuffer(stateResponse));
+      assertEquals(7, readStateResponse.getParameters()[1]);
+      assertEquals(1, ((Collection<?>) readStateResponse.getParameters()[2]).size());
+
+      marshallAndAssertEquality(new EmbeddedMetadata.Builder().build());
+      marshallAndAssertEquality(metadata);
+      marshallAndAssertEquality(new EmbeddedMetadata.Builder().lifespan(Long.MAX_VALUE).maxIdle(0).build());
+   }
+
+   private void assertParametersEqual(ReplicableCommand command) throws Exception {
+      ReplicableCommand read = (ReplicableCommand) marshaller.objectFromByteBuffer(marshaller.objectToByteBuffer(command));
+      assertEquals(command.getCommandId(), read.getCommandId());
+      assertTrue("Written " + Arrays.toString(command.getParameters()) + " but read " + Arrays.toString(read.getParameters()),
+            Arrays.equals(command.getParameters(), read.getParameters()));
+   }
+
    public void testStateTransferControlCommand() throws Exception {
       Cache<Object,Object> cache = cm.getCache();
 
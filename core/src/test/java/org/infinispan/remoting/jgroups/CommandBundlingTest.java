@@ -0,0 +1,137 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.remoting.jgroups;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.context.Flag;
+import org.infinispan.remoting.transport.jgroups.CommandBundler;
+import org.infinispan.remoting.transport.jgroups.JGroupsTransport;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests that asynchronous commands are bundled by the transport and handled in order by the other nodes.
+ *
+ * @since 5.3
+ */
+@Test(groups = "functional", testName = "remoting.jgroups.CommandBundlingTest")
+public class CommandBundlingTest extends MultipleCacheManagersTest {
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.REPL_ASYNC, false);
+      for (int i = 0; i < 3; i++) {
+         GlobalConfigurationBuilder globalBuilder = GlobalConfigurationBuilder.defaultClusteredBuilder();
+         globalBuilder.transport()
+               .addProperty(JGroupsTransport.COMMAND_BUNDLING, "true")
+               .addProperty(JGroupsTransport.COMMAND_BUNDLING_MAX_DELAY, "1000")
+               .addProperty(JGroupsTransport.COMMAND_BUNDLING_MAX_QUEUED_COMMANDS, "64");
+         addClusterEnabledCacheManager(globalBuilder, builder);
+      }
+      waitForClusterToForm();
+   }
+
+   public void testConcurrentWritesAreBundled() throws Exception {
+      final Cache<Object, Object> cache = cache(0);
+      List<Future<Void>> futures = new ArrayList<Future<Void>>();
+      for (int t = 0; t < 4; t++) {
+         final int thread = t;
+         futures.add(fork(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+               for (int i = 0; i < 250; i++)
+                  cache.put("k" + thread + "-" + i, "v" + i);
+               return null;
+            }
+         }));
+      }
+      for (Future<Void> future : futures)
+         future.get();
+
+      for (int c = 1; c < 3; c++) {
+         final Cache<Object, Object> other = cache(c);
+         eventually(new Condition() {
+            @Override
+            public boolean isSatisfied() throws Exception {
+               for (int t = 0; t < 4; t++) {
+                  for (int i = 0; i < 250; i++) {
+                     if (!other.containsKey("k" + t + "-" + i))
+                        return false;
+                  }
+               }
+               return true;
+            }
+         });
+      }
+
+      CommandBundler bundler = ((JGroupsTransport) manager(0).getTransport()).getCommandBundler();
+      assertTrue("Expected commands to be bundled, bundle sizes were " + bundler.getBundleSizeHistogram(),
+                 bundler.getAverageBundleSize() > 1);
+   }
+
+   public void testBundledCommandsHandledInOrder() {
+      Cache<Object, Object> cache = cache(0);
+      for (int i = 0; i < 1000; i++)
+         cache.put("ordered", i);
+
+      for (int c = 1; c < 3; c++) {
+         final Cache<Object, Object> other = cache(c);
+         eventually(new Condition() {
+            @Override
+            public boolean isSatisfied() throws Exception {
+               return Integer.valueOf(999).equals(other.get("ordered"));
+            }
+         });
+      }
+   }
+
+   public void testUnbundledCommandsHandledInOrder() {
+      Cache<Object, Object> cache = cache(0);
+      for (int i = 0; i < 1000; i++) {
+         if (i % 10 == 9)
+            cache.getAdvancedCache().withFlags(Flag.GUARANTEED_DELIVERY).put("mixed", i);
+         else
+            cache.put("mixed", i);
+      }
+
+      for (int c = 1; c < 3; c++) {
+         final Cache<Object, Object> other = cache(c);
+         eventually(new Condition() {
+            @Override
+            public boolean isSatisfied() throws Exception {
+               return Integer.valueOf(999).equals(other.get("mixed"));
+            }
+         });
+      }
+   }
+}
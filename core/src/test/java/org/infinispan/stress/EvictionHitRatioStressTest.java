@@ -0,0 +1,166 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.stress;
+
+import org.infinispan.util.AnyEquivalence;
+import org.infinispan.util.concurrent.BoundedConcurrentHashMap;
+import org.infinispan.util.concurrent.BoundedConcurrentHashMap.Eviction;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Hit ratio simulator replaying key traces against every {@link Eviction} strategy of
+ * {@link BoundedConcurrentHashMap}, using a synchronized LinkedHashMap as an exact LRU reference.
+ * <p>
+ * Besides the generated traces, a trace file holding one key per line can be replayed by passing
+ * its path in the <tt>trace</tt> system property.
+ *
+ * @since 5.3
+ */
+@Test(testName = "stress.EvictionHitRatioStressTest", groups = "stress", enabled = false, description = "Disabled by default, designed to be run manually.")
+public class EvictionHitRatioStressTest {
+
+   final int CAPACITY = Integer.getInteger("size", 10000);
+   final int TRACE_LENGTH = Integer.getInteger("length", 2000000);
+   final int CONCURRENCY = Integer.getInteger("concurrency", 16);
+
+   private static final Random RANDOM = new Random(12345);
+
+   @DataProvider(name = "traces")
+   public Object[][] traces() {
+      List<Object[]> traces = new ArrayList<Object[]>();
+      traces.add(new Object[]{"zipf(0.9)", zipf(TRACE_LENGTH, 100 * CAPACITY, 0.9)});
+      traces.add(new Object[]{"zipf(0.9)+scan", withScans(zipf(TRACE_LENGTH, 100 * CAPACITY, 0.9), 100 * CAPACITY)});
+      traces.add(new Object[]{"loop", loop(TRACE_LENGTH, CAPACITY + CAPACITY / 2)});
+      String traceFile = System.getProperty("trace");
+      if (traceFile != null) {
+         traces.add(new Object[]{traceFile, readTrace(traceFile)});
+      }
+      return traces.toArray(new Object[traces.size()][]);
+   }
+
+   @Test(dataProvider = "traces", enabled = false)
+   public void testHitRatio(String name, int[] trace) {
+      System.out.printf("Replaying trace %s of %d accesses with capacity %d\n", name, trace.length, CAPACITY);
+      for (Eviction eviction : Eviction.values()) {
+         if (eviction == Eviction.NONE)
+            continue;
+         replay("BCHM:" + eviction, new BoundedConcurrentHashMap<Integer, Integer>(CAPACITY, CONCURRENCY, eviction,
+               AnyEquivalence.INT, AnyEquivalence.INT), trace);
+      }
+      replay("SLHM", synchronizedLinkedHashMap(CAPACITY), trace);
+   }
+
+   private void replay(String name, Map<Integer, Integer> map, int[] trace) {
+      long hits = 0;
+      long start = System.nanoTime();
+      for (int key : trace) {
+         if (map.get(key) != null) {
+            hits++;
+         } else {
+            map.put(key, key);
+         }
+      }
+      long durationMillis = (System.nanoTime() - start) / 1000000;
+      System.out.printf("Container %-14s  HitRatio %6.2f  Size %8d  Time(ms) %8d\n",
+            name, hits * 100. / trace.length, map.size(), durationMillis);
+   }
+
+   private Map<Integer, Integer> synchronizedLinkedHashMap(final int capacity) {
+      return Collections.synchronizedMap(new LinkedHashMap<Integer, Integer>(capacity, 0.75f, true) {
+         @Override
+         protected boolean removeEldestEntry(Map.Entry<Integer, Integer> eldest) {
+            return size() > capacity;
+         }
+      });
+   }
+
+   private int[] zipf(int length, int numKeys, double skew) {
+      double[] cdf = new double[numKeys];
+      double sum = 0;
+      for (int i = 0; i < numKeys; i++) {
+         sum += 1 / Math.pow(i + 1, skew);
+         cdf[i] = sum;
+      }
+      int[] trace = new int[length];
+      for (int i = 0; i < length; i++) {
+         int key = Arrays.binarySearch(cdf, RANDOM.nextDouble() * sum);
+         trace[i] = key < 0 ? -key - 1 : key;
+      }
+      return trace;
+   }
+
+   /**
+    * Interleaves one access to a never seen before key after every access of the given trace.
+    */
+   private int[] withScans(int[] trace, int firstScanKey) {
+      int[] scanned = new int[trace.length];
+      int scanKey = firstScanKey;
+      for (int i = 0; i < trace.length; i++) {
+         scanned[i] = i % 2 == 0 ? trace[i / 2] : scanKey++;
+      }
+      return scanned;
+   }
+
+   private int[] loop(int length, int numKeys) {
+      int[] trace = new int[length];
+      for (int i = 0; i < length; i++) {
+         trace[i] = i % numKeys;
+      }
+      return trace;
+   }
+
+   private int[] readTrace(String file) {
+      List<Integer> keys = new ArrayList<Integer>();
+      try {
+         BufferedReader reader = new BufferedReader(new FileReader(file));
+         try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+               line = line.trim();
+               if (!line.isEmpty())
+                  keys.add(line.hashCode());
+            }
+         } finally {
+            reader.close();
+         }
+      } catch (Exception e) {
+         throw new RuntimeException("Unable to read trace " + file, e);
+      }
+      int[] trace = new int[keys.size()];
+      for (int i = 0; i < trace.length; i++) {
+         trace[i] = keys.get(i);
+      }
+      return trace;
+   }
+}
@@ -0,0 +1,118 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.stress;
+
+import org.infinispan.util.concurrent.locks.containers.LockContainer;
+import org.infinispan.util.concurrent.locks.containers.LockWordStripedLockContainer;
+import org.infinispan.util.concurrent.locks.containers.OwnableReentrantPerEntryLockContainer;
+import org.infinispan.util.concurrent.locks.containers.OwnableReentrantStripedLockContainer;
+import org.infinispan.util.concurrent.locks.containers.ReentrantPerEntryLockContainer;
+import org.infinispan.util.concurrent.locks.containers.ReentrantStripedLockContainer;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the lock acquisition and release throughput of the {@link LockContainer} implementations, with keys that
+ * are private to each thread (uncontended) and with a handful of keys shared by all threads (contended).
+ *
+ * @since 5.3
+ */
+@Test(testName = "stress.LockContainerStressTest", groups = "stress", enabled = false,
+      description = "Disabled by default, designed to be run manually.")
+public class LockContainerStressTest {
+
+   final int CONCURRENCY_LEVEL = Integer.getInteger("concurrency", 32);
+   final int NUM_THREADS = Integer.getInteger("threads", Runtime.getRuntime().availableProcessors());
+   final int KEYS_PER_THREAD = 1000;
+   final int CONTENDED_KEYS = 4;
+   final int WARMUP_TIME_MILLIS = 5 * 1000;
+   final int RUN_TIME_MILLIS = 20 * 1000;
+
+   @Test(enabled = false)
+   public void testUncontended() throws Exception {
+      doTest(false);
+   }
+
+   @Test(enabled = false)
+   public void testContended() throws Exception {
+      doTest(true);
+   }
+
+   private void doTest(boolean contended) throws Exception {
+      LockContainer<?>[] containers = {
+            new ReentrantStripedLockContainer(CONCURRENCY_LEVEL),
+            new OwnableReentrantStripedLockContainer(CONCURRENCY_LEVEL),
+            new ReentrantPerEntryLockContainer(CONCURRENCY_LEVEL),
+            new OwnableReentrantPerEntryLockContainer(CONCURRENCY_LEVEL),
+            new LockWordStripedLockContainer(CONCURRENCY_LEVEL),
+      };
+      for (LockContainer<?> container : containers) {
+         run(container, contended, WARMUP_TIME_MILLIS);
+         long ops = run(container, contended, RUN_TIME_MILLIS);
+         System.out.printf("%-40s %-11s threads %3d  %8d ops/ms\n", container.getClass().getSimpleName(),
+               contended ? "contended" : "uncontended", NUM_THREADS, ops / RUN_TIME_MILLIS);
+      }
+   }
+
+   private long run(final LockContainer<?> container, final boolean contended, int millis) throws Exception {
+      final CountDownLatch latch = new CountDownLatch(1);
+      final AtomicBoolean running = new AtomicBoolean(true);
+      final AtomicLong totalOps = new AtomicLong();
+      Thread[] threads = new Thread[NUM_THREADS];
+      for (int t = 0; t < NUM_THREADS; t++) {
+         final String[] keys = new String[contended ? CONTENDED_KEYS : KEYS_PER_THREAD];
+         for (int i = 0; i < keys.length; i++)
+            keys[i] = contended ? "key" + i : "key" + t + "-" + i;
+         threads[t] = new Thread() {
+            @Override
+            public void run() {
+               Object owner = Thread.currentThread();
+               long ops = 0;
+               try {
+                  latch.await();
+                  while (running.get()) {
+                     String key = keys[(int) (ops % keys.length)];
+                     if (container.acquireLock(owner, key, 10, TimeUnit.SECONDS) == null)
+                        throw new IllegalStateException("Timed out locking " + key);
+                     container.releaseLock(owner, key);
+                     ops++;
+                  }
+               } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+               }
+               totalOps.addAndGet(ops);
+            }
+         };
+         threads[t].start();
+      }
+      latch.countDown();
+      Thread.sleep(millis);
+      running.set(false);
+      for (Thread t : threads) t.join();
+      return totalOps.get();
+   }
+}
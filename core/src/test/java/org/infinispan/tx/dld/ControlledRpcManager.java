@@ -33,6 +33,7 @@
 import org.infinispan.remoting.rpc.RpcOptionsBuilder;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.remoting.transport.Transport;
+import org.infinispan.util.concurrent.NotifyingFuture;
 import org.infinispan.util.concurrent.NotifyingNotifiableFuture;
 import org.infinispan.util.concurrent.ReclosableLatch;
 import org.infinispan.util.logging.Log;
@@ -260,6 +261,16 @@ public void invokeRemotelyInFuture(Collection<Address> recipients, ReplicableCom
       waitAfter(rpc);
    }
 
+   @Override
+   public NotifyingFuture<Map<Address, Response>> invokeRemotelyInFuture(Collection<Address> recipients, ReplicableCommand rpc, RpcOptions options) {
+      log.trace("ControlledRpcManager.invokeRemotelyInFuture3");
+      failIfNeeded(rpc);
+      waitBefore(rpc);
+      NotifyingFuture<Map<Address, Response>> responses = realOne.invokeRemotelyInFuture(recipients, rpc, options);
+      waitAfter(rpc);
+      return responses;
+   }
+
    public Transport getTransport() {
       return realOne.getTransport();
    }
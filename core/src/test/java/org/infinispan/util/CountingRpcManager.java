@@ -33,6 +33,7 @@
 import org.infinispan.remoting.rpc.RpcOptionsBuilder;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.remoting.transport.Transport;
+import org.infinispan.util.concurrent.NotifyingFuture;
 import org.infinispan.util.concurrent.NotifyingNotifiableFuture;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
@@ -184,6 +185,13 @@ public void invokeRemotelyInFuture(Collection<Address> recipients, ReplicableCom
       realOne.invokeRemotelyInFuture(recipients, rpc, options, future);
    }
 
+   @Override
+   public NotifyingFuture<Map<Address, Response>> invokeRemotelyInFuture(Collection<Address> recipients, ReplicableCommand rpc, RpcOptions options) {
+      log.trace("CountingRpcManager.invokeRemotelyInFuture3");
+      aboutToInvokeRpc(rpc);
+      return realOne.invokeRemotelyInFuture(recipients, rpc, options);
+   }
+
    public Transport getTransport() {
       return realOne.getTransport();
    }
@@ -23,6 +23,7 @@
 
 package org.infinispan.util.concurrent;
 
+import org.infinispan.util.AnyEquivalence;
 import org.infinispan.util.EquivalentHashMapTest;
 import org.testng.annotations.Test;
 
@@ -61,6 +62,111 @@ public void testByteArrayPutIfAbsentFail() {
       byteArrayPutIfAbsentFail(createComparingConcurrentMap(), true);
    }
 
+   public void testTinyLfuKeepsFrequentEntriesDuringScan() {
+      BoundedConcurrentHashMap<Integer, Integer> map = new BoundedConcurrentHashMap<Integer, Integer>(
+            64, 1, BoundedConcurrentHashMap.Eviction.TINY_LFU, AnyEquivalence.INT, AnyEquivalence.INT);
+      for (int i = 0; i < 32; i++)
+         map.put(i, i);
+      for (int round = 0; round < 10; round++) {
+         for (int i = 0; i < 32; i++)
+            map.get(i);
+      }
+
+      // a scan of keys accessed only once should not flush the frequently accessed ones
+      for (int i = 1000; i < 2000; i++)
+         map.put(i, i);
+
+      assertTrue("Expected map to be bounded, size was " + map.size(), map.size() <= 64);
+      int retained = 0;
+      for (int i = 0; i < 32; i++) {
+         if (map.containsKey(i))
+            retained++;
+      }
+      assertTrue("Expected frequently accessed keys to survive the scan, only " + retained + " did", retained >= 24);
+   }
+
+   public void testPeekDoesNotAffectEvictionOrder() {
+      for (int i = 0; i < 2; i++) {
+         boolean peek = i == 0;
+         BoundedConcurrentHashMap<Integer, Integer> map = new BoundedConcurrentHashMap<Integer, Integer>(
+               16, 1, BoundedConcurrentHashMap.Eviction.LRU, AnyEquivalence.INT, AnyEquivalence.INT);
+         for (int k = 0; k < 16; k++)
+            map.put(k, k);
+         // enough accesses to go past the batching threshold
+         for (int n = 0; n < 64; n++) {
+            if (peek)
+               map.peek(0);
+            else
+               map.get(0);
+         }
+         for (int k = 1000; k < 1008; k++)
+            map.put(k, k);
+         assertEquals("peek=" + peek, !peek, map.containsKey(0));
+      }
+   }
+
+   public void testMemoryBoundedEviction() {
+      BoundedConcurrentHashMap.EntrySizeCalculator<Integer, byte[]> calculator =
+            new BoundedConcurrentHashMap.EntrySizeCalculator<Integer, byte[]>() {
+               @Override
+               public long calculateSize(Integer key, byte[] value) {
+                  return value.length;
+               }
+            };
+      for (BoundedConcurrentHashMap.Eviction eviction : BoundedConcurrentHashMap.Eviction.values()) {
+         if (eviction == BoundedConcurrentHashMap.Eviction.NONE)
+            continue;
+         // bounded by memory only, so the map has to grow past its initial segment size
+         BoundedConcurrentHashMap<Integer, byte[]> map = new BoundedConcurrentHashMap<Integer, byte[]>(
+               -1, 64 * 1024, 4, eviction, new BoundedConcurrentHashMap.NullEvictionListener<Integer, byte[]>(),
+               calculator, AnyEquivalence.INT, AnyEquivalence.<byte[]>getInstance());
+         for (int i = 0; i < 1000; i++) {
+            map.put(i, new byte[(i % 10 + 1) * 100]);
+            assertTrue(eviction + " exceeded its memory budget: " + map.memoryUsed(), map.memoryUsed() <= 64 * 1024);
+         }
+         assertTrue(eviction + " evicted too eagerly, size was " + map.size(), map.size() > 64);
+
+         long used = 0;
+         for (byte[] value : map.values())
+            used += value.length;
+         assertEquals(used, map.memoryUsed());
+
+         map.replace(999, new byte[10]);
+         map.remove(998);
+         used = 0;
+         for (byte[] value : map.values())
+            used += value.length;
+         assertEquals(used, map.memoryUsed());
+
+         map.clear();
+         assertEquals(0, map.memoryUsed());
+      }
+   }
+
+   public void testRehashKeepsEvictionOrder() {
+      BoundedConcurrentHashMap.EntrySizeCalculator<Integer, Integer> unitSize =
+            new BoundedConcurrentHashMap.EntrySizeCalculator<Integer, Integer>() {
+               @Override
+               public long calculateSize(Integer key, Integer value) {
+                  return 1;
+               }
+            };
+      for (BoundedConcurrentHashMap.Eviction eviction : BoundedConcurrentHashMap.Eviction.values()) {
+         if (eviction == BoundedConcurrentHashMap.Eviction.NONE)
+            continue;
+         // bounded by memory only, so the single segment is rehashed several times while it fills up
+         BoundedConcurrentHashMap<Integer, Integer> map = new BoundedConcurrentHashMap<Integer, Integer>(
+               -1, 4096, 1, eviction, new BoundedConcurrentHashMap.NullEvictionListener<Integer, Integer>(),
+               unitSize, AnyEquivalence.INT, AnyEquivalence.INT);
+         for (int i = 0; i < 4096 + 64; i++)
+            map.put(i, i);
+         for (int i = 0; i < 64; i++)
+            assertFalse(eviction + " kept " + i, map.containsKey(i));
+         for (int i = 64; i < 4096 + 64; i++)
+            assertTrue(eviction + " evicted " + i, map.containsKey(i));
+      }
+   }
+
    protected void byteArrayConditionalRemove(
          ConcurrentMap<byte[], byte[]> map, boolean expectRemove) {
       byte[] key = {1, 2, 3};
@@ -0,0 +1,223 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.util.concurrent;
+
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.util.AnyEquivalence;
+import org.infinispan.util.DefaultTimeService;
+import org.infinispan.util.Equivalence;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests the ordering guarantees of {@link KeyOrderedExecutor}.
+ *
+ * @since 5.3
+ */
+@Test(groups = "functional", testName = "util.concurrent.KeyOrderedExecutorTest")
+public class KeyOrderedExecutorTest extends AbstractInfinispanTest {
+
+   private static final Equivalence<Object> EQUIVALENCE = AnyEquivalence.getInstance();
+
+   private ExecutorService threadPool;
+
+   @BeforeMethod
+   public void createThreadPool() {
+      threadPool = Executors.newFixedThreadPool(4);
+   }
+
+   @AfterMethod
+   public void shutdownThreadPool() {
+      threadPool.shutdownNow();
+   }
+
+   public void testTasksOfSameKeyRunInOrder() throws Exception {
+      KeyOrderedExecutor executor = new KeyOrderedExecutor(threadPool, new DefaultTimeService(), 4, 1024);
+      final List<List<Integer>> runs = new ArrayList<List<Integer>>();
+      for (int k = 0; k < 8; k++)
+         runs.add(Collections.synchronizedList(new ArrayList<Integer>()));
+      final CountDownLatch done = new CountDownLatch(8 * 1000);
+      for (int i = 0; i < 1000; i++) {
+         for (int k = 0; k < 8; k++) {
+            final List<Integer> run = runs.get(k);
+            final int sequence = i;
+            executor.execute(Collections.singleton(k), EQUIVALENCE, new Runnable() {
+               @Override
+               public void run() {
+                  run.add(sequence);
+                  done.countDown();
+               }
+            });
+         }
+      }
+      assertTrue(done.await(10, TimeUnit.SECONDS));
+      for (List<Integer> run : runs) {
+         for (int i = 0; i < 1000; i++)
+            assertEquals(i, (int) run.get(i));
+      }
+   }
+
+   public void testSlowTaskDoesNotDelayOtherKeys() throws Exception {
+      // with two lanes, keys 0 and 1 are hashed onto different lanes
+      KeyOrderedExecutor executor = new KeyOrderedExecutor(threadPool, new DefaultTimeService(), 2, 1024);
+      final CountDownLatch release = new CountDownLatch(1);
+      final CountDownLatch otherKeyDone = new CountDownLatch(1);
+      executor.execute(Collections.singleton(0), EQUIVALENCE, new Runnable() {
+         @Override
+         public void run() {
+            try {
+               release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+            }
+         }
+      });
+      executor.execute(Collections.singleton(1), EQUIVALENCE, new Runnable() {
+         @Override
+         public void run() {
+            otherKeyDone.countDown();
+         }
+      });
+      try {
+         assertTrue(otherKeyDone.await(10, TimeUnit.SECONDS));
+         assertEquals(1, executor.getQueueDepth(0));
+      } finally {
+         release.countDown();
+      }
+   }
+
+   public void testBarriers() throws Exception {
+      KeyOrderedExecutor executor = new KeyOrderedExecutor(threadPool, new DefaultTimeService(), 2, 1024);
+      final CountDownLatch release = new CountDownLatch(1);
+      final List<String> runs = Collections.synchronizedList(new ArrayList<String>());
+      executor.execute(Collections.singleton(0), EQUIVALENCE, new Runnable() {
+         @Override
+         public void run() {
+            try {
+               release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+            }
+            runs.add("slow");
+         }
+      });
+      executor.execute(Arrays.asList(0, 1), EQUIVALENCE, recorder(runs, "both keys"));
+      executor.execute(Collections.singleton(1), EQUIVALENCE, recorder(runs, "after both keys"));
+      executor.execute(null, EQUIVALENCE, recorder(runs, "all keys"));
+      final CountDownLatch done = new CountDownLatch(1);
+      executor.execute(Collections.singleton(0), EQUIVALENCE, new Runnable() {
+         @Override
+         public void run() {
+            runs.add("after all keys");
+            done.countDown();
+         }
+      });
+
+      Thread.sleep(100);
+      assertFalse("Barriers must wait for the previous tasks of their keys", runs.contains("after both keys"));
+      release.countDown();
+      assertTrue(done.await(10, TimeUnit.SECONDS));
+      assertEquals(Arrays.asList("slow", "both keys", "after both keys", "all keys", "after all keys"), runs);
+      // barriers are run by a single lane
+      assertEquals(5, executor.getExecutedTasks(0) + executor.getExecutedTasks(1));
+   }
+
+   public void testFullLaneBlocksSubmitter() throws Exception {
+      final KeyOrderedExecutor executor = new KeyOrderedExecutor(threadPool, new DefaultTimeService(), 1, 2);
+      final CountDownLatch release = new CountDownLatch(1);
+      final CountDownLatch done = new CountDownLatch(4);
+      final Runnable blocked = new Runnable() {
+         @Override
+         public void run() {
+            try {
+               release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+            }
+            done.countDown();
+         }
+      };
+      executor.execute(Collections.singleton(0), EQUIVALENCE, blocked);
+      executor.execute(Collections.singleton(0), EQUIVALENCE, blocked);
+      Future<Void> submitter = fork(new Callable<Void>() {
+         @Override
+         public Void call() throws Exception {
+            executor.execute(Collections.singleton(0), EQUIVALENCE, blocked);
+            executor.execute(Collections.singleton(0), EQUIVALENCE, blocked);
+            return null;
+         }
+      });
+      try {
+         Thread.sleep(100);
+         assertFalse("The submitter must wait while the lane is full", submitter.isDone());
+         assertEquals(2, executor.getQueueDepth(0));
+      } finally {
+         release.countDown();
+      }
+      submitter.get(10, TimeUnit.SECONDS);
+      assertTrue(done.await(10, TimeUnit.SECONDS));
+   }
+
+   public void testRejectedLaneRunsOnSubmitter() throws Exception {
+      Executor rejecting = new Executor() {
+         @Override
+         public void execute(Runnable command) {
+            throw new RejectedExecutionException();
+         }
+      };
+      KeyOrderedExecutor executor = new KeyOrderedExecutor(rejecting, new DefaultTimeService(), 2, 1024);
+      final List<String> runs = new ArrayList<String>();
+      executor.execute(Collections.singleton(0), EQUIVALENCE, recorder(runs, "first"));
+      executor.execute(Arrays.asList(0, 1), EQUIVALENCE, recorder(runs, "both keys"));
+      executor.execute(Collections.singleton(0), EQUIVALENCE, recorder(runs, "second"));
+      assertEquals(Arrays.asList("first", "both keys", "second"), runs);
+      assertEquals(0, executor.getQueueDepth(0) + executor.getQueueDepth(1));
+   }
+
+   private Runnable recorder(final List<String> runs, final String name) {
+      return new Runnable() {
+         @Override
+         public void run() {
+            runs.add(name);
+         }
+      };
+   }
+}
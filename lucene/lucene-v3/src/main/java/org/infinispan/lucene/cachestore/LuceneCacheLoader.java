@@ -33,6 +33,8 @@
 import org.infinispan.loaders.CacheLoaderConfig;
 import org.infinispan.loaders.CacheLoaderException;
 import org.infinispan.loaders.CacheLoaderMetadata;
+import org.infinispan.loaders.EntryHandler;
+import org.infinispan.loaders.KeyFilter;
 import org.infinispan.lucene.IndexScopedKey;
 import org.infinispan.lucene.logging.Log;
 import org.infinispan.marshall.StreamingMarshaller;
@@ -127,6 +129,22 @@ public Set<Object> loadAllKeys(final Set keysToExclude) throws CacheLoaderExcept
       return allKeys;
    }
 
+   /**
+    * Keys are cheap to list as they are derived from the directory structure, while values need the index files to be
+    * read: filter the keys first and only read the values of the accepted ones.
+    */
+   @Override
+   public void loadEntries(final KeyFilter filter, final EntryHandler handler) throws CacheLoaderException {
+      for (Object key : loadAllKeys(null)) {
+         if (filter.accept(key)) {
+            InternalCacheEntry entry = load(key);
+            if (entry != null) {
+               handler.handle(entry);
+            }
+         }
+      }
+   }
+
    /**
     * There might be Directories we didn't store yet in the openDirectories Map.
     * Make sure they are all initialized before serving methods such as {@link #loadAll()}
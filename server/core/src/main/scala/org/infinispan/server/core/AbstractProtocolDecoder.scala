@@ -59,6 +59,7 @@ abstract class AbstractProtocolDecoder[K, V](transport: NettyTransport)
    protected var params: SuitableParameters = null.asInstanceOf[SuitableParameters]
    protected var key: K = null.asInstanceOf[K]
    protected var rawValue: Array[Byte] = null.asInstanceOf[Array[Byte]]
+   protected var rawValueOffset: Int = 0
    protected var cache: AdvancedCache[K, V] = null
    protected var defaultLifespanTime: Long = _
    protected var defaultMaxIdleTime: Long = _
@@ -143,6 +144,8 @@ abstract class AbstractProtocolDecoder[K, V](transport: NettyTransport)
       if (!endOfOp && params.valueLength > 0) {
          // Create value holder and checkpoint only if there's more to read
          rawValue = new Array[Byte](params.valueLength)
+         rawValueOffset = 0
+         transport.updateValueBytesAllocated(params.valueLength)
          checkpointTo(DECODE_VALUE)
       } else if (params.valueLength == 0){
          rawValue = Array.empty
@@ -155,7 +158,10 @@ abstract class AbstractProtocolDecoder[K, V](transport: NettyTransport)
    private def decodeValue(ch: Channel, buffer: ChannelBuffer, state: DecoderState): AnyRef = {
       val ret = header.op match {
          case PutRequest | PutIfAbsentRequest | ReplaceRequest | ReplaceIfUnmodifiedRequest  => {
-            readValue(buffer)
+            if (!readValue(buffer)) {
+               // Only part of the value has arrived, keep what's been read so far
+               return checkpointTo(DECODE_VALUE)
+            }
             header.op match {
                case PutRequest => put
                case PutIfAbsentRequest => putIfAbsent
@@ -195,6 +201,7 @@ abstract class AbstractProtocolDecoder[K, V](transport: NettyTransport)
       // into a request that has no params
       params = null.asInstanceOf[SuitableParameters]
       rawValue = null.asInstanceOf[Array[Byte]] // Clear reference to value
+      rawValueOffset = 0
       null
    }
 
@@ -321,7 +328,29 @@ abstract class AbstractProtocolDecoder[K, V](transport: NettyTransport)
 
    protected def readParameters(ch: Channel, b: ChannelBuffer): Boolean
 
-   protected def readValue(b: ChannelBuffer)
+   /**
+    * Reads the value into rawValue, returning true once it has been read
+    * completely. Returning false makes the decoder wait for more bytes and
+    * call this method again.
+    */
+   protected def readValue(b: ChannelBuffer): Boolean
+
+   /**
+    * Reads as much of the value as has been received so far, so that large
+    * values do not need to be cumulated in full before being copied into
+    * rawValue. Returns true once the value has been read completely.
+    */
+   protected def readValueChunk(b: ChannelBuffer): Boolean = {
+      val remaining = rawValue.length - rawValueOffset
+      if (remaining > 0) {
+         // Reading at least one byte makes the decoder replay and wait for
+         // more bytes once the ones received so far have been consumed
+         val length = math.max(1, math.min(actualReadableBytes, remaining))
+         b.readBytes(rawValue, rawValueOffset, length)
+         rawValueOffset += length
+      }
+      rawValueOffset == rawValue.length
+   }
 
    protected def createValue(): V
 
@@ -71,6 +71,8 @@ abstract class AbstractProtocolServer(protocolName: String) extends ProtocolServ
       transport.start()
    }
 
+   def getTransport: NettyTransport = transport
+
    override def getPipeline: LifecycleChannelPipelineFactory = {
       if (configuration.idleTimeout > 0)
          new TimeoutEnabledChannelPipelineFactory(this, getEncoder)
@@ -62,7 +62,10 @@ object ExtendedChannelBuffer {
 
    def writeRangedBytes(src: Array[Byte], bf: ChannelBuffer) {
       writeUnsignedInt(src.length, bf)
-      bf.writeBytes(src)
+      bf match {
+         case z: ZeroCopyChannelBuffer => z.writeArray(src)
+         case _ => bf.writeBytes(src)
+      }
    }
 
    def writeString(msg: String, bf: ChannelBuffer) = writeRangedBytes(msg.getBytes(CharsetUtil.UTF_8), bf)
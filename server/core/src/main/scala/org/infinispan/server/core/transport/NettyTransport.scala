@@ -85,6 +85,7 @@ class NettyTransport(server: ProtocolServer, pipeline: LifecycleChannelPipelineF
    private val factory = new NioServerSocketChannelFactory(masterPool, workerPool)
 
    private val totalBytesWritten, totalBytesRead = new AtomicLong
+   private val totalValueBytesAllocated, totalValueBytesCopied, totalValueBytesWrapped = new AtomicLong
    private val isTrace = isTraceEnabled
    private val isGlobalStatsEnabled =
       cacheManager.getCacheManagerConfiguration.globalJmxStatistics().enabled()
@@ -149,6 +150,12 @@ class NettyTransport(server: ProtocolServer, pipeline: LifecycleChannelPipelineF
 
    override def getTotalBytesRead: String = totalBytesRead.toString
 
+   override def getTotalValueBytesAllocated: String = totalValueBytesAllocated.toString
+
+   override def getTotalValueBytesCopied: String = totalValueBytesCopied.toString
+
+   override def getTotalValueBytesWrapped: String = totalValueBytesWrapped.toString
+
    override def getHostName = address.getHostName
 
    override def getPort = address.getPort.toString
@@ -193,6 +200,18 @@ class NettyTransport(server: ProtocolServer, pipeline: LifecycleChannelPipelineF
          base.addAndGet(e.getMessage.asInstanceOf[ChannelBuffer].readableBytes)
    }
 
+   private[core] def updateValueBytesAllocated(bytes: Int) {
+      if (isGlobalStatsEnabled)
+         totalValueBytesAllocated.addAndGet(bytes)
+   }
+
+   def updateValueBytesWritten(buffer: ZeroCopyChannelBuffer) {
+      if (isGlobalStatsEnabled) {
+         totalValueBytesCopied.addAndGet(buffer.getBytesCopied)
+         totalValueBytesWrapped.addAndGet(buffer.getBytesWrapped)
+      }
+   }
+
    private def needDistributedCalculation(): Boolean = {
       val transport = cacheManager.getTransport
       transport != null && transport.getMembers.size() > 1
@@ -59,6 +59,30 @@ public interface Transport {
    )
    String getTotalBytesRead();
 
+   @ManagedAttribute(description = "Returns the total number of bytes allocated " +
+         "to hold the values of incoming requests.",
+         displayName = "Number of value bytes allocated",
+         measurementType = MeasurementType.TRENDSUP,
+         displayType = DisplayType.SUMMARY
+   )
+   String getTotalValueBytesAllocated();
+
+   @ManagedAttribute(description = "Returns the total number of bytes of keys " +
+         "and values copied into response buffers.",
+         displayName = "Number of key and value bytes copied",
+         measurementType = MeasurementType.TRENDSUP,
+         displayType = DisplayType.SUMMARY
+   )
+   String getTotalValueBytesCopied();
+
+   @ManagedAttribute(description = "Returns the total number of bytes of keys " +
+         "and values written to clients without copying them into response buffers.",
+         displayName = "Number of key and value bytes written without copying",
+         measurementType = MeasurementType.TRENDSUP,
+         displayType = DisplayType.SUMMARY
+   )
+   String getTotalValueBytesWrapped();
+
    @ManagedAttribute(
          description = "Returns the host to which the transport binds.",
          displayName = "Host name",
@@ -0,0 +1,117 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.server.core.transport;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.buffer.DynamicChannelBuffer;
+
+/**
+ * A dynamic buffer used to encode responses which, instead of copying byte arrays at or above a configurable size,
+ * remembers where they go and splices them in when the response is complete. The resulting buffer is a composite of
+ * slices of this buffer and of the byte arrays themselves, so large values are written to the socket straight from
+ * the arrays held by the cache.
+ * <p/>
+ * The spliced arrays must not be modified until the response has been written, which holds for the values stored by
+ * the Hot Rod server since those are never mutated once stored.
+ *
+ * @since 5.3
+ */
+public class ZeroCopyChannelBuffer extends DynamicChannelBuffer {
+
+   private final int threshold;
+   private int[] positions;
+   private byte[][] arrays;
+   private int count;
+   private long bytesCopied;
+   private long bytesWrapped;
+
+   /**
+    * @param estimatedLength initial capacity of the buffer
+    * @param threshold size from which arrays are spliced instead of copied, or a negative value to always copy
+    */
+   public ZeroCopyChannelBuffer(int estimatedLength, int threshold) {
+      super(estimatedLength);
+      this.threshold = threshold;
+   }
+
+   /**
+    * Writes the given array at the current writer index, either by copying it or by splicing it in later.
+    */
+   public void writeArray(byte[] src) {
+      if (threshold >= 0 && src.length >= threshold && src.length > 0) {
+         if (arrays == null) {
+            positions = new int[2];
+            arrays = new byte[2][];
+         } else if (count == arrays.length) {
+            int[] newPositions = new int[count << 1];
+            byte[][] newArrays = new byte[count << 1][];
+            System.arraycopy(positions, 0, newPositions, 0, count);
+            System.arraycopy(arrays, 0, newArrays, 0, count);
+            positions = newPositions;
+            arrays = newArrays;
+         }
+         positions[count] = writerIndex();
+         arrays[count++] = src;
+         bytesWrapped += src.length;
+      } else {
+         writeBytes(src);
+         bytesCopied += src.length;
+      }
+   }
+
+   /**
+    * Returns the buffer to write to the channel, containing everything written so far including the spliced arrays.
+    * No further writes should happen once this has been called.
+    */
+   public ChannelBuffer toResponseBuffer() {
+      if (count == 0)
+         return this;
+
+      ChannelBuffer[] parts = new ChannelBuffer[(count << 1) + 1];
+      int start = readerIndex();
+      int part = 0;
+      for (int i = 0; i < count; i++) {
+         parts[part++] = slice(start, positions[i] - start);
+         parts[part++] = ChannelBuffers.wrappedBuffer(arrays[i]);
+         start = positions[i];
+      }
+      parts[part] = slice(start, writerIndex() - start);
+      return ChannelBuffers.wrappedBuffer(parts);
+   }
+
+   /**
+    * Number of bytes of arrays copied into this buffer.
+    */
+   public long getBytesCopied() {
+      return bytesCopied;
+   }
+
+   /**
+    * Number of bytes of arrays spliced into the response without copying.
+    */
+   public long getBytesWrapped() {
+      return bytesWrapped;
+   }
+
+}
@@ -53,6 +53,11 @@ abstract class AbstractVersionedDecoder {
     */
    def readParameters(header: HotRodHeader, buffer: ChannelBuffer): (RequestParameters, Boolean)
 
+   /**
+    * Read the entries of a put all request, along with the expiration parameters shared by all of them.
+    */
+   def readPutAll(header: HotRodHeader, buffer: ChannelBuffer): (RequestParameters, java.util.Map[Array[Byte], Array[Byte]])
+
    /**
     * Create a successful response.
     */
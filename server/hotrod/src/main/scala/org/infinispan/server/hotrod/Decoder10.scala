@@ -70,6 +70,9 @@ object Decoder10 extends AbstractVersionedDecoder with ServerConstants with Log
          case 0x19 => (BulkGetRequest, false)
          case 0x1B => (GetWithMetadataRequest, false)
          case 0x1D => (BulkGetKeysRequest, false)
+         case 0x2D if version >= Constants.VERSION_13 => (PutAllRequest, false)
+         case 0x2F if version >= Constants.VERSION_13 => (GetAllRequest, false)
+         case 0x31 if version >= Constants.VERSION_14 => (AddNearCacheListenerRequest, true)
          case _ => throw new HotRodUnknownOperationException(
                "Unknown operation: " + streamOp, version, messageId)
       }
@@ -124,6 +127,18 @@ object Decoder10 extends AbstractVersionedDecoder with ServerConstants with Log
       }
    }
 
+   override def readPutAll(header: HotRodHeader, buffer: ChannelBuffer): (RequestParameters, java.util.Map[Array[Byte], Array[Byte]]) = {
+      val lifespan = readLifespanOrMaxIdle(buffer, hasFlag(header, ProtocolFlag.DefaultLifespan))
+      val maxIdle = readLifespanOrMaxIdle(buffer, hasFlag(header, ProtocolFlag.DefaultMaxIdle))
+      val count = readUnsignedInt(buffer)
+      if (isTrace) trace("About to read %d entries for put all", count)
+      // The count is sent by the client, so only entries actually read make the map grow
+      val entries = new java.util.HashMap[Array[Byte], Array[Byte]]()
+      for (i <- 0 until count)
+         entries.put(readKey(buffer), readRangedBytes(buffer))
+      (new RequestParameters(-1, lifespan, maxIdle, -1), entries)
+   }
+
    private def hasFlag(h: HotRodHeader, f: ProtocolFlag): Boolean = {
       (h.flag & f.id) == f.id
    }
@@ -148,7 +163,8 @@ object Decoder10 extends AbstractVersionedDecoder with ServerConstants with Log
       createResponse(header, toResponse(header.op), KeyDoesNotExist, null)
 
    private def createResponse(h: HotRodHeader, op: OperationResponse, st: OperationStatus, prev: Array[Byte]): AnyRef = {
-      if (hasFlag(h, ForceReturnPreviousValue))
+      // Put all has no single previous value to return
+      if (hasFlag(h, ForceReturnPreviousValue) && op != PutAllResponse)
          new ResponseWithPrevious(h.version, h.messageId, h.cacheName,
                h.clientIntel, op, st, h.topologyId, if (prev == null) None else Some(prev))
       else
@@ -238,6 +254,23 @@ object Decoder10 extends AbstractVersionedDecoder with ServerConstants with Log
             val k = readKey(buffer)
             getKeyMetadata(h, k, cache)
          }
+         case GetAllRequest => {
+            val count = readUnsignedInt(buffer)
+            if (isTrace) trace("About to read %d keys for get all", count)
+            // The count is sent by the client, so only keys actually read make the buffers grow
+            val keys = new mutable.ArrayBuffer[Array[Byte]]
+            for (i <- 0 until count)
+               keys += readKey(buffer)
+            // Read all keys in a single pass, only found entries are returned
+            val entries = new mutable.ArrayBuffer[(Array[Byte], Array[Byte])]
+            for (k <- keys) {
+               val entry = cache.getCacheEntry(k)
+               if (entry != null)
+                  entries += ((k, entry.getValue.asInstanceOf[Array[Byte]]))
+            }
+            new GetAllResponse(h.version, h.messageId, h.cacheName, h.clientIntel,
+                  GetAllResponse, Success, h.topologyId, entries)
+         }
       }
    }
 
@@ -276,6 +309,9 @@ object Decoder10 extends AbstractVersionedDecoder with ServerConstants with Log
       stats += ("removeMisses" -> cacheStats.getRemoveMisses.toString)
       stats += ("totalBytesRead" -> t.getTotalBytesRead)
       stats += ("totalBytesWritten" -> t.getTotalBytesWritten)
+      stats += ("totalValueBytesAllocated" -> t.getTotalValueBytesAllocated)
+      stats += ("totalValueBytesCopied" -> t.getTotalValueBytesCopied)
+      stats += ("totalValueBytesWrapped" -> t.getTotalValueBytesWrapped)
       new StatsResponse(h.version, h.messageId, h.cacheName, h.clientIntel,
                         immutable.Map[String, String]() ++ stats, h.topologyId)
    }
@@ -320,6 +356,9 @@ object Decoder10 extends AbstractVersionedDecoder with ServerConstants with Log
          case BulkGetRequest => BulkGetResponse
          case GetWithMetadataRequest => GetWithMetadataResponse
          case BulkGetKeysRequest => BulkGetKeysResponse
+         case PutAllRequest => PutAllResponse
+         case GetAllRequest => GetAllResponse
+         case AddNearCacheListenerRequest => AddNearCacheListenerResponse
       }
    }
 
@@ -342,6 +381,10 @@ object OperationResponse extends Enumeration {
    val BulkGetResponse = Value(0x1A)
    val GetWithMetadataResponse = Value(0x1C)
    val BulkGetKeysResponse = Value(0x1E)
+   val PutAllResponse = Value(0x2E)
+   val GetAllResponse = Value(0x30)
+   val AddNearCacheListenerResponse = Value(0x32)
+   val KeyInvalidatedEvent = Value(0x33)
    val ErrorResponse = Value(0x50)
 }
 
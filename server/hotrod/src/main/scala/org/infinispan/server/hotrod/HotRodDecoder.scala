@@ -31,7 +31,7 @@ import java.nio.channels.ClosedChannelException
 import org.infinispan.{AdvancedCache, Cache}
 import java.io.{IOException, StreamCorruptedException}
 import org.jboss.netty.buffer.ChannelBuffer
-import org.jboss.netty.channel.Channel
+import org.jboss.netty.channel.{ChannelFuture, ChannelFutureListener, Channel}
 import java.lang.StringBuilder
 import org.infinispan.container.entries.CacheEntry
 import org.infinispan.server.hotrod.configuration.HotRodServerConfiguration
@@ -51,6 +51,7 @@ class HotRodDecoder(cacheManager: EmbeddedCacheManager, transport: NettyTranspor
    private var isError = false
 
    private val isTrace = isTraceEnabled
+   private val zeroCopyThreshold = server.getConfiguration.zeroCopyThreshold
 
    protected def createHeader: HotRodHeader = new HotRodHeader
 
@@ -77,7 +78,7 @@ class HotRodDecoder(cacheManager: EmbeddedCacheManager, transport: NettyTranspor
 
       try {
          val decoder = version match {
-            case VERSION_10 | VERSION_11 | VERSION_12 => Decoder10
+            case VERSION_10 | VERSION_11 | VERSION_12 | VERSION_13 | VERSION_14 => Decoder10
             case _ => throw new UnknownVersionException(
                "Unknown version:" + version, version, messageId)
          }
@@ -132,8 +133,13 @@ class HotRodDecoder(cacheManager: EmbeddedCacheManager, transport: NettyTranspor
       endOfOp
    }
 
-   override protected def readValue(b: ChannelBuffer) {
-      b.readBytes(rawValue)
+   override protected def readValue(b: ChannelBuffer): Boolean = {
+      if (zeroCopyThreshold >= 0 && rawValue.length >= zeroCopyThreshold) {
+         readValueChunk(b)
+      } else {
+         b.readBytes(rawValue)
+         true
+      }
    }
 
    override def createValue(): Array[Byte] = rawValue
@@ -153,11 +159,48 @@ class HotRodDecoder(cacheManager: EmbeddedCacheManager, transport: NettyTranspor
    override def createMultiGetResponse(pairs: Map[Array[Byte], CacheEntry]): AnyRef =
       null // Unsupported
 
-   override protected def customDecodeHeader(ch: Channel, buffer: ChannelBuffer): AnyRef =
-      writeResponse(ch, header.decoder.customReadHeader(header, buffer, cache))
+   override protected def customDecodeHeader(ch: Channel, buffer: ChannelBuffer): AnyRef = {
+      header.op match {
+         case HotRodOperation.AddNearCacheListenerRequest => writeResponse(ch, addNearCacheListener(ch))
+         case _ => writeResponse(ch, header.decoder.customReadHeader(header, buffer, cache))
+      }
+   }
+
+   private def addNearCacheListener(ch: Channel): AnyRef = {
+      // In compatibility mode keys are stored unmarshalled, so they cannot
+      // be pushed back to the client as they are
+      if (cache.getCacheConfiguration.compatibility.enabled)
+         return new ErrorResponse(header.version, header.messageId, header.cacheName, header.clientIntel,
+               ServerError, header.topologyId, "Near cache listeners are not supported in compatibility mode")
+
+      // The listener lives as long as the connection, which the client
+      // dedicates to receiving the invalidations
+      val listenedCache = cache
+      val listener = new NearCacheInvalidationListener(ch, header.version, header.cacheName)
+      listenedCache.addListener(listener)
+      ch.getCloseFuture.addListener(new ChannelFutureListener {
+         override def operationComplete(future: ChannelFuture) {
+            listenedCache.removeListener(listener)
+         }
+      })
+      new Response(header.version, header.messageId, header.cacheName, header.clientIntel,
+                   OperationResponse.AddNearCacheListenerResponse, Success, header.topologyId)
+   }
 
-   override protected def customDecodeKey(ch: Channel, buffer: ChannelBuffer): AnyRef =
-      writeResponse(ch, header.decoder.customReadKey(header, buffer, cache))
+   override protected def customDecodeKey(ch: Channel, buffer: ChannelBuffer): AnyRef = {
+      header.op match {
+         case HotRodOperation.PutAllRequest => writeResponse(ch, putAll(buffer))
+         case _ => writeResponse(ch, header.decoder.customReadKey(header, buffer, cache))
+      }
+   }
+
+   private def putAll(buffer: ChannelBuffer): AnyRef = {
+      val (parameters, entries) = header.decoder.readPutAll(header, buffer)
+      params = parameters
+      // All entries share the same metadata and are stored by a single put map command
+      getOptimizedCache(cache).putAll(entries, buildMetadata())
+      header.decoder.createSuccessResponse(header, null)
+   }
 
    override protected def customDecodeValue(ch: Channel, buffer: ChannelBuffer): AnyRef =
       writeResponse(ch, header.decoder.customReadValue(header, buffer, cache))
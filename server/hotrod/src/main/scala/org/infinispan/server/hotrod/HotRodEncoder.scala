@@ -29,6 +29,7 @@ import org.jboss.netty.channel.ChannelHandlerContext
 import org.jboss.netty.handler.codec.oneone.OneToOneEncoder
 import org.jboss.netty.channel.Channel
 import org.infinispan.server.core.transport.ExtendedChannelBuffer._
+import org.infinispan.server.core.transport.ZeroCopyChannelBuffer
 import org.infinispan.remoting.transport.Address
 import org.infinispan.util.Util
 
@@ -45,33 +46,38 @@ class HotRodEncoder(cacheManager: EmbeddedCacheManager, server: HotRodServer)
    private lazy val addressCache: Cache[Address, ServerAddress] =
       if (isClustered) cacheManager.getCache(server.getConfiguration.topologyCacheName) else null
    private val isTrace = isTraceEnabled
+   private val zeroCopyThreshold = server.getConfiguration.zeroCopyThreshold
 
    override def encode(ctx: ChannelHandlerContext, ch: Channel, msg: AnyRef): AnyRef = {
       trace("Encode msg %s", msg)
 
       // Safe cast
       val r = msg.asInstanceOf[Response]
-      val buf = dynamicBuffer
+      val buf = new ZeroCopyChannelBuffer(256, zeroCopyThreshold)
       val encoder = r.version match {
          case VERSION_10 => Encoders.Encoder10
          case VERSION_11 => Encoders.Encoder11
          case VERSION_12 => Encoders.Encoder12
+         case VERSION_13 => Encoders.Encoder13
+         case VERSION_14 => Encoders.Encoder14
          case 0 => Encoders.Encoder12
       }
 
       r.version match {
-         case VERSION_10 | VERSION_11 | VERSION_12 => encoder.writeHeader(r, buf, addressCache, server)
+         case VERSION_10 | VERSION_11 | VERSION_12 | VERSION_13 | VERSION_14 => encoder.writeHeader(r, buf, addressCache, server)
          // if error before reading version, don't send any topology changes
          // cos the encoding might vary from one version to the other
          case 0 => encoder.writeHeader(r, buf, null, null)
       }
 
       encoder.writeResponse(r, buf, cacheManager, server)
+      server.getTransport.updateValueBytesWritten(buf)
+      val response = buf.toResponseBuffer
       if (isTrace)
          trace("Write buffer contents %s to channel %s",
-            Util.hexDump(buf.toByteBuffer), ctx.getChannel)
+            Util.hexDump(response.toByteBuffer), ctx.getChannel)
 
-      buf
+      response
    }
 
 }
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2013 Red Hat, Inc. and/or its affiliates.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA
+ */
+
+package org.infinispan.server.hotrod
+
+import logging.Log
+import org.infinispan.notifications.Listener
+import org.infinispan.notifications.cachelistener.annotation.{CacheEntryInvalidated, CacheEntryRemoved, CacheEntryModified}
+import org.infinispan.notifications.cachelistener.event.{CacheEntryInvalidatedEvent, CacheEntryRemovedEvent, CacheEntryModifiedEvent}
+import org.infinispan.util.Util
+import org.jboss.netty.channel.Channel
+
+/**
+ * Listener pushing the keys of the entries that are modified, removed or
+ * invalidated to a client connection registered as a near cache listener.
+ *
+ * Removals are pushed both before and after they are applied, because
+ * clearing a cache only notifies listeners before removing the entries.
+ * Writing to the channel does not block, so the listener is synchronous and
+ * the invalidation is pushed before the modification is acknowledged.
+ *
+ * Invalidations cannot be dropped, so a client that does not keep up would
+ * make them queue up on the server without bound. Instead, if the channel
+ * stays unwritable for longer than a grace period, it is closed: the client
+ * then clears its near cache and registers again.
+ *
+ * @since 5.3
+ */
+@Listener
+class NearCacheInvalidationListener(ch: Channel, version: Byte, cacheName: String) extends Log {
+
+   private val isTrace = isTraceEnabled
+
+   @volatile private var unwritableSince = 0L
+
+   @CacheEntryModified
+   def entryModified(e: CacheEntryModifiedEvent[Array[Byte], Array[Byte]]) {
+      if (!e.isPre) invalidate(e.getKey)
+   }
+
+   @CacheEntryRemoved
+   def entryRemoved(e: CacheEntryRemovedEvent[Array[Byte], Array[Byte]]) {
+      invalidate(e.getKey)
+   }
+
+   @CacheEntryInvalidated
+   def entryInvalidated(e: CacheEntryInvalidatedEvent[Array[Byte], Array[Byte]]) {
+      if (!e.isPre) invalidate(e.getKey)
+   }
+
+   private def invalidate(key: Array[Byte]) {
+      if (ch.isOpen && !closeIfStalled()) {
+         if (isTrace) trace("Push invalidation of key %s to channel %s", Util.printArray(key, true), ch)
+         ch.write(new KeyInvalidatedEventResponse(version, cacheName, key))
+      }
+   }
+
+   private def closeIfStalled(): Boolean = {
+      if (ch.isWritable) {
+         unwritableSince = 0
+         false
+      } else {
+         val now = System.currentTimeMillis
+         val since = unwritableSince
+         if (since == 0) {
+            unwritableSince = now
+            false
+         } else if (now - since > NearCacheInvalidationListener.MaxUnwritableMillis) {
+            debug("Closing near cache listener channel %s, unwritable for %d ms", ch, now - since)
+            ch.close()
+            true
+         } else {
+            false
+         }
+      }
+   }
+
+}
+
+object NearCacheInvalidationListener {
+   /**
+    * How long the channel may stay unwritable before it is closed.
+    */
+   val MaxUnwritableMillis = 1000L
+}
@@ -110,6 +110,36 @@ class BulkGetKeysResponse(override val version: Byte, override val messageId: Lo
    }
 }
 
+class GetAllResponse(override val version: Byte, override val messageId: Long, override val cacheName: String, override val clientIntel: Short,
+                  override val operation: OperationResponse, override val status: OperationStatus,
+                  override val topologyId: Int, val entries: Seq[(Array[Byte], Array[Byte])])
+      extends Response(version, messageId, cacheName, clientIntel, operation, status, topologyId) {
+   override def toString = {
+      new StringBuilder().append("GetAllResponse").append("{")
+         .append("version=").append(version)
+         .append(", messageId=").append(messageId)
+         .append(", operation=").append(operation)
+         .append(", status=").append(status)
+         .append(", entries=").append(entries.size)
+         .append("}").toString
+   }
+}
+
+/**
+ * Event pushed to near cache listeners, rather than a response to a request,
+ * so it carries no message id and never a topology update.
+ */
+class KeyInvalidatedEventResponse(override val version: Byte, override val cacheName: String, val key: Array[Byte])
+      extends Response(version, 0, cacheName, Constants.INTELLIGENCE_BASIC, KeyInvalidatedEvent, Success, 0) {
+   override def toString = {
+      new StringBuilder().append("KeyInvalidatedEventResponse").append("{")
+         .append("version=").append(version)
+         .append(", cacheName=").append(cacheName)
+         .append(", key=").append(Util.printArray(key, true))
+         .append("}").toString
+   }
+}
+
 class GetWithVersionResponse(override val version: Byte, override val messageId: Long, override val cacheName: String,
                              override val clientIntel: Short, override val operation: OperationResponse,
                              override val status: OperationStatus,
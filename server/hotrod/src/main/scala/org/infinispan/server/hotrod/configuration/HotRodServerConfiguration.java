@@ -31,9 +31,10 @@ public class HotRodServerConfiguration extends ProtocolServerConfiguration {
    private final long topologyLockTimeout;
    private final long topologyReplTimeout;
    private final boolean topologyStateTransfer;
+   private final int zeroCopyThreshold;
 
    HotRodServerConfiguration(String proxyHost, int proxyPort, long topologyLockTimeout, long topologyReplTimeout, boolean topologyStateTransfer,
-         String name, String host, int port, int idleTimeout, int recvBufSize, int sendBufSize, SslConfiguration ssl, boolean tcpNoDelay, int workerThreads) {
+         int zeroCopyThreshold, String name, String host, int port, int idleTimeout, int recvBufSize, int sendBufSize, SslConfiguration ssl, boolean tcpNoDelay, int workerThreads) {
       super(name, host, port, idleTimeout, recvBufSize, sendBufSize, ssl, tcpNoDelay, workerThreads);
       this.proxyHost = proxyHost;
       this.proxyPort = proxyPort;
@@ -41,6 +42,7 @@ public class HotRodServerConfiguration extends ProtocolServerConfiguration {
       this.topologyLockTimeout = topologyLockTimeout;
       this.topologyReplTimeout = topologyReplTimeout;
       this.topologyStateTransfer = topologyStateTransfer;
+      this.zeroCopyThreshold = zeroCopyThreshold;
    }
 
    public String proxyHost() {
@@ -67,9 +69,13 @@ public boolean topologyStateTransfer() {
       return topologyStateTransfer;
    }
 
+   public int zeroCopyThreshold() {
+      return zeroCopyThreshold;
+   }
+
    @Override
    public String toString() {
       return "HotRodServerConfiguration [proxyHost=" + proxyHost + ", proxyPort=" + proxyPort + ", topologyLockTimeout="
-            + topologyLockTimeout + ", topologyReplTimeout=" + topologyReplTimeout + ", topologyStateTransfer=" + topologyStateTransfer + ", " + super.toString() + "]";
+            + topologyLockTimeout + ", topologyReplTimeout=" + topologyReplTimeout + ", topologyStateTransfer=" + topologyStateTransfer + ", zeroCopyThreshold=" + zeroCopyThreshold + ", " + super.toString() + "]";
    }
 }
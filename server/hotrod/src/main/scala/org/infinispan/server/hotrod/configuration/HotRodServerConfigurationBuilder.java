@@ -37,6 +37,7 @@ public class HotRodServerConfigurationBuilder extends ProtocolServerConfiguratio
    private long topologyLockTimeout = 10000L;
    private long topologyReplTimeout = 10000L;
    private boolean topologyStateTransfer = true;
+   private int zeroCopyThreshold = -1;
 
    public HotRodServerConfigurationBuilder() {
       super(11222);
@@ -88,10 +89,21 @@ public HotRodServerConfigurationBuilder topologyStateTransfer(boolean topologySt
       return this;
    }
 
+   /**
+    * Configures the size, in bytes, from which keys and values are no longer copied into response buffers but are
+    * written to the socket straight from the cached byte arrays, and from which request values are read incrementally
+    * instead of being buffered in full before decoding. Useful for workloads with large values. Defaults to -1, which
+    * disables this behaviour.
+    */
+   public HotRodServerConfigurationBuilder zeroCopyThreshold(int zeroCopyThreshold) {
+      this.zeroCopyThreshold = zeroCopyThreshold;
+      return this;
+   }
+
    @Override
    public HotRodServerConfiguration create() {
-      return new HotRodServerConfiguration(proxyHost, proxyPort, topologyLockTimeout, topologyReplTimeout, topologyStateTransfer, name, host, port, idleTimeout,
-            recvBufSize, sendBufSize, ssl.create(), tcpNoDelay, workerThreads);
+      return new HotRodServerConfiguration(proxyHost, proxyPort, topologyLockTimeout, topologyReplTimeout, topologyStateTransfer, zeroCopyThreshold, name, host, port,
+            idleTimeout, recvBufSize, sendBufSize, ssl.create(), tcpNoDelay, workerThreads);
    }
 
    @Override
@@ -102,6 +114,7 @@ public HotRodServerConfigurationBuilder read(HotRodServerConfiguration template)
       this.topologyLockTimeout = template.topologyLockTimeout();
       this.topologyReplTimeout = template.topologyReplTimeout();
       this.topologyStateTransfer = template.topologyStateTransfer();
+      this.zeroCopyThreshold = template.zeroCopyThreshold();
       return this;
    }
 
@@ -0,0 +1,92 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.server.hotrod
+
+import test.HotRodTestingUtil._
+import org.testng.annotations.Test
+import org.infinispan.test.fwk.TestCacheManagerFactory
+import java.lang.reflect.Method
+import org.testng.Assert._
+import org.infinispan.manager.EmbeddedCacheManager
+import org.infinispan.server.hotrod.OperationStatus._
+import org.infinispan.server.hotrod.configuration.HotRodServerConfigurationBuilder
+import org.infinispan.server.hotrod.test._
+
+/**
+ * Tests that values at or above the zero copy threshold are stored and
+ * returned intact, and that they are not copied into response buffers.
+ *
+ * @since 5.3
+ */
+@Test(groups = Array("functional"), testName = "server.hotrod.HotRodZeroCopyTest")
+class HotRodZeroCopyTest extends HotRodSingleNodeTest {
+
+   private val threshold = 1024
+
+   override def createTestCacheManager: EmbeddedCacheManager = {
+      val cfg = hotRodCacheConfiguration()
+      cfg.jmxStatistics().enable()
+      TestCacheManagerFactory.createClusteredCacheManagerEnforceJmxDomain(jmxDomain, cfg)
+   }
+
+   override protected def createStartHotRodServer(cacheManager: EmbeddedCacheManager) = {
+      val builder = new HotRodServerConfigurationBuilder
+      builder.zeroCopyThreshold(threshold)
+      startHotRodServer(cacheManager, UniquePortThreadLocal.get.intValue, builder)
+   }
+
+   def testLargeValue(m: Method) {
+      val value = new Array[Byte](200 * 1024)
+      for (i <- 0 until value.length) value(i) = i.toByte
+      val wrappedBefore = client.stats.get("totalValueBytesWrapped").get.toLong
+
+      assertStatus(client.put(k(m), 0, 0, value), Success)
+      assertSuccess(client.get(k(m), 0), value)
+
+      val s = client.stats
+      assertTrue(s.get("totalValueBytesAllocated").get.toLong >= value.length)
+      assertEquals(s.get("totalValueBytesWrapped").get.toLong, wrappedBefore + value.length)
+   }
+
+   def testSmallValue(m: Method) {
+      val copiedBefore = client.stats.get("totalValueBytesCopied").get.toLong
+      val wrappedBefore = client.stats.get("totalValueBytesWrapped").get.toLong
+
+      client.assertPut(m)
+      assertSuccess(client.assertGet(m), v(m))
+
+      val s = client.stats
+      assertTrue(s.get("totalValueBytesCopied").get.toLong >= copiedBefore + v(m).length)
+      assertEquals(s.get("totalValueBytesWrapped").get.toLong, wrappedBefore)
+   }
+
+   def testValuesAroundThreshold(m: Method) {
+      for (size <- Seq(threshold - 1, threshold, threshold + 1)) {
+         val key = k(m, "k-" + size + "-")
+         val value = Array.fill[Byte](size)(size.toByte)
+         assertStatus(client.put(key, 0, 0, value), Success)
+         assertSuccess(client.get(key, 0), value)
+      }
+   }
+
+}
@@ -209,9 +209,10 @@ class MemcachedDecoder(memcachedCache: AdvancedCache[String, Array[Byte]], sched
       new MemcachedParameters(length, lifespan, -1, streamVersion, noReply, flags, "", 0)
    }
 
-   override protected def readValue(b: ChannelBuffer) {
+   override protected def readValue(b: ChannelBuffer): Boolean = {
       b.readBytes(rawValue)
       skipLine(b) // read the rest of line to clear CRLF after value Byte[]
+      true
    }
 
    override def createValue(): Array[Byte] = rawValue
@@ -24,7 +24,10 @@
 package org.infinispan.spring.mock;
 
 import java.net.SocketAddress;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -56,6 +59,11 @@ public void start(Codec codec, Configuration configuration, AtomicInteger topolo
    public void updateServers(final Collection<SocketAddress> newServers) {
    }
 
+   @Override
+   public Collection<SocketAddress> getServers() {
+      return Collections.emptyList();
+   }
+
    @Override
    public void destroy() {
    }
@@ -70,6 +78,11 @@ public Transport getTransport(final byte[] key) {
       return null;
    }
 
+   @Override
+   public Map<SocketAddress, List<byte[]>> groupKeysByServer(final Collection<byte[]> keys) {
+      return Collections.singletonMap(null, (List<byte[]>) new ArrayList<byte[]>(keys));
+   }
+
    @Override
    public boolean isTcpNoDelay() {
       return false;